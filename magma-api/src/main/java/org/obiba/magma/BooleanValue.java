@@ -0,0 +1,49 @@
+package org.obiba.magma;
+
+import javax.validation.constraints.NotNull;
+
+/**
+ * A non-null {@code Value} of {@code BooleanType} that holds its {@code boolean} inline. There are only two instances
+ * per {@code BooleanType}, see {@code BooleanType#trueValue()} and {@code BooleanType#falseValue()}.
+ */
+public final class BooleanValue extends Value implements ValueLoader {
+
+  private static final long serialVersionUID = -6377403815474209937L;
+
+  private final boolean value;
+
+  BooleanValue(@NotNull ValueType valueType, boolean value) {
+    super(valueType);
+    this.value = value;
+  }
+
+  public boolean booleanValue() {
+    return value;
+  }
+
+  @Override
+  public boolean isNull() {
+    return false;
+  }
+
+  @NotNull
+  @Override
+  public Boolean getValue() {
+    return value;
+  }
+
+  @Override
+  public long getLength() {
+    String str = toString();
+    return str == null ? 0 : str.length();
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if(obj instanceof BooleanValue) {
+      BooleanValue other = (BooleanValue) obj;
+      return value == other.value && getValueType().equals(other.getValueType());
+    }
+    return super.equals(obj);
+  }
+}
@@ -1,5 +1,6 @@
 package org.obiba.magma;
 
+import java.util.Collection;
 import java.util.Set;
 
 import javax.annotation.Nullable;
@@ -22,6 +23,14 @@ public interface DatasourceRegistry {
 
   Datasource addDatasource(DatasourceFactory factory);
 
+  /**
+   * Adds independent datasources, that may be initialised concurrently. Implementations that do not initialise
+   * datasources concurrently can call {@link #addDatasource(Datasource)} for each of them.
+   *
+   * @return the added datasources, as returned by {@link #addDatasource(Datasource)}
+   */
+  Set<Datasource> addDatasources(Collection<? extends Datasource> datasources);
+
   void removeDatasource(Datasource datasource);
 
   String addTransientDatasource(DatasourceFactory factory);
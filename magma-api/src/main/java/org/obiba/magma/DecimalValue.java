@@ -0,0 +1,51 @@
+package org.obiba.magma;
+
+import javax.validation.constraints.NotNull;
+
+/**
+ * A non-null {@code Value} of {@code DecimalType} that holds its {@code double} inline, instead of boxing it in a
+ * separate {@code ValueLoader}.
+ */
+public final class DecimalValue extends Value implements ValueLoader {
+
+  private static final long serialVersionUID = 4651871316540781733L;
+
+  private final double value;
+
+  DecimalValue(@NotNull ValueType valueType, double value) {
+    super(valueType);
+    this.value = value;
+  }
+
+  public double doubleValue() {
+    return value;
+  }
+
+  @Override
+  public boolean isNull() {
+    return false;
+  }
+
+  @NotNull
+  @Override
+  public Double getValue() {
+    return value;
+  }
+
+  @Override
+  public long getLength() {
+    String str = toString();
+    return str == null ? 0 : str.length();
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if(obj instanceof DecimalValue) {
+      // same semantics as Double.equals(): NaN equals NaN, 0.0 does not equal -0.0
+      DecimalValue other = (DecimalValue) obj;
+      return Double.doubleToLongBits(value) == Double.doubleToLongBits(other.value) &&
+          getValueType().equals(other.getValueType());
+    }
+    return super.equals(obj);
+  }
+}
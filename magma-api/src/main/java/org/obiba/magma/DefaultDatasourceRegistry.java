@@ -1,25 +1,42 @@
 package org.obiba.magma;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import javax.annotation.Nullable;
 import javax.validation.constraints.NotNull;
 
+import org.obiba.magma.support.AbstractDatasource;
 import org.obiba.magma.support.Disposables;
 import org.obiba.magma.support.Initialisables;
 import org.obiba.magma.support.ValueTableReference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
+import com.google.common.base.Stopwatch;
 import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 
 public class DefaultDatasourceRegistry implements DatasourceRegistry, Disposable {
 
+  private static final Logger log = LoggerFactory.getLogger(DefaultDatasourceRegistry.class);
+
   private final Map<String, Datasource> datasources = Maps.newHashMap();
 
   private final Map<String, DatasourceFactory> transientDatasourceFactories = Maps.newHashMap();
@@ -28,6 +45,53 @@ public class DefaultDatasourceRegistry implements DatasourceRegistry, Disposable
 
   private final Set<Decorator<Datasource>> decorators = Sets.newHashSet();
 
+  private boolean lazyTableInitialisation;
+
+  @Nullable
+  private Executor tableInitialisationExecutor;
+
+  private int initialisationParallelism = 1;
+
+  private final Map<String, Long> initialisationTimes = Maps.newConcurrentMap();
+
+  /**
+   * When enabled, the tables of the datasources added afterwards are initialised on first access instead of when the
+   * datasource is added. Only applies to datasources extending {@link AbstractDatasource}.
+   *
+   * @see AbstractDatasource#setLazyTableInitialisation(boolean)
+   */
+  public void setLazyTableInitialisation(boolean lazyTableInitialisation) {
+    this.lazyTableInitialisation = lazyTableInitialisation;
+  }
+
+  /**
+   * When lazy table initialisation is enabled, tables that were not accessed yet are initialised in the background
+   * using this executor after their datasource is added. Tables of a same datasource are initialised one at a time.
+   *
+   * @param tableInitialisationExecutor null for no background initialisation
+   */
+  public void setTableInitialisationExecutor(@Nullable Executor tableInitialisationExecutor) {
+    this.tableInitialisationExecutor = tableInitialisationExecutor;
+  }
+
+  /**
+   * Maximum number of datasources initialised concurrently by {@link #addDatasources(Collection)}, 1 (the default)
+   * initialises them one after the other on the calling thread. Above 1, datasources are initialised on other threads:
+   * datasources that need a resource bound to the calling thread, such as the current Hibernate session, are not
+   * supported and must be added with parallelism 1 or with {@link #addDatasource(Datasource)}.
+   */
+  public void setInitialisationParallelism(int initialisationParallelism) {
+    Preconditions.checkArgument(initialisationParallelism > 0, "initialisationParallelism must be positive");
+    this.initialisationParallelism = initialisationParallelism;
+  }
+
+  /**
+   * Returns the time spent initialising each registered datasource, in milliseconds, by datasource name.
+   */
+  public Map<String, Long> getInitialisationTimes() {
+    return ImmutableMap.copyOf(initialisationTimes);
+  }
+
   @Override
   public void dispose() {
     for(Datasource ds : datasources.values()) {
@@ -79,20 +143,176 @@ public class DefaultDatasourceRegistry implements DatasourceRegistry, Disposable
   public Datasource addDatasource(Datasource datasource) {
     // Repeatedly added datasources are silently ignored. They cannot be added to the set more than once.
     if(!datasources.containsValue(datasource)) {
-      Datasource existing = datasources.get(datasource.getName());
-      if(existing != null) {
-        // Unique datasources with identical names cause exceptions.
-        throw new DuplicateDatasourceNameException(existing, datasource);
-      }
-
-      Datasource decorated = decorateDatasource(datasource);
-      Initialisables.initialise(decorated);
-      datasources.put(decorated.getName(), decorated);
+      checkDuplicateName(datasource, datasources.get(datasource.getName()));
+      Datasource decorated = prepareDatasource(datasource);
+      initialiseDatasource(decorated);
+      registerDatasource(datasource, decorated);
       return decorated;
     }
     return datasource;
   }
 
+  /**
+   * Adds the datasources, initialising at most {@link #setInitialisationParallelism(int)} of them concurrently. The
+   * datasources that were successfully initialised are registered even if others fail, the first failure is then
+   * thrown. When the parallelism is 1 or there is a single datasource to add, they are initialised on the calling
+   * thread.
+   */
+  @Override
+  public Set<Datasource> addDatasources(Collection<? extends Datasource> datasourcesToAdd) {
+    ImmutableSet.Builder<Datasource> added = ImmutableSet.builder();
+    Map<String, Datasource> pending = Maps.newLinkedHashMap();
+    for(Datasource datasource : datasourcesToAdd) {
+      if(datasources.containsValue(datasource) || pending.containsValue(datasource)) {
+        added.add(datasource);
+      } else {
+        Datasource existing = datasources.get(datasource.getName());
+        checkDuplicateName(datasource, existing == null ? pending.get(datasource.getName()) : existing);
+        pending.put(datasource.getName(), datasource);
+      }
+    }
+    if(pending.isEmpty()) return added.build();
+
+    if(initialisationParallelism == 1 || pending.size() == 1) {
+      addSequentially(pending.values(), added);
+    } else {
+      addConcurrently(pending.values(), added);
+    }
+    return added.build();
+  }
+
+  private void addSequentially(Collection<Datasource> pending, ImmutableSet.Builder<Datasource> added) {
+    RuntimeException failure = null;
+    for(Datasource datasource : pending) {
+      Datasource decorated = prepareDatasource(datasource);
+      try {
+        initialiseDatasource(decorated);
+      } catch(RuntimeException e) {
+        if(failure == null) failure = e;
+        else failure.addSuppressed(e);
+        continue;
+      }
+      registerDatasource(datasource, decorated);
+      added.add(decorated);
+    }
+    if(failure != null) throw failure;
+  }
+
+  private void addConcurrently(Collection<Datasource> pending, ImmutableSet.Builder<Datasource> added) {
+    ExecutorService executor = Executors.newFixedThreadPool(Math.min(initialisationParallelism, pending.size()));
+    List<Datasource> decorated = Lists.newArrayList();
+    final InitialisationBatch batch = new InitialisationBatch(pending.size());
+    int registered = 0;
+    try {
+      List<Future<?>> initialisations = Lists.newArrayList();
+      for(Datasource datasource : pending) {
+        final Datasource toInitialise = prepareDatasource(datasource);
+        final int index = decorated.size();
+        decorated.add(toInitialise);
+        initialisations.add(executor.submit(new Callable<Void>() {
+          @Override
+          public Void call() {
+            initialiseDatasource(toInitialise);
+            batch.initialised(index, toInitialise);
+            return null;
+          }
+        }));
+      }
+
+      RuntimeException failure = null;
+      for(Datasource datasource : pending) {
+        try {
+          initialisations.get(registered).get();
+          registerDatasource(datasource, decorated.get(registered));
+          added.add(decorated.get(registered));
+        } catch(ExecutionException e) {
+          RuntimeException cause = e.getCause() instanceof RuntimeException
+              ? (RuntimeException) e.getCause()
+              : new MagmaRuntimeException(e.getCause());
+          if(failure == null) failure = cause;
+          else failure.addSuppressed(cause);
+        }
+        registered++;
+      }
+      if(failure != null) throw failure;
+    } catch(InterruptedException e) {
+      // datasources that are not registered yet are disposed, now or when their initialisation completes
+      batch.abandon(registered, decorated);
+      Thread.currentThread().interrupt();
+      throw new MagmaRuntimeException(e);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Tracks the datasources initialised by {@link #addDatasources(Collection)}, so that the ones initialised after the
+   * calling thread was interrupted are disposed instead of being left open.
+   */
+  private class InitialisationBatch {
+
+    private final boolean[] initialised;
+
+    private int abandonedFrom = -1;
+
+    private InitialisationBatch(int size) {
+      initialised = new boolean[size];
+    }
+
+    private synchronized void initialised(int index, Datasource datasource) {
+      if(abandonedFrom >= 0 && index >= abandonedFrom) {
+        dispose(datasource);
+      } else {
+        initialised[index] = true;
+      }
+    }
+
+    /**
+     * Disposes the initialised datasources from the given index, and the ones that are initialised afterwards.
+     */
+    private synchronized void abandon(int from, List<Datasource> datasources) {
+      abandonedFrom = from;
+      for(int i = from; i < datasources.size(); i++) {
+        if(initialised[i]) dispose(datasources.get(i));
+      }
+    }
+
+    private void dispose(Datasource datasource) {
+      initialisationTimes.remove(datasource.getName());
+      Disposables.silentlyDispose(datasource);
+    }
+  }
+
+  private void checkDuplicateName(Datasource datasource, @Nullable Datasource existing) {
+    if(existing != null) {
+      // Unique datasources with identical names cause exceptions.
+      throw new DuplicateDatasourceNameException(existing, datasource);
+    }
+  }
+
+  private Datasource prepareDatasource(Datasource datasource) {
+    if(lazyTableInitialisation && datasource instanceof AbstractDatasource) {
+      ((AbstractDatasource) datasource).setLazyTableInitialisation(true);
+    }
+    return decorateDatasource(datasource);
+  }
+
+  private void initialiseDatasource(Datasource datasource) {
+    Stopwatch stopwatch = Stopwatch.createStarted();
+    Initialisables.initialise(datasource);
+    long elapsed = stopwatch.elapsed(TimeUnit.MILLISECONDS);
+    initialisationTimes.put(datasource.getName(), elapsed);
+    log.info("Datasource {} initialised in {} ms", datasource.getName(), elapsed);
+  }
+
+  private void registerDatasource(Datasource datasource, Datasource decorated) {
+    datasources.put(decorated.getName(), decorated);
+    if(tableInitialisationExecutor != null && datasource instanceof AbstractDatasource &&
+        ((AbstractDatasource) datasource).isLazyTableInitialisation()) {
+      ((AbstractDatasource) datasource).initialiseValueTables(tableInitialisationExecutor);
+    }
+  }
+
   private Datasource decorateDatasource(Datasource datasource) {
     Datasource decorated = datasource;
     for(Decorator<Datasource> decorator : decorators) {
@@ -117,6 +337,7 @@ public class DefaultDatasourceRegistry implements DatasourceRegistry, Disposable
   public void removeDatasource(Datasource datasource) {
     releaseDatasource(datasource);
     datasources.remove(datasource.getName());
+    initialisationTimes.remove(datasource.getName());
     Disposables.silentlyDispose(datasource);
   }
 
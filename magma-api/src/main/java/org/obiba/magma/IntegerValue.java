@@ -0,0 +1,49 @@
+package org.obiba.magma;
+
+import javax.validation.constraints.NotNull;
+
+/**
+ * A non-null {@code Value} of {@code IntegerType} that holds its {@code long} inline, instead of boxing it in a
+ * separate {@code ValueLoader}.
+ */
+public final class IntegerValue extends Value implements ValueLoader {
+
+  private static final long serialVersionUID = -2216424826421633617L;
+
+  private final long value;
+
+  IntegerValue(@NotNull ValueType valueType, long value) {
+    super(valueType);
+    this.value = value;
+  }
+
+  public long longValue() {
+    return value;
+  }
+
+  @Override
+  public boolean isNull() {
+    return false;
+  }
+
+  @NotNull
+  @Override
+  public Long getValue() {
+    return value;
+  }
+
+  @Override
+  public long getLength() {
+    String str = toString();
+    return str == null ? 0 : str.length();
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if(obj instanceof IntegerValue) {
+      IntegerValue other = (IntegerValue) obj;
+      return value == other.value && getValueType().equals(other.getValueType());
+    }
+    return super.equals(obj);
+  }
+}
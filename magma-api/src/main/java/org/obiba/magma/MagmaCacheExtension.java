@@ -7,6 +7,10 @@ public class MagmaCacheExtension implements MagmaEngineExtension {
 
   private static final long serialVersionUID = -6089615244332195129L;
 
+  public static final String VARIABLE_ENTITIES_CACHE = "magma-table-entities";
+
+  public static final String VALUE_SETS_CACHE = "magma-value-sets";
+
   private transient CacheManager cacheManager;
 
   public MagmaCacheExtension() {
@@ -27,11 +31,19 @@ public class MagmaCacheExtension implements MagmaEngineExtension {
   }
 
   public boolean hasVariableEntitiesCache() {
-    return hasCacheManager() && cacheManager.getCache("magma-table-entities") != null;
+    return hasCacheManager() && cacheManager.getCache(VARIABLE_ENTITIES_CACHE) != null;
   }
 
   public Cache getVariableEntitiesCache() {
-    return cacheManager.getCache("magma-table-entities");
+    return cacheManager.getCache(VARIABLE_ENTITIES_CACHE);
+  }
+
+  public boolean hasValueSetsCache() {
+    return hasCacheManager() && cacheManager.getCache(VALUE_SETS_CACHE) != null;
+  }
+
+  public Cache getValueSetsCache() {
+    return cacheManager.getCache(VALUE_SETS_CACHE);
   }
 
   public boolean hasCacheManager() {
@@ -136,6 +136,11 @@ public class MagmaEngine implements DatasourceRegistry {
     return getDatasourceRegistry().addDatasource(factory);
   }
 
+  @Override
+  public Set<Datasource> addDatasources(Collection<? extends Datasource> datasources) {
+    return getDatasourceRegistry().addDatasources(datasources);
+  }
+
   @Override
   public void addDecorator(Decorator<Datasource> decorator) {
     getDatasourceRegistry().addDecorator(decorator);
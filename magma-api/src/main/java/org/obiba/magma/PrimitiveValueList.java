@@ -0,0 +1,201 @@
+package org.obiba.magma;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.RandomAccess;
+
+import javax.annotation.Nullable;
+import javax.validation.constraints.NotNull;
+
+import org.obiba.magma.type.DecimalType;
+import org.obiba.magma.type.IntegerType;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+
+/**
+ * Immutable storage of the values of a {@code ValueSequence}. Integer and decimal values are stored in a primitive
+ * array (plus the positions of the null values), the {@code Value} instances being created on access. Other values are
+ * stored in an unmodifiable list.
+ */
+abstract class PrimitiveValueList extends AbstractList<Value> implements RandomAccess, Serializable {
+
+  private static final long serialVersionUID = 3816302464539367291L;
+
+  @NotNull
+  protected final ValueType valueType;
+
+  /**
+   * Positions of the null values.
+   */
+  @NotNull
+  protected final BitSet nulls;
+
+  private PrimitiveValueList(@NotNull ValueType valueType, @NotNull BitSet nulls) {
+    this.valueType = valueType;
+    this.nulls = nulls;
+  }
+
+  /**
+   * Returns an immutable list of the values, in a primitive array when possible.
+   *
+   * @param valueType
+   * @param values
+   * @return
+   */
+  @NotNull
+  static List<Value> copyOf(@NotNull ValueType valueType, @NotNull Iterable<Value> values) {
+    if(values instanceof PrimitiveValueList) {
+      return (List<Value>) values;
+    }
+    List<Value> list = values instanceof List && values instanceof RandomAccess
+        ? (List<Value>) values
+        : Lists.newArrayList(values);
+    PrimitiveValueList primitives = null;
+    if(valueType instanceof IntegerType) {
+      primitives = LongValueList.copyOf(valueType, list);
+    } else if(valueType instanceof DecimalType) {
+      primitives = DoubleValueList.copyOf(valueType, list);
+    }
+    if(primitives != null) return primitives;
+    if(values instanceof ImmutableList) return list;
+    return Collections.unmodifiableList(list == values ? Lists.newArrayList(list) : list);
+  }
+
+  /**
+   * Returns a copy of this list sorted in the natural order of the values, null values first.
+   *
+   * @return
+   */
+  @NotNull
+  abstract PrimitiveValueList sort();
+
+  @Override
+  public Value get(int index) {
+    if(index < 0 || index >= size()) throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+    return nulls.get(index) ? valueType.nullValue() : getNonNull(index);
+  }
+
+  @NotNull
+  protected abstract Value getNonNull(int index);
+
+  protected BitSet sortedNulls() {
+    BitSet sorted = new BitSet();
+    sorted.set(0, nulls.cardinality());
+    return sorted;
+  }
+
+  private static final class LongValueList extends PrimitiveValueList {
+
+    private static final long serialVersionUID = -5215906096264315846L;
+
+    private final long[] values;
+
+    private LongValueList(@NotNull ValueType valueType, @NotNull BitSet nulls, @NotNull long[] values) {
+      super(valueType, nulls);
+      this.values = values;
+    }
+
+    @Nullable
+    private static LongValueList copyOf(ValueType valueType, List<Value> list) {
+      BitSet nulls = new BitSet();
+      long[] values = new long[list.size()];
+      for(int i = 0; i < values.length; i++) {
+        Value value = list.get(i);
+        if(value == null || value.getValueType() != valueType) {
+          return null;
+        }
+        if(value instanceof IntegerValue) {
+          values[i] = ((IntegerValue) value).longValue();
+        } else if(value.isNull() && !value.isSequence()) {
+          nulls.set(i);
+        } else {
+          return null;
+        }
+      }
+      return new LongValueList(valueType, nulls, values);
+    }
+
+    @Override
+    public int size() {
+      return values.length;
+    }
+
+    @NotNull
+    @Override
+    protected Value getNonNull(int index) {
+      return ((IntegerType) valueType).valueOf(values[index]);
+    }
+
+    @NotNull
+    @Override
+    PrimitiveValueList sort() {
+      int nullCount = nulls.cardinality();
+      long[] sorted = new long[values.length];
+      for(int i = 0, j = nullCount; i < values.length; i++) {
+        if(!nulls.get(i)) sorted[j++] = values[i];
+      }
+      Arrays.sort(sorted, nullCount, sorted.length);
+      return new LongValueList(valueType, sortedNulls(), sorted);
+    }
+  }
+
+  private static final class DoubleValueList extends PrimitiveValueList {
+
+    private static final long serialVersionUID = 2311652379813385519L;
+
+    private final double[] values;
+
+    private DoubleValueList(@NotNull ValueType valueType, @NotNull BitSet nulls, @NotNull double[] values) {
+      super(valueType, nulls);
+      this.values = values;
+    }
+
+    @Nullable
+    private static DoubleValueList copyOf(ValueType valueType, List<Value> list) {
+      BitSet nulls = new BitSet();
+      double[] values = new double[list.size()];
+      for(int i = 0; i < values.length; i++) {
+        Value value = list.get(i);
+        if(value == null || value.getValueType() != valueType) {
+          return null;
+        }
+        if(value instanceof DecimalValue) {
+          values[i] = ((DecimalValue) value).doubleValue();
+        } else if(value.isNull() && !value.isSequence()) {
+          nulls.set(i);
+        } else {
+          return null;
+        }
+      }
+      return new DoubleValueList(valueType, nulls, values);
+    }
+
+    @Override
+    public int size() {
+      return values.length;
+    }
+
+    @NotNull
+    @Override
+    protected Value getNonNull(int index) {
+      return ((DecimalType) valueType).valueOf(values[index]);
+    }
+
+    @NotNull
+    @Override
+    PrimitiveValueList sort() {
+      int nullCount = nulls.cardinality();
+      double[] sorted = new double[values.length];
+      for(int i = 0, j = nullCount; i < values.length; i++) {
+        if(!nulls.get(i)) sorted[j++] = values[i];
+      }
+      Arrays.sort(sorted, nullCount, sorted.length);
+      return new DoubleValueList(valueType, sortedNulls(), sorted);
+    }
+  }
+}
@@ -0,0 +1,21 @@
+package org.obiba.magma;
+
+import java.io.InputStream;
+
+import javax.validation.constraints.NotNull;
+
+/**
+ * A {@link ValueLoader} of binary values that can provide the content of the value as a stream, without loading it in
+ * memory.
+ */
+public interface StreamingValueLoader extends ValueLoader {
+
+  /**
+   * Open a stream on the content of the value. The caller is responsible for closing it.
+   *
+   * @return
+   */
+  @NotNull
+  InputStream getInputStream();
+
+}
@@ -1,5 +1,7 @@
 package org.obiba.magma;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
 import java.io.Serializable;
 
 import javax.annotation.Nullable;
@@ -30,6 +32,19 @@ public class Value implements Serializable, Comparable<Value> {
     this.valueLoader = valueLoader == null ? new StaticValueLoader(null) : valueLoader;
   }
 
+  /**
+   * Constructor of the values that hold their value inline, without a separate {@code ValueLoader} instance: the value
+   * is its own loader.
+   *
+   * @param valueType
+   */
+  Value(@NotNull ValueType valueType) {
+    if(valueType == null) throw new IllegalArgumentException("valueType cannot be null");
+    if(!(this instanceof ValueLoader)) throw new IllegalStateException("inline value must be a ValueLoader");
+    this.valueType = valueType;
+    valueLoader = (ValueLoader) this;
+  }
+
   @NotNull
   public Value copy() {
     return valueType.valueOf(valueLoader.getValue());
@@ -52,6 +67,27 @@ public class Value implements Serializable, Comparable<Value> {
     return valueLoader.isNull();
   }
 
+  /**
+   * Open a stream on the content of a binary value. The content is not loaded in memory if the value is loaded by a
+   * {@link StreamingValueLoader}. The caller is responsible for closing the stream.
+   *
+   * @return
+   */
+  @NotNull
+  public InputStream getInputStream() {
+    if(isNull()) {
+      throw new NullPointerException("Value is null");
+    }
+    if(valueLoader instanceof StreamingValueLoader) {
+      return ((StreamingValueLoader) valueLoader).getInputStream();
+    }
+    Object value = valueLoader.getValue();
+    if(!(value instanceof byte[])) {
+      throw new IllegalStateException("value is not binary");
+    }
+    return new ByteArrayInputStream((byte[]) value);
+  }
+
   public long getLength() {
     if(isNull()) return 0;
     try {
@@ -100,11 +136,14 @@ public class Value implements Serializable, Comparable<Value> {
     if(obj == null) {
       return false;
     }
-    if(getClass() != obj.getClass()) {
+    if(!(obj instanceof Value)) {
       return false;
     }
 
     Value other = (Value) obj;
+    if(isSequence() != other.isSequence()) {
+      return false;
+    }
     // Shortcut
     Object val = valueLoader.getValue();
     Object otherVal = other.valueLoader.getValue();
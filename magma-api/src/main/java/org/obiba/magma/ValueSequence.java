@@ -23,7 +23,7 @@ public class ValueSequence extends Value {
   private static final long serialVersionUID = -1965362009370797808L;
 
   ValueSequence(@NotNull ValueType valueType, @Nullable Iterable<Value> values) {
-    super(valueType, (Serializable) values);
+    super(valueType, values == null ? null : (Serializable) PrimitiveValueList.copyOf(valueType, values));
   }
 
   @Override
@@ -58,6 +58,9 @@ public class ValueSequence extends Value {
    * {@code ValueSequence}s of those types will not be modified by this method.
    */
   public ValueSequence sort() {
+    if(getValue() instanceof PrimitiveValueList) {
+      return getValueType().sequenceOf(((PrimitiveValueList) getValue()).sort());
+    }
     return getValueType().sequenceOf(Ordering.natural().immutableSortedCopy(getValue()));
   }
 
@@ -95,13 +98,15 @@ public class ValueSequence extends Value {
   }
 
   /**
-   * Returns an ordered view of the values.
+   * Returns an ordered view of the values. The values are held in an immutable list, so this does not copy them.
    *
    * @return
    */
   @NotNull
   public List<Value> getValues() {
-    return isNull() ? ImmutableList.<Value>of() : ImmutableList.copyOf(getValue());
+    if(isNull()) return ImmutableList.of();
+    Iterable<Value> values = getValue();
+    return values instanceof List ? (List<Value>) values : ImmutableList.copyOf(values);
   }
 
   /**
@@ -6,6 +6,10 @@ import java.util.Comparator;
 import javax.annotation.Nullable;
 import javax.validation.constraints.NotNull;
 
+import org.obiba.magma.type.BooleanType;
+import org.obiba.magma.type.DecimalType;
+import org.obiba.magma.type.IntegerType;
+
 /**
  * Provides a common interface for all types of values available in the {@code MagmaEngine}. Through this interface,
  * callers may obtain information on the type's nature, obtain {@code Value} instances from Java objects and convert
@@ -74,6 +78,31 @@ public interface ValueType extends Serializable, Comparator<Value> {
       return new Value(type, valueLoader);
     }
 
+    /**
+     * Returns a new {@code Value} instance that holds the specified {@code long} inline.
+     */
+    @NotNull
+    public static IntegerValue newValue(@NotNull IntegerType type, long value) {
+      return new IntegerValue(type, value);
+    }
+
+    /**
+     * Returns a new {@code Value} instance that holds the specified {@code double} inline.
+     */
+    @NotNull
+    public static DecimalValue newValue(@NotNull DecimalType type, double value) {
+      return new DecimalValue(type, value);
+    }
+
+    /**
+     * Returns a new {@code Value} instance that holds the specified {@code boolean} inline. Prefer
+     * {@link BooleanType#valueOf(boolean)} which returns the canonical instances.
+     */
+    @NotNull
+    public static BooleanValue newValue(@NotNull BooleanType type, boolean value) {
+      return new BooleanValue(type, value);
+    }
+
     @NotNull
     public static ValueSequence newSequence(@NotNull ValueType type, @Nullable Iterable<Value> values) {
       return new ValueSequence(type, values);
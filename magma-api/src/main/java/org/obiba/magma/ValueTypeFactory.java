@@ -2,10 +2,14 @@ package org.obiba.magma;
 
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashSet;
+import java.util.HashMap;
 import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.annotation.Nullable;
 import javax.validation.constraints.NotNull;
@@ -31,40 +35,55 @@ import org.obiba.magma.type.TextType;
 import com.google.common.base.Predicate;
 import com.google.common.collect.Iterables;
 
+/**
+ * Registry of the value types and of the converters between them.
+ * <p/>
+ * Lookups are served from hash indexes: types by lower case name and converters by (from, to) types are indexed once
+ * the built-in types are registered, types by Java class are indexed on first lookup of each class (as it depends on
+ * the class hierarchy).
+ */
 class ValueTypeFactory {
 
-  private final Set<ValueType> types = new HashSet<>();
+  private final Set<ValueType> types = new LinkedHashSet<>();
 
   private final Collection<ValueConverter> converters = new LinkedHashSet<>();
 
+  private final Map<String, ValueType> typesByName;
+
+  private final ConcurrentMap<Class<?>, ValueType> typesByClass = new ConcurrentHashMap<>();
+
+  private final Map<ValueType, Map<ValueType, ValueConverter>> convertersByType;
+
   ValueTypeFactory() {
     registerBuiltInTypes();
+    typesByName = indexTypesByName();
+    convertersByType = indexConvertersByType();
   }
 
   ValueType forClass(final Class<?> javaClass) {
-    try {
-      return Iterables.find(types, new Predicate<ValueType>() {
-        @Override
-        public boolean apply(ValueType input) {
-          return input.acceptsJavaClass(javaClass);
-        }
-      });
-    } catch(NoSuchElementException e) {
-      throw new IllegalArgumentException("No ValueType for Java type " + javaClass.getName());
+    ValueType type = typesByClass.get(javaClass);
+    if(type == null) {
+      try {
+        type = Iterables.find(types, new Predicate<ValueType>() {
+          @Override
+          public boolean apply(ValueType input) {
+            return input.acceptsJavaClass(javaClass);
+          }
+        });
+      } catch(NoSuchElementException e) {
+        throw new IllegalArgumentException("No ValueType for Java type " + javaClass.getName());
+      }
+      typesByClass.putIfAbsent(javaClass, type);
     }
+    return type;
   }
 
-  ValueType forName(@Nullable final String name) {
-    try {
-      return Iterables.find(types, new Predicate<ValueType>() {
-        @Override
-        public boolean apply(ValueType input) {
-          return input.getName().equalsIgnoreCase(name);
-        }
-      });
-    } catch(NoSuchElementException e) {
+  ValueType forName(@Nullable String name) {
+    ValueType type = name == null ? null : typesByName.get(name.toLowerCase(Locale.ENGLISH));
+    if(type == null) {
       throw new IllegalArgumentException("No ValueType named " + name);
     }
+    return type;
   }
 
   Set<ValueType> getValueTypes() {
@@ -73,6 +92,10 @@ class ValueTypeFactory {
 
   @NotNull
   ValueConverter converterFor(final ValueType from, final ValueType to) {
+    Map<ValueType, ValueConverter> fromConverters = convertersByType.get(from);
+    ValueConverter converter = fromConverters == null ? null : fromConverters.get(to);
+    if(converter != null) return converter;
+    // types that are not registered
     try {
       return Iterables.find(converters, new Predicate<ValueConverter>() {
 
@@ -86,6 +109,34 @@ class ValueTypeFactory {
     }
   }
 
+  private Map<String, ValueType> indexTypesByName() {
+    Map<String, ValueType> index = new HashMap<>();
+    for(ValueType type : types) {
+      index.put(type.getName().toLowerCase(Locale.ENGLISH), type);
+    }
+    return index;
+  }
+
+  /**
+   * Indexes the first converter (in order of registration) for each pair of registered types.
+   */
+  private Map<ValueType, Map<ValueType, ValueConverter>> indexConvertersByType() {
+    Map<ValueType, Map<ValueType, ValueConverter>> index = new HashMap<>();
+    for(ValueType from : types) {
+      Map<ValueType, ValueConverter> fromConverters = new HashMap<>();
+      for(ValueType to : types) {
+        for(ValueConverter converter : converters) {
+          if(converter.converts(from, to)) {
+            fromConverters.put(to, converter);
+            break;
+          }
+        }
+      }
+      index.put(from, fromConverters);
+    }
+    return index;
+  }
+
   private void registerBuiltInTypes() {
     types.add(TextType.get());
     types.add(LocaleType.get());
@@ -0,0 +1,32 @@
+package org.obiba.magma.cache;
+
+import java.io.Serializable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.annotation.Nullable;
+
+import org.obiba.magma.Value;
+
+/**
+ * The values of a value set that were read so far, by variable name.
+ */
+public class CachedValues implements Serializable {
+
+  private static final long serialVersionUID = -4385108474413880716L;
+
+  private final ConcurrentMap<String, Value> values = new ConcurrentHashMap<>();
+
+  @Nullable
+  public Value get(String variableName) {
+    return values.get(variableName);
+  }
+
+  public void put(String variableName, Value value) {
+    values.put(variableName, value);
+  }
+
+  public int size() {
+    return values.size();
+  }
+}
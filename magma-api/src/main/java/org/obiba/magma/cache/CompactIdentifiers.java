@@ -0,0 +1,220 @@
+package org.obiba.magma.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import javax.validation.constraints.NotNull;
+
+/**
+ * A sorted dictionary of distinct identifiers, encoded in a direct (off-heap) buffer.
+ * <p/>
+ * The UTF-8 bytes of each identifier are stored after the length of the prefix it shares with the previous one (front
+ * coding). Every {@link #RESTART_INTERVAL} identifiers, an identifier is stored in full and its offset is recorded in
+ * the index of restart points, so that a lookup is a binary search over the restart points followed by a short scan.
+ * The buffer is only read with absolute gets, so this dictionary can be read concurrently.
+ * <pre>
+ *   count | restart count | restart offsets... | (shared length | suffix length | suffix bytes)...
+ * </pre>
+ */
+final class CompactIdentifiers implements Iterable<String> {
+
+  static final int RESTART_INTERVAL = 16;
+
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  private static final int HEADER_SIZE = 8;
+
+  @NotNull
+  private final ByteBuffer buffer;
+
+  private final int size;
+
+  private final int restartCount;
+
+  private final int dataOffset;
+
+  private CompactIdentifiers(@NotNull ByteBuffer buffer) {
+    this.buffer = buffer;
+    size = buffer.getInt(0);
+    restartCount = buffer.getInt(4);
+    dataOffset = HEADER_SIZE + 4 * restartCount;
+  }
+
+  /**
+   * Encodes the given identifiers, which are sorted and deduplicated first.
+   *
+   * @param identifiers
+   * @return
+   */
+  static CompactIdentifiers encode(@NotNull String... identifiers) {
+    String[] sorted = identifiers.clone();
+    Arrays.sort(sorted);
+
+    ByteArrayOutputStream data = new ByteArrayOutputStream();
+    int[] restarts = new int[(sorted.length + RESTART_INTERVAL - 1) / RESTART_INTERVAL];
+    int count = 0;
+    byte[] previous = null;
+    String previousIdentifier = null;
+    for(String identifier : sorted) {
+      if(identifier.equals(previousIdentifier)) continue;
+      byte[] bytes = identifier.getBytes(UTF_8);
+      int shared = 0;
+      if(count % RESTART_INTERVAL == 0) {
+        restarts[count / RESTART_INTERVAL] = data.size();
+      } else {
+        shared = sharedPrefixLength(previous, bytes);
+      }
+      writeVarInt(data, shared);
+      writeVarInt(data, bytes.length - shared);
+      data.write(bytes, shared, bytes.length - shared);
+      previous = bytes;
+      previousIdentifier = identifier;
+      count++;
+    }
+
+    int restartCount = (count + RESTART_INTERVAL - 1) / RESTART_INTERVAL;
+    ByteBuffer buffer = ByteBuffer.allocateDirect(HEADER_SIZE + 4 * restartCount + data.size());
+    buffer.putInt(count).putInt(restartCount);
+    for(int i = 0; i < restartCount; i++) {
+      buffer.putInt(restarts[i]);
+    }
+    buffer.put(data.toByteArray());
+    return new CompactIdentifiers(buffer);
+  }
+
+  int size() {
+    return size;
+  }
+
+  /**
+   * @return the number of bytes used by this dictionary, off-heap
+   */
+  int getBytes() {
+    return buffer.capacity();
+  }
+
+  boolean contains(@NotNull String identifier) {
+    if(size == 0) return false;
+
+    // last restart point whose identifier is not greater than the given one
+    int low = 0;
+    int high = restartCount - 1;
+    while(low < high) {
+      int mid = (low + high + 1) >>> 1;
+      int comparison = readRestartIdentifier(mid).compareTo(identifier);
+      if(comparison == 0) return true;
+      if(comparison < 0) {
+        low = mid;
+      } else {
+        high = mid - 1;
+      }
+    }
+
+    Cursor cursor = new Cursor(low);
+    for(int i = 0; i < RESTART_INTERVAL && cursor.hasNext(); i++) {
+      int comparison = cursor.next().compareTo(identifier);
+      if(comparison == 0) return true;
+      if(comparison > 0) return false;
+    }
+    return false;
+  }
+
+  @Override
+  public Iterator<String> iterator() {
+    return new Cursor(0);
+  }
+
+  private String readRestartIdentifier(int restart) {
+    int position = dataOffset + buffer.getInt(HEADER_SIZE + 4 * restart);
+    // skip the shared length, which is always 0 at a restart point
+    position++;
+    int length = 0;
+    int shift = 0;
+    byte b;
+    do {
+      b = buffer.get(position++);
+      length |= (b & 0x7f) << shift;
+      shift += 7;
+    } while(b < 0);
+    byte[] bytes = new byte[length];
+    for(int i = 0; i < length; i++) {
+      bytes[i] = buffer.get(position + i);
+    }
+    return new String(bytes, UTF_8);
+  }
+
+  private static int sharedPrefixLength(byte[] previous, byte[] bytes) {
+    int max = Math.min(previous.length, bytes.length);
+    int length = 0;
+    while(length < max && previous[length] == bytes[length]) {
+      length++;
+    }
+    return length;
+  }
+
+  private static void writeVarInt(ByteArrayOutputStream out, int value) {
+    int v = value;
+    while((v & ~0x7f) != 0) {
+      out.write(v & 0x7f | 0x80);
+      v >>>= 7;
+    }
+    out.write(v);
+  }
+
+  /**
+   * Decodes the identifiers one after the other, from a restart point.
+   */
+  private class Cursor implements Iterator<String> {
+
+    private int position;
+
+    private int remaining;
+
+    private byte[] current = new byte[32];
+
+    private Cursor(int restart) {
+      position = size == 0 ? dataOffset : dataOffset + buffer.getInt(HEADER_SIZE + 4 * restart);
+      remaining = size - restart * RESTART_INTERVAL;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return remaining > 0;
+    }
+
+    @Override
+    public String next() {
+      if(remaining <= 0) throw new NoSuchElementException();
+      int shared = readVarInt();
+      int suffixLength = readVarInt();
+      int length = shared + suffixLength;
+      if(length > current.length) current = Arrays.copyOf(current, Math.max(length, current.length * 2));
+      for(int i = 0; i < suffixLength; i++) {
+        current[shared + i] = buffer.get(position++);
+      }
+      remaining--;
+      return new String(current, 0, length, UTF_8);
+    }
+
+    private int readVarInt() {
+      int value = 0;
+      int shift = 0;
+      byte b;
+      do {
+        b = buffer.get(position++);
+        value |= (b & 0x7f) << shift;
+        shift += 7;
+      } while(b < 0);
+      return value;
+    }
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException();
+    }
+  }
+}
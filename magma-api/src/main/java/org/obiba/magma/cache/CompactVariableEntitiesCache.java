@@ -0,0 +1,197 @@
+package org.obiba.magma.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+import javax.validation.constraints.NotNull;
+
+import org.obiba.magma.MagmaCacheExtension;
+import org.obiba.magma.support.VariableEntitiesCache;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+/**
+ * A {@link Cache} of the entities of the tables ({@link VariableEntitiesCache} values) that keeps the entity
+ * identifiers off-heap, in sorted and front coded dictionaries (see {@link CompactIdentifiers}). It is meant to be the
+ * {@link MagmaCacheExtension#VARIABLE_ENTITIES_CACHE} region of the cache manager of the {@link MagmaCacheExtension}:
+ * <pre>
+ *   SimpleCacheManager cacheManager = new SimpleCacheManager();
+ *   cacheManager.setCaches(ImmutableList.of(new CompactVariableEntitiesCache(256 * 1024 * 1024)));
+ *   cacheManager.afterPropertiesSet();
+ *   MagmaEngine.get().extend(new MagmaCacheExtension(cacheManager));
+ * </pre>
+ * The least recently used entries are evicted when the identifiers use more than the maximum number of bytes. The
+ * cached entities are not copied on-heap when read: they are a {@link java.util.Set} that decodes the identifiers on
+ * demand and that iterates over the entities in their natural order.
+ */
+public class CompactVariableEntitiesCache implements Cache {
+
+  public static final long DEFAULT_MAXIMUM_BYTES = 64 * 1024 * 1024;
+
+  @NotNull
+  private final String name;
+
+  private final long maximumBytes;
+
+  private final Object lock = new Object();
+
+  private final LinkedHashMap<Object, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+  private long bytes;
+
+  public CompactVariableEntitiesCache() {
+    this(DEFAULT_MAXIMUM_BYTES);
+  }
+
+  public CompactVariableEntitiesCache(long maximumBytes) {
+    this(MagmaCacheExtension.VARIABLE_ENTITIES_CACHE, maximumBytes);
+  }
+
+  /**
+   * @param name
+   * @param maximumBytes maximum number of bytes used off-heap by the cached identifiers
+   */
+  @SuppressWarnings("ConstantConditions")
+  public CompactVariableEntitiesCache(@NotNull String name, long maximumBytes) {
+    if(name == null) throw new IllegalArgumentException("name cannot be null");
+    if(maximumBytes <= 0) throw new IllegalArgumentException("maximumBytes must be positive");
+    this.name = name;
+    this.maximumBytes = maximumBytes;
+  }
+
+  @Override
+  public String getName() {
+    return name;
+  }
+
+  @Override
+  public Object getNativeCache() {
+    return this;
+  }
+
+  @Nullable
+  @Override
+  public ValueWrapper get(Object key) {
+    Entry entry;
+    synchronized(lock) {
+      entry = entries.get(key);
+    }
+    return entry == null ? null : new SimpleValueWrapper(entry.toVariableEntitiesCache());
+  }
+
+  @Nullable
+  @Override
+  public <T> T get(Object key, Class<T> type) {
+    ValueWrapper wrapper = get(key);
+    Object value = wrapper == null ? null : wrapper.get();
+    if(value != null && type != null && !type.isInstance(value)) {
+      throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+    }
+    //noinspection unchecked
+    return (T) value;
+  }
+
+  @Override
+  public void put(Object key, Object value) {
+    Entry entry = encode(value);
+    synchronized(lock) {
+      store(key, entry);
+    }
+  }
+
+  @Nullable
+  @Override
+  public ValueWrapper putIfAbsent(Object key, Object value) {
+    synchronized(lock) {
+      Entry existing = entries.get(key);
+      if(existing != null) return new SimpleValueWrapper(existing.toVariableEntitiesCache());
+    }
+    Entry entry = encode(value);
+    synchronized(lock) {
+      Entry existing = entries.get(key);
+      if(existing != null) return new SimpleValueWrapper(existing.toVariableEntitiesCache());
+      store(key, entry);
+    }
+    return null;
+  }
+
+  @Override
+  public void evict(Object key) {
+    synchronized(lock) {
+      Entry removed = entries.remove(key);
+      if(removed != null) bytes -= removed.getBytes();
+    }
+  }
+
+  @Override
+  public void clear() {
+    synchronized(lock) {
+      entries.clear();
+      bytes = 0;
+    }
+  }
+
+  /**
+   * @return the number of cached entries
+   */
+  public int size() {
+    synchronized(lock) {
+      return entries.size();
+    }
+  }
+
+  /**
+   * @return the number of bytes used off-heap by the cached identifiers
+   */
+  public long getBytes() {
+    synchronized(lock) {
+      return bytes;
+    }
+  }
+
+  private void store(Object key, Entry entry) {
+    Entry replaced = entries.remove(key);
+    if(replaced != null) bytes -= replaced.getBytes();
+    // entities that would evict all the others are not cached
+    if(entry.getBytes() > maximumBytes) return;
+
+    entries.put(key, entry);
+    bytes += entry.getBytes();
+    Iterator<Map.Entry<Object, Entry>> eldest = entries.entrySet().iterator();
+    while(bytes > maximumBytes) {
+      bytes -= eldest.next().getValue().getBytes();
+      eldest.remove();
+    }
+  }
+
+  private static Entry encode(Object value) {
+    if(!(value instanceof VariableEntitiesCache)) {
+      throw new IllegalArgumentException(
+          "Only " + VariableEntitiesCache.class.getSimpleName() + " values can be cached: " + value);
+    }
+    VariableEntitiesCache entitiesCache = (VariableEntitiesCache) value;
+    return new Entry(CompactVariableEntitySet.copyOf(entitiesCache.getEntities()), entitiesCache.getLastUpdate());
+  }
+
+  private static class Entry {
+
+    private final CompactVariableEntitySet entities;
+
+    private final long lastUpdate;
+
+    private Entry(CompactVariableEntitySet entities, long lastUpdate) {
+      this.entities = entities;
+      this.lastUpdate = lastUpdate;
+    }
+
+    private int getBytes() {
+      return entities.getBytes();
+    }
+
+    private VariableEntitiesCache toVariableEntitiesCache() {
+      return new VariableEntitiesCache(entities, lastUpdate);
+    }
+  }
+}
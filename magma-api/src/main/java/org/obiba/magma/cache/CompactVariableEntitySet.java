@@ -0,0 +1,127 @@
+package org.obiba.magma.cache;
+
+import java.io.Serializable;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.SortedMap;
+
+import javax.validation.constraints.NotNull;
+
+import org.obiba.magma.VariableEntity;
+import org.obiba.magma.support.VariableEntityBean;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.ListMultimap;
+
+/**
+ * An immutable set of entities whose identifiers are kept off-heap, in a {@link CompactIdentifiers} dictionary per
+ * entity type. The entities are created on demand while iterating, in their natural order.
+ */
+class CompactVariableEntitySet extends AbstractSet<VariableEntity> implements Serializable {
+
+  private static final long serialVersionUID = -3553707735870627165L;
+
+  @NotNull
+  private final transient SortedMap<String, CompactIdentifiers> identifiers;
+
+  private final transient int size;
+
+  private final transient int bytes;
+
+  private CompactVariableEntitySet(@NotNull SortedMap<String, CompactIdentifiers> identifiers) {
+    this.identifiers = identifiers;
+    int entities = 0;
+    int total = 0;
+    for(CompactIdentifiers typeIdentifiers : identifiers.values()) {
+      entities += typeIdentifiers.size();
+      total += typeIdentifiers.getBytes();
+    }
+    size = entities;
+    bytes = total;
+  }
+
+  static CompactVariableEntitySet copyOf(@NotNull Collection<VariableEntity> entities) {
+    ListMultimap<String, String> identifiersByType = ArrayListMultimap.create();
+    for(VariableEntity entity : entities) {
+      identifiersByType.put(entity.getType(), entity.getIdentifier());
+    }
+    ImmutableSortedMap.Builder<String, CompactIdentifiers> identifiers = ImmutableSortedMap.naturalOrder();
+    for(Map.Entry<String, Collection<String>> entry : identifiersByType.asMap().entrySet()) {
+      Collection<String> typeIdentifiers = entry.getValue();
+      identifiers.put(entry.getKey(),
+          CompactIdentifiers.encode(typeIdentifiers.toArray(new String[typeIdentifiers.size()])));
+    }
+    return new CompactVariableEntitySet(identifiers.build());
+  }
+
+  /**
+   * @return the number of bytes used by the identifiers, off-heap
+   */
+  int getBytes() {
+    return bytes;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public boolean contains(Object o) {
+    if(!(o instanceof VariableEntity)) return false;
+    VariableEntity entity = (VariableEntity) o;
+    CompactIdentifiers typeIdentifiers = identifiers.get(entity.getType());
+    return typeIdentifiers != null && typeIdentifiers.contains(entity.getIdentifier());
+  }
+
+  @Override
+  public Iterator<VariableEntity> iterator() {
+    Iterator<VariableEntity>[] iterators = new EntityIterator[identifiers.size()];
+    int i = 0;
+    for(Map.Entry<String, CompactIdentifiers> entry : identifiers.entrySet()) {
+      iterators[i++] = new EntityIterator(entry.getKey(), entry.getValue().iterator());
+    }
+    return Iterators.concat(iterators);
+  }
+
+  /**
+   * The off-heap identifiers cannot be serialized, the entities are copied on-heap instead.
+   *
+   * @return
+   */
+  private Object writeReplace() {
+    return ImmutableSet.copyOf(this);
+  }
+
+  private static class EntityIterator implements Iterator<VariableEntity> {
+
+    private final String entityType;
+
+    private final Iterator<String> identifiers;
+
+    private EntityIterator(String entityType, Iterator<String> identifiers) {
+      this.entityType = entityType;
+      this.identifiers = identifiers;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return identifiers.hasNext();
+    }
+
+    @Override
+    public VariableEntity next() {
+      return new VariableEntityBean(entityType, identifiers.next());
+    }
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException();
+    }
+  }
+}
@@ -0,0 +1,98 @@
+package org.obiba.magma.cache;
+
+/**
+ * Estimates how often keys were recently used, with a count-min sketch of 4-bit counters (see TinyLFU). The counters
+ * are halved when the number of increments reaches ten times the number of tracked keys, so that the estimates reflect
+ * the recent accesses.
+ * <p/>
+ * This class is not thread safe.
+ */
+class FrequencySketch {
+
+  private static final int[] SEEDS = { 0x97cb3127, 0xb492b66f, 0x9ae16a3b, 0xcbf29ce4 };
+
+  private static final long MAX_COUNT = 15;
+
+  private static final long HALF_MASK = 0x7777777777777777L;
+
+  /**
+   * Sixteen 4-bit counters per long.
+   */
+  private final long[] table;
+
+  private final int counterMask;
+
+  private final int sampleSize;
+
+  private int additions;
+
+  /**
+   * @param maximumSize the number of keys to be tracked
+   */
+  FrequencySketch(long maximumSize) {
+    int counters = Integer.highestOneBit((int) Math.max(16, Math.min(maximumSize, 1 << 24)) - 1) << 3;
+    table = new long[counters >>> 4];
+    counterMask = counters - 1;
+    sampleSize = (int) Math.min(Integer.MAX_VALUE, 10 * Math.max(1, maximumSize));
+  }
+
+  /**
+   * Returns the estimated number of recent accesses to the key, at most 15.
+   *
+   * @param key
+   * @return
+   */
+  int frequency(Object key) {
+    int hash = spread(key.hashCode());
+    long frequency = MAX_COUNT;
+    for(int seed : SEEDS) {
+      frequency = Math.min(frequency, count(indexOf(hash, seed)));
+    }
+    return (int) frequency;
+  }
+
+  /**
+   * Records an access to the key.
+   *
+   * @param key
+   */
+  void increment(Object key) {
+    int hash = spread(key.hashCode());
+    boolean added = false;
+    for(int seed : SEEDS) {
+      int index = indexOf(hash, seed);
+      if(count(index) < MAX_COUNT) {
+        table[index >>> 4] += 1L << offset(index);
+        added = true;
+      }
+    }
+    if(added && ++additions == sampleSize) {
+      halve();
+    }
+  }
+
+  private void halve() {
+    for(int i = 0; i < table.length; i++) {
+      table[i] = table[i] >>> 1 & HALF_MASK;
+    }
+    additions /= 2;
+  }
+
+  private long count(int index) {
+    return table[index >>> 4] >>> offset(index) & MAX_COUNT;
+  }
+
+  private int indexOf(int hash, int seed) {
+    int h = hash * seed;
+    return (h ^ h >>> 16) & counterMask;
+  }
+
+  private static int offset(int index) {
+    return (index & 15) << 2;
+  }
+
+  private static int spread(int hash) {
+    int h = hash * 0x9e3779b9;
+    return h ^ h >>> 15;
+  }
+}
@@ -0,0 +1,230 @@
+package org.obiba.magma.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nullable;
+
+import org.obiba.magma.MagmaCacheExtension;
+import org.obiba.magma.MagmaEngine;
+import org.obiba.magma.metrics.Metrics;
+import org.springframework.cache.Cache;
+
+import com.google.common.collect.Maps;
+
+/**
+ * Keeps the values of value sets, in two tiers.
+ * <p/>
+ * The first tier is in memory and holds at most {@code maximumSize} value sets. Its eviction policy follows W-TinyLFU:
+ * value sets enter a small LRU window, and a value set evicted from the window only takes the place of the least
+ * recently used value set of the main space when it was looked up more often recently (see {@link FrequencySketch}).
+ * This way a scan of a whole table does not evict the value sets that are read again and again.
+ * <p/>
+ * The value sets evicted from the first tier are put in the second tier, if any: either the given {@link Cache} or the
+ * {@link MagmaCacheExtension#VALUE_SETS_CACHE} cache of the {@link MagmaCacheExtension}. Depending on its
+ * implementation, this cache can be off-heap or on disk.
+ * <p/>
+ * Keys are made of the table reference, a generation of the table that is increased on each invalidation, the last
+ * update of the table and the entity identifier: the value sets of a previous state of a table are never returned, and
+ * they are eventually evicted.
+ */
+public class ValueSetCache {
+
+  public static final long DEFAULT_MAXIMUM_SIZE = 10000;
+
+  /**
+   * Share of the first tier given to the window, in percent.
+   */
+  private static final int WINDOW_PERCENT = 1;
+
+  private final long windowSize;
+
+  private final long mainSize;
+
+  private final Map<String, CachedValues> window = new LinkedHashMap<>(16, 0.75f, true);
+
+  private final Map<String, CachedValues> main = new LinkedHashMap<>(16, 0.75f, true);
+
+  private final FrequencySketch sketch;
+
+  private final ConcurrentMap<String, AtomicInteger> generations = new ConcurrentHashMap<>();
+
+  @Nullable
+  private final Cache secondTier;
+
+  public ValueSetCache() {
+    this(DEFAULT_MAXIMUM_SIZE);
+  }
+
+  public ValueSetCache(long maximumSize) {
+    this(maximumSize, null);
+  }
+
+  /**
+   * @param maximumSize maximum number of value sets in the first tier
+   * @param secondTier the second tier, the {@link MagmaCacheExtension#VALUE_SETS_CACHE} cache if null
+   */
+  public ValueSetCache(long maximumSize, @Nullable Cache secondTier) {
+    if(maximumSize < 1) throw new IllegalArgumentException("maximumSize must be positive");
+    windowSize = Math.max(1, maximumSize * WINDOW_PERCENT / 100);
+    mainSize = maximumSize - windowSize;
+    sketch = new FrequencySketch(maximumSize);
+    this.secondTier = secondTier;
+  }
+
+  /**
+   * Returns the prefix of the keys of the value sets of a table.
+   *
+   * @param tableReference
+   * @param lastUpdate time of the last update of the table
+   * @return
+   */
+  public String keyPrefix(String tableReference, long lastUpdate) {
+    return tableReference + ';' + getGeneration(tableReference).get() + ';' + lastUpdate + ';';
+  }
+
+  /**
+   * Returns the cached values, from the first tier or else from the second tier, null if there are none.
+   *
+   * @param key
+   * @return
+   */
+  @Nullable
+  public CachedValues get(String key) {
+    CachedValues values;
+    synchronized(this) {
+      sketch.increment(key);
+      values = window.get(key);
+      if(values == null) values = main.get(key);
+    }
+    if(values == null) {
+      values = getFromSecondTier(key);
+      if(values != null) add(key, values);
+    }
+    Metrics.increment(values == null ? Metrics.CACHE_MISS : Metrics.CACHE_HIT, MagmaCacheExtension.VALUE_SETS_CACHE);
+    return values;
+  }
+
+  public void put(String key, CachedValues values) {
+    add(key, values);
+  }
+
+  /**
+   * Invalidates the value sets of a table. They are not removed at once but they are never returned again, and are
+   * evicted as other value sets are added.
+   *
+   * @param tableReference
+   */
+  public void invalidateTable(String tableReference) {
+    getGeneration(tableReference).incrementAndGet();
+  }
+
+  /**
+   * Invalidates the value sets of the tables of a datasource.
+   *
+   * @param datasourceName
+   */
+  public void invalidateDatasource(String datasourceName) {
+    String prefix = datasourceName + '.';
+    for(Map.Entry<String, AtomicInteger> entry : generations.entrySet()) {
+      if(entry.getKey().startsWith(prefix)) entry.getValue().incrementAndGet();
+    }
+  }
+
+  /**
+   * Removes all the value sets, from both tiers.
+   */
+  public void clear() {
+    synchronized(this) {
+      window.clear();
+      main.clear();
+    }
+    Cache cache = getSecondTier();
+    if(cache != null) cache.clear();
+  }
+
+  /**
+   * Returns the number of value sets in the first tier.
+   *
+   * @return
+   */
+  public synchronized int size() {
+    return window.size() + main.size();
+  }
+
+  private void add(String key, CachedValues values) {
+    Map.Entry<String, CachedValues> evicted;
+    synchronized(this) {
+      if(main.containsKey(key)) {
+        main.put(key, values);
+        return;
+      }
+      window.put(key, values);
+      if(window.size() <= windowSize) return;
+      Iterator<Map.Entry<String, CachedValues>> eldest = window.entrySet().iterator();
+      Map.Entry<String, CachedValues> candidate = copyOf(eldest.next());
+      eldest.remove();
+      evicted = admit(candidate);
+    }
+    if(evicted != null) {
+      Cache cache = getSecondTier();
+      if(cache != null) cache.put(evicted.getKey(), evicted.getValue());
+    }
+  }
+
+  /**
+   * Moves the value set evicted from the window to the main space, unless the main space is full and its least recently
+   * used value set was looked up more often recently.
+   *
+   * @param candidate
+   * @return the value set evicted from the first tier, if any
+   */
+  @Nullable
+  private Map.Entry<String, CachedValues> admit(Map.Entry<String, CachedValues> candidate) {
+    if(main.size() < mainSize) {
+      main.put(candidate.getKey(), candidate.getValue());
+      return null;
+    }
+    if(mainSize == 0) return candidate;
+    Iterator<Map.Entry<String, CachedValues>> eldest = main.entrySet().iterator();
+    Map.Entry<String, CachedValues> victim = copyOf(eldest.next());
+    if(sketch.frequency(candidate.getKey()) <= sketch.frequency(victim.getKey())) return candidate;
+    eldest.remove();
+    main.put(candidate.getKey(), candidate.getValue());
+    return victim;
+  }
+
+  private static Map.Entry<String, CachedValues> copyOf(Map.Entry<String, CachedValues> entry) {
+    return Maps.immutableEntry(entry.getKey(), entry.getValue());
+  }
+
+  @Nullable
+  private CachedValues getFromSecondTier(String key) {
+    Cache cache = getSecondTier();
+    return cache == null ? null : cache.get(key, CachedValues.class);
+  }
+
+  @Nullable
+  private Cache getSecondTier() {
+    if(secondTier != null) return secondTier;
+    if(MagmaEngine.isInstantiated() && MagmaEngine.get().hasExtension(MagmaCacheExtension.class)) {
+      MagmaCacheExtension cacheExtension = MagmaEngine.get().getExtension(MagmaCacheExtension.class);
+      if(cacheExtension.hasValueSetsCache()) return cacheExtension.getValueSetsCache();
+    }
+    return null;
+  }
+
+  private AtomicInteger getGeneration(String tableReference) {
+    AtomicInteger generation = generations.get(tableReference);
+    if(generation == null) {
+      AtomicInteger newGeneration = new AtomicInteger();
+      generation = generations.putIfAbsent(tableReference, newGeneration);
+      if(generation == null) generation = newGeneration;
+    }
+    return generation;
+  }
+}
@@ -0,0 +1,88 @@
+package org.obiba.magma.cache;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.validation.constraints.NotNull;
+
+import org.obiba.magma.Datasource;
+import org.obiba.magma.Decorator;
+import org.obiba.magma.Disposable;
+import org.obiba.magma.ValueTable;
+import org.obiba.magma.ValueTableUpdateListener;
+import org.obiba.magma.Variable;
+
+/**
+ * Caches the values of the value sets read from the decorated datasources (see {@link ValueSetCachingDatasource}), so
+ * that entities that are read again and again are not loaded each time from slow datasources:
+ * <pre>
+ *   MagmaEngine.get().addDecorator(new ValueSetCacheDecorator(new ValueSetCache(50000)));
+ * </pre>
+ * Changes made outside of the decorated datasources are detected with the last update of the tables. Changes that do
+ * not update it can be notified to this decorator as a {@link ValueTableUpdateListener}.
+ */
+public class ValueSetCacheDecorator implements Decorator<Datasource>, ValueTableUpdateListener, Disposable {
+
+  public static final long DEFAULT_TIMESTAMPS_CHECK_INTERVAL = TimeUnit.SECONDS.toMillis(1);
+
+  @NotNull
+  private final ValueSetCache cache;
+
+  private final long timestampsCheckInterval;
+
+  public ValueSetCacheDecorator() {
+    this(new ValueSetCache());
+  }
+
+  public ValueSetCacheDecorator(@NotNull ValueSetCache cache) {
+    this(cache, DEFAULT_TIMESTAMPS_CHECK_INTERVAL);
+  }
+
+  /**
+   * @param cache
+   * @param timestampsCheckInterval time in milliseconds during which the last update of a table is not read again
+   */
+  @SuppressWarnings("ConstantConditions")
+  public ValueSetCacheDecorator(@NotNull ValueSetCache cache, long timestampsCheckInterval) {
+    if(cache == null) throw new IllegalArgumentException("cache cannot be null");
+    if(timestampsCheckInterval < 0) throw new IllegalArgumentException("timestampsCheckInterval cannot be negative");
+    this.cache = cache;
+    this.timestampsCheckInterval = timestampsCheckInterval;
+  }
+
+  public ValueSetCache getCache() {
+    return cache;
+  }
+
+  @Override
+  public Datasource decorate(Datasource datasource) {
+    if(datasource == null) throw new IllegalArgumentException("datasource cannot be null");
+    if(datasource instanceof ValueSetCachingDatasource) return datasource;
+    return new ValueSetCachingDatasource(datasource, cache, timestampsCheckInterval);
+  }
+
+  @Override
+  public void release(Datasource datasource) {
+    cache.invalidateDatasource(datasource.getName());
+  }
+
+  @Override
+  public void onRename(@NotNull ValueTable vt, String newName) {
+    cache.invalidateTable(vt.getTableReference());
+    cache.invalidateTable(ValueTable.Reference.getReference(vt.getDatasource().getName(), newName));
+  }
+
+  @Override
+  public void onRename(@NotNull ValueTable vt, Variable v, String newName) {
+    cache.invalidateTable(vt.getTableReference());
+  }
+
+  @Override
+  public void onDelete(@NotNull ValueTable vt) {
+    cache.invalidateTable(vt.getTableReference());
+  }
+
+  @Override
+  public void dispose() {
+    cache.clear();
+  }
+}
@@ -0,0 +1,149 @@
+package org.obiba.magma.cache;
+
+import java.util.Set;
+
+import javax.validation.constraints.NotNull;
+
+import org.obiba.magma.Datasource;
+import org.obiba.magma.NoSuchValueTableException;
+import org.obiba.magma.Value;
+import org.obiba.magma.ValueTable;
+import org.obiba.magma.ValueTableWriter;
+import org.obiba.magma.Variable;
+import org.obiba.magma.VariableEntity;
+import org.obiba.magma.support.AbstractDatasourceWrapper;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * A datasource whose tables keep the values read from their value sets in a {@link ValueSetCache} (see
+ * {@link ValueSetCachingValueTable}). The cached value sets of a table are invalidated when the table is written,
+ * renamed or dropped through this datasource.
+ */
+public class ValueSetCachingDatasource extends AbstractDatasourceWrapper {
+
+  @NotNull
+  private final ValueSetCache cache;
+
+  private final long timestampsCheckInterval;
+
+  /**
+   * The caching table of each table of the wrapped datasource, so that the last update of a table is read once per
+   * check interval.
+   */
+  private final LoadingCache<ValueTable, ValueSetCachingValueTable> tables;
+
+  /**
+   * @param wrapped
+   * @param cache
+   * @param timestampsCheckInterval time in milliseconds during which the last update of a table is not read again
+   */
+  public ValueSetCachingDatasource(@NotNull Datasource wrapped, @NotNull final ValueSetCache cache,
+      final long timestampsCheckInterval) {
+    super(wrapped);
+    this.cache = cache;
+    this.timestampsCheckInterval = timestampsCheckInterval;
+    tables = CacheBuilder.newBuilder().weakKeys().build(new CacheLoader<ValueTable, ValueSetCachingValueTable>() {
+      @Override
+      public ValueSetCachingValueTable load(ValueTable table) throws Exception {
+        return new ValueSetCachingValueTable(ValueSetCachingDatasource.this, table, cache, timestampsCheckInterval);
+      }
+    });
+  }
+
+  @Override
+  public ValueTable getValueTable(String name) throws NoSuchValueTableException {
+    return tables.getUnchecked(super.getValueTable(name));
+  }
+
+  @Override
+  public Set<ValueTable> getValueTables() {
+    ImmutableSet.Builder<ValueTable> valueTables = ImmutableSet.builder();
+    for(ValueTable table : super.getValueTables()) {
+      valueTables.add(tables.getUnchecked(table));
+    }
+    return valueTables.build();
+  }
+
+  @NotNull
+  @Override
+  public ValueTableWriter createWriter(@NotNull String tableName, @NotNull String entityType) {
+    return new InvalidatingValueTableWriter(super.createWriter(tableName, entityType), getTableReference(tableName));
+  }
+
+  @Override
+  public void dropTable(String name) {
+    super.dropTable(name);
+    cache.invalidateTable(getTableReference(name));
+  }
+
+  @Override
+  public void renameTable(String name, String newName) {
+    super.renameTable(name, newName);
+    cache.invalidateTable(getTableReference(name));
+    cache.invalidateTable(getTableReference(newName));
+  }
+
+  @Override
+  public void drop() {
+    super.drop();
+    cache.invalidateDatasource(getName());
+  }
+
+  private String getTableReference(String tableName) {
+    return ValueTable.Reference.getReference(getName(), tableName);
+  }
+
+  /**
+   * Invalidates the cached value sets of the table each time a value set is written, and when the writer is closed.
+   */
+  private class InvalidatingValueTableWriter implements ValueTableWriter {
+
+    private final ValueTableWriter wrapped;
+
+    private final String tableReference;
+
+    private InvalidatingValueTableWriter(ValueTableWriter wrapped, String tableReference) {
+      this.wrapped = wrapped;
+      this.tableReference = tableReference;
+    }
+
+    @Override
+    public VariableWriter writeVariables() {
+      return wrapped.writeVariables();
+    }
+
+    @NotNull
+    @Override
+    public ValueSetWriter writeValueSet(@NotNull VariableEntity entity) {
+      final ValueSetWriter valueSetWriter = wrapped.writeValueSet(entity);
+      return new ValueSetWriter() {
+        @Override
+        public void writeValue(@NotNull Variable variable, Value value) {
+          valueSetWriter.writeValue(variable, value);
+        }
+
+        @Override
+        public void remove() {
+          valueSetWriter.remove();
+          cache.invalidateTable(tableReference);
+        }
+
+        @Override
+        public void close() {
+          valueSetWriter.close();
+          cache.invalidateTable(tableReference);
+        }
+      };
+    }
+
+    @Override
+    public void close() {
+      wrapped.close();
+      cache.invalidateTable(tableReference);
+    }
+  }
+}
@@ -0,0 +1,191 @@
+package org.obiba.magma.cache;
+
+import java.util.Date;
+
+import javax.annotation.Nullable;
+import javax.validation.constraints.NotNull;
+
+import org.obiba.magma.Datasource;
+import org.obiba.magma.NoSuchValueSetException;
+import org.obiba.magma.NoSuchVariableException;
+import org.obiba.magma.Timestamps;
+import org.obiba.magma.Value;
+import org.obiba.magma.ValueSet;
+import org.obiba.magma.ValueTable;
+import org.obiba.magma.Variable;
+import org.obiba.magma.VariableEntity;
+import org.obiba.magma.VariableValueSource;
+import org.obiba.magma.support.AbstractValueTableWrapper;
+import org.obiba.magma.support.AbstractVariableValueSourceWrapper;
+
+/**
+ * A table that keeps the values read from its value sets in a {@link ValueSetCache}, so that the values of an entity
+ * that is read again are not loaded from the wrapped table.
+ * <p/>
+ * Only the value sets of a table that has a last update are cached. The last update is read at most once per
+ * {@code timestampsCheckInterval} milliseconds and each change makes the cached value sets of the table obsolete.
+ * Iterations over all the value sets of the table, vector reads and binary values are not cached.
+ */
+public class ValueSetCachingValueTable extends AbstractValueTableWrapper {
+
+  @NotNull
+  private final ValueSetCachingDatasource datasource;
+
+  @NotNull
+  private final ValueTable wrapped;
+
+  @NotNull
+  private final ValueSetCache cache;
+
+  private final long timestampsCheckInterval;
+
+  @Nullable
+  private volatile LastUpdate lastUpdate;
+
+  ValueSetCachingValueTable(@NotNull ValueSetCachingDatasource datasource, @NotNull ValueTable wrapped,
+      @NotNull ValueSetCache cache, long timestampsCheckInterval) {
+    this.datasource = datasource;
+    this.wrapped = wrapped;
+    this.cache = cache;
+    this.timestampsCheckInterval = timestampsCheckInterval;
+  }
+
+  @NotNull
+  @Override
+  public Datasource getDatasource() {
+    return datasource;
+  }
+
+  @Override
+  public ValueTable getWrappedValueTable() {
+    return wrapped;
+  }
+
+  @Override
+  public ValueSet getValueSet(VariableEntity entity) throws NoSuchValueSetException {
+    String keyPrefix = getKeyPrefix();
+    if(keyPrefix == null) return super.getValueSet(entity);
+
+    String key = keyPrefix + entity.getIdentifier();
+    CachedValues values = cache.get(key);
+    ValueSet valueSet = null;
+    if(values == null) {
+      // also checks that the entity has a value set
+      valueSet = super.getValueSet(entity);
+      values = new CachedValues();
+      cache.put(key, values);
+    }
+    return new CachingValueSet(entity, values, valueSet);
+  }
+
+  @Override
+  public Value getValue(Variable variable, ValueSet valueSet) {
+    if(valueSet instanceof CachingValueSet && valueSet.getValueTable() == this) {
+      return getVariableValueSource(variable.getName()).getValue(valueSet);
+    }
+    return super.getValue(variable, valueSet);
+  }
+
+  @Override
+  public VariableValueSource getVariableValueSource(String variableName) throws NoSuchVariableException {
+    return new CachingVariableValueSource(super.getVariableValueSource(variableName));
+  }
+
+  /**
+   * Returns the prefix of the cache keys of the value sets, null when the table has no last update.
+   *
+   * @return
+   */
+  @Nullable
+  private String getKeyPrefix() {
+    long now = System.currentTimeMillis();
+    LastUpdate current = lastUpdate;
+    if(current == null || now - current.checkedAt >= timestampsCheckInterval) {
+      Value value = getWrappedValueTable().getTimestamps().getLastUpdate();
+      current = new LastUpdate(value.isNull() ? null : ((Date) value.getValue()).getTime(), now);
+      lastUpdate = current;
+    }
+    return current.time == null ? null : cache.keyPrefix(getTableReference(), current.time);
+  }
+
+  private static class LastUpdate {
+
+    @Nullable
+    private final Long time;
+
+    private final long checkedAt;
+
+    private LastUpdate(@Nullable Long time, long checkedAt) {
+      this.time = time;
+      this.checkedAt = checkedAt;
+    }
+  }
+
+  /**
+   * A value set of the table, the value set of the wrapped table being loaded only when a value is not cached.
+   */
+  private class CachingValueSet implements ValueSet {
+
+    private final VariableEntity entity;
+
+    private final CachedValues values;
+
+    @Nullable
+    private volatile ValueSet wrappedValueSet;
+
+    private CachingValueSet(VariableEntity entity, CachedValues values, @Nullable ValueSet wrappedValueSet) {
+      this.entity = entity;
+      this.values = values;
+      this.wrappedValueSet = wrappedValueSet;
+    }
+
+    @Override
+    public ValueTable getValueTable() {
+      return ValueSetCachingValueTable.this;
+    }
+
+    @Override
+    public VariableEntity getVariableEntity() {
+      return entity;
+    }
+
+    @NotNull
+    @Override
+    public Timestamps getTimestamps() {
+      return getWrappedValueSet().getTimestamps();
+    }
+
+    private ValueSet getWrappedValueSet() {
+      ValueSet valueSet = wrappedValueSet;
+      if(valueSet == null) {
+        valueSet = getWrappedValueTable().getValueSet(entity);
+        wrappedValueSet = valueSet;
+      }
+      return valueSet;
+    }
+  }
+
+  private class CachingVariableValueSource extends AbstractVariableValueSourceWrapper {
+
+    private CachingVariableValueSource(VariableValueSource wrapped) {
+      super(wrapped);
+    }
+
+    @NotNull
+    @Override
+    public Value getValue(ValueSet valueSet) {
+      if(!(valueSet instanceof CachingValueSet) || valueSet.getValueTable() != ValueSetCachingValueTable.this) {
+        return getWrapped().getValue(valueSet);
+      }
+      CachingValueSet cachingValueSet = (CachingValueSet) valueSet;
+      String variableName = getVariable().getName();
+      Value value = cachingValueSet.values.get(variableName);
+      if(value == null) {
+        value = getWrapped().getValue(cachingValueSet.getWrappedValueSet());
+        // binary values are loaded lazily, by a loader that may not be usable later
+        if(!getValueType().isBinary()) cachingValueSet.values.put(variableName, value);
+      }
+      return value;
+    }
+  }
+}
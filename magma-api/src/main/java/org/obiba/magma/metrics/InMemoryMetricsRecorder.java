@@ -0,0 +1,161 @@
+package org.obiba.magma.metrics;
+
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.common.collect.Maps;
+
+/**
+ * Keeps the measurements in memory, as counters and as count, total and max time of the timed operations. It is the
+ * recorder exposed by JMX by default (see {@link MagmaMetricsExtension}).
+ */
+public class InMemoryMetricsRecorder implements MetricsRecorder, MetricsMXBean {
+
+  private final ConcurrentMap<String, AtomicLong> counters = new ConcurrentHashMap<>();
+
+  private final ConcurrentMap<String, TimerStatistics> timers = new ConcurrentHashMap<>();
+
+  @Override
+  public void increment(String name, String tag, long count) {
+    String key = key(name, tag);
+    AtomicLong counter = counters.get(key);
+    if(counter == null) {
+      AtomicLong newCounter = new AtomicLong();
+      counter = counters.putIfAbsent(key, newCounter);
+      if(counter == null) counter = newCounter;
+    }
+    counter.addAndGet(count);
+  }
+
+  @Override
+  public void record(String name, String tag, long duration, TimeUnit unit) {
+    String key = key(name, tag);
+    TimerStatistics timer = timers.get(key);
+    if(timer == null) {
+      TimerStatistics newTimer = new TimerStatistics();
+      timer = timers.putIfAbsent(key, newTimer);
+      if(timer == null) timer = newTimer;
+    }
+    timer.record(unit.toNanos(duration));
+  }
+
+  /**
+   * Returns the value of a counter, 0 if nothing was counted.
+   *
+   * @param name
+   * @param tag
+   * @return
+   */
+  public long getCount(String name, String tag) {
+    AtomicLong counter = counters.get(key(name, tag));
+    return counter == null ? 0 : counter.get();
+  }
+
+  /**
+   * Returns the number of occurrences of a timed operation.
+   *
+   * @param name
+   * @param tag
+   * @return
+   */
+  public long getTimerCount(String name, String tag) {
+    TimerStatistics timer = timers.get(key(name, tag));
+    return timer == null ? 0 : timer.count.get();
+  }
+
+  /**
+   * Returns the total time spent in a timed operation.
+   *
+   * @param name
+   * @param tag
+   * @param unit
+   * @return
+   */
+  public long getTimerTotalTime(String name, String tag, TimeUnit unit) {
+    TimerStatistics timer = timers.get(key(name, tag));
+    return timer == null ? 0 : unit.convert(timer.total.get(), TimeUnit.NANOSECONDS);
+  }
+
+  @Override
+  public Map<String, Long> getCounters() {
+    SortedMap<String, Long> values = Maps.newTreeMap();
+    for(Map.Entry<String, AtomicLong> entry : counters.entrySet()) {
+      values.put(entry.getKey(), entry.getValue().get());
+    }
+    return values;
+  }
+
+  @Override
+  public Map<String, Long> getTimerCounts() {
+    SortedMap<String, Long> values = Maps.newTreeMap();
+    for(Map.Entry<String, TimerStatistics> entry : timers.entrySet()) {
+      values.put(entry.getKey(), entry.getValue().count.get());
+    }
+    return values;
+  }
+
+  @Override
+  public Map<String, Long> getTimerTotalTimes() {
+    SortedMap<String, Long> values = Maps.newTreeMap();
+    for(Map.Entry<String, TimerStatistics> entry : timers.entrySet()) {
+      values.put(entry.getKey(), TimeUnit.NANOSECONDS.toMillis(entry.getValue().total.get()));
+    }
+    return values;
+  }
+
+  @Override
+  public Map<String, Long> getTimerMaxTimes() {
+    SortedMap<String, Long> values = Maps.newTreeMap();
+    for(Map.Entry<String, TimerStatistics> entry : timers.entrySet()) {
+      values.put(entry.getKey(), TimeUnit.NANOSECONDS.toMillis(entry.getValue().max.get()));
+    }
+    return values;
+  }
+
+  @Override
+  public Map<String, Double> getCacheHitRatios() {
+    SortedMap<String, Double> ratios = Maps.newTreeMap();
+    String prefix = Metrics.CACHE_HIT + "[";
+    for(String key : counters.keySet()) {
+      if(key.startsWith(prefix)) {
+        String tag = key.substring(prefix.length(), key.length() - 1);
+        long hits = getCount(Metrics.CACHE_HIT, tag);
+        long lookups = hits + getCount(Metrics.CACHE_MISS, tag);
+        ratios.put(tag, lookups == 0 ? 0d : hits / (double) lookups);
+      }
+    }
+    return ratios;
+  }
+
+  @Override
+  public void reset() {
+    counters.clear();
+    timers.clear();
+  }
+
+  private static String key(String name, String tag) {
+    return name + "[" + tag + "]";
+  }
+
+  private static class TimerStatistics {
+
+    private final AtomicLong count = new AtomicLong();
+
+    private final AtomicLong total = new AtomicLong();
+
+    private final AtomicLong max = new AtomicLong();
+
+    void record(long nanos) {
+      count.incrementAndGet();
+      total.addAndGet(nanos);
+      long current = max.get();
+      while(nanos > current && !max.compareAndSet(current, nanos)) {
+        current = max.get();
+      }
+    }
+  }
+}
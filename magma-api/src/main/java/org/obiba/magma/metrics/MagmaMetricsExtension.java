@@ -0,0 +1,93 @@
+package org.obiba.magma.metrics;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.obiba.magma.Disposable;
+import org.obiba.magma.MagmaEngineExtension;
+import org.obiba.magma.MagmaRuntimeException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Enables the measurements of Magma (see {@link Metrics}): they are sent to the provided {@link MetricsRecorder}, an
+ * {@link InMemoryMetricsRecorder} by default. When JMX is enabled and the recorder is a {@link MetricsMXBean}, it is
+ * registered in the platform MBean server as {@value #OBJECT_NAME}.
+ */
+public class MagmaMetricsExtension implements MagmaEngineExtension, Disposable {
+
+  private static final long serialVersionUID = 2547062447712858140L;
+
+  private static final Logger log = LoggerFactory.getLogger(MagmaMetricsExtension.class);
+
+  public static final String OBJECT_NAME = "org.obiba.magma:type=Metrics";
+
+  private transient MetricsRecorder recorder;
+
+  private boolean jmxEnabled;
+
+  private transient ObjectName registeredName;
+
+  public MagmaMetricsExtension() {
+    this(new InMemoryMetricsRecorder());
+  }
+
+  public MagmaMetricsExtension(MetricsRecorder recorder) {
+    this.recorder = recorder;
+  }
+
+  @Override
+  public String getName() {
+    return "magma-metrics";
+  }
+
+  @Override
+  public void initialise() {
+    Metrics.setRecorder(recorder);
+    if(jmxEnabled && recorder instanceof MetricsMXBean) {
+      registerMBean();
+    }
+  }
+
+  @Override
+  public void dispose() {
+    Metrics.setRecorder(null);
+    if(registeredName != null) {
+      try {
+        ManagementFactory.getPlatformMBeanServer().unregisterMBean(registeredName);
+      } catch(JMException e) {
+        log.warn("Unable to unregister {}: {}", registeredName, e.getMessage());
+      }
+      registeredName = null;
+    }
+  }
+
+  public MetricsRecorder getRecorder() {
+    return recorder;
+  }
+
+  public boolean isJmxEnabled() {
+    return jmxEnabled;
+  }
+
+  public void setJmxEnabled(boolean jmxEnabled) {
+    this.jmxEnabled = jmxEnabled;
+  }
+
+  private void registerMBean() {
+    try {
+      MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+      ObjectName name = new ObjectName(OBJECT_NAME);
+      if(server.isRegistered(name)) {
+        server.unregisterMBean(name);
+      }
+      server.registerMBean(recorder, name);
+      registeredName = name;
+    } catch(JMException e) {
+      throw new MagmaRuntimeException("Unable to register " + OBJECT_NAME, e);
+    }
+  }
+}
@@ -0,0 +1,157 @@
+package org.obiba.magma.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nullable;
+
+import org.obiba.magma.Datasource;
+import org.obiba.magma.ValueTable;
+
+/**
+ * Entry point of the measurements taken by Magma. Measurements are sent to the {@link MetricsRecorder} of the
+ * registered {@link MagmaMetricsExtension} and are ignored when there is none.
+ */
+public final class Metrics {
+
+  /**
+   * Timer of the loading of a single value set, tagged with the datasource type.
+   */
+  public static final String VALUE_SET_LOAD = "magma.valueSet.load";
+
+  /**
+   * Timer of the query of a vector of values, tagged with the datasource type.
+   */
+  public static final String VECTOR_READ = "magma.vector.read";
+
+  /**
+   * Counter of the rows read from a datasource, tagged with the datasource type.
+   */
+  public static final String ROWS_READ = "magma.rows.read";
+
+  /**
+   * Counter of the value sets written in a datasource, tagged with the datasource type.
+   */
+  public static final String ROWS_WRITTEN = "magma.rows.written";
+
+  /**
+   * Timer of the evaluation of a script for one entity, tagged with {@link #VALUE_SET} or {@link #VECTOR}.
+   */
+  public static final String SCRIPT_EVALUATION = "magma.script.evaluation";
+
+  /**
+   * Timer of the computation of a variable summary, tagged with the kind of summary.
+   */
+  public static final String SUMMARY = "magma.summary";
+
+  /**
+   * Counters of the cache lookups, tagged with the cache name.
+   */
+  public static final String CACHE_HIT = "magma.cache.hit";
+
+  public static final String CACHE_MISS = "magma.cache.miss";
+
+  /**
+   * Timer of the copy of a table and counter of the value sets copied, tagged with the destination datasource type.
+   */
+  public static final String COPY = "magma.copier.table";
+
+  public static final String COPIED_VALUE_SETS = "magma.copier.valueSets";
+
+  public static final String VALUE_SET = "valueSet";
+
+  public static final String VECTOR = "vector";
+
+  private static final Timer NOOP_TIMER = new Timer(null, null, null);
+
+  @Nullable
+  private static volatile MetricsRecorder recorder;
+
+  private Metrics() {}
+
+  static void setRecorder(@Nullable MetricsRecorder metricsRecorder) {
+    recorder = metricsRecorder;
+  }
+
+  public static boolean isEnabled() {
+    return recorder != null;
+  }
+
+  public static void increment(String name, String tag, long count) {
+    MetricsRecorder r = recorder;
+    if(r != null) r.increment(name, tag, count);
+  }
+
+  public static void increment(String name, String tag) {
+    increment(name, tag, 1);
+  }
+
+  public static void record(String name, String tag, long duration, TimeUnit unit) {
+    MetricsRecorder r = recorder;
+    if(r != null) r.record(name, tag, duration, unit);
+  }
+
+  /**
+   * Starts timing an operation, the duration is recorded when the returned timer is stopped.
+   *
+   * @param name
+   * @param tag
+   * @return
+   */
+  public static Timer start(String name, String tag) {
+    MetricsRecorder r = recorder;
+    return r == null ? NOOP_TIMER : new Timer(r, name, tag);
+  }
+
+  /**
+   * Runs an operation and records its duration, even when it fails.
+   *
+   * @param name
+   * @param tag
+   * @param operation
+   */
+  public static void time(String name, String tag, Runnable operation) {
+    Timer timer = start(name, tag);
+    try {
+      operation.run();
+    } finally {
+      timer.stop();
+    }
+  }
+
+  /**
+   * Returns the type of the datasource of the table, to tag measurements with.
+   *
+   * @param table
+   * @return
+   */
+  public static String tag(ValueTable table) {
+    return tag(table.getDatasource());
+  }
+
+  public static String tag(@Nullable Datasource datasource) {
+    return datasource == null ? "unknown" : datasource.getType();
+  }
+
+  public static final class Timer {
+
+    @Nullable
+    private final MetricsRecorder recorder;
+
+    private final String name;
+
+    private final String tag;
+
+    private final long start;
+
+    private Timer(@Nullable MetricsRecorder recorder, String name, String tag) {
+      this.recorder = recorder;
+      this.name = name;
+      this.tag = tag;
+      start = recorder == null ? 0 : System.nanoTime();
+    }
+
+    public void stop() {
+      if(recorder != null) recorder.record(name, tag, System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+  }
+}
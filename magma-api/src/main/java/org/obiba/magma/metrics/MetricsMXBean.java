@@ -0,0 +1,43 @@
+package org.obiba.magma.metrics;
+
+import java.util.Map;
+
+/**
+ * JMX view of the measurements of an {@link InMemoryMetricsRecorder}. Measurements are keyed by
+ * {@code name[tag]}.
+ */
+public interface MetricsMXBean {
+
+  Map<String, Long> getCounters();
+
+  /**
+   * Returns the number of occurrences of each timed operation.
+   *
+   * @return
+   */
+  Map<String, Long> getTimerCounts();
+
+  /**
+   * Returns the total time spent in each timed operation, in milliseconds.
+   *
+   * @return
+   */
+  Map<String, Long> getTimerTotalTimes();
+
+  /**
+   * Returns the longest occurrence of each timed operation, in milliseconds.
+   *
+   * @return
+   */
+  Map<String, Long> getTimerMaxTimes();
+
+  /**
+   * Returns the hit ratio of each cache, between 0 and 1.
+   *
+   * @return
+   */
+  Map<String, Double> getCacheHitRatios();
+
+  void reset();
+
+}
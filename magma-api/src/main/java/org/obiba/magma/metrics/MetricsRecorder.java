@@ -0,0 +1,32 @@
+package org.obiba.magma.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Receives the measurements taken by Magma (see {@link Metrics} for their names). Implementations bind them to a
+ * metrics library or expose them (see {@link InMemoryMetricsRecorder}) and must be thread-safe.
+ * <p/>
+ * Each measurement is tagged, usually with the type of the datasource it was taken on.
+ */
+public interface MetricsRecorder {
+
+  /**
+   * Adds {@code count} to the counter of the given name and tag.
+   *
+   * @param name
+   * @param tag
+   * @param count
+   */
+  void increment(String name, String tag, long count);
+
+  /**
+   * Records the duration of one occurrence of the timed operation of the given name and tag.
+   *
+   * @param name
+   * @param tag
+   * @param duration
+   * @param unit
+   */
+  void record(String name, String tag, long duration, TimeUnit unit);
+
+}
@@ -3,11 +3,13 @@ package org.obiba.magma.support;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executor;
 
 import javax.validation.constraints.NotNull;
 
@@ -19,23 +21,41 @@ import org.obiba.magma.Timestamps;
 import org.obiba.magma.Value;
 import org.obiba.magma.ValueTable;
 import org.obiba.magma.ValueTableWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import com.google.common.base.Preconditions;
 import com.google.common.base.Predicate;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.LinkedListMultimap;
 import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Maps;
 
 public abstract class AbstractDatasource extends AbstractAttributeAware implements Datasource {
 
+  private static final Logger log = LoggerFactory.getLogger(AbstractDatasource.class);
+
   private final String name;
 
   private final String type;
 
-  private final Set<ValueTable> valueTables = new LinkedHashSet<>(100);
+  /**
+   * Copy-on-write, as the tables may be read while lazily initialised tables are removed by a background task (see
+   * {@link #initialiseValueTables(Executor)}).
+   */
+  private final Set<ValueTable> valueTables = new CopyOnWriteArraySet<>();
 
   private final ListMultimap<String, Attribute> attributes = LinkedListMultimap.create();
 
+  private boolean lazyTableInitialisation;
+
+  /**
+   * Tables registered by {@link #initialise()} that are not initialised yet, by name. Each table is lazily initialised
+   * under its own lock, so that reading other tables does not wait for a slow one.
+   */
+  private final Map<String, ValueTable> uninitialisedValueTables = Maps.newConcurrentMap();
+
   protected AbstractDatasource(@NotNull String name, @NotNull String type) {
     Preconditions.checkNotNull(name, "name cannot be null");
     Preconditions.checkNotNull(type, "type cannot be null");
@@ -55,12 +75,13 @@ public abstract class AbstractDatasource extends AbstractAttributeAware implemen
 
   @Override
   public Set<ValueTable> getValueTables() {
+    initialisePendingValueTables();
     return Collections.unmodifiableSet(valueTables);
   }
 
   @Override
   public boolean hasValueTable(String tableName) {
-    for(ValueTable vt : getValueTables()) {
+    for(ValueTable vt : getRegisteredValueTables()) {
       if(vt.getName().equals(tableName)) {
         return true;
       }
@@ -76,12 +97,14 @@ public abstract class AbstractDatasource extends AbstractAttributeAware implemen
   @Override
   public ValueTable getValueTable(final String tableName) throws NoSuchValueTableException {
     try {
-      return Iterables.find(getValueTables(), new Predicate<ValueTable>() {
+      ValueTable valueTable = Iterables.find(getRegisteredValueTables(), new Predicate<ValueTable>() {
         @Override
         public boolean apply(ValueTable input) {
           return tableName.equals(input.getName());
         }
       });
+      initialisePendingValueTable(valueTable.getName());
+      return valueTable;
     } catch(NoSuchElementException e) {
       throw new NoSuchValueTableException(getName(), tableName);
     }
@@ -93,24 +116,58 @@ public abstract class AbstractDatasource extends AbstractAttributeAware implemen
     onInitialise();
     for(String valueTable : getValueTableNames()) {
       ValueTable vt = initialiseValueTable(valueTable);
-      try {
-        Initialisables.initialise(vt);
+      if(lazyTableInitialisation) {
+        uninitialisedValueTables.put(vt.getName(), vt);
         addValueTable(vt);
-      } catch(DatasourceParsingException pe) {
-        parsingErrors.add(pe);
+      } else {
+        try {
+          Initialisables.initialise(vt);
+          addValueTable(vt);
+        } catch(DatasourceParsingException pe) {
+          parsingErrors.add(pe);
+        }
       }
     }
-    if(parsingErrors.size() > 0) {
-      DatasourceParsingException parent = new DatasourceParsingException(
-          "Errors while parsing tables of datasource: " + getName(), "DatasourceDefinitionErrors", getName());
-      parent.setChildren(parsingErrors);
-      throw parent;
-    }
+    throwParsingErrors(parsingErrors);
+  }
+
+  /**
+   * When enabled before {@link #initialise()}, the tables are registered by name but are only initialised on first
+   * access, through {@link #getValueTable(String)} or {@link #getValueTables()}. A table that fails to initialise is
+   * then removed from the datasource. Each table is initialised once, different tables may be initialised
+   * concurrently.
+   */
+  public void setLazyTableInitialisation(boolean lazyTableInitialisation) {
+    this.lazyTableInitialisation = lazyTableInitialisation;
+  }
+
+  public boolean isLazyTableInitialisation() {
+    return lazyTableInitialisation;
+  }
+
+  /**
+   * Initialises the tables that were not accessed yet in a background task, so that they are ready on first access.
+   * Errors are logged, the tables that failed to initialise are removed.
+   */
+  public void initialiseValueTables(@NotNull Executor executor) {
+    executor.execute(new Runnable() {
+      @Override
+      public void run() {
+        for(String tableName : getUninitialisedValueTableNames()) {
+          try {
+            initialisePendingValueTable(tableName);
+          } catch(RuntimeException e) {
+            log.warn("Failed to initialise table {}.{}", getName(), tableName, e);
+          }
+        }
+      }
+    });
   }
 
   @Override
   public void dispose() {
-    Disposables.dispose(getValueTables());
+    uninitialisedValueTables.clear();
+    Disposables.dispose(valueTables);
     onDispose();
   }
 
@@ -182,10 +239,70 @@ public abstract class AbstractDatasource extends AbstractAttributeAware implemen
   }
 
   protected void removeValueTable(ValueTable toRemove) {
+    uninitialisedValueTables.remove(toRemove.getName());
     valueTables.remove(toRemove);
     Disposables.dispose(toRemove);
   }
 
+  /**
+   * The tables, initialised or not.
+   */
+  private Iterable<ValueTable> getRegisteredValueTables() {
+    return lazyTableInitialisation ? Collections.unmodifiableSet(valueTables) : getValueTables();
+  }
+
+  /**
+   * The names of the tables that are not initialised yet, in the order they were registered.
+   */
+  private List<String> getUninitialisedValueTableNames() {
+    ImmutableList.Builder<String> names = ImmutableList.builder();
+    for(ValueTable vt : valueTables) {
+      if(uninitialisedValueTables.containsKey(vt.getName())) names.add(vt.getName());
+    }
+    return names.build();
+  }
+
+  private void initialisePendingValueTables() {
+    if(!lazyTableInitialisation) return;
+    Collection<DatasourceParsingException> parsingErrors = new ArrayList<>();
+    for(String tableName : getUninitialisedValueTableNames()) {
+      try {
+        initialisePendingValueTable(tableName);
+      } catch(DatasourceParsingException pe) {
+        parsingErrors.add(pe);
+      }
+    }
+    throwParsingErrors(parsingErrors);
+  }
+
+  private void initialisePendingValueTable(String tableName) {
+    if(!lazyTableInitialisation) return;
+    ValueTable vt = uninitialisedValueTables.get(tableName);
+    if(vt == null) return;
+    //noinspection SynchronizationOnLocalVariableOrMethodParameter
+    synchronized(vt) {
+      // initialised by another thread while waiting for the lock
+      if(uninitialisedValueTables.get(tableName) != vt) return;
+      try {
+        Initialisables.initialise(vt);
+      } catch(DatasourceParsingException pe) {
+        uninitialisedValueTables.remove(tableName);
+        valueTables.remove(vt);
+        throw pe;
+      }
+      uninitialisedValueTables.remove(tableName);
+    }
+  }
+
+  private void throwParsingErrors(Collection<DatasourceParsingException> parsingErrors) {
+    if(parsingErrors.size() > 0) {
+      DatasourceParsingException parent = new DatasourceParsingException(
+          "Errors while parsing tables of datasource: " + getName(), "DatasourceDefinitionErrors", getName());
+      parent.setChildren(parsingErrors);
+      throw parent;
+    }
+  }
+
   @SuppressWarnings("NoopMethodInAbstractClass")
   protected void onInitialise() {
 
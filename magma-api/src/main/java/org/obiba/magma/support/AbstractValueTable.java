@@ -8,6 +8,7 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.SortedSet;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.annotation.Nullable;
 import javax.validation.constraints.NotNull;
@@ -39,8 +40,22 @@ public abstract class AbstractValueTable implements ValueTable, Initialisable {
   @NotNull
   protected String name;
 
+  /**
+   * The sources in insertion order, guarded by itself.
+   */
   private final Map<String, VariableValueSource> sources = new LinkedHashMap<>();
 
+  /**
+   * The sources indexed by variable name, for lock-free lookups.
+   */
+  private final Map<String, VariableValueSource> sourcesByName = new ConcurrentHashMap<>();
+
+  /**
+   * Immutable copy of the sources, rebuilt on first read after a modification.
+   */
+  @Nullable
+  private volatile Set<VariableValueSource> sourcesSnapshot;
+
   private VariableEntityProvider variableEntityProvider;
 
   @SuppressWarnings("ConstantConditions")
@@ -113,7 +128,7 @@ public abstract class AbstractValueTable implements ValueTable, Initialisable {
 
   @Override
   public boolean hasVariable(String variableName) {
-    return sources.containsKey(variableName);
+    return sourcesByName.containsKey(variableName);
   }
 
   @Override
@@ -140,7 +155,7 @@ public abstract class AbstractValueTable implements ValueTable, Initialisable {
 
   @Override
   public VariableValueSource getVariableValueSource(String variableName) throws NoSuchVariableException {
-    VariableValueSource variableValueSource = sources.get(variableName);
+    VariableValueSource variableValueSource = sourcesByName.get(variableName);
     if(variableValueSource == null) {
       throw new NoSuchVariableException(getName(), variableName);
     }
@@ -153,34 +168,35 @@ public abstract class AbstractValueTable implements ValueTable, Initialisable {
   }
 
   protected void addVariableValueSources(VariableValueSourceFactory factory) {
-    for(VariableValueSource variableValueSource : factory.createSources()) {
-      sources.put(variableValueSource.getName(), variableValueSource);
-    }
+    addVariableValueSources(factory.createSources());
   }
 
+  /**
+   * Adds the sources to this table. A source replaces the one of the same variable name at its position, other sources
+   * are appended.
+   */
   protected void addVariableValueSources(Collection<VariableValueSource> sourcesToAdd) {
-    List<VariableValueSource> list = Lists.newArrayList(sources.values());
-    for(VariableValueSource variableValueSource : sourcesToAdd) {
-      int index = list.indexOf(variableValueSource);
-      if(index >= 0) {
-        list.remove(index);
-        list.add(index, variableValueSource);
-      } else {
-        list.add(variableValueSource);
+    synchronized(sources) {
+      for(VariableValueSource variableValueSource : sourcesToAdd) {
+        putSource(variableValueSource);
       }
-    }
-    sources.clear();
-    for(VariableValueSource variableValueSource : list) {
-      sources.put(variableValueSource.getName(), variableValueSource);
+      sourcesSnapshot = null;
     }
   }
 
   protected void addVariableValueSource(VariableValueSource source) {
-    sources.put(source.getName(), source);
+    synchronized(sources) {
+      putSource(source);
+      sourcesSnapshot = null;
+    }
   }
 
   protected void removeVariableValueSource(String variableName) {
-    sources.remove(variableName);
+    synchronized(sources) {
+      sources.remove(variableName);
+      sourcesByName.remove(variableName);
+      sourcesSnapshot = null;
+    }
   }
 
   protected void removeVariableValueSources(Iterable<VariableValueSource> sourcesToRemove) {
@@ -189,6 +205,11 @@ public abstract class AbstractValueTable implements ValueTable, Initialisable {
     }
   }
 
+  private void putSource(VariableValueSource source) {
+    sources.put(source.getName(), source);
+    sourcesByName.put(source.getName(), source);
+  }
+
   protected void setVariableEntityProvider(@NotNull VariableEntityProvider variableEntityProvider) {
     //noinspection ConstantConditions
     if(variableEntityProvider == null) throw new IllegalArgumentException("variableEntityProvider cannot be null");
@@ -202,11 +223,24 @@ public abstract class AbstractValueTable implements ValueTable, Initialisable {
   }
 
   protected Set<VariableValueSource> getSources() {
-    return ImmutableSet.copyOf(sources.values());
+    Set<VariableValueSource> snapshot = sourcesSnapshot;
+    if(snapshot == null) {
+      synchronized(sources) {
+        snapshot = sourcesSnapshot;
+        if(snapshot == null) {
+          sourcesSnapshot = snapshot = ImmutableSet.copyOf(sources.values());
+        }
+      }
+    }
+    return snapshot;
   }
 
   protected void clearSources() {
-    sources.clear();
+    synchronized(sources) {
+      sources.clear();
+      sourcesByName.clear();
+      sourcesSnapshot = null;
+    }
   }
 
   @Override
@@ -21,6 +21,7 @@ import org.obiba.magma.ValueTableWriter.ValueSetWriter;
 import org.obiba.magma.ValueTableWriter.VariableWriter;
 import org.obiba.magma.Variable;
 import org.obiba.magma.VariableEntity;
+import org.obiba.magma.metrics.Metrics;
 import org.obiba.magma.support.MultiplexingValueTableWriter.MultiplexedValueSetWriter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -210,9 +211,11 @@ public class DatasourceCopier {
       stopwatch = Stopwatch.createStarted();
       log.debug("  --> {} variables, {} valueSets", sourceTable.getVariableCount(), sourceTable.getValueSetCount());
     }
+    Metrics.Timer timer = Metrics.start(Metrics.COPY, Metrics.tag(destination));
     try(ValueTableWriter tableWriter = innerValueTableWriter(sourceTable, destinationTableName, destination)) {
       copy(sourceTable, destination.getValueTable(destinationTableName), tableWriter);
     }
+    timer.stop();
     if(log.isDebugEnabled()) {
       //noinspection ConstantConditions
       log.debug("Copied ValueTable '{}' n {}", sourceTable.getName(), stopwatch.stop());
@@ -230,10 +233,12 @@ public class DatasourceCopier {
     if(!copyValues) return;
 
     log.debug("Copy values from {} {}", sourceTable.getClass(), sourceTable.getName());
+    String tag = Metrics.tag(destinationTable);
     for(ValueSet valueSet : sourceTable.getValueSets()) {
       try(ValueSetWriter valueSetWriter = tableWriter.writeValueSet(valueSet.getVariableEntity())) {
         copyValues(sourceTable, valueSet, destinationTable.getName(), valueSetWriter);
       }
+      Metrics.increment(Metrics.COPIED_VALUE_SETS, tag);
     }
   }
 
@@ -272,7 +277,7 @@ public class DatasourceCopier {
     }
   }
 
-  void copyValues(ValueTable source, String tableName, ValueSet valueSet, Variable[] variables, Value[] values,
+  public void copyValues(ValueTable source, String tableName, ValueSet valueSet, Variable[] variables, Value[] values,
       ValueSetWriter vsw) {
     if(!copyValues) return;
     notifyListeners(source, valueSet, false);
@@ -296,7 +301,8 @@ public class DatasourceCopier {
     return destination.createWriter(destinationTableName, source.getEntityType());
   }
 
-  ValueTableWriter innerValueTableWriter(ValueTable source, String destinationTableName, Datasource destination) {
+  public ValueTableWriter innerValueTableWriter(ValueTable source, String destinationTableName,
+      Datasource destination) {
     return multiplexer == null
         ? createValueTableWriter(source, destinationTableName, destination)
         : new MultiplexingValueTableWriter(source, this, destination, multiplexer);
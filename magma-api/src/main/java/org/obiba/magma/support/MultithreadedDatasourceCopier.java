@@ -24,6 +24,7 @@ import org.obiba.magma.ValueTableWriter.ValueSetWriter;
 import org.obiba.magma.Variable;
 import org.obiba.magma.VariableEntity;
 import org.obiba.magma.VariableValueSource;
+import org.obiba.magma.metrics.Metrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -168,9 +169,11 @@ public class MultithreadedDatasourceCopier {
             executor.submit(new ConcurrentValueSetReader(readQueue, writeQueue, datasourceCopier.isCopyNullValues())));
       }
     }
+    Metrics.Timer timer = Metrics.start(Metrics.COPY, Metrics.tag(destinationDatasource));
     try {
       write(writeQueue);
       checkReadersForException();
+      timer.stop();
     } finally {
       log.debug("Finished multi-threaded copy. Submitted tasks {}, executed tasks {}", executor.getTaskCount(),
           executor.getCompletedTaskCount());
@@ -350,6 +353,7 @@ public class MultithreadedDatasourceCopier {
         datasourceCopier.copyValues(sourceTable, destinationName, values.valueSet, variables, values.values, writer);
       }
       entitiesCopied++;
+      Metrics.increment(Metrics.COPIED_VALUE_SETS, Metrics.tag(destinationDatasource));
       printProgress();
     }
 
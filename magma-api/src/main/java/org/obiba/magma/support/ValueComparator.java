@@ -2,6 +2,8 @@ package org.obiba.magma.support;
 
 import java.util.Comparator;
 
+import org.obiba.magma.DecimalValue;
+import org.obiba.magma.IntegerValue;
 import org.obiba.magma.MagmaDate;
 import org.obiba.magma.Value;
 
@@ -19,6 +21,12 @@ public class ValueComparator implements Comparator<Value> {
     if(o1.isNull() && o2.isNull()) return 0;
     if(o1.isNull()) return -1;
     if(o2.isNull()) return 1;
+    if(o1 instanceof IntegerValue && o2 instanceof IntegerValue) {
+      return Long.compare(((IntegerValue) o1).longValue(), ((IntegerValue) o2).longValue());
+    }
+    if(o1 instanceof DecimalValue && o2 instanceof DecimalValue) {
+      return Double.compare(((DecimalValue) o1).doubleValue(), ((DecimalValue) o2).doubleValue());
+    }
     Comparable l1 = (Comparable) normalizeValue(o1.getValue());
     Comparable l2 = (Comparable) normalizeValue(o2.getValue());
     return l1 == l2 ? 0 : l1.compareTo(l2);
@@ -31,4 +31,8 @@ public class VariableEntitiesCache implements Serializable {
   public Set<VariableEntity> getEntities() {
     return entities;
   }
+
+  public long getLastUpdate() {
+    return lastUpdate;
+  }
 }
@@ -21,8 +21,8 @@ public class BooleanType extends AbstractValueType {
   private final Value falseValue;
 
   private BooleanType() {
-    trueValue = Factory.newValue(this, Boolean.TRUE);
-    falseValue = Factory.newValue(this, Boolean.FALSE);
+    trueValue = Factory.newValue(this, true);
+    falseValue = Factory.newValue(this, false);
   }
 
   @SuppressWarnings("ConstantConditions")
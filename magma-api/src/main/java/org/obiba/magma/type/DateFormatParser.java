@@ -0,0 +1,163 @@
+package org.obiba.magma.type;
+
+import java.io.Serializable;
+import java.text.ParsePosition;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+
+import javax.annotation.Nullable;
+import javax.validation.constraints.NotNull;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Parses dates against an ordered list of strict {@link SimpleDateFormat} patterns, the first matching pattern wins.
+ * <p/>
+ * Formats are confined to the calling thread, so no lock is ever held while parsing or formatting. Strings are first
+ * matched against the shape of each pattern (the separators found between its leading numeric fields) so that
+ * patterns that cannot match are not tried, and non-matching patterns report their failure through a
+ * {@link ParsePosition} instead of an exception.
+ */
+class DateFormatParser implements Serializable {
+
+  private static final long serialVersionUID = -3571482710958011523L;
+
+  private static final String NUMERIC_FIELDS = "yMdHhKkmsSDFwW";
+
+  @NotNull
+  private final String[] patterns;
+
+  /**
+   * For each pattern, the separators that follow its leading numeric fields.
+   */
+  @NotNull
+  private final transient String[][] separators;
+
+  @NotNull
+  private final transient ThreadLocal<SimpleDateFormat[]> formats;
+
+  DateFormatParser(@NotNull String... patterns) {
+    this.patterns = patterns;
+    separators = new String[patterns.length][];
+    for(int i = 0; i < patterns.length; i++) {
+      separators[i] = parseSeparators(patterns[i]);
+    }
+    formats = new ThreadLocal<SimpleDateFormat[]>() {
+      @Override
+      protected SimpleDateFormat[] initialValue() {
+        return createFormats();
+      }
+    };
+  }
+
+  /**
+   * Returns the date parsed by the first matching pattern, or null if none matches.
+   */
+  @Nullable
+  Date parse(@NotNull String string) {
+    SimpleDateFormat[] dateFormats = null;
+    for(int i = 0; i < patterns.length; i++) {
+      if(!hasShape(string, separators[i])) continue;
+      if(dateFormats == null) dateFormats = formats.get();
+      Date date = dateFormats[i].parse(string, new ParsePosition(0));
+      if(date != null) return date;
+    }
+    return null;
+  }
+
+  /**
+   * Formats the date using the first (preferred) pattern.
+   */
+  @NotNull
+  String format(@NotNull Date date) {
+    return formats.get()[0].format(date);
+  }
+
+  /**
+   * Returns the quoted patterns, for error messages.
+   */
+  @NotNull
+  String getPatterns() {
+    StringBuilder builder = new StringBuilder();
+    for(String pattern : patterns) {
+      if(builder.length() > 0) builder.append(", ");
+      builder.append('\'').append(pattern).append('\'');
+    }
+    return builder.toString();
+  }
+
+  private SimpleDateFormat[] createFormats() {
+    SimpleDateFormat[] dateFormats = new SimpleDateFormat[patterns.length];
+    for(int i = 0; i < patterns.length; i++) {
+      dateFormats[i] = new SimpleDateFormat(patterns[i]);
+      // Force strict year parsing, otherwise 2 digits can be interpreted as a 4 digits year...
+      dateFormats[i].setLenient(false);
+    }
+    return dateFormats;
+  }
+
+  /**
+   * Returns true if the string could be parsed by a pattern whose leading numeric fields are followed by these
+   * separators. Numeric fields are scanned the way {@link SimpleDateFormat} does: leading spaces and tabs, an optional
+   * minus sign, then digits.
+   */
+  private static boolean hasShape(String string, String... fieldSeparators) {
+    int length = string.length();
+    int position = 0;
+    for(String separator : fieldSeparators) {
+      while(position < length && (string.charAt(position) == ' ' || string.charAt(position) == '\t')) position++;
+      if(position < length && string.charAt(position) == '-') position++;
+      int digits = position;
+      while(position < length && Character.isDigit(string.charAt(position))) position++;
+      if(position == digits || !string.startsWith(separator, position)) return false;
+      position += separator.length();
+    }
+    return true;
+  }
+
+  /**
+   * Extracts the literal separators found between the leading numeric fields of a pattern, e.g. {@code [-, -]} for
+   * {@code yyyy-MM-dd} and {@code [-, -, T, :]} for {@code yyyy-MM-dd'T'HH:mmZ}.
+   */
+  private static String[] parseSeparators(String pattern) {
+    List<String> fieldSeparators = Lists.newArrayList();
+    StringBuilder literal = new StringBuilder();
+    boolean quoted = false;
+    boolean afterField = false;
+    int i = 0;
+    while(i < pattern.length()) {
+      char c = pattern.charAt(i);
+      if(c == '\'') {
+        if(i + 1 < pattern.length() && pattern.charAt(i + 1) == '\'') {
+          literal.append(c);
+          i++;
+        } else {
+          quoted = !quoted;
+        }
+      } else if(quoted || !Character.isLetter(c)) {
+        literal.append(c);
+      } else {
+        if(NUMERIC_FIELDS.indexOf(c) < 0) break;
+        if(afterField) {
+          // adjacent numeric fields have no separator to check
+          if(literal.length() == 0) break;
+          fieldSeparators.add(literal.toString());
+        } else if(literal.length() > 0) {
+          // the pattern does not start with a field
+          break;
+        }
+        literal.setLength(0);
+        afterField = true;
+        while(i + 1 < pattern.length() && pattern.charAt(i + 1) == c) i++;
+      }
+      i++;
+    }
+    return fieldSeparators.toArray(new String[fieldSeparators.size()]);
+  }
+
+  private Object readResolve() {
+    return new DateFormatParser(patterns);
+  }
+
+}
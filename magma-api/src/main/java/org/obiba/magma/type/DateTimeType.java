@@ -3,8 +3,6 @@ package org.obiba.magma.type;
 import java.io.Serializable;
 import java.lang.ref.WeakReference;
 import java.sql.Timestamp;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.Calendar;
 import java.util.Date;
 
@@ -25,39 +23,23 @@ public class DateTimeType extends AbstractValueType {
   private static WeakReference<DateTimeType> instance;
 
   /**
-   * Preferred date time format.
+   * Supported date time formats, the first one being the preferred (ISO 8601) format.
    */
-  private static final SimpleDateFormat ISO_8601 = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSZ");
-
-  /**
-   * These are used to support other common date time formats.
-   */
-  private final SimpleDateFormat[] dateFormats = new SimpleDateFormat[] { //
-      ISO_8601, //
-      new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ssZ"), //
-      new SimpleDateFormat("yyyy-MM-dd'T'HH:mmZ"), //
-      new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSzzz"), //
-      new SimpleDateFormat("yyyy-MM-dd HH:mm:ss"), //
-      new SimpleDateFormat("yyyy/MM/dd HH:mm:ss"), //
-      new SimpleDateFormat("yyyy.MM.dd HH:mm:ss"), //
-      new SimpleDateFormat("yyyy MM dd HH:mm:ss"), //
-      new SimpleDateFormat("yyyy-MM-dd HH:mm"), //
-      new SimpleDateFormat("yyyy/MM/dd HH:mm"), //
-      new SimpleDateFormat("yyyy.MM.dd HH:mm"), //
-      new SimpleDateFormat("yyyy MM dd HH:mm") };
-
-  private String dateFormatPatterns = "";
+  private final DateFormatParser dateFormats = new DateFormatParser( //
+      "yyyy-MM-dd'T'HH:mm:ss.SSSZ", //
+      "yyyy-MM-dd'T'HH:mm:ssZ", //
+      "yyyy-MM-dd'T'HH:mmZ", //
+      "yyyy-MM-dd'T'HH:mm:ss.SSSzzz", //
+      "yyyy-MM-dd HH:mm:ss", //
+      "yyyy/MM/dd HH:mm:ss", //
+      "yyyy.MM.dd HH:mm:ss", //
+      "yyyy MM dd HH:mm:ss", //
+      "yyyy-MM-dd HH:mm", //
+      "yyyy/MM/dd HH:mm", //
+      "yyyy.MM.dd HH:mm", //
+      "yyyy MM dd HH:mm");
 
   private DateTimeType() {
-    // Force strict year parsing, otherwise 2 digits can be interpreted as a 4 digits year...
-    for(SimpleDateFormat format : dateFormats) {
-      format.setLenient(false);
-      if(dateFormatPatterns.isEmpty()) {
-        dateFormatPatterns = "'" + format.toPattern() + "'";
-      } else {
-        dateFormatPatterns += ", '" + format.toPattern() + "'";
-      }
-    }
   }
 
   @SuppressWarnings("ConstantConditions")
@@ -99,10 +81,7 @@ public class DateTimeType extends AbstractValueType {
 
   @Override
   public String toString(Object object) {
-    // DateFormat is not thread safe
-    synchronized(ISO_8601) {
-      return ISO_8601.format((Date) object);
-    }
+    return dateFormats.format((Date) object);
   }
 
   @NotNull
@@ -117,22 +96,12 @@ public class DateTimeType extends AbstractValueType {
       dateToParse = string.replaceFirst("Z$", "UTC");
     }
 
-    for(SimpleDateFormat format : dateFormats) {
-      try {
-        return parseDate(format, dateToParse);
-      } catch(ParseException e) {
-        // ignored
-      }
-    }
-    throw new MagmaRuntimeException(
-        "Cannot parse date from string value '" + string + "'. Expected format is one of " + dateFormatPatterns);
-  }
-
-  private Value parseDate(SimpleDateFormat format, String string) throws ParseException {
-    // DateFormat is not thread safe
-    synchronized(format) {
-      return Factory.newValue(this, format.parse(string));
+    Date date = dateFormats.parse(dateToParse);
+    if(date == null) {
+      throw new MagmaRuntimeException("Cannot parse date from string value '" + string +
+          "'. Expected format is one of " + dateFormats.getPatterns());
     }
+    return Factory.newValue(this, date);
   }
 
   @NotNull
@@ -56,7 +56,7 @@ public class DecimalType extends AbstractNumberType {
       return nullValue();
     }
     try {
-      return Factory.newValue(this, Double.valueOf(normalize(string)));
+      return valueOf(Double.parseDouble(normalize(string)));
     } catch(NumberFormatException e) {
       throw new MagmaRuntimeException("Not a decimal value: " + string, e);
     }
@@ -70,7 +70,7 @@ public class DecimalType extends AbstractNumberType {
     }
     Class<?> type = object.getClass();
     if(Number.class.isAssignableFrom(type)) {
-      return Factory.newValue(this, ((Number) object).doubleValue());
+      return valueOf(((Number) object).doubleValue());
     }
     if(String.class.isAssignableFrom(type)) {
       return valueOf((String) object);
@@ -79,6 +79,17 @@ public class DecimalType extends AbstractNumberType {
         "Cannot construct " + getClass().getSimpleName() + " from type " + object.getClass() + ".");
   }
 
+  /**
+   * Returns the {@code Value} of the specified {@code double}.
+   *
+   * @param value
+   * @return
+   */
+  @NotNull
+  public Value valueOf(double value) {
+    return Factory.newValue(this, value);
+  }
+
   private String normalize(String string) {
     return string.replace(",", ".").trim();
   }
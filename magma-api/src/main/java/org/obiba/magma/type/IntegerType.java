@@ -19,6 +19,16 @@ public class IntegerType extends AbstractNumberType {
   @SuppressWarnings("StaticNonFinalField")
   private static WeakReference<IntegerType> instance;
 
+  /**
+   * Range of the integers that have a canonical {@code Value} instance: category codes, counts, ages etc.
+   */
+  private static final int CACHE_LOW = -128;
+
+  private static final int CACHE_HIGH = 1023;
+
+  @SuppressWarnings("TransientFieldNotInitialized")
+  private transient volatile Value[] cachedValues;
+
   private IntegerType() {
 
   }
@@ -55,7 +65,7 @@ public class IntegerType extends AbstractNumberType {
   @Override
   public Value valueOf(@Nullable String string) {
     try {
-      return Strings.isNullOrEmpty(string) ? nullValue() : Factory.newValue(this, Long.valueOf(normalize(string)));
+      return Strings.isNullOrEmpty(string) ? nullValue() : valueOf(Long.parseLong(normalize(string)));
     } catch(NumberFormatException e) {
       throw new MagmaRuntimeException("Not a integer value: " + string, e);
     }
@@ -69,7 +79,7 @@ public class IntegerType extends AbstractNumberType {
     }
     Class<?> type = object.getClass();
     if(Number.class.isAssignableFrom(type)) {
-      return Factory.newValue(this, ((Number) object).longValue());
+      return valueOf(((Number) object).longValue());
     }
     if(String.class.isAssignableFrom(type)) {
       return valueOf((String) object);
@@ -78,6 +88,28 @@ public class IntegerType extends AbstractNumberType {
         "Cannot construct " + getClass().getSimpleName() + " from type " + object.getClass() + ".");
   }
 
+  /**
+   * Returns the {@code Value} of the specified {@code long}. Small integers share canonical instances.
+   *
+   * @param value
+   * @return
+   */
+  @NotNull
+  public Value valueOf(long value) {
+    if(value >= CACHE_LOW && value <= CACHE_HIGH) {
+      Value[] values = cachedValues;
+      if(values == null) {
+        values = new Value[CACHE_HIGH - CACHE_LOW + 1];
+        for(int i = 0; i < values.length; i++) {
+          values[i] = Factory.newValue(this, (long) (i + CACHE_LOW));
+        }
+        cachedValues = values;
+      }
+      return values[(int) value - CACHE_LOW];
+    }
+    return Factory.newValue(this, value);
+  }
+
   private String normalize(String string) {
     return string.trim();
   }
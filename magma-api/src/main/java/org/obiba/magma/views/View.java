@@ -27,6 +27,7 @@ import org.obiba.magma.VariableEntity;
 import org.obiba.magma.VariableValueSource;
 import org.obiba.magma.VariableValueSourceWrapper;
 import org.obiba.magma.VectorSource;
+import org.obiba.magma.metrics.Metrics;
 import org.obiba.magma.support.AbstractValueTableWrapper;
 import org.obiba.magma.support.AbstractVariableValueSourceWrapper;
 import org.obiba.magma.support.Disposables;
@@ -400,6 +401,7 @@ public class View extends AbstractValueTableWrapper implements Initialisable, Di
     Value tableWrapperLastUpdate = getTimestamps().getLastUpdate();
     VariableEntitiesCache eCache = getVariableEntitiesCache();
     if(eCache == null || !eCache.isUpToDate(tableWrapperLastUpdate)) {
+      Metrics.increment(Metrics.CACHE_MISS, MagmaCacheExtension.VARIABLE_ENTITIES_CACHE);
       eCache = new VariableEntitiesCache(loadVariableEntities(), tableWrapperLastUpdate);
       if(MagmaEngine.get().hasExtension(MagmaCacheExtension.class)) {
         MagmaCacheExtension cacheExtension = MagmaEngine.get().getExtension(MagmaCacheExtension.class);
@@ -411,6 +413,8 @@ public class View extends AbstractValueTableWrapper implements Initialisable, Di
       } else {
         variableEntitiesCache = eCache;
       }
+    } else {
+      Metrics.increment(Metrics.CACHE_HIT, MagmaCacheExtension.VARIABLE_ENTITIES_CACHE);
     }
     return eCache.getEntities();
   }
@@ -1,14 +1,22 @@
 package org.obiba.magma;
 
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
 import org.easymock.EasyMock;
+import org.easymock.IAnswer;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import com.google.common.util.concurrent.Uninterruptibles;
+
 import static org.easymock.EasyMock.createMock;
 import static org.easymock.EasyMock.expect;
 import static org.easymock.EasyMock.expectLastCall;
+import static org.easymock.EasyMock.makeThreadSafe;
 import static org.easymock.EasyMock.replay;
 import static org.easymock.EasyMock.verify;
 import static org.fest.assertions.api.Assertions.assertThat;
@@ -83,6 +91,112 @@ public class MagmaEngineTest {
     }
   }
 
+  @Test
+  public void testAddingDatasourcesConcurrently() throws Exception {
+    ((DefaultDatasourceRegistry) magmaEngine.getDatasourceRegistry()).setInitialisationParallelism(2);
+    Datasource datasourceOne = createMock(Datasource.class);
+    Datasource datasourceTwo = createMock(Datasource.class);
+    makeThreadSafe(datasourceOne, true);
+    makeThreadSafe(datasourceTwo, true);
+    datasourceOne.initialise();
+    expect(datasourceOne.getName()).andReturn("one").anyTimes();
+    datasourceTwo.initialise();
+    expect(datasourceTwo.getName()).andReturn("two").anyTimes();
+    datasourceOne.dispose();
+    datasourceTwo.dispose();
+    replay(datasourceOne, datasourceTwo);
+    assertThat(magmaEngine.addDatasources(Arrays.asList(datasourceOne, datasourceTwo))).hasSize(2);
+    assertThat(magmaEngine.getDatasources()).hasSize(2);
+    assertThat(((DefaultDatasourceRegistry) magmaEngine.getDatasourceRegistry()).getInitialisationTimes().keySet())
+        .containsOnly("one", "two");
+    magmaEngine.shutdown();
+    verify(datasourceOne, datasourceTwo);
+  }
+
+  /**
+   * Datasources that initialise successfully are added, the failure is thrown afterwards.
+   */
+  @Test
+  public void testAddingDatasourcesConcurrentlyWithFailure() throws Exception {
+    ((DefaultDatasourceRegistry) magmaEngine.getDatasourceRegistry()).setInitialisationParallelism(2);
+    Datasource datasourceOne = createMock(Datasource.class);
+    Datasource datasourceTwo = createMock(Datasource.class);
+    makeThreadSafe(datasourceOne, true);
+    makeThreadSafe(datasourceTwo, true);
+    datasourceOne.initialise();
+    expectLastCall().andThrow(new MagmaRuntimeException("failure"));
+    expect(datasourceOne.getName()).andReturn("one").anyTimes();
+    datasourceTwo.initialise();
+    expect(datasourceTwo.getName()).andReturn("two").anyTimes();
+    datasourceTwo.dispose();
+    replay(datasourceOne, datasourceTwo);
+    try {
+      magmaEngine.addDatasources(Arrays.asList(datasourceOne, datasourceTwo));
+      Assert.fail();
+    } catch(MagmaRuntimeException e) {
+      assertThat(e.getMessage()).isEqualTo("failure");
+    }
+    assertThat(magmaEngine.hasDatasource("one")).isFalse();
+    assertThat(magmaEngine.hasDatasource("two")).isTrue();
+    magmaEngine.shutdown();
+    verify(datasourceOne, datasourceTwo);
+  }
+
+  /**
+   * Datasources initialised for an interrupted caller are not registered and are disposed.
+   */
+  @Test
+  public void testAddingDatasourcesConcurrentlyWhenInterrupted() throws Exception {
+    ((DefaultDatasourceRegistry) magmaEngine.getDatasourceRegistry()).setInitialisationParallelism(2);
+    final Thread caller = Thread.currentThread();
+    final CountDownLatch twoDisposed = new CountDownLatch(1);
+    final CountDownLatch oneDisposed = new CountDownLatch(1);
+    Datasource datasourceOne = createMock(Datasource.class);
+    Datasource datasourceTwo = createMock(Datasource.class);
+    makeThreadSafe(datasourceOne, true);
+    makeThreadSafe(datasourceTwo, true);
+    // the caller is interrupted while waiting for the first datasource, which completes after the second is disposed
+    datasourceOne.initialise();
+    expectLastCall().andAnswer(new IAnswer<Void>() {
+      @Override
+      public Void answer() throws Throwable {
+        caller.interrupt();
+        Uninterruptibles.awaitUninterruptibly(twoDisposed, 10, TimeUnit.SECONDS);
+        return null;
+      }
+    });
+    expect(datasourceOne.getName()).andReturn("one").anyTimes();
+    datasourceOne.dispose();
+    expectLastCall().andAnswer(countDown(oneDisposed));
+    datasourceTwo.initialise();
+    expect(datasourceTwo.getName()).andReturn("two").anyTimes();
+    datasourceTwo.dispose();
+    expectLastCall().andAnswer(countDown(twoDisposed));
+    replay(datasourceOne, datasourceTwo);
+
+    try {
+      magmaEngine.addDatasources(Arrays.asList(datasourceOne, datasourceTwo));
+      Assert.fail();
+    } catch(MagmaRuntimeException e) {
+      assertThat(e.getCause()).isInstanceOf(InterruptedException.class);
+    } finally {
+      assertThat(Thread.interrupted()).isTrue();
+    }
+    assertThat(oneDisposed.await(10, TimeUnit.SECONDS)).isTrue();
+    assertThat(magmaEngine.getDatasources()).isEmpty();
+    verify(datasourceOne, datasourceTwo);
+  }
+
+  private static IAnswer<Void> countDown(final CountDownLatch latch) {
+    return new IAnswer<Void>() {
+      @Override
+      public Void answer() throws Throwable {
+        latch.countDown();
+        return null;
+      }
+    };
+  }
+
   @Test
   public void testHasTransientDatasourceIsTrue() throws Exception {
     DatasourceFactory factory = createMock(DatasourceFactory.class);
@@ -10,12 +10,16 @@
 package org.obiba.magma;
 
 import java.util.Comparator;
+import java.util.List;
 
 import org.junit.Test;
 import org.obiba.magma.support.Values;
+import org.obiba.magma.type.DecimalType;
+import org.obiba.magma.type.IntegerType;
 import org.obiba.magma.type.TextType;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
 
 import static org.fest.assertions.api.Assertions.assertThat;
 
@@ -87,6 +91,36 @@ public class ValueSequenceTest extends AbstractValueTest {
     assertThat(value.contains(TextType.get().valueOf("CBa"))).isFalse();
   }
 
+  @Test
+  public void test_integer_sequence_is_compact() {
+    ValueSequence value = IntegerType.get().sequenceOf("3,,1,2000");
+    assertThat(value.getValue()).isInstanceOf(PrimitiveValueList.class);
+    assertThat(value.getSize()).isEqualTo(4);
+    assertThat(value.get(0)).isSameAs(IntegerType.get().valueOf(3));
+    assertThat(value.get(1)).isSameAs(IntegerType.get().nullValue());
+    assertThat(value.get(3)).isEqualTo(IntegerType.get().valueOf(2000));
+    assertThat(value.toString()).isEqualTo("3,,1,2000");
+    assertThat(value).isEqualTo(IntegerType.get().sequenceOf(Lists.newLinkedList(value.getValue())));
+    assertThat(value.sort().getValues()).containsExactly(IntegerType.get().nullValue(), IntegerType.get().valueOf(1),
+        IntegerType.get().valueOf(3), IntegerType.get().valueOf(2000));
+  }
+
+  @Test
+  public void test_decimal_sequence_sort() {
+    ValueSequence value = DecimalType.get().sequenceOf("2.5,,-1");
+    assertThat(value.getValue()).isInstanceOf(PrimitiveValueList.class);
+    assertThat(value.sort().getValues())
+        .containsExactly(DecimalType.get().nullValue(), DecimalType.get().valueOf(-1), DecimalType.get().valueOf(2.5));
+  }
+
+  @Test
+  public void test_sequence_is_not_modified_by_source_list() {
+    List<Value> values = Lists.newArrayList(Values.asValues(TextType.get(), "A", "B"));
+    ValueSequence value = TextType.get().sequenceOf(values);
+    values.add(TextType.get().valueOf("C"));
+    assertThat(value.getSize()).isEqualTo(2);
+  }
+
   @Override
   protected ValueSequence testValue() {
     return TextType.get().sequenceOf(testObject());
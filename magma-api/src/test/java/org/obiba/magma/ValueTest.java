@@ -9,9 +9,16 @@
  ******************************************************************************/
 package org.obiba.magma;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
 import org.junit.Test;
+import org.obiba.magma.type.BinaryType;
 import org.obiba.magma.type.TextType;
 
+import com.google.common.io.ByteStreams;
+
 import static org.fest.assertions.api.Assertions.assertThat;
 
 public class ValueTest extends AbstractValueTest {
@@ -23,6 +30,51 @@ public class ValueTest extends AbstractValueTest {
     value.asSequence();
   }
 
+  @Test(expected = IllegalStateException.class)
+  public void test_getInputStream_throwsExceptionWhenNotBinary() {
+    testValue().getInputStream();
+  }
+
+  @Test
+  public void test_getInputStream_ofBinaryValue() throws IOException {
+    Value value = BinaryType.get().valueOf(new byte[] { 1, 2, 3 });
+    try(InputStream input = value.getInputStream()) {
+      assertThat(ByteStreams.toByteArray(input)).isEqualTo(new byte[] { 1, 2, 3 });
+    }
+  }
+
+  @Test
+  public void test_getInputStream_isProvidedByStreamingValueLoader() throws IOException {
+    Value value = BinaryType.get().valueOf(new StreamingValueLoader() {
+
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      public InputStream getInputStream() {
+        return new ByteArrayInputStream(new byte[] { 4, 5 });
+      }
+
+      @Override
+      public boolean isNull() {
+        return false;
+      }
+
+      @Override
+      public Object getValue() {
+        throw new UnsupportedOperationException("content must be streamed");
+      }
+
+      @Override
+      public long getLength() {
+        return 2;
+      }
+    });
+    try(InputStream input = value.getInputStream()) {
+      assertThat(ByteStreams.toByteArray(input)).isEqualTo(new byte[] { 4, 5 });
+    }
+    assertThat(value.getLength()).isEqualTo(2);
+  }
+
   @Override
   protected Value testValue() {
     return TextType.get().valueOf(testObject());
@@ -9,6 +9,8 @@
  ******************************************************************************/
 package org.obiba.magma;
 
+import java.sql.Timestamp;
+import java.util.GregorianCalendar;
 import java.util.Locale;
 
 import org.junit.Test;
@@ -37,6 +39,17 @@ public class ValueTypeTest extends AbstractMagmaTest {
     }
   }
 
+  @Test
+  public void test_factory_forName_isCaseInsensitive() {
+    assertThat(ValueType.Factory.forName("TEXT")).isSameAs(TextType.get());
+    assertThat(ValueType.Factory.forName("DateTime")).isSameAs(DateTimeType.get());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void test_factory_forName_nullThrowsAnException() {
+    ValueType.Factory.forName(null);
+  }
+
   @Test(expected = IllegalArgumentException.class)
   public void test_factory_forName_unknownTypeThrowsAnException() {
     ValueType.Factory.forName("no such type");
@@ -52,6 +65,24 @@ public class ValueTypeTest extends AbstractMagmaTest {
     testForClass(BinaryType.get(), byte[].class);
   }
 
+  @Test
+  public void test_factory_forClass_ofSubclass() {
+    testForClass(DateTimeType.get(), Timestamp.class, GregorianCalendar.class);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void test_factory_forClass_unknownClassThrowsAnException() {
+    ValueType.Factory.forClass(Object.class);
+  }
+
+  @Test
+  public void test_factory_converterFor() {
+    assertThat(MagmaEngine.get().getValueTypeFactory().converterFor(TextType.get(), IntegerType.get())
+        .convert(TextType.get().valueOf("12"), IntegerType.get())).isEqualTo(IntegerType.get().valueOf(12));
+    assertThat(MagmaEngine.get().getValueTypeFactory().converterFor(IntegerType.get(), IntegerType.get()))
+        .isSameAs(MagmaEngine.get().getValueTypeFactory().converterFor(IntegerType.get(), IntegerType.get()));
+  }
+
   @Test
   public void test_factory_newValue() {
     assertThat(TextType.get().valueOf("A Value")).isEqualTo(ValueType.Factory.newValue("A Value"));
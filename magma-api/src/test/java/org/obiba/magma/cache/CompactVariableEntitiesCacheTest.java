@@ -0,0 +1,111 @@
+package org.obiba.magma.cache;
+
+import java.util.Set;
+
+import org.junit.Test;
+import org.obiba.magma.MagmaCacheExtension;
+import org.obiba.magma.VariableEntity;
+import org.obiba.magma.support.VariableEntitiesCache;
+import org.obiba.magma.support.VariableEntityBean;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+public class CompactVariableEntitiesCacheTest {
+
+  @Test
+  public void test_entities_round_trip() {
+    ImmutableSet.Builder<VariableEntity> builder = ImmutableSet.builder();
+    for(int i = 1000; i > 0; i--) {
+      builder.add(new VariableEntityBean("Participant", "participant-" + i));
+    }
+    builder.add(new VariableEntityBean("Participant", "éàü-中文"));
+    builder.add(new VariableEntityBean("Instrument", "participant-1"));
+    Set<VariableEntity> entities = builder.build();
+
+    CompactVariableEntitiesCache cache = new CompactVariableEntitiesCache();
+    assertThat(cache.getName()).isEqualTo(MagmaCacheExtension.VARIABLE_ENTITIES_CACHE);
+    cache.put("table", new VariableEntitiesCache(entities, 1000));
+
+    VariableEntitiesCache cached = cache.get("table", VariableEntitiesCache.class);
+    assertThat(cached.getLastUpdate()).isEqualTo(1000);
+    Set<VariableEntity> cachedEntities = cached.getEntities();
+    assertThat(cachedEntities).hasSize(entities.size());
+    assertThat(cachedEntities).isEqualTo(entities);
+    assertThat(ImmutableList.copyOf(cachedEntities)).isSorted();
+    for(VariableEntity entity : entities) {
+      assertThat(cachedEntities.contains(entity)).isTrue();
+    }
+    assertThat(cachedEntities.contains(new VariableEntityBean("Participant", "participant-0"))).isFalse();
+    assertThat(cachedEntities.contains(new VariableEntityBean("Participant", "participant-10000"))).isFalse();
+    assertThat(cachedEntities.contains(new VariableEntityBean("Participant", "a"))).isFalse();
+    assertThat(cachedEntities.contains(new VariableEntityBean("Participant", "z"))).isFalse();
+    assertThat(cachedEntities.contains(new VariableEntityBean("Instrument", "participant-2"))).isFalse();
+    assertThat(cachedEntities.contains(new VariableEntityBean("Other", "participant-1"))).isFalse();
+  }
+
+  @Test
+  public void test_empty_entities() {
+    CompactVariableEntitiesCache cache = new CompactVariableEntitiesCache();
+    cache.put("table", new VariableEntitiesCache(ImmutableSet.<VariableEntity>of(), 1000));
+
+    Set<VariableEntity> cachedEntities = cache.get("table", VariableEntitiesCache.class).getEntities();
+    assertThat(cachedEntities).isEmpty();
+    assertThat(cachedEntities.contains(new VariableEntityBean("Participant", "1"))).isFalse();
+  }
+
+  @Test
+  public void test_least_recently_used_entities_evicted() {
+    long entryBytes = CompactVariableEntitySet.copyOf(entities("1")).getBytes();
+    CompactVariableEntitiesCache cache = new CompactVariableEntitiesCache(MagmaCacheExtension.VARIABLE_ENTITIES_CACHE,
+        2 * entryBytes);
+    cache.put("table1", new VariableEntitiesCache(entities("1"), 1000));
+    cache.put("table2", new VariableEntitiesCache(entities("2"), 1000));
+    assertThat(cache.get("table1")).isNotNull();
+    cache.put("table3", new VariableEntitiesCache(entities("3"), 1000));
+
+    assertThat(cache.size()).isEqualTo(2);
+    assertThat(cache.getBytes()).isEqualTo(2 * entryBytes);
+    assertThat(cache.get("table1")).isNotNull();
+    assertThat(cache.get("table2")).isNull();
+    assertThat(cache.get("table3")).isNotNull();
+  }
+
+  @Test
+  public void test_too_large_entities_not_cached() {
+    CompactVariableEntitiesCache cache = new CompactVariableEntitiesCache(MagmaCacheExtension.VARIABLE_ENTITIES_CACHE,
+        1);
+    cache.put("table", new VariableEntitiesCache(entities("1"), 1000));
+
+    assertThat(cache.get("table")).isNull();
+    assertThat(cache.getBytes()).isEqualTo(0);
+  }
+
+  @Test
+  public void test_put_if_absent_and_evict() {
+    CompactVariableEntitiesCache cache = new CompactVariableEntitiesCache();
+    assertThat(cache.putIfAbsent("table", new VariableEntitiesCache(entities("1"), 1000))).isNull();
+    assertThat(cache.putIfAbsent("table", new VariableEntitiesCache(entities("2"), 2000)).get())
+        .isInstanceOf(VariableEntitiesCache.class);
+    assertThat(cache.get("table", VariableEntitiesCache.class).getLastUpdate()).isEqualTo(1000);
+
+    cache.evict("table");
+    assertThat(cache.get("table")).isNull();
+    assertThat(cache.getBytes()).isEqualTo(0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void test_only_entities_cached() {
+    new CompactVariableEntitiesCache().put("table", "entities");
+  }
+
+  private static Set<VariableEntity> entities(String... identifiers) {
+    ImmutableSet.Builder<VariableEntity> builder = ImmutableSet.builder();
+    for(String identifier : identifiers) {
+      builder.add(new VariableEntityBean("Participant", identifier));
+    }
+    return builder.build();
+  }
+}
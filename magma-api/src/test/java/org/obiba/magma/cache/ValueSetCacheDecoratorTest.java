@@ -0,0 +1,154 @@
+package org.obiba.magma.cache;
+
+import java.util.Date;
+
+import javax.validation.constraints.NotNull;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.obiba.magma.Datasource;
+import org.obiba.magma.MagmaEngine;
+import org.obiba.magma.NoSuchVariableException;
+import org.obiba.magma.Timestamps;
+import org.obiba.magma.TimestampsBean;
+import org.obiba.magma.Value;
+import org.obiba.magma.ValueSet;
+import org.obiba.magma.ValueTable;
+import org.obiba.magma.ValueTableWriter;
+import org.obiba.magma.VariableEntity;
+import org.obiba.magma.VariableValueSource;
+import org.obiba.magma.support.AbstractVariableValueSourceWrapper;
+import org.obiba.magma.support.StaticDatasource;
+import org.obiba.magma.support.StaticValueTable;
+import org.obiba.magma.support.VariableEntityBean;
+import org.obiba.magma.type.DateTimeType;
+import org.obiba.magma.type.TextType;
+
+import com.google.common.collect.ImmutableList;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+public class ValueSetCacheDecoratorTest {
+
+  private static final VariableEntity ENTITY = new VariableEntityBean("Participant", "1");
+
+  private CountingValueTable table;
+
+  @Before
+  public void before() {
+    new MagmaEngine();
+    StaticDatasource datasource = new StaticDatasource("ds");
+    table = new CountingValueTable(datasource);
+    table.addVariables(TextType.get(), "NAME");
+    table.addValues("1", "NAME", "a");
+    table.addValues("2", "NAME", "b");
+    datasource.addValueTable(table);
+  }
+
+  @After
+  public void after() {
+    MagmaEngine.get().shutdown();
+  }
+
+  @Test
+  public void test_values_read_once() {
+    ValueTable cachingTable = decorate(new ValueSetCacheDecorator());
+
+    assertThat(getName(cachingTable, ENTITY)).isEqualTo("a");
+    assertThat(getName(cachingTable, ENTITY)).isEqualTo("a");
+    assertThat(getName(cachingTable, new VariableEntityBean("Participant", "2"))).isEqualTo("b");
+
+    assertThat(table.valueReads).isEqualTo(2);
+  }
+
+  @Test
+  public void test_values_not_cached_without_last_update() {
+    table.lastUpdate = DateTimeType.get().nullValue();
+    ValueTable cachingTable = decorate(new ValueSetCacheDecorator());
+
+    getName(cachingTable, ENTITY);
+    getName(cachingTable, ENTITY);
+
+    assertThat(table.valueReads).isEqualTo(2);
+  }
+
+  @Test
+  public void test_values_read_again_after_last_update() {
+    ValueTable cachingTable = decorate(new ValueSetCacheDecorator(new ValueSetCache(), 0));
+    getName(cachingTable, ENTITY);
+
+    table.addValues("1", "NAME", "c");
+    table.lastUpdate = DateTimeType.get().valueOf(new Date(2000));
+
+    assertThat(getName(cachingTable, ENTITY)).isEqualTo("c");
+    assertThat(table.valueReads).isEqualTo(2);
+  }
+
+  @Test
+  public void test_values_read_again_after_write() {
+    ValueTable cachingTable = decorate(new ValueSetCacheDecorator());
+    getName(cachingTable, ENTITY);
+
+    try(ValueTableWriter writer = cachingTable.getDatasource().createWriter("table", "Participant");
+        ValueTableWriter.ValueSetWriter valueSetWriter = writer.writeValueSet(ENTITY)) {
+      valueSetWriter.writeValue(table.getVariable("NAME"), TextType.get().valueOf("c"));
+    }
+
+    assertThat(getName(cachingTable, ENTITY)).isEqualTo("c");
+    assertThat(table.valueReads).isEqualTo(2);
+  }
+
+  @Test
+  public void test_values_read_again_after_notification() {
+    ValueSetCacheDecorator decorator = new ValueSetCacheDecorator();
+    ValueTable cachingTable = decorate(decorator);
+    getName(cachingTable, ENTITY);
+
+    decorator.onRename(table, table.getVariable("NAME"), "FIRST_NAME");
+    getName(cachingTable, ENTITY);
+
+    assertThat(table.valueReads).isEqualTo(2);
+  }
+
+  private ValueTable decorate(ValueSetCacheDecorator decorator) {
+    MagmaEngine.get().addDecorator(decorator);
+    Datasource datasource = MagmaEngine.get().addDatasource(table.getDatasource());
+    assertThat(datasource).isInstanceOf(ValueSetCachingDatasource.class);
+    return datasource.getValueTable("table");
+  }
+
+  private static String getName(ValueTable valueTable, VariableEntity entity) {
+    ValueSet valueSet = valueTable.getValueSet(entity);
+    return valueTable.getValue(valueTable.getVariable("NAME"), valueSet).toString();
+  }
+
+  private static class CountingValueTable extends StaticValueTable {
+
+    private int valueReads;
+
+    private Value lastUpdate = DateTimeType.get().valueOf(new Date(1000));
+
+    private CountingValueTable(StaticDatasource datasource) {
+      super(datasource, "table", ImmutableList.of("1", "2"), "Participant");
+    }
+
+    @NotNull
+    @Override
+    public Timestamps getTimestamps() {
+      return new TimestampsBean(lastUpdate, lastUpdate);
+    }
+
+    @Override
+    public VariableValueSource getVariableValueSource(String name) throws NoSuchVariableException {
+      return new AbstractVariableValueSourceWrapper(super.getVariableValueSource(name)) {
+        @NotNull
+        @Override
+        public Value getValue(ValueSet valueSet) {
+          valueReads++;
+          return super.getValue(valueSet);
+        }
+      };
+    }
+  }
+}
@@ -0,0 +1,81 @@
+package org.obiba.magma.cache;
+
+import org.junit.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+public class ValueSetCacheTest {
+
+  @Test
+  public void test_frequently_read_value_sets_survive_scan() {
+    ValueSetCache cache = new ValueSetCache(100);
+    for(int i = 0; i < 10; i++) {
+      cache.get("hot" + i);
+      cache.put("hot" + i, new CachedValues());
+    }
+    for(int n = 0; n < 10; n++) {
+      for(int i = 0; i < 10; i++) {
+        assertThat(cache.get("hot" + i)).isNotNull();
+      }
+    }
+
+    // a scan reads many value sets once
+    for(int i = 0; i < 1000; i++) {
+      if(cache.get("scan" + i) == null) cache.put("scan" + i, new CachedValues());
+    }
+
+    assertThat(cache.size()).isLessThanOrEqualTo(100);
+    for(int i = 0; i < 10; i++) {
+      assertThat(cache.get("hot" + i)).isNotNull();
+    }
+  }
+
+  @Test
+  public void test_evicted_value_sets_go_to_second_tier() {
+    ConcurrentMapCache secondTier = new ConcurrentMapCache("second");
+    ValueSetCache cache = new ValueSetCache(2, secondTier);
+    CachedValues[] values = new CachedValues[5];
+    for(int i = 0; i < values.length; i++) {
+      values[i] = new CachedValues();
+      cache.put("key" + i, values[i]);
+    }
+
+    assertThat(cache.size()).isEqualTo(2);
+    assertThat(secondTier.getNativeCache()).hasSize(3);
+    for(int i = 0; i < values.length; i++) {
+      assertThat(cache.get("key" + i)).isSameAs(values[i]);
+    }
+  }
+
+  @Test
+  public void test_invalidated_tables_have_new_keys() {
+    ValueSetCache cache = new ValueSetCache();
+    String tableKey = cache.keyPrefix("ds.table", 1000);
+    String otherTableKey = cache.keyPrefix("other.table", 1000);
+    assertThat(cache.keyPrefix("ds.table", 1000)).isEqualTo(tableKey);
+    assertThat(cache.keyPrefix("ds.table", 2000)).isNotEqualTo(tableKey);
+
+    cache.invalidateTable("ds.table");
+    String invalidatedTableKey = cache.keyPrefix("ds.table", 1000);
+    assertThat(invalidatedTableKey).isNotEqualTo(tableKey);
+
+    cache.invalidateDatasource("ds");
+    assertThat(cache.keyPrefix("ds.table", 1000)).isNotEqualTo(invalidatedTableKey);
+    assertThat(cache.keyPrefix("other.table", 1000)).isEqualTo(otherTableKey);
+  }
+
+  @Test
+  public void test_cleared_cache() {
+    ConcurrentMapCache secondTier = new ConcurrentMapCache("second");
+    ValueSetCache cache = new ValueSetCache(1, secondTier);
+    cache.put("key1", new CachedValues());
+    cache.put("key2", new CachedValues());
+
+    cache.clear();
+
+    assertThat(cache.size()).isEqualTo(0);
+    assertThat(cache.get("key1")).isNull();
+    assertThat(cache.get("key2")).isNull();
+  }
+}
@@ -0,0 +1,118 @@
+package org.obiba.magma.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.JMX;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.obiba.magma.MagmaEngine;
+import org.obiba.magma.support.DatasourceCopier;
+import org.obiba.magma.support.StaticDatasource;
+import org.obiba.magma.support.StaticValueTable;
+import org.obiba.magma.type.TextType;
+
+import com.google.common.collect.ImmutableList;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+public class MagmaMetricsExtensionTest {
+
+  private InMemoryMetricsRecorder recorder;
+
+  @Before
+  public void before() {
+    recorder = new InMemoryMetricsRecorder();
+  }
+
+  @After
+  public void after() {
+    if(MagmaEngine.isInstantiated()) MagmaEngine.get().shutdown();
+  }
+
+  @Test
+  public void test_measurements_ignored_without_extension() {
+    new MagmaEngine();
+    assertThat(Metrics.isEnabled()).isFalse();
+    Metrics.increment(Metrics.ROWS_READ, "static");
+    Metrics.start(Metrics.COPY, "static").stop();
+    assertThat(recorder.getCounters()).isEmpty();
+  }
+
+  @Test
+  public void test_measurements_recorded() {
+    new MagmaEngine().extend(new MagmaMetricsExtension(recorder));
+    assertThat(Metrics.isEnabled()).isTrue();
+
+    Metrics.increment(Metrics.ROWS_READ, "static", 10);
+    Metrics.increment(Metrics.ROWS_READ, "static");
+    Metrics.record(Metrics.VALUE_SET_LOAD, "static", 3, TimeUnit.MILLISECONDS);
+    Metrics.record(Metrics.VALUE_SET_LOAD, "static", 5, TimeUnit.MILLISECONDS);
+    Metrics.increment(Metrics.CACHE_HIT, "entities", 3);
+    Metrics.increment(Metrics.CACHE_MISS, "entities");
+
+    assertThat(recorder.getCount(Metrics.ROWS_READ, "static")).isEqualTo(11);
+    assertThat(recorder.getTimerCount(Metrics.VALUE_SET_LOAD, "static")).isEqualTo(2);
+    assertThat(recorder.getTimerTotalTime(Metrics.VALUE_SET_LOAD, "static", TimeUnit.MILLISECONDS)).isEqualTo(8);
+    assertThat(recorder.getTimerMaxTimes().get(Metrics.VALUE_SET_LOAD + "[static]")).isEqualTo(5);
+    assertThat(recorder.getCacheHitRatios().get("entities")).isEqualTo(0.75);
+
+    MagmaEngine.get().shutdown();
+    assertThat(Metrics.isEnabled()).isFalse();
+  }
+
+  @Test
+  public void test_failed_operation_timed() {
+    new MagmaEngine().extend(new MagmaMetricsExtension(recorder));
+    try {
+      Metrics.time(Metrics.SUMMARY, "static", new Runnable() {
+        @Override
+        public void run() {
+          throw new IllegalStateException();
+        }
+      });
+    } catch(IllegalStateException ignored) {
+    }
+    assertThat(recorder.getTimerCount(Metrics.SUMMARY, "static")).isEqualTo(1);
+  }
+
+  @Test
+  public void test_copy_measured() throws Exception {
+    new MagmaEngine().extend(new MagmaMetricsExtension(recorder));
+    StaticDatasource source = new StaticDatasource("source");
+    StaticValueTable table = new StaticValueTable(source, "table", ImmutableList.of("1", "2", "3"));
+    table.addVariables(TextType.get(), "NAME");
+    table.addValues("1", "NAME", "a");
+    table.addValues("2", "NAME", "b");
+    table.addValues("3", "NAME", "c");
+    source.addValueTable(table);
+
+    DatasourceCopier.Builder.newCopier().build().copy(table, new StaticDatasource("destination"));
+
+    assertThat(recorder.getCount(Metrics.COPIED_VALUE_SETS, "static")).isEqualTo(3);
+    assertThat(recorder.getTimerCount(Metrics.COPY, "static")).isEqualTo(1);
+  }
+
+  @Test
+  public void test_jmx_registration() throws Exception {
+    MagmaMetricsExtension extension = new MagmaMetricsExtension(recorder);
+    extension.setJmxEnabled(true);
+    new MagmaEngine().extend(extension);
+    Metrics.increment(Metrics.ROWS_WRITTEN, "static", 2);
+
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    ObjectName name = new ObjectName(MagmaMetricsExtension.OBJECT_NAME);
+    assertThat(server.isRegistered(name)).isTrue();
+    MetricsMXBean proxy = JMX.newMXBeanProxy(server, name, MetricsMXBean.class);
+    Map<String, Long> counters = proxy.getCounters();
+    assertThat(counters.get(Metrics.ROWS_WRITTEN + "[static]")).isEqualTo(2);
+
+    MagmaEngine.get().shutdown();
+    assertThat(server.isRegistered(name)).isFalse();
+  }
+}
@@ -0,0 +1,171 @@
+package org.obiba.magma.support;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+
+import org.junit.Test;
+import org.obiba.magma.ValueTable;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+public class AbstractDatasourceTest {
+
+  @Test
+  public void test_eager_table_initialisation() {
+    TestDatasource datasource = new TestDatasource("table1", "table2");
+    datasource.initialise();
+
+    assertThat(datasource.initialised).containsExactly("table1", "table2");
+  }
+
+  @Test
+  public void test_lazy_table_initialisation_on_access() {
+    TestDatasource datasource = new TestDatasource("table1", "table2");
+    datasource.setLazyTableInitialisation(true);
+    datasource.initialise();
+
+    assertThat(datasource.initialised).isEmpty();
+    assertThat(datasource.hasValueTable("table2")).isTrue();
+    assertThat(datasource.initialised).isEmpty();
+
+    assertThat(datasource.getValueTable("table2").getName()).isEqualTo("table2");
+    assertThat(datasource.getValueTable("table2").getName()).isEqualTo("table2");
+    assertThat(datasource.initialised).containsExactly("table2");
+
+    assertThat(datasource.getValueTables()).hasSize(2);
+    assertThat(datasource.initialised).containsExactly("table2", "table1");
+  }
+
+  @Test
+  public void test_lazy_table_initialisation_removes_invalid_table() {
+    TestDatasource datasource = new TestDatasource("table1", "invalid");
+    datasource.setLazyTableInitialisation(true);
+    datasource.initialise();
+
+    try {
+      datasource.getValueTable("invalid");
+      fail("DatasourceParsingException expected");
+    } catch(DatasourceParsingException e) {
+      assertThat(datasource.hasValueTable("invalid")).isFalse();
+    }
+    assertThat(datasource.getValueTables()).hasSize(1);
+  }
+
+  @Test
+  public void test_background_table_initialisation() {
+    TestDatasource datasource = new TestDatasource("table1", "table2");
+    datasource.setLazyTableInitialisation(true);
+    datasource.initialise();
+    datasource.initialiseValueTables(new Executor() {
+      @Override
+      public void execute(Runnable command) {
+        command.run();
+      }
+    });
+
+    assertThat(datasource.initialised).containsExactly("table1", "table2");
+  }
+
+  @Test
+  public void test_tables_read_during_background_table_initialisation() throws Exception {
+    String[] tableNames = new String[500];
+    for(int i = 0; i < tableNames.length; i++) {
+      tableNames[i] = i % 2 == 0 ? "table" + i : "invalid" + i;
+    }
+    final TestDatasource datasource = new TestDatasource(tableNames);
+    datasource.setLazyTableInitialisation(true);
+    datasource.initialise();
+
+    final Thread[] initialisation = new Thread[1];
+    datasource.initialiseValueTables(new Executor() {
+      @Override
+      public void execute(Runnable command) {
+        initialisation[0] = new Thread(command);
+        initialisation[0].start();
+      }
+    });
+    // invalid tables are removed while the tables are read
+    while(initialisation[0].isAlive()) {
+      assertThat(datasource.hasValueTable("table0")).isTrue();
+      assertThat(datasource.hasValueTable("missing")).isFalse();
+    }
+    initialisation[0].join();
+
+    assertThat(datasource.getValueTables()).hasSize(250);
+  }
+
+  @Test(timeout = 10000)
+  public void test_tables_read_while_slow_table_initialised() throws Exception {
+    final TestDatasource datasource = new TestDatasource("slow", "table1", "table2");
+    datasource.setLazyTableInitialisation(true);
+    datasource.initialise();
+    datasource.getValueTable("table1");
+
+    final Thread[] initialisation = new Thread[1];
+    datasource.initialiseValueTables(new Executor() {
+      @Override
+      public void execute(Runnable command) {
+        initialisation[0] = new Thread(command);
+        initialisation[0].start();
+      }
+    });
+    datasource.slowStarted.await();
+
+    // neither initialised nor pending tables wait for the slow table
+    assertThat(datasource.getValueTable("table1").getName()).isEqualTo("table1");
+    assertThat(datasource.getValueTable("table2").getName()).isEqualTo("table2");
+    assertThat(datasource.initialised).containsExactly("table1", "table2");
+
+    datasource.slowReleased.countDown();
+    initialisation[0].join();
+    assertThat(datasource.initialised).containsExactly("table1", "table2", "slow");
+  }
+
+  private static class TestDatasource extends AbstractDatasource {
+
+    private final Set<String> tableNames;
+
+    private final List<String> initialised = Collections.synchronizedList(Lists.<String>newArrayList());
+
+    private final CountDownLatch slowStarted = new CountDownLatch(1);
+
+    private final CountDownLatch slowReleased = new CountDownLatch(1);
+
+    private TestDatasource(String... tableNames) {
+      super("test", "test");
+      this.tableNames = ImmutableSet.copyOf(tableNames);
+    }
+
+    @Override
+    protected Set<String> getValueTableNames() {
+      return tableNames;
+    }
+
+    @Override
+    protected ValueTable initialiseValueTable(final String tableName) {
+      return new StaticValueTable(this, tableName, ImmutableList.<String>of()) {
+        @Override
+        public void initialise() {
+          if(tableName.startsWith("invalid")) {
+            throw new DatasourceParsingException("Invalid table", "InvalidTable", tableName);
+          }
+          if("slow".equals(tableName)) {
+            slowStarted.countDown();
+            Uninterruptibles.awaitUninterruptibly(slowReleased);
+          }
+          super.initialise();
+          initialised.add(tableName);
+        }
+      };
+    }
+  }
+}
@@ -5,13 +5,19 @@ import java.text.SimpleDateFormat;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.GregorianCalendar;
+import java.util.List;
 import java.util.TimeZone;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.junit.Test;
 import org.obiba.magma.Value;
 import org.obiba.magma.ValueType;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
 
 import static org.fest.assertions.api.Assertions.assertThat;
 
@@ -141,6 +147,39 @@ public class DateTimeTypeTest extends BaseValueTypeTest {
     assertThat(new Date(expected.getTimeInMillis())).isEqualTo((Date) value.getValue());
   }
 
+  @Test
+  public void test_valueOf_concurrently() throws Exception {
+    final List<String> strings = ImmutableList.of("2011-01-25T14:30:47.123+0000", "2011-01-25 14:30:47",
+        "2011/01/25 14:30", "2011.01.25 14:30:47", "2011 01 25 14:30");
+    final List<Object> expected = Lists.newArrayList();
+    for(String string : strings) {
+      expected.add(DateTimeType.get().valueOf(string).getValue());
+    }
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<Boolean>> results = Lists.newArrayList();
+      for(int i = 0; i < 8; i++) {
+        results.add(executor.submit(new Callable<Boolean>() {
+          @Override
+          public Boolean call() throws Exception {
+            for(int j = 0; j < 1000; j++) {
+              int index = j % strings.size();
+              Value value = DateTimeType.get().valueOf(strings.get(index));
+              if(!expected.get(index).equals(value.getValue())) return false;
+              if(!value.equals(DateTimeType.get().valueOf(value.toString()))) return false;
+            }
+            return true;
+          }
+        }));
+      }
+      for(Future<Boolean> result : results) {
+        assertThat(result.get()).isTrue();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
   private void assertValueOfUsingDateFormat(String dateFormat) {
     assertValueOfUsingDateFormat(dateFormat, 0);
   }
@@ -139,6 +139,23 @@ public class DateTypeTest extends BaseValueTypeTest {
     assertValueOfUsingDateFormat("yyyy MM dd");
   }
 
+  @Test
+  public void test_valueOf_ignoresTrailingText() {
+    Value value = getValueType().valueOf("2011-01-25 14:30");
+    assertThat(value.getValue()).isEqualTo(new MagmaDate(2011, Calendar.JANUARY, 25));
+  }
+
+  @Test
+  public void test_valueOf_spacesBeforeFields() {
+    Value value = getValueType().valueOf(" 25  01 2011");
+    assertThat(value.getValue()).isEqualTo(new MagmaDate(2011, Calendar.JANUARY, 25));
+  }
+
+  @Test(expected = MagmaRuntimeException.class)
+  public void test_valueOf_invalidDay() {
+    getValueType().valueOf("2011-02-30");
+  }
+
   @Test(expected = MagmaRuntimeException.class)
   public void test_valueOf_invalidFormat() {
     getValueType().valueOf("2011_11_10");
@@ -1,8 +1,10 @@
 package org.obiba.magma.type;
 
 import org.junit.Test;
+import org.obiba.magma.DecimalValue;
 import org.obiba.magma.Value;
 import org.obiba.magma.ValueType;
+import org.obiba.magma.ValueType.Factory;
 
 import com.google.common.collect.ImmutableList;
 
@@ -55,4 +57,13 @@ public class DecimalTypeTest extends BaseValueTypeTest {
     assertThat(result).isEqualTo(1.2);
   }
 
+  @Test
+  public void test_inline_value() {
+    Value value = DecimalType.get().valueOf("1.5");
+    assertThat(value).isInstanceOf(DecimalValue.class);
+    assertThat(((DecimalValue) value).doubleValue()).isEqualTo(1.5);
+    assertThat(value).isEqualTo(Factory.newValue(DecimalType.get(), Double.valueOf(1.5)));
+    assertThat(DecimalType.get().compare(value, DecimalType.get().valueOf(2))).isEqualTo(-1);
+    assertThat(value.getLength()).isEqualTo(3);
+  }
 }
@@ -1,8 +1,10 @@
 package org.obiba.magma.type;
 
 import org.junit.Test;
+import org.obiba.magma.IntegerValue;
 import org.obiba.magma.Value;
 import org.obiba.magma.ValueType;
+import org.obiba.magma.ValueType.Factory;
 
 import com.google.common.collect.ImmutableList;
 
@@ -87,4 +89,23 @@ public class IntegerTypeTest extends BaseValueTypeTest {
     //noinspection ConstantConditions
     assertThat(result.intValue()).isEqualTo(1);
   }
+
+  @Test
+  public void test_small_integers_are_canonical() {
+    assertThat(IntegerType.get().valueOf("42")).isSameAs(IntegerType.get().valueOf(42L));
+    assertThat(IntegerType.get().valueOf(-128)).isSameAs(IntegerType.get().valueOf(Integer.valueOf(-128)));
+    assertThat(IntegerType.get().valueOf(100000)).isNotSameAs(IntegerType.get().valueOf(100000));
+  }
+
+  @Test
+  public void test_inline_value_equals_loaded_value() {
+    Value inline = IntegerType.get().valueOf(100000);
+    Value loaded = Factory.newValue(IntegerType.get(), Long.valueOf(100000));
+    assertThat(inline).isInstanceOf(IntegerValue.class);
+    assertThat(inline).isEqualTo(loaded);
+    assertThat(loaded).isEqualTo(inline);
+    assertThat(inline.hashCode()).isEqualTo(loaded.hashCode());
+    assertThat(inline).isNotEqualTo(DecimalType.get().valueOf(100000));
+    assertThat(inline).isNotEqualTo(IntegerType.get().sequenceOf(ImmutableList.of(inline)));
+  }
 }
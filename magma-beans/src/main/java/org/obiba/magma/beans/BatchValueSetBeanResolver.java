@@ -0,0 +1,24 @@
+package org.obiba.magma.beans;
+
+import java.util.List;
+
+import org.obiba.magma.ValueSet;
+import org.obiba.magma.Variable;
+
+/**
+ * A {@link ValueSetBeanResolver} that can resolve the beans of many value sets in one call, for reading a variable as a
+ * {@code VectorSource}.
+ */
+public interface BatchValueSetBeanResolver extends ValueSetBeanResolver {
+
+  /**
+   * Resolves the beans of each value set.
+   *
+   * @param type
+   * @param valueSets
+   * @param variable
+   * @return the bean of each value set, in the same order (null elements for value sets without bean)
+   */
+  List<Object> resolve(Class<?> type, List<ValueSet> valueSets, Variable variable);
+
+}
@@ -0,0 +1,104 @@
+package org.obiba.magma.beans;
+
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.annotation.Nullable;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.NotReadablePropertyException;
+import org.springframework.beans.PropertyAccessorFactory;
+
+import com.google.common.base.Splitter;
+import com.google.common.collect.Iterables;
+
+/**
+ * Reads a property path of beans. The path is parsed once and the getters of each of its properties are looked up once
+ * per bean class, as {@code MethodHandle}s.
+ * <p/>
+ * Paths with indexed or mapped properties (e.g. {@code attributes[phone].number}) are read with a Spring
+ * {@code BeanWrapper}.
+ */
+class BeanPropertyAccessor {
+
+  private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+  private final String propertyPath;
+
+  /**
+   * Property names of the path, null when the path is read by a {@code BeanWrapper}.
+   */
+  @Nullable
+  private final String[] properties;
+
+  /**
+   * Getter of each property of the path, by bean class.
+   */
+  private final ConcurrentMap<Class<?>, MethodHandle>[] getters;
+
+  @SuppressWarnings("unchecked")
+  BeanPropertyAccessor(String propertyPath) {
+    this.propertyPath = propertyPath;
+    properties = propertyPath.indexOf('[') < 0
+        ? Iterables.toArray(Splitter.on('.').split(propertyPath), String.class)
+        : null;
+    getters = new ConcurrentMap[properties == null ? 0 : properties.length];
+    for(int i = 0; i < getters.length; i++) {
+      getters[i] = new ConcurrentHashMap<>();
+    }
+  }
+
+  /**
+   * Returns the value of the property path, null when a property of the path is null.
+   *
+   * @param bean
+   * @return
+   * @throws org.springframework.beans.InvalidPropertyException when a property of the path cannot be read
+   */
+  @Nullable
+  Object getValue(Object bean) {
+    if(properties == null) {
+      return PropertyAccessorFactory.forBeanPropertyAccess(bean).getPropertyValue(propertyPath);
+    }
+    Object value = bean;
+    for(int i = 0; i < properties.length && value != null; i++) {
+      MethodHandle getter = getGetter(i, value.getClass());
+      try {
+        value = getter.invokeExact(value);
+      } catch(RuntimeException | Error e) {
+        throw e;
+      } catch(Throwable e) {
+        throw new RuntimeException(e);
+      }
+    }
+    return value;
+  }
+
+  private MethodHandle getGetter(int index, Class<?> beanClass) {
+    MethodHandle getter = getters[index].get(beanClass);
+    if(getter == null) {
+      getter = lookupGetter(beanClass, properties[index]);
+      getters[index].put(beanClass, getter);
+    }
+    return getter;
+  }
+
+  private static MethodHandle lookupGetter(Class<?> beanClass, String property) {
+    PropertyDescriptor descriptor = BeanUtils.getPropertyDescriptor(beanClass, property);
+    Method readMethod = descriptor == null ? null : descriptor.getReadMethod();
+    if(readMethod == null) {
+      throw new NotReadablePropertyException(beanClass, property);
+    }
+    try {
+      readMethod.setAccessible(true);
+      return MethodHandles.lookup().unreflect(readMethod).asType(GETTER_TYPE);
+    } catch(IllegalAccessException | SecurityException e) {
+      throw new NotReadablePropertyException(beanClass, property, e.getMessage());
+    }
+  }
+}
@@ -23,7 +23,6 @@ import org.obiba.magma.VectorSource;
 import org.obiba.magma.VectorSourceNotSupportedException;
 import org.springframework.beans.InvalidPropertyException;
 import org.springframework.beans.NullValueInNestedPathException;
-import org.springframework.beans.PropertyAccessorFactory;
 import org.springframework.util.Assert;
 
 import com.google.common.base.Function;
@@ -39,7 +38,7 @@ public class BeanPropertyVariableValueSource extends AbstractVariableValueSource
 
   private final Class<?> beanClass;
 
-  private final String propertyPath;
+  private final BeanPropertyAccessor accessor;
 
   public BeanPropertyVariableValueSource(Variable variable, Class<?> beanClass, String propertyPath) {
     Assert.notNull(variable, "variable cannot be null");
@@ -48,7 +47,7 @@ public class BeanPropertyVariableValueSource extends AbstractVariableValueSource
 
     this.variable = variable;
     this.beanClass = beanClass;
-    this.propertyPath = propertyPath;
+    accessor = new BeanPropertyAccessor(propertyPath);
   }
 
   @NotNull
@@ -66,7 +65,17 @@ public class BeanPropertyVariableValueSource extends AbstractVariableValueSource
   @Override
   @NotNull
   public Value getValue(ValueSet valueSet) {
-    Object bean = ((BeanValueSet) valueSet).resolve(beanClass, valueSet, variable);
+    return getValueFromBean(((BeanValueSet) valueSet).resolve(beanClass, valueSet, variable));
+  }
+
+  /**
+   * Returns the value of the property for a bean (or the beans of a repeatable variable) already resolved.
+   *
+   * @param bean the bean resolved for a value set, may be null
+   * @return
+   */
+  @NotNull
+  public Value getValueFromBean(@Nullable Object bean) {
     if(bean == null) {
       return variable.isRepeatable() ? getValueType().nullSequence() : getValueType().nullValue();
     }
@@ -87,6 +96,10 @@ public class BeanPropertyVariableValueSource extends AbstractVariableValueSource
 
   }
 
+  public Class<?> getBeanClass() {
+    return beanClass;
+  }
+
   @Override
   public boolean supportVectorSource() {
     return false;
@@ -101,7 +114,7 @@ public class BeanPropertyVariableValueSource extends AbstractVariableValueSource
   @Nullable
   protected Object getPropertyValue(Object bean) {
     try {
-      return PropertyAccessorFactory.forBeanPropertyAccess(bean).getPropertyValue(propertyPath);
+      return accessor.getValue(bean);
     } catch(NullValueInNestedPathException e) {
       return null;
     } catch(InvalidPropertyException e) {
@@ -1,30 +1,42 @@
 package org.obiba.magma.beans;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.SortedSet;
 
 import javax.validation.constraints.NotNull;
 
 import org.obiba.magma.Datasource;
 import org.obiba.magma.NoSuchValueSetException;
+import org.obiba.magma.NoSuchVariableException;
 import org.obiba.magma.Timestamps;
+import org.obiba.magma.Value;
 import org.obiba.magma.ValueSet;
 import org.obiba.magma.ValueTable;
 import org.obiba.magma.Variable;
 import org.obiba.magma.VariableEntity;
 import org.obiba.magma.VariableValueSource;
 import org.obiba.magma.VariableValueSourceFactory;
+import org.obiba.magma.VectorSource;
 import org.obiba.magma.support.AbstractValueTable;
+import org.obiba.magma.support.AbstractVariableValueSourceWrapper;
 import org.obiba.magma.support.NullTimestamps;
 import org.obiba.magma.support.VariableEntityProvider;
 
 import com.google.common.base.Predicate;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 
 public class BeanValueTable extends AbstractValueTable {
 
+  /**
+   * Number of beans resolved at once when reading a variable as a {@code VectorSource}.
+   */
+  private static final int VECTOR_BATCH_SIZE = 1000;
+
   private final Set<ValueSetBeanResolver> resolvers = Sets.newHashSet();
 
   public BeanValueTable(Datasource datasource, String name, VariableEntityProvider provider) {
@@ -52,22 +64,49 @@ public class BeanValueTable extends AbstractValueTable {
       }
 
       @Override
-      public Object resolve(final Class<?> type, ValueSet valueSet, Variable variable) throws NoSuchBeanException {
-        try {
-          return Iterables.find(getResolvers(), new Predicate<ValueSetBeanResolver>() {
-            @Override
-            public boolean apply(ValueSetBeanResolver input) {
-              return input.resolves(type);
-            }
-          }).resolve(type, valueSet, variable);
-        } catch(NoSuchElementException e) {
-          throw new NoSuchBeanException(valueSet, type,
-              "No resolver for bean of type " + type + " in table " + getName());
-        }
+      public Object resolve(Class<?> type, ValueSet valueSet, Variable variable) throws NoSuchBeanException {
+        return getResolver(type, valueSet).resolve(type, valueSet, variable);
       }
     };
   }
 
+  /**
+   * Bean properties are read as a {@code VectorSource}: the beans of the entities are resolved by batches, in one call
+   * when their resolver is a {@link BatchValueSetBeanResolver}.
+   */
+  @Override
+  public VariableValueSource getVariableValueSource(String variableName) throws NoSuchVariableException {
+    VariableValueSource source = super.getVariableValueSource(variableName);
+    return source instanceof BeanPropertyVariableValueSource
+        ? new BeanPropertyVectorSource((BeanPropertyVariableValueSource) source)
+        : source;
+  }
+
+  private ValueSetBeanResolver getResolver(final Class<?> type, ValueSet valueSet) throws NoSuchBeanException {
+    try {
+      return Iterables.find(getResolvers(), new Predicate<ValueSetBeanResolver>() {
+        @Override
+        public boolean apply(ValueSetBeanResolver input) {
+          return input.resolves(type);
+        }
+      });
+    } catch(NoSuchElementException e) {
+      throw new NoSuchBeanException(valueSet, type, "No resolver for bean of type " + type + " in table " + getName());
+    }
+  }
+
+  private List<Object> resolve(Class<?> type, List<ValueSet> valueSets, Variable variable) {
+    ValueSetBeanResolver resolver = getResolver(type, valueSets.get(0));
+    if(resolver instanceof BatchValueSetBeanResolver) {
+      return ((BatchValueSetBeanResolver) resolver).resolve(type, valueSets, variable);
+    }
+    List<Object> beans = Lists.newArrayListWithCapacity(valueSets.size());
+    for(ValueSet valueSet : valueSets) {
+      beans.add(resolver.resolve(type, valueSet, variable));
+    }
+    return beans;
+  }
+
   protected Iterable<ValueSetBeanResolver> getResolvers() {
     return resolvers;
   }
@@ -98,4 +137,40 @@ public class BeanValueTable extends AbstractValueTable {
     return NullTimestamps.get();
   }
 
+  private class BeanPropertyVectorSource extends AbstractVariableValueSourceWrapper implements VectorSource {
+
+    private final BeanPropertyVariableValueSource source;
+
+    private BeanPropertyVectorSource(BeanPropertyVariableValueSource source) {
+      super(source);
+      this.source = source;
+    }
+
+    @Override
+    public boolean supportVectorSource() {
+      return true;
+    }
+
+    @NotNull
+    @Override
+    public VectorSource asVectorSource() {
+      return this;
+    }
+
+    @Override
+    public Iterable<Value> getValues(SortedSet<VariableEntity> entities) {
+      List<Value> values = Lists.newArrayListWithCapacity(entities.size());
+      for(List<VariableEntity> batch : Iterables.partition(entities, VECTOR_BATCH_SIZE)) {
+        List<ValueSet> valueSets = Lists.newArrayListWithCapacity(batch.size());
+        for(VariableEntity entity : batch) {
+          valueSets.add(getValueSet(entity));
+        }
+        for(Object bean : resolve(source.getBeanClass(), valueSets, source.getVariable())) {
+          values.add(source.getValueFromBean(bean));
+        }
+      }
+      return values;
+    }
+  }
+
 }
@@ -16,20 +16,26 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.SortedSet;
 
 import org.easymock.EasyMock;
 import org.junit.Test;
 import org.obiba.magma.Category;
+import org.obiba.magma.Datasource;
 import org.obiba.magma.Value;
 import org.obiba.magma.ValueSet;
 import org.obiba.magma.Variable;
+import org.obiba.magma.VariableEntity;
 import org.obiba.magma.VariableValueSource;
 import org.obiba.magma.VariableValueSourceFactory;
+import org.obiba.magma.support.VariableEntityBean;
+import org.obiba.magma.support.VariableEntityProvider;
 import org.obiba.magma.test.AbstractMagmaTest;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 
 import static org.fest.assertions.api.Assertions.assertThat;
@@ -213,6 +219,64 @@ public class BeanVariableProviderTest extends AbstractMagmaTest {
     }
   }
 
+  @Test
+  public void test_vector_source_resolves_beans_in_batch() {
+    BeanVariableValueSourceFactory<TestBean> bvp = new BeanVariableValueSourceFactory<>("Participant", TestBean.class);
+    bvp.setProperties(Sets.newHashSet("firstName", "nestedBean.decimal"));
+    BeanValueTable table = new BeanValueTable(EasyMock.createMock(Datasource.class), "Test",
+        EasyMock.createMock(VariableEntityProvider.class));
+    table.addVariableValueSources(bvp);
+    final List<Integer> batchSizes = Lists.newArrayList();
+    table.addResolver(new BatchValueSetBeanResolver() {
+      @Override
+      public List<Object> resolve(Class<?> type, List<ValueSet> valueSets, Variable variable) {
+        batchSizes.add(valueSets.size());
+        List<Object> beans = Lists.newArrayList();
+        for(ValueSet valueSet : valueSets) {
+          beans.add(resolve(type, valueSet, variable));
+        }
+        return beans;
+      }
+
+      @Override
+      public boolean resolves(Class<?> type) {
+        return type == TestBean.class;
+      }
+
+      @Override
+      public Object resolve(Class<?> type, ValueSet valueSet, Variable variable) {
+        String identifier = valueSet.getVariableEntity().getIdentifier();
+        if("2".equals(identifier)) return null;
+        TestBean bean = new TestBean();
+        bean.setFirstName("Bean" + identifier);
+        if("1".equals(identifier)) {
+          NestedTestBean nested = new NestedTestBean();
+          nested.setDecimal(42.0);
+          bean.setNestedBean(nested);
+        }
+        return bean;
+      }
+    });
+    SortedSet<VariableEntity> entities = Sets.<VariableEntity>newTreeSet(ImmutableList
+        .of(new VariableEntityBean("Participant", "1"), new VariableEntityBean("Participant", "2"),
+            new VariableEntityBean("Participant", "3")));
+
+    VariableValueSource firstName = table.getVariableValueSource("firstName");
+    assertThat(firstName.supportVectorSource()).isTrue();
+    List<Value> values = ImmutableList.copyOf(firstName.asVectorSource().getValues(entities));
+    assertThat(values).hasSize(3);
+    assertThat(values.get(0).toString()).isEqualTo("Bean1");
+    assertThat(values.get(1).isNull()).isTrue();
+    assertThat(values.get(2).toString()).isEqualTo("Bean3");
+
+    values = ImmutableList
+        .copyOf(table.getVariableValueSource("nestedBean.decimal").asVectorSource().getValues(entities));
+    assertThat(values.get(0).getValue()).isEqualTo(42.0);
+    assertThat(values.get(1).isNull()).isTrue();
+    assertThat(values.get(2).isNull()).isTrue();
+    assertThat(batchSizes).containsExactly(3, 3);
+  }
+
   protected Set<VariableValueSource> assertVariablesFromProperties(VariableValueSourceFactory bvp,
       Collection<String> properties) {
     return assertVariablesFromProperties(bvp, properties, null);
@@ -0,0 +1,23 @@
+package org.obiba.magma.benchmarks;
+
+import org.obiba.magma.MagmaEngine;
+import org.obiba.magma.js.MagmaJsExtension;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Starts the {@code MagmaEngine}, with its javascript extension, before the benchmark state is set up.
+ */
+public abstract class AbstractMagmaBenchmark {
+
+  @Setup(Level.Trial)
+  public void startEngine() {
+    new MagmaEngine().extend(new MagmaJsExtension());
+  }
+
+  @TearDown(Level.Trial)
+  public void stopEngine() {
+    MagmaEngine.get().shutdown();
+  }
+}
@@ -0,0 +1,196 @@
+package org.obiba.magma.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.dbcp.BasicDataSource;
+import org.obiba.magma.Datasource;
+import org.obiba.magma.MagmaEngine;
+import org.obiba.magma.ValueSet;
+import org.obiba.magma.ValueTable;
+import org.obiba.magma.Variable;
+import org.obiba.magma.datasource.csv.CsvDatasource;
+import org.obiba.magma.datasource.fs.FsDatasource;
+import org.obiba.magma.datasource.jdbc.JdbcDatasource;
+import org.obiba.magma.support.DatasourceCopier;
+import org.obiba.magma.type.DateType;
+import org.obiba.magma.xstream.MagmaXStreamExtension;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.google.common.base.Predicate;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+import com.google.common.io.Files;
+
+/**
+ * Writing (copy of a generated table) and reading (iteration over all the values) of a table, in a csv, fs or jdbc
+ * datasource. The jdbc datasource is an in-memory HSQLDB database.
+ * <p/>
+ * The date variable is left out of the table, as the jdbc datasource cannot write date values.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class DatasourceBenchmark extends AbstractMagmaBenchmark {
+
+  private static final String TABLE_NAME = "generated";
+
+  private static final AtomicInteger DATASOURCE_COUNT = new AtomicInteger();
+
+  @Param({ "csv", "fs", "jdbc" })
+  public String format;
+
+  @Param("10000")
+  public int entities;
+
+  private File directory;
+
+  /**
+   * Connection pools of the jdbc datasources, by datasource name.
+   */
+  private final Map<String, BasicDataSource> dataSources = new ConcurrentHashMap<>();
+
+  private ValueTable generatedTable;
+
+  private Datasource source;
+
+  private ValueTable writtenTable;
+
+  private Variable[] variables;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    MagmaEngine.get().extend(new MagmaXStreamExtension());
+    directory = Files.createTempDir();
+    generatedTable = Tables.newTable(ImmutableList
+        .copyOf(Iterables.filter(Tables.dictionary(""), new Predicate<Variable>() {
+          @Override
+          public boolean apply(Variable input) {
+            return !input.getValueType().equals(DateType.get());
+          }
+        })), entities);
+    source = MagmaEngine.get().addDatasource(newDatasource());
+    DatasourceCopier.Builder.newCopier().build().copy(generatedTable, source);
+    writtenTable = source.getValueTable(TABLE_NAME);
+    variables = Iterables.toArray(writtenTable.getVariables(), Variable.class);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    remove(source);
+    deleteRecursively(directory);
+  }
+
+  @Benchmark
+  public void write(Destination destination) throws IOException {
+    DatasourceCopier.Builder.newCopier().build().copy(generatedTable, destination.datasource);
+  }
+
+  @Benchmark
+  public void read(Blackhole blackhole) {
+    for(ValueSet valueSet : writtenTable.getValueSets()) {
+      for(Variable variable : variables) {
+        blackhole.consume(writtenTable.getValue(variable, valueSet));
+      }
+    }
+  }
+
+  private Datasource newDatasource() throws IOException {
+    String name = format + DATASOURCE_COUNT.incrementAndGet();
+    switch(format) {
+      case "csv":
+        File tableDirectory = new File(new File(directory, name), TABLE_NAME);
+        Files.createParentDirs(new File(tableDirectory, CsvDatasource.DATA_FILE));
+        Files.touch(new File(tableDirectory, CsvDatasource.DATA_FILE));
+        Files.touch(new File(tableDirectory, CsvDatasource.VARIABLES_FILE));
+        return new CsvDatasource(name).addValueTable(tableDirectory);
+      case "fs":
+        return new FsDatasource(name, new File(directory, name + ".zip"));
+      case "jdbc":
+        BasicDataSource dataSource = new BasicDataSource();
+        dataSource.setDriverClassName("org.hsqldb.jdbcDriver");
+        dataSource.setUrl("jdbc:hsqldb:mem:" + name);
+        dataSource.setUsername("sa");
+        dataSource.setPassword("");
+        dataSources.put(name, dataSource);
+        return new JdbcDatasource(name, dataSource, Tables.ENTITY_TYPE, true);
+      default:
+        throw new IllegalArgumentException("Unknown datasource format: " + format);
+    }
+  }
+
+  /**
+   * Removes a datasource from the engine and drops its in-memory database, if any, so that the memory used by the
+   * previous invocations is released.
+   *
+   * @param datasource
+   */
+  private void remove(Datasource datasource) {
+    MagmaEngine.get().removeDatasource(datasource);
+    BasicDataSource dataSource = dataSources.remove(datasource.getName());
+    if(dataSource == null) return;
+    try {
+      try(Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+        statement.execute("SHUTDOWN");
+      }
+      dataSource.close();
+    } catch(SQLException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static void deleteRecursively(File file) throws IOException {
+    File[] children = file.listFiles();
+    if(children != null) {
+      for(File child : children) {
+        deleteRecursively(child);
+      }
+    }
+    if(!file.delete()) throw new IOException("Cannot delete " + file);
+  }
+
+  /**
+   * Destination of the write benchmark, a new one for each invocation.
+   */
+  @State(Scope.Thread)
+  public static class Destination {
+
+    private DatasourceBenchmark benchmark;
+
+    private Datasource datasource;
+
+    @Setup(Level.Invocation)
+    public void create(DatasourceBenchmark datasourceBenchmark) throws IOException {
+      benchmark = datasourceBenchmark;
+      datasource = MagmaEngine.get().addDatasource(benchmark.newDatasource());
+    }
+
+    @TearDown(Level.Invocation)
+    public void remove() {
+      benchmark.remove(datasource);
+    }
+  }
+}
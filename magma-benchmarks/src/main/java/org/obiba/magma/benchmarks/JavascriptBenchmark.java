@@ -0,0 +1,75 @@
+package org.obiba.magma.benchmarks;
+
+import java.util.SortedSet;
+import java.util.concurrent.TimeUnit;
+
+import org.obiba.magma.Value;
+import org.obiba.magma.ValueTable;
+import org.obiba.magma.Variable;
+import org.obiba.magma.VariableEntity;
+import org.obiba.magma.js.JavascriptVariableBuilder;
+import org.obiba.magma.js.JavascriptVariableValueSource;
+import org.obiba.magma.type.DecimalType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.google.common.collect.ImmutableSortedSet;
+
+/**
+ * Evaluation of a derived variable script on all the entities of a table, as a vector and one value set at a time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class JavascriptBenchmark extends AbstractMagmaBenchmark {
+
+  @Param("10000")
+  public int entities;
+
+  @Param({ "$('INT').multiply(2).plus($('DEC'))", "$('CAT').map({'A': 1, 'B': 2, 'C': 3}, 0)" })
+  public String script;
+
+  private ValueTable table;
+
+  private SortedSet<VariableEntity> entitySet;
+
+  private JavascriptVariableValueSource source;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    table = Tables.newTable(entities);
+    entitySet = ImmutableSortedSet.copyOf(table.getVariableEntities());
+    Variable variable = Variable.Builder.newVariable("DERIVED", DecimalType.get(), Tables.ENTITY_TYPE)
+        .addAttribute(JavascriptVariableBuilder.SCRIPT_ATTRIBUTE_NAME, script).build();
+    source = new JavascriptVariableValueSource(variable, table);
+    source.initialise();
+  }
+
+  @Benchmark
+  public void vector(Blackhole blackhole) {
+    for(Value value : source.getValues(entitySet)) {
+      blackhole.consume(value);
+    }
+  }
+
+  @Benchmark
+  public void valueSets(Blackhole blackhole) {
+    for(VariableEntity entity : entitySet) {
+      blackhole.consume(source.getValue(table.getValueSet(entity)));
+    }
+  }
+}
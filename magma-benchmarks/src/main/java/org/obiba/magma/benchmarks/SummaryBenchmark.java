@@ -0,0 +1,72 @@
+package org.obiba.magma.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.obiba.magma.ValueTable;
+import org.obiba.magma.Variable;
+import org.obiba.magma.math.summary.CategoricalVariableSummary;
+import org.obiba.magma.math.summary.ContinuousVariableSummary;
+import org.obiba.magma.math.summary.DefaultVariableSummary;
+import org.obiba.magma.math.summary.TextVariableSummary;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Computation of the summaries of the variables of a table.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class SummaryBenchmark extends AbstractMagmaBenchmark {
+
+  @Param("10000")
+  public int entities;
+
+  private ValueTable table;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    table = Tables.newTable(entities);
+  }
+
+  @Benchmark
+  public ContinuousVariableSummary continuous() {
+    Variable variable = table.getVariable("DEC");
+    return new ContinuousVariableSummary.Builder(variable, ContinuousVariableSummary.Distribution.normal)
+        .addTable(table, table.getVariableValueSource(variable.getName())).build();
+  }
+
+  @Benchmark
+  public CategoricalVariableSummary categorical() {
+    Variable variable = table.getVariable("CAT");
+    return new CategoricalVariableSummary.Builder(variable)
+        .addTable(table, table.getVariableValueSource(variable.getName())).build();
+  }
+
+  @Benchmark
+  public TextVariableSummary text() {
+    Variable variable = table.getVariable("TEXT");
+    return new TextVariableSummary.Builder(variable)
+        .addTable(table, table.getVariableValueSource(variable.getName())).build();
+  }
+
+  @Benchmark
+  public DefaultVariableSummary date() {
+    Variable variable = table.getVariable("DATE");
+    return new DefaultVariableSummary.Builder(variable)
+        .addTable(table, table.getVariableValueSource(variable.getName())).build();
+  }
+}
@@ -0,0 +1,64 @@
+package org.obiba.magma.benchmarks;
+
+import java.util.List;
+
+import org.obiba.magma.Category;
+import org.obiba.magma.ValueTable;
+import org.obiba.magma.Variable;
+import org.obiba.magma.datasource.generated.GeneratedValueTable;
+import org.obiba.magma.support.StaticDatasource;
+import org.obiba.magma.type.DateType;
+import org.obiba.magma.type.DecimalType;
+import org.obiba.magma.type.IntegerType;
+import org.obiba.magma.type.TextType;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * The generated tables the benchmarks run on. Tables are generated with a fixed seed so that each run reads the same
+ * values.
+ */
+final class Tables {
+
+  static final String ENTITY_TYPE = "Participant";
+
+  private static final long SEED = 20150101;
+
+  private Tables() {}
+
+  /**
+   * Returns a dictionary of one variable of each common kind, the name of each variable being prefixed.
+   *
+   * @param prefix
+   * @return
+   */
+  static List<Variable> dictionary(String prefix) {
+    return ImmutableList.of( //
+        Variable.Builder.newVariable(prefix + "INT", IntegerType.get(), ENTITY_TYPE) //
+            .addAttribute("minimum", "0").addAttribute("maximum", "100").build(), //
+        Variable.Builder.newVariable(prefix + "DEC", DecimalType.get(), ENTITY_TYPE).build(), //
+        Variable.Builder.newVariable(prefix + "DATE", DateType.get(), ENTITY_TYPE).build(), //
+        Variable.Builder.newVariable(prefix + "TEXT", TextType.get(), ENTITY_TYPE).build(), //
+        Variable.Builder.newVariable(prefix + "CAT", TextType.get(), ENTITY_TYPE) //
+            .addCategory("A", "") //
+            .addCategory("B", "") //
+            .addCategory("C", "") //
+            .addCategory(Category.Builder.newCategory("88").missing(true).build()).build());
+  }
+
+  static ValueTable newTable(int entities) {
+    return newTable("", entities, SEED);
+  }
+
+  static ValueTable newTable(List<Variable> variables, int entities) {
+    return new GeneratedValueTable(new StaticDatasource("datasource"), variables, entities, SEED);
+  }
+
+  /**
+   * The table is named "generated" and belongs to a datasource named after the prefix of its variables, so that tables
+   * with different prefixes have different references.
+   */
+  static ValueTable newTable(String prefix, int entities, long seed) {
+    return new GeneratedValueTable(new StaticDatasource(prefix + "datasource"), dictionary(prefix), entities, seed);
+  }
+}
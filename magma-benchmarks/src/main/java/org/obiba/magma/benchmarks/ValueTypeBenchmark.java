@@ -0,0 +1,114 @@
+package org.obiba.magma.benchmarks;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.obiba.magma.Value;
+import org.obiba.magma.type.DateTimeType;
+import org.obiba.magma.type.DecimalType;
+import org.obiba.magma.type.IntegerType;
+import org.obiba.magma.type.TextType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Parsing of values from their string representation and creation of values and value sequences.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ValueTypeBenchmark {
+
+  private static final int SIZE = 1000;
+
+  private final String[] dateTimes = new String[SIZE];
+
+  private final String[] decimals = new String[SIZE];
+
+  private final long[] integers = new long[SIZE];
+
+  private final List<Value> values = Lists.newArrayListWithCapacity(SIZE);
+
+  private String sequence;
+
+  @Setup
+  public void setUp() {
+    Random random = new Random(SIZE);
+    for(int i = 0; i < SIZE; i++) {
+      dateTimes[i] = DateTimeType.get().valueOf(new Date(Math.abs(random.nextLong()) % 4000000000000L)).toString();
+      decimals[i] = Double.toString(random.nextGaussian() * 1000);
+      integers[i] = random.nextInt();
+      values.add(IntegerType.get().valueOf(integers[i]));
+    }
+    sequence = IntegerType.get().sequenceOf(values).toString();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(SIZE)
+  public void parseDateTime(Blackhole blackhole) {
+    for(String dateTime : dateTimes) {
+      blackhole.consume(DateTimeType.get().valueOf(dateTime));
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(SIZE)
+  public void parseDecimal(Blackhole blackhole) {
+    for(String decimal : decimals) {
+      blackhole.consume(DecimalType.get().valueOf(decimal));
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(SIZE)
+  public void createInteger(Blackhole blackhole) {
+    for(long integer : integers) {
+      blackhole.consume(IntegerType.get().valueOf(integer));
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(SIZE)
+  public void createText(Blackhole blackhole) {
+    for(String decimal : decimals) {
+      blackhole.consume(TextType.get().valueOf(decimal));
+    }
+  }
+
+  /**
+   * Creation of a sequence of {@value #SIZE} values.
+   *
+   * @return
+   */
+  @Benchmark
+  public Value createSequence() {
+    return IntegerType.get().sequenceOf(values);
+  }
+
+  /**
+   * Parsing of a sequence of {@value #SIZE} values.
+   *
+   * @return
+   */
+  @Benchmark
+  public Value parseSequence() {
+    return IntegerType.get().sequenceOf(sequence);
+  }
+}
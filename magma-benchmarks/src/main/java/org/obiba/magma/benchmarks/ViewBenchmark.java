@@ -0,0 +1,78 @@
+package org.obiba.magma.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.obiba.magma.ValueSet;
+import org.obiba.magma.ValueTable;
+import org.obiba.magma.Variable;
+import org.obiba.magma.js.views.JavascriptClause;
+import org.obiba.magma.support.Initialisables;
+import org.obiba.magma.views.JoinTable;
+import org.obiba.magma.views.View;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Filtering of the entities of a view by a where clause and iteration over the value sets of a join of tables.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ViewBenchmark extends AbstractMagmaBenchmark {
+
+  @Param("10000")
+  public int entities;
+
+  private ValueTable table;
+
+  private JoinTable joinTable;
+
+  private Variable[] joinVariables;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    table = Tables.newTable(entities);
+    // same seed, so that both tables have the same entities
+    ValueTable left = Tables.newTable("L_", entities, 1);
+    ValueTable right = Tables.newTable("R_", entities, 1);
+    joinTable = new JoinTable(ImmutableList.of(left, right));
+    joinVariables = new Variable[] { joinTable.getVariable("L_INT"), joinTable.getVariable("R_CAT") };
+  }
+
+  /**
+   * A new view is created for each invocation, as views keep their entities.
+   *
+   * @return
+   */
+  @Benchmark
+  public int whereClause() {
+    View view = View.Builder.newView("view", table).where(new JavascriptClause("$('INT').gt(50)")).build();
+    Initialisables.initialise(view);
+    return view.getVariableEntities().size();
+  }
+
+  @Benchmark
+  public void joinTableValueSets(Blackhole blackhole) {
+    for(ValueSet valueSet : joinTable.getValueSets()) {
+      for(Variable variable : joinVariables) {
+        blackhole.consume(joinTable.getValue(variable, valueSet));
+      }
+    }
+  }
+}
@@ -0,0 +1,26 @@
+package org.obiba.magma.datasource.crypt;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import javax.crypto.CipherInputStream;
+import javax.crypto.CipherOutputStream;
+
+/**
+ * Base class of the {@link DatasourceCipherFactory} implementations that encrypt the streams as a whole: the streams
+ * are processed by the {@code Cipher} instances returned by {@link #createEncryptingCipher()} and
+ * {@link #createDecryptingCipher()}.
+ */
+public abstract class AbstractDatasourceCipherFactory implements DatasourceCipherFactory {
+
+  @Override
+  public OutputStream createEncryptingStream(OutputStream os) {
+    return new CipherOutputStream(os, createEncryptingCipher());
+  }
+
+  @Override
+  public InputStream createDecryptingStream(InputStream is, long length) {
+    return new CipherInputStream(is, createDecryptingCipher());
+  }
+
+}
@@ -0,0 +1,157 @@
+package org.obiba.magma.datasource.crypt;
+
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.GeneralSecurityException;
+
+import javax.crypto.AEADBadTagException;
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+
+import com.google.common.io.ByteStreams;
+
+import static org.obiba.magma.datasource.crypt.BlockCipherOutputStream.NONCE_PREFIX_LENGTH;
+import static org.obiba.magma.datasource.crypt.BlockCipherOutputStream.TAG_LENGTH;
+import static org.obiba.magma.datasource.crypt.BlockCipherOutputStream.nonce;
+
+/**
+ * Decrypts a stream written by a {@link BlockCipherOutputStream}. Blocks are decrypted one at a time, as they are
+ * read. When the length of the encrypted stream is known, {@link #skip(long)} skips the whole blocks it spans without
+ * decrypting them.
+ */
+public class BlockCipherInputStream extends FilterInputStream {
+
+  private final Cipher cipher;
+
+  private final SecretKey secretKey;
+
+  private final int blockSize;
+
+  /**
+   * Number of blocks in the stream, -1 when unknown.
+   */
+  private final long blockCount;
+
+  private final byte[] encrypted;
+
+  private byte[] noncePrefix;
+
+  private byte[] decrypted = new byte[0];
+
+  private int position;
+
+  private int blockIndex;
+
+  private boolean lastBlockRead;
+
+  /**
+   * @param in the encrypted stream
+   * @param cipher
+   * @param secretKey
+   * @param blockSize size of the plain blocks, as written
+   * @param length the length of the encrypted stream, -1 when unknown
+   */
+  public BlockCipherInputStream(InputStream in, Cipher cipher, SecretKey secretKey, int blockSize, long length) {
+    super(in);
+    if(blockSize <= 0) throw new IllegalArgumentException("blockSize must be positive");
+    this.cipher = cipher;
+    this.secretKey = secretKey;
+    this.blockSize = blockSize;
+    encrypted = new byte[blockSize + TAG_LENGTH];
+    blockCount = length < 0 ? -1 : (length - NONCE_PREFIX_LENGTH + encrypted.length - 1) / encrypted.length;
+  }
+
+  @Override
+  public int read() throws IOException {
+    if(position == decrypted.length && !readBlock()) return -1;
+    return decrypted[position++] & 0xff;
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    if(len == 0) return 0;
+    if(position == decrypted.length && !readBlock()) return -1;
+    int n = Math.min(len, decrypted.length - position);
+    System.arraycopy(decrypted, position, b, off, n);
+    position += n;
+    return n;
+  }
+
+  @Override
+  public long skip(long n) throws IOException {
+    if(n <= 0) return 0;
+    long skipped = Math.min(n, decrypted.length - position);
+    position += skipped;
+    if(skipped < n && blockCount >= 0 && !lastBlockRead) {
+      readNoncePrefix();
+      // skip whole blocks, but never the last one which is the only one that can tell the end of the stream
+      while(n - skipped >= blockSize && blockIndex < blockCount - 1) {
+        ByteStreams.skipFully(in, encrypted.length);
+        blockIndex++;
+        skipped += blockSize;
+      }
+    }
+    while(skipped < n && (position < decrypted.length || readBlock())) {
+      int s = (int) Math.min(n - skipped, decrypted.length - position);
+      position += s;
+      skipped += s;
+    }
+    return skipped;
+  }
+
+  @Override
+  public int available() throws IOException {
+    return decrypted.length - position;
+  }
+
+  @Override
+  public boolean markSupported() {
+    return false;
+  }
+
+  @Override
+  public synchronized void mark(int readlimit) {
+  }
+
+  @Override
+  public synchronized void reset() throws IOException {
+    throw new IOException("mark/reset not supported");
+  }
+
+  private boolean readBlock() throws IOException {
+    while(!lastBlockRead) {
+      readNoncePrefix();
+      int length = ByteStreams.read(in, encrypted, 0, encrypted.length);
+      if(length < TAG_LENGTH) throw new EOFException("Encrypted stream is truncated");
+      boolean last = length < encrypted.length;
+      try {
+        cipher.init(Cipher.DECRYPT_MODE, secretKey,
+            new GCMParameterSpec(TAG_LENGTH * 8, nonce(noncePrefix, blockIndex++)));
+        cipher.updateAAD(new byte[] { (byte) (last ? 1 : 0) });
+        decrypted = cipher.doFinal(encrypted, 0, length);
+      } catch(AEADBadTagException e) {
+        throw new IOException("Encrypted block " + (blockIndex - 1) + " is corrupted", e);
+      } catch(GeneralSecurityException e) {
+        throw new IOException("Unable to decrypt block", e);
+      }
+      position = 0;
+      lastBlockRead = last;
+      if(decrypted.length > 0) return true;
+    }
+    return false;
+  }
+
+  private void readNoncePrefix() throws IOException {
+    if(noncePrefix == null) {
+      noncePrefix = new byte[NONCE_PREFIX_LENGTH];
+      try {
+        ByteStreams.readFully(in, noncePrefix);
+      } catch(EOFException e) {
+        throw new EOFException("Encrypted stream is truncated");
+      }
+    }
+  }
+}
@@ -0,0 +1,116 @@
+package org.obiba.magma.datasource.crypt;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+
+/**
+ * Encrypts a stream by fixed-size blocks, each block being encrypted and authenticated independently so that it can be
+ * read with a {@link BlockCipherInputStream} without decrypting the blocks that precede it.
+ * <p/>
+ * The stream starts with a random nonce prefix, followed by the encrypted blocks. The nonce of a block is the prefix
+ * followed by the block index, and the block is authenticated with a flag telling whether it is the final block. The
+ * final block always holds less than {@code blockSize} bytes (possibly none), so that truncated streams are detected.
+ */
+public class BlockCipherOutputStream extends FilterOutputStream {
+
+  static final int NONCE_PREFIX_LENGTH = 8;
+
+  static final int NONCE_LENGTH = NONCE_PREFIX_LENGTH + 4;
+
+  static final int TAG_LENGTH = 16;
+
+  private static final SecureRandom random = new SecureRandom();
+
+  private final Cipher cipher;
+
+  private final SecretKey secretKey;
+
+  private final byte[] noncePrefix = new byte[NONCE_PREFIX_LENGTH];
+
+  private final byte[] buffer;
+
+  private int count;
+
+  private int blockIndex;
+
+  private boolean closed;
+
+  public BlockCipherOutputStream(OutputStream out, Cipher cipher, SecretKey secretKey, int blockSize) {
+    super(out);
+    if(blockSize <= 0) throw new IllegalArgumentException("blockSize must be positive");
+    this.cipher = cipher;
+    this.secretKey = secretKey;
+    buffer = new byte[blockSize];
+    random.nextBytes(noncePrefix);
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    if(count == buffer.length) writeBlock(false);
+    buffer[count++] = (byte) b;
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len) throws IOException {
+    int written = 0;
+    while(written < len) {
+      if(count == buffer.length) writeBlock(false);
+      int n = Math.min(len - written, buffer.length - count);
+      System.arraycopy(b, off + written, buffer, count, n);
+      count += n;
+      written += n;
+    }
+  }
+
+  @Override
+  public void flush() throws IOException {
+    // a partial block cannot be written before the end of the stream
+    out.flush();
+  }
+
+  @Override
+  public void close() throws IOException {
+    if(closed) return;
+    closed = true;
+    try {
+      if(count == buffer.length) writeBlock(false);
+      writeBlock(true);
+      out.flush();
+    } finally {
+      out.close();
+    }
+  }
+
+  private void writeBlock(boolean last) throws IOException {
+    if(blockIndex == 0) {
+      out.write(noncePrefix);
+    }
+    if(blockIndex < 0) throw new IOException("Too many blocks in encrypted stream");
+    try {
+      cipher.init(Cipher.ENCRYPT_MODE, secretKey,
+          new GCMParameterSpec(TAG_LENGTH * 8, nonce(noncePrefix, blockIndex++)));
+      cipher.updateAAD(new byte[] { (byte) (last ? 1 : 0) });
+      out.write(cipher.doFinal(buffer, 0, count));
+    } catch(GeneralSecurityException e) {
+      throw new IOException("Unable to encrypt block", e);
+    }
+    count = 0;
+  }
+
+  static byte[] nonce(byte[] prefix, int blockIndex) {
+    byte[] nonce = new byte[NONCE_LENGTH];
+    System.arraycopy(prefix, 0, nonce, 0, NONCE_PREFIX_LENGTH);
+    nonce[NONCE_PREFIX_LENGTH] = (byte) (blockIndex >>> 24);
+    nonce[NONCE_PREFIX_LENGTH + 1] = (byte) (blockIndex >>> 16);
+    nonce[NONCE_PREFIX_LENGTH + 2] = (byte) (blockIndex >>> 8);
+    nonce[NONCE_PREFIX_LENGTH + 3] = (byte) blockIndex;
+    return nonce;
+  }
+}
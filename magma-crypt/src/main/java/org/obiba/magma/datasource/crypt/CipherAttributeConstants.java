@@ -54,5 +54,13 @@ final class CipherAttributeConstants {
    */
   static final String CIPHER_TRANSFORMATION = "magma.crypt.transformation";
 
+  /**
+   * The key value for the block size attribute. Stores the size of the blocks that are encrypted independently, when
+   * the streams are encrypted by blocks.
+   *
+   * @see BlockCipherOutputStream
+   */
+  static final String CIPHER_BLOCK_SIZE = "magma.crypt.blockSize";
+
   private CipherAttributeConstants() {}
 }
@@ -1,9 +1,15 @@
 package org.obiba.magma.datasource.crypt;
 
+import java.io.InputStream;
+import java.io.OutputStream;
+
 import javax.crypto.Cipher;
 
 /**
  * A {@code Cipher} factory for encrypting and decrypting datasource entries.
+ * <p/>
+ * Implementations that encrypt the entries as a whole can extend {@link AbstractDatasourceCipherFactory}, which
+ * creates the streams from the {@code Cipher} instances.
  */
 public interface DatasourceCipherFactory {
 
@@ -21,4 +27,21 @@ public interface DatasourceCipherFactory {
    */
   Cipher createDecryptingCipher();
 
+  /**
+   * Returns a stream that encrypts the bytes written to it into the specified stream.
+   *
+   * @param os the stream receiving the encrypted bytes
+   * @return a new encrypting stream
+   */
+  OutputStream createEncryptingStream(OutputStream os);
+
+  /**
+   * Returns a stream that decrypts the bytes read from the specified stream.
+   *
+   * @param is the stream of encrypted bytes
+   * @param length the length of the encrypted stream, -1 when unknown
+   * @return a new decrypting stream
+   */
+  InputStream createDecryptingStream(InputStream is, long length);
+
 }
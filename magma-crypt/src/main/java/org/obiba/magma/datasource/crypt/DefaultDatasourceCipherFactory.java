@@ -1,8 +1,11 @@
 package org.obiba.magma.datasource.crypt;
 
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.security.AlgorithmParameters;
 import java.security.GeneralSecurityException;
 
+import javax.annotation.Nullable;
 import javax.crypto.Cipher;
 import javax.crypto.SecretKey;
 
@@ -11,8 +14,11 @@ import org.obiba.magma.crypt.MagmaCryptRuntimeException;
 /**
  * A default implementation of {@code DatasourceCipherProvider} that uses the specified {@code transformation}, {@code
  * SecretKey} and {@code AlgorithmParameters} instances to initialise {@code Cipher} instances.
+ * <p/>
+ * When a block size is specified, the streams are encrypted by independent blocks (see
+ * {@link BlockCipherOutputStream}) and no {@code Cipher} is provided for the whole stream.
  */
-class DefaultDatasourceCipherFactory implements DatasourceCipherFactory {
+class DefaultDatasourceCipherFactory extends AbstractDatasourceCipherFactory {
 
   private final String transformation;
 
@@ -20,14 +26,23 @@ class DefaultDatasourceCipherFactory implements DatasourceCipherFactory {
 
   private final AlgorithmParameters algorithmParameters;
 
+  private final int blockSize;
+
   DefaultDatasourceCipherFactory(String transformation, SecretKey secretKey, AlgorithmParameters parameters) {
+    this(transformation, secretKey, parameters, 0);
+  }
+
+  DefaultDatasourceCipherFactory(String transformation, SecretKey secretKey, @Nullable AlgorithmParameters parameters,
+      int blockSize) {
     this.transformation = transformation;
     this.secretKey = secretKey;
     algorithmParameters = parameters;
+    this.blockSize = blockSize;
   }
 
   @Override
   public Cipher createDecryptingCipher() {
+    checkNotBlockEncrypted();
     try {
       Cipher cipher = Cipher.getInstance(transformation);
       cipher.init(Cipher.DECRYPT_MODE, secretKey, algorithmParameters);
@@ -39,6 +54,7 @@ class DefaultDatasourceCipherFactory implements DatasourceCipherFactory {
 
   @Override
   public Cipher createEncryptingCipher() {
+    checkNotBlockEncrypted();
     try {
       Cipher cipher = Cipher.getInstance(transformation);
       cipher.init(Cipher.ENCRYPT_MODE, secretKey, algorithmParameters);
@@ -48,4 +64,33 @@ class DefaultDatasourceCipherFactory implements DatasourceCipherFactory {
     }
   }
 
+  @Override
+  public OutputStream createEncryptingStream(OutputStream os) {
+    return blockSize > 0
+        ? new BlockCipherOutputStream(os, newCipher(), secretKey, blockSize)
+        : super.createEncryptingStream(os);
+  }
+
+  @Override
+  public InputStream createDecryptingStream(InputStream is, long length) {
+    return blockSize > 0
+        ? new BlockCipherInputStream(is, newCipher(), secretKey, blockSize, length)
+        : super.createDecryptingStream(is, length);
+  }
+
+  private Cipher newCipher() {
+    try {
+      return Cipher.getInstance(transformation);
+    } catch(GeneralSecurityException e) {
+      throw new MagmaCryptRuntimeException("Invalid transformation for Datasource: " + transformation, e);
+    }
+  }
+
+  private void checkNotBlockEncrypted() {
+    if(blockSize > 0) {
+      throw new MagmaCryptRuntimeException(
+          "Datasource is encrypted by blocks of " + blockSize + " bytes: a single Cipher cannot process its streams.");
+    }
+  }
+
 }
@@ -69,6 +69,10 @@ public class EncryptedSecretKeyDatasourceEncryptionStrategy implements Datasourc
     try {
       SecretKey secretKey = getSecretKey(ds);
       String transformation = ds.getAttributeStringValue(CipherAttributeConstants.CIPHER_TRANSFORMATION);
+      if(ds.hasAttribute(CipherAttributeConstants.CIPHER_BLOCK_SIZE)) {
+        int blockSize = Integer.parseInt(ds.getAttributeStringValue(CipherAttributeConstants.CIPHER_BLOCK_SIZE));
+        return new DefaultDatasourceCipherFactory(transformation, secretKey, null, blockSize);
+      }
       return new DefaultDatasourceCipherFactory(transformation, secretKey,
           getAlgorithmParameters(ds, secretKey.getAlgorithm()));
     } catch(NoSuchAttributeException e) {
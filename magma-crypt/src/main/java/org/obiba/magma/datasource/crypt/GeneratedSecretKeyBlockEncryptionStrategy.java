@@ -0,0 +1,20 @@
+package org.obiba.magma.datasource.crypt;
+
+/**
+ * Encrypts a new datasource with a generated secret key, by independent blocks authenticated with AES/GCM. Readers can
+ * detect tampered or truncated entries and skip the blocks they don't need without decrypting them.
+ * <p/>
+ * Such a datasource is read with {@link EncryptedSecretKeyDatasourceEncryptionStrategy}, like the datasources encrypted
+ * with {@link GeneratedSecretKeyDatasourceEncryptionStrategy}.
+ */
+public class GeneratedSecretKeyBlockEncryptionStrategy extends GeneratedSecretKeyDatasourceEncryptionStrategy {
+
+  public static final int DEFAULT_BLOCK_SIZE = 64 * 1024;
+
+  public GeneratedSecretKeyBlockEncryptionStrategy() {
+    setMode("GCM");
+    setPadding("NoPadding");
+    setBlockSize(DEFAULT_BLOCK_SIZE);
+  }
+
+}
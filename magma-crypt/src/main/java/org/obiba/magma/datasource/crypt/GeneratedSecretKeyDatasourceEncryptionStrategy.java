@@ -17,6 +17,7 @@ import org.obiba.magma.MagmaRuntimeException;
 import org.obiba.magma.crypt.KeyProvider;
 import org.obiba.magma.crypt.MagmaCryptRuntimeException;
 import org.obiba.magma.type.BinaryType;
+import org.obiba.magma.type.IntegerType;
 import org.obiba.magma.type.TextType;
 
 /**
@@ -49,6 +50,9 @@ public class GeneratedSecretKeyDatasourceEncryptionStrategy implements Datasourc
   // Files" which can be downloaded from Sun
   private int keySize = 128;
 
+  // Streams are encrypted by independent blocks of this size when positive, as one stream otherwise.
+  private int blockSize = 0;
+
   private transient KeyProvider keyProvider;
 
   //
@@ -78,6 +82,11 @@ public class GeneratedSecretKeyDatasourceEncryptionStrategy implements Datasourc
       String transformation = getTransformation();
 
       SecretKey sk = getSecretKey(ds);
+      if(blockSize > 0) {
+        ds.setAttributeValue(CipherAttributeConstants.CIPHER_TRANSFORMATION, TextType.get().valueOf(transformation));
+        ds.setAttributeValue(CipherAttributeConstants.CIPHER_BLOCK_SIZE, IntegerType.get().valueOf(blockSize));
+        return new DefaultDatasourceCipherFactory(transformation, sk, null, blockSize);
+      }
       AlgorithmParameters parameters = initialiseParameters(ds, transformation, sk);
 
       return new DefaultDatasourceCipherFactory(transformation, sk, parameters);
@@ -118,6 +127,16 @@ public class GeneratedSecretKeyDatasourceEncryptionStrategy implements Datasourc
     this.keySize = keySize;
   }
 
+  /**
+   * Encrypt the streams by independent blocks of the specified size, using an authenticated mode (e.g. GCM) with a
+   * nonce per block. Zero (the default) encrypts the streams as a whole.
+   *
+   * @param blockSize
+   */
+  public void setBlockSize(int blockSize) {
+    this.blockSize = blockSize;
+  }
+
   private SecretKey getSecretKey(Datasource datasource) throws NoSuchAlgorithmException {
     KeyGenerator keyGen = KeyGenerator.getInstance(algorithm);
     keyGen.init(keySize);
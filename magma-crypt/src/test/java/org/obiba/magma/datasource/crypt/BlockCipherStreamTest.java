@@ -0,0 +1,195 @@
+package org.obiba.magma.datasource.crypt;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import java.util.Random;
+
+import javax.crypto.Cipher;
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.io.ByteStreams;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.obiba.magma.datasource.crypt.BlockCipherOutputStream.NONCE_PREFIX_LENGTH;
+import static org.obiba.magma.datasource.crypt.BlockCipherOutputStream.TAG_LENGTH;
+
+public class BlockCipherStreamTest {
+
+  private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+
+  private static final int BLOCK_SIZE = 32;
+
+  private static final int ENCRYPTED_BLOCK_SIZE = BLOCK_SIZE + TAG_LENGTH;
+
+  private SecretKey secretKey;
+
+  @Before
+  public void before() throws GeneralSecurityException {
+    secretKey = newSecretKey();
+  }
+
+  @Test
+  public void test_round_trip() throws Exception {
+    for(int length : new int[] { 0, 1, BLOCK_SIZE - 1, BLOCK_SIZE, BLOCK_SIZE + 1, 5 * BLOCK_SIZE + 3 }) {
+      byte[] plain = randomBytes(length);
+      byte[] encrypted = encrypt(plain);
+      assertThat(decrypt(encrypted, encrypted.length)).isEqualTo(plain);
+      assertThat(decrypt(encrypted, -1)).isEqualTo(plain);
+    }
+  }
+
+  @Test
+  public void test_round_trip_byte_by_byte() throws Exception {
+    byte[] plain = randomBytes(2 * BLOCK_SIZE + 1);
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try(OutputStream out = new BlockCipherOutputStream(bytes, newCipher(), secretKey, BLOCK_SIZE)) {
+      for(byte b : plain) {
+        out.write(b);
+      }
+    }
+    byte[] encrypted = bytes.toByteArray();
+
+    try(InputStream in = newInputStream(encrypted, encrypted.length)) {
+      for(byte b : plain) {
+        assertThat(in.read()).isEqualTo(b & 0xff);
+      }
+      assertThat(in.read()).isEqualTo(-1);
+    }
+  }
+
+  @Test
+  public void test_skip_across_blocks() throws Exception {
+    byte[] plain = randomBytes(5 * BLOCK_SIZE + 3);
+    byte[] encrypted = encrypt(plain);
+    for(long length : new long[] { encrypted.length, -1 }) {
+      try(InputStream in = newInputStream(encrypted, length)) {
+        assertThat(in.read()).isEqualTo(plain[0] & 0xff);
+        assertThat(in.skip(2 * BLOCK_SIZE + 5)).isEqualTo(2 * BLOCK_SIZE + 5);
+        assertThat(in.read()).isEqualTo(plain[2 * BLOCK_SIZE + 6] & 0xff);
+        // skip to the end, through the last block
+        assertThat(in.skip(plain.length)).isEqualTo(plain.length - (2 * BLOCK_SIZE + 7));
+        assertThat(in.read()).isEqualTo(-1);
+        assertThat(in.skip(1)).isEqualTo(0);
+      }
+    }
+  }
+
+  @Test
+  public void test_skip_to_last_block() throws Exception {
+    byte[] plain = randomBytes(3 * BLOCK_SIZE);
+    byte[] encrypted = encrypt(plain);
+    try(InputStream in = newInputStream(encrypted, encrypted.length)) {
+      assertThat(in.skip(3 * BLOCK_SIZE - 1)).isEqualTo(3 * BLOCK_SIZE - 1);
+      assertThat(in.read()).isEqualTo(plain[3 * BLOCK_SIZE - 1] & 0xff);
+      assertThat(in.read()).isEqualTo(-1);
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void test_truncated_stream_fails() throws Exception {
+    byte[] encrypted = encrypt(randomBytes(2 * BLOCK_SIZE + 10));
+    decrypt(Arrays.copyOf(encrypted, encrypted.length - 1), -1);
+  }
+
+  @Test(expected = IOException.class)
+  public void test_truncated_nonce_prefix_fails() throws Exception {
+    byte[] encrypted = encrypt(randomBytes(BLOCK_SIZE));
+    decrypt(Arrays.copyOf(encrypted, NONCE_PREFIX_LENGTH - 1), -1);
+  }
+
+  @Test(expected = IOException.class)
+  public void test_dropped_final_block_fails() throws Exception {
+    byte[] encrypted = encrypt(randomBytes(2 * BLOCK_SIZE + 10));
+    decrypt(Arrays.copyOf(encrypted, NONCE_PREFIX_LENGTH + 2 * ENCRYPTED_BLOCK_SIZE), -1);
+  }
+
+  @Test(expected = IOException.class)
+  public void test_dropped_empty_final_block_fails() throws Exception {
+    // the plain length is a multiple of the block size, the final block is empty
+    byte[] encrypted = encrypt(randomBytes(2 * BLOCK_SIZE));
+    assertThat(encrypted.length).isEqualTo(NONCE_PREFIX_LENGTH + 2 * ENCRYPTED_BLOCK_SIZE + TAG_LENGTH);
+    decrypt(Arrays.copyOf(encrypted, encrypted.length - TAG_LENGTH), -1);
+  }
+
+  @Test(expected = IOException.class)
+  public void test_swapped_blocks_fail() throws Exception {
+    byte[] encrypted = encrypt(randomBytes(3 * BLOCK_SIZE));
+    byte[] swapped = encrypted.clone();
+    System.arraycopy(encrypted, NONCE_PREFIX_LENGTH, swapped, NONCE_PREFIX_LENGTH + ENCRYPTED_BLOCK_SIZE,
+        ENCRYPTED_BLOCK_SIZE);
+    System.arraycopy(encrypted, NONCE_PREFIX_LENGTH + ENCRYPTED_BLOCK_SIZE, swapped, NONCE_PREFIX_LENGTH,
+        ENCRYPTED_BLOCK_SIZE);
+    decrypt(swapped, swapped.length);
+  }
+
+  @Test(expected = IOException.class)
+  public void test_tampered_ciphertext_fails() throws Exception {
+    byte[] encrypted = encrypt(randomBytes(2 * BLOCK_SIZE + 10));
+    encrypted[NONCE_PREFIX_LENGTH + ENCRYPTED_BLOCK_SIZE + 3] ^= 1;
+    decrypt(encrypted, encrypted.length);
+  }
+
+  @Test(expected = IOException.class)
+  public void test_wrong_key_fails() throws Exception {
+    byte[] encrypted = encrypt(randomBytes(BLOCK_SIZE + 10));
+    secretKey = newSecretKey();
+    decrypt(encrypted, encrypted.length);
+  }
+
+  @Test
+  public void test_cipher_factory_round_trip() throws Exception {
+    DatasourceCipherFactory factory = new DefaultDatasourceCipherFactory(TRANSFORMATION, secretKey, null, BLOCK_SIZE);
+    byte[] plain = randomBytes(3 * BLOCK_SIZE + 7);
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try(OutputStream out = factory.createEncryptingStream(bytes)) {
+      out.write(plain);
+    }
+    byte[] encrypted = bytes.toByteArray();
+    try(InputStream in = factory.createDecryptingStream(new ByteArrayInputStream(encrypted), encrypted.length)) {
+      assertThat(ByteStreams.toByteArray(in)).isEqualTo(plain);
+    }
+  }
+
+  private byte[] encrypt(byte[] plain) throws IOException, GeneralSecurityException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try(OutputStream out = new BlockCipherOutputStream(bytes, newCipher(), secretKey, BLOCK_SIZE)) {
+      out.write(plain);
+    }
+    return bytes.toByteArray();
+  }
+
+  private byte[] decrypt(byte[] encrypted, long length) throws IOException, GeneralSecurityException {
+    try(InputStream in = newInputStream(encrypted, length)) {
+      return ByteStreams.toByteArray(in);
+    }
+  }
+
+  private InputStream newInputStream(byte[] encrypted, long length) throws GeneralSecurityException {
+    return new BlockCipherInputStream(new ByteArrayInputStream(encrypted), newCipher(), secretKey, BLOCK_SIZE, length);
+  }
+
+  private static Cipher newCipher() throws GeneralSecurityException {
+    return Cipher.getInstance(TRANSFORMATION);
+  }
+
+  private static SecretKey newSecretKey() throws GeneralSecurityException {
+    KeyGenerator keyGenerator = KeyGenerator.getInstance("AES");
+    keyGenerator.init(128);
+    return keyGenerator.generateKey();
+  }
+
+  private static byte[] randomBytes(int length) {
+    byte[] bytes = new byte[length];
+    new Random(length).nextBytes(bytes);
+    return bytes;
+  }
+}
@@ -1,31 +1,47 @@
 package org.obiba.magma.datasource.generated;
 
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.math3.random.RandomDataGenerator;
 import org.obiba.magma.Category;
 import org.obiba.magma.Value;
 import org.obiba.magma.Variable;
-import org.obiba.magma.datasource.generated.support.ShuffleBag;
 
+import com.google.common.collect.Lists;
+import com.google.common.primitives.Ints;
+
+/**
+ * Draws the non-missing categories according to their quantity (or weight), from the random generator of each value so
+ * that values do not depend on the order in which they are generated.
+ */
 class CategoricalValueGenerator extends AbstractMissingValueVariableValueGenerator {
 
-  private final ShuffleBag<String> shuffleBag = new ShuffleBag<>();
+  private final List<String> names = Lists.newArrayList();
+
+  /**
+   * Cumulated quantities of the categories, in the order of the names.
+   */
+  private final int[] cumulatedQuantities;
 
   private boolean hasNonMissing = false;
 
   CategoricalValueGenerator(Variable variable) {
     super(variable);
+    List<Integer> cumulated = Lists.newArrayList();
+    int total = 0;
     for(Category c : variable.getCategories()) {
       if(!c.isMissing()) {
         Integer quantity = getQuantity(c);
-        if(quantity == null) {
-          shuffleBag.add(c.getName());
-        } else {
-          if(quantity >= 1) {
-            shuffleBag.add(c.getName(), quantity);
-          }
+        if(quantity == null || quantity >= 1) {
+          total += quantity == null ? 1 : quantity;
+          names.add(c.getName());
+          cumulated.add(total);
         }
         hasNonMissing = true;
       }
     }
+    cumulatedQuantities = Ints.toArray(cumulated);
   }
 
   private Integer getQuantity(Category category) {
@@ -43,9 +59,11 @@ class CategoricalValueGenerator extends AbstractMissingValueVariableValueGenerat
   }
 
   @Override
-  protected Value nonMissingValue(Variable variable, GeneratedValueSet gvs) {
-    if(!hasNonMissing) return variable.getValueType().nullValue();
-    return variable.getValueType().valueOf(shuffleBag.next());
+  protected Value nonMissingValue(Variable variable, GeneratedValueSet gvs, RandomDataGenerator random) {
+    if(!hasNonMissing || names.isEmpty()) return variable.getValueType().nullValue();
+    int draw = random.nextInt(0, cumulatedQuantities[cumulatedQuantities.length - 1] - 1);
+    int index = Arrays.binarySearch(cumulatedQuantities, draw + 1);
+    return variable.getValueType().valueOf(names.get(index < 0 ? -index - 1 : index));
   }
 
 }
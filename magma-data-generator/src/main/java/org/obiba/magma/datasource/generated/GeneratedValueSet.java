@@ -2,32 +2,41 @@ package org.obiba.magma.datasource.generated;
 
 import java.util.concurrent.ConcurrentMap;
 
-import org.apache.commons.math3.random.JDKRandomGenerator;
 import org.apache.commons.math3.random.RandomDataGenerator;
-import org.apache.commons.math3.random.RandomGenerator;
 import org.obiba.magma.Value;
 import org.obiba.magma.ValueTable;
 import org.obiba.magma.VariableEntity;
+import org.obiba.magma.datasource.generated.support.SplitMixRandomGenerator;
 import org.obiba.magma.support.ValueSetBean;
 
+import com.google.common.base.Charsets;
 import com.google.common.collect.MapMaker;
+import com.google.common.hash.Hashing;
 
 /**
  * Allows generating random data for this
  */
 class GeneratedValueSet extends ValueSetBean {
 
-  final RandomGenerator valueGenerator;
-
-  final RandomDataGenerator dataGenerator;
+  private final SplitMixRandomGenerator entityGenerator;
 
   final ConcurrentMap<String, Value> generatedValues = new MapMaker().makeMap();
 
   GeneratedValueSet(ValueTable table, VariableEntity entity) {
     super(table, entity);
-    valueGenerator = new JDKRandomGenerator();
-    valueGenerator.setSeed(Long.parseLong(entity.getIdentifier()));
-    dataGenerator = new RandomDataGenerator(valueGenerator);
+    entityGenerator = new SplitMixRandomGenerator(Long.parseLong(entity.getIdentifier()));
+  }
+
+  /**
+   * Returns a new random generator for the value of a variable, seeded from the entity and the variable name so that
+   * each value can be generated independently from the others.
+   *
+   * @param name the variable name
+   * @return
+   */
+  RandomDataGenerator newDataGenerator(String name) {
+    return new RandomDataGenerator(
+        entityGenerator.split(Hashing.murmur3_128().hashString(name, Charsets.UTF_8).asLong()));
   }
 
   boolean hasValue(String name) {
@@ -42,4 +51,4 @@ class GeneratedValueSet extends ValueSetBean {
   Value getExistingValue(String name) {
     return generatedValues.get(name);
   }
-}
\ No newline at end of file
+}
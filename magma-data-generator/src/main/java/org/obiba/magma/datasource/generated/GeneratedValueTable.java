@@ -1,11 +1,14 @@
 package org.obiba.magma.datasource.generated;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
 import java.util.SortedSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import javax.annotation.Nullable;
 import javax.validation.constraints.NotNull;
@@ -22,6 +25,8 @@ import org.obiba.magma.ValueTable;
 import org.obiba.magma.Variable;
 import org.obiba.magma.VariableEntity;
 import org.obiba.magma.VariableValueSource;
+import org.obiba.magma.VectorSource;
+import org.obiba.magma.support.AbstractVariableValueSourceWrapper;
 import org.obiba.magma.support.VariableEntityBean;
 import org.obiba.magma.type.DateTimeType;
 
@@ -40,6 +45,11 @@ public class GeneratedValueTable implements ValueTable {
 
   private final Set<VariableEntity> entities;
 
+  /**
+   * Number of values generated by a task when generating a vector in parallel.
+   */
+  private static final int VECTOR_CHUNK_SIZE = 1024;
+
   private final RandomGenerator randomGenerator;
 
   private final Map<String, VariableValueSource> generators;
@@ -66,7 +76,7 @@ public class GeneratedValueTable implements ValueTable {
     VariableValueGeneratorFactory factory = new DefaultVariableValueGeneratorFactory();
     generators = Maps.newHashMap();
     for(Variable v : this.dictionary) {
-      generators.put(v.getName(), factory.newGenerator(v));
+      generators.put(v.getName(), new GeneratedVectorSource(factory.newGenerator(v)));
     }
   }
 
@@ -239,4 +249,82 @@ public class GeneratedValueTable implements ValueTable {
     return Iterables.size(getValueSets());
   }
 
+  /**
+   * Generates the values of a variable for many entities at once. As each value is generated from its own random
+   * generator, the values of large vectors are generated in parallel and are the same as the ones of the value sets.
+   */
+  private class GeneratedVectorSource extends AbstractVariableValueSourceWrapper implements VectorSource {
+
+    private GeneratedVectorSource(VariableValueSource wrapped) {
+      super(wrapped);
+    }
+
+    @Override
+    public boolean supportVectorSource() {
+      return true;
+    }
+
+    @NotNull
+    @Override
+    public VectorSource asVectorSource() {
+      return this;
+    }
+
+    @Override
+    public Iterable<Value> getValues(SortedSet<VariableEntity> entities) {
+      VariableEntity[] entityArray = entities.toArray(new VariableEntity[entities.size()]);
+      Value[] values = new Value[entityArray.length];
+      GenerateValuesTask task = new GenerateValuesTask(getWrapped(), entityArray, values, 0, entityArray.length);
+      if(entityArray.length <= VECTOR_CHUNK_SIZE) {
+        task.compute();
+      } else {
+        PoolHolder.POOL.invoke(task);
+      }
+      return Arrays.asList(values);
+    }
+  }
+
+  private class GenerateValuesTask extends RecursiveAction {
+
+    private static final long serialVersionUID = -2942519461035164215L;
+
+    private final VariableValueSource source;
+
+    private final VariableEntity[] entities;
+
+    private final Value[] values;
+
+    private final int from;
+
+    private final int to;
+
+    private GenerateValuesTask(VariableValueSource source, VariableEntity[] entities, Value[] values, int from,
+        int to) {
+      this.source = source;
+      this.entities = entities;
+      this.values = values;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if(to - from <= VECTOR_CHUNK_SIZE) {
+        for(int i = from; i < to; i++) {
+          values[i] = source.getValue(new GeneratedValueSet(GeneratedValueTable.this, entities[i]));
+        }
+      } else {
+        int middle = from + to >>> 1;
+        invokeAll(new GenerateValuesTask(source, entities, values, from, middle),
+            new GenerateValuesTask(source, entities, values, middle, to));
+      }
+    }
+  }
+
+  private static final class PoolHolder {
+
+    private static final ForkJoinPool POOL = new ForkJoinPool();
+
+  }
+
 }
@@ -4,6 +4,7 @@ import java.util.List;
 
 import javax.validation.constraints.NotNull;
 
+import org.apache.commons.math3.random.RandomDataGenerator;
 import org.obiba.magma.AbstractVariableValueSource;
 import org.obiba.magma.Value;
 import org.obiba.magma.ValueSet;
@@ -74,15 +75,16 @@ abstract class GeneratedVariableValueSource extends AbstractVariableValueSource
         if(existingValue != null) {
           return existingValue;
         }
+        RandomDataGenerator random = gvs.newDataGenerator(getVariable().getName());
         if(variable.isRepeatable()) {
-          int sequenceLength = gvs.dataGenerator.nextInt(0, 10);
+          int sequenceLength = random.nextInt(0, 10);
           List<Value> values = Lists.newArrayListWithCapacity(sequenceLength);
           for(int i = 0; i < sequenceLength; i++) {
-            values.add(nextValue(getVariable(), gvs));
+            values.add(nextValue(getVariable(), gvs, random));
           }
           return gvs.put(getVariable().getName(), ValueType.Factory.newSequence(variable.getValueType(), values));
         }
-        return gvs.put(getVariable().getName(), nextValue(getVariable(), gvs));
+        return gvs.put(getVariable().getName(), nextValue(getVariable(), gvs, random));
       } catch(RuntimeException e) {
         //noinspection StringConcatenationArgumentToLogCall
         log.warn("Error generating data for variable " + getVariable().getName(), e);
@@ -110,6 +112,14 @@ abstract class GeneratedVariableValueSource extends AbstractVariableValueSource
     return true;
   }
 
-  abstract protected Value nextValue(Variable variable, GeneratedValueSet gvs);
+  /**
+   * Generates a value of the variable for the value set.
+   *
+   * @param variable
+   * @param gvs
+   * @param random the random generator of this value, seeded from the entity and the variable
+   * @return
+   */
+  abstract protected Value nextValue(Variable variable, GeneratedValueSet gvs, RandomDataGenerator random);
 
 }
@@ -1,5 +1,6 @@
 package org.obiba.magma.datasource.generated;
 
+import org.apache.commons.math3.random.RandomDataGenerator;
 import org.obiba.magma.Value;
 import org.obiba.magma.ValueSet;
 import org.obiba.magma.ValueSource;
@@ -32,25 +33,25 @@ class NumericValueGenerator extends AbstractMissingValueVariableValueGenerator {
   }
 
   @Override
-  protected Value nonMissingValue(Variable variable, GeneratedValueSet gvs) {
-    return getInteger(gvs, getMinimum(gvs), getMaximum(gvs));
+  protected Value nonMissingValue(Variable variable, GeneratedValueSet gvs, RandomDataGenerator random) {
+    return getInteger(gvs, random, getMinimum(gvs), getMaximum(gvs));
   }
 
-  protected Value getInteger(GeneratedValueSet gvs, Number min, Number max) {
+  protected Value getInteger(GeneratedValueSet gvs, RandomDataGenerator random, Number min, Number max) {
     Value meanValue = getMeanValue(gvs);
     Value stddevValue = getStdDevValue(gvs);
     if(meanValue.isNull() || stddevValue.isNull()) {
       if(getValueType() == IntegerType.get()) {
         return getValueType()
-            .valueOf(min.equals(max) ? min : gvs.dataGenerator.nextLong(min.longValue(), max.longValue()));
+            .valueOf(min.equals(max) ? min : random.nextLong(min.longValue(), max.longValue()));
       }
       if(getValueType() == DecimalType.get()) {
         return getValueType()
-            .valueOf(min.equals(max) ? min : gvs.dataGenerator.nextUniform(min.doubleValue(), max.doubleValue()));
+            .valueOf(min.equals(max) ? min : random.nextUniform(min.doubleValue(), max.doubleValue()));
       }
       throw new IllegalStateException();
     }
-    double value = gvs.dataGenerator
+    double value = random
         .nextGaussian(((Number) meanValue.getValue()).doubleValue(), ((Number) stddevValue.getValue()).doubleValue());
     // Make sure value is between absolute min and max
     value = Math.min(value, max.doubleValue());
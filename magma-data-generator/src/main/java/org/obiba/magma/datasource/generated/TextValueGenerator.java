@@ -1,24 +1,22 @@
 package org.obiba.magma.datasource.generated;
 
-import java.util.Random;
-
+import org.apache.commons.math3.random.RandomDataGenerator;
+import org.apache.commons.math3.random.RandomGenerator;
 import org.obiba.magma.Value;
 import org.obiba.magma.Variable;
 
 public class TextValueGenerator extends GeneratedVariableValueSource {
 
-  private static final LoremIpsum LOREM_IPSUM = LoremIpsum.getInstance();
-
   public TextValueGenerator(Variable variable) {
     super(variable);
   }
 
   @Override
-  protected Value nextValue(Variable variable, GeneratedValueSet valueSet) {
-    return valueSet.dataGenerator.nextInt(0, 1) == 0
+  protected Value nextValue(Variable variable, GeneratedValueSet valueSet, RandomDataGenerator random) {
+    return random.nextInt(0, 1) == 0
         ? variable.getValueType().nullValue()
-        : variable.getValueType().valueOf(
-            LOREM_IPSUM.paragraphs(valueSet.dataGenerator.nextInt(0, 1), valueSet.dataGenerator.nextInt(0, 1) == 0));
+        : variable.getValueType().valueOf(LoremIpsum.getInstance(random.getRandomGenerator())
+            .paragraphs(random.nextInt(0, 1), random.nextInt(0, 1) == 0));
   }
 
   /*
@@ -62,27 +60,28 @@ public class TextValueGenerator extends GeneratedVariableValueSource {
 
     private static final String EOL = System.getProperty("line.separator");
 
-    private static final Random RANDOM = new Random();
+    private final RandomGenerator random;
 
-    public static LoremIpsum getInstance() {
-      return new LoremIpsum();
+    public static LoremIpsum getInstance(RandomGenerator random) {
+      return new LoremIpsum(random);
     }
 
-    private LoremIpsum() {
+    private LoremIpsum(RandomGenerator random) {
+      this.random = random;
     }
 
     /**
      * Get a RANDOM word
      */
     public String randomWord() {
-      return WORDS[RANDOM.nextInt(WORDS.length - 1)];
+      return WORDS[random.nextInt(WORDS.length - 1)];
     }
 
     /**
      * Get a RANDOM PUNCTUATION mark
      */
     public String randomPunctuation() {
-      return PUNCTUATION[RANDOM.nextInt(PUNCTUATION.length - 1)];
+      return PUNCTUATION[random.nextInt(PUNCTUATION.length - 1)];
     }
 
     /**
@@ -101,7 +100,7 @@ public class TextValueGenerator extends GeneratedVariableValueSource {
      * Get a sentence fragment
      */
     public String sentenceFragment() {
-      return words(RANDOM.nextInt(10) + 3);
+      return words(random.nextInt(10) + 3);
     }
 
     /**
@@ -112,8 +111,8 @@ public class TextValueGenerator extends GeneratedVariableValueSource {
       String w = randomWord();
       StringBuilder s = new StringBuilder(w.substring(0, 1).toUpperCase()).append(w.substring(1)).append(" ");
       // commas?
-      if(RANDOM.nextBoolean()) {
-        int r = RANDOM.nextInt(3) + 1;
+      if(random.nextBoolean()) {
+        int r = random.nextInt(3) + 1;
         for(int i = 0; i < r; i++)
           s.append(sentenceFragment()).append(", ");
       }
@@ -139,7 +138,7 @@ public class TextValueGenerator extends GeneratedVariableValueSource {
      * @useStandard - get the STANDARD Lorem Ipsum paragraph?
      */
     public String paragraph(boolean useStandard) {
-      return useStandard ? STANDARD : sentences(RANDOM.nextInt(3) + 2);
+      return useStandard ? STANDARD : sentences(random.nextInt(3) + 2);
     }
 
     public String paragraph() {
@@ -0,0 +1,75 @@
+package org.obiba.magma.datasource.generated.support;
+
+import org.apache.commons.math3.random.BitsStreamGenerator;
+
+/**
+ * A fast, non thread-safe, random generator (SplitMix64) that can be split into independent generators by a key. A
+ * generator split from a given seed and key always produces the same sequence, whatever has been drawn from the
+ * generator it was split from, so that each stream of a data set (an entity, a variable of an entity...) can be
+ * reproduced on its own.
+ */
+public class SplitMixRandomGenerator extends BitsStreamGenerator {
+
+  private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+  private long seed;
+
+  private long state;
+
+  public SplitMixRandomGenerator(long seed) {
+    setSeed(seed);
+  }
+
+  /**
+   * Returns a new generator seeded from the seed of this generator and the key.
+   *
+   * @param key
+   * @return
+   */
+  public SplitMixRandomGenerator split(long key) {
+    return new SplitMixRandomGenerator(mix(seed ^ mix(key + GOLDEN_GAMMA)));
+  }
+
+  @Override
+  public void setSeed(int seed) {
+    setSeed((long) seed);
+  }
+
+  @Override
+  public void setSeed(int[] seed) {
+    long value = 0;
+    for(int s : seed) {
+      value = mix(value + GOLDEN_GAMMA + s);
+    }
+    setSeed(value);
+  }
+
+  @Override
+  public void setSeed(long seed) {
+    this.seed = seed;
+    state = seed;
+    clear();
+  }
+
+  @Override
+  public long nextLong() {
+    state += GOLDEN_GAMMA;
+    return mix(state);
+  }
+
+  @Override
+  public double nextDouble() {
+    return (nextLong() >>> 11) * 0x1.0p-53;
+  }
+
+  @Override
+  protected int next(int bits) {
+    return (int) (nextLong() >>> 64 - bits);
+  }
+
+  private static long mix(long z) {
+    z = (z ^ z >>> 30) * 0xbf58476d1ce4e5b9L;
+    z = (z ^ z >>> 27) * 0x94d049bb133111ebL;
+    return z ^ z >>> 31;
+  }
+}
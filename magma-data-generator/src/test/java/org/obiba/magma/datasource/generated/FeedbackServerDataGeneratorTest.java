@@ -34,22 +34,25 @@ public class FeedbackServerDataGeneratorTest {
   public void generateTestData() throws IOException {
 
     new MagmaEngine().extend(new MagmaJsExtension()).extend(new MagmaXStreamExtension());
+    try {
+      File targetFile = new File("target/generated.zip");
+      targetFile.delete();
 
-    File targetFile = new File("target/generated.zip");
-    targetFile.delete();
+      ExcelDatasource eds = new ExcelDatasource("patate", FileUtil.getFileFromResource("clsa-opal.xls"));
+      Datasource target = new FsDatasource("target", targetFile);
 
-    ExcelDatasource eds = new ExcelDatasource("patate", FileUtil.getFileFromResource("clsa-opal.xls"));
-    Datasource target = new FsDatasource("target", targetFile);
+      Initialisables.initialise(eds, target);
 
-    Initialisables.initialise(eds, target);
+      ValueTable table = eds.getValueTables().iterator().next();
 
-    ValueTable table = eds.getValueTables().iterator().next();
+      ValueTable generated = new GeneratedValueTable(null, fixConditions(table), 3000);
 
-    ValueTable generated = new GeneratedValueTable(null, fixConditions(table), 3000);
+      MultithreadedDatasourceCopier.Builder.newCopier().from(generated).to(target).as(table.getName()).build().copy();
 
-    MultithreadedDatasourceCopier.Builder.newCopier().from(generated).to(target).as(table.getName()).build().copy();
-
-    Disposables.dispose(eds, target);
+      Disposables.dispose(eds, target);
+    } finally {
+      MagmaEngine.get().shutdown();
+    }
 
   }
 
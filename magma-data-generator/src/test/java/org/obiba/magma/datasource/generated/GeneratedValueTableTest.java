@@ -0,0 +1,80 @@
+package org.obiba.magma.datasource.generated;
+
+import java.util.List;
+import java.util.SortedSet;
+
+import org.junit.Test;
+import org.obiba.magma.Category;
+import org.obiba.magma.Value;
+import org.obiba.magma.ValueTable;
+import org.obiba.magma.Variable;
+import org.obiba.magma.VariableEntity;
+import org.obiba.magma.VariableValueSource;
+import org.obiba.magma.test.AbstractMagmaTest;
+import org.obiba.magma.type.DecimalType;
+import org.obiba.magma.type.IntegerType;
+import org.obiba.magma.type.TextType;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+public class GeneratedValueTableTest extends AbstractMagmaTest {
+
+  private static final List<Variable> VARIABLES = ImmutableList.of( //
+      Variable.Builder.newVariable("INT", IntegerType.get(), "Participant").build(), //
+      Variable.Builder.newVariable("DEC", DecimalType.get(), "Participant").repeatable().build(), //
+      Variable.Builder.newVariable("CAT", TextType.get(), "Participant")
+          .addCategory(Category.Builder.newCategory("A").build()).addCategory("B", "")
+          .addCategory(Category.Builder.newCategory("88").missing(true).build()).build());
+
+  @Test
+  public void test_values_do_not_depend_on_generation_order() {
+    ValueTable table = new GeneratedValueTable(null, VARIABLES, 10, 1);
+    for(VariableEntity entity : table.getVariableEntities()) {
+      Value cat = table.getValue(table.getVariable("CAT"), table.getValueSet(entity));
+      Value integer = table.getValue(table.getVariable("INT"), table.getValueSet(entity));
+      assertThat(table.getValue(table.getVariable("INT"), table.getValueSet(entity))).isEqualTo(integer);
+      assertThat(table.getValue(table.getVariable("CAT"), table.getValueSet(entity))).isEqualTo(cat);
+    }
+  }
+
+  @Test
+  public void test_same_seed_generates_same_table() {
+    ValueTable table1 = new GeneratedValueTable(null, VARIABLES, 10, 1);
+    ValueTable table2 = new GeneratedValueTable(null, VARIABLES, 10, 1);
+    assertThat(table2.getVariableEntities()).isEqualTo(table1.getVariableEntities());
+    for(Variable variable : VARIABLES) {
+      SortedSet<VariableEntity> entities = Sets.newTreeSet(table1.getVariableEntities());
+      assertThat(table2.getVariableValueSource(variable.getName()).asVectorSource().getValues(entities))
+          .isEqualTo(table1.getVariableValueSource(variable.getName()).asVectorSource().getValues(entities));
+    }
+  }
+
+  @Test
+  public void test_vector_values_are_value_set_values() {
+    ValueTable table = new GeneratedValueTable(null, VARIABLES, 5000, 1);
+    SortedSet<VariableEntity> entities = Sets.newTreeSet(table.getVariableEntities());
+    for(Variable variable : VARIABLES) {
+      VariableValueSource source = table.getVariableValueSource(variable.getName());
+      assertThat(source.supportVectorSource()).isTrue();
+      List<Value> values = Lists.newArrayList(source.asVectorSource().getValues(entities));
+      assertThat(values).hasSize(entities.size());
+      int i = 0;
+      for(VariableEntity entity : entities) {
+        assertThat(values.get(i++)).isEqualTo(source.getValue(table.getValueSet(entity)));
+      }
+    }
+  }
+
+  @Test
+  public void test_categories_are_generated() {
+    ValueTable table = new GeneratedValueTable(null, VARIABLES, 1000, 1);
+    SortedSet<VariableEntity> entities = Sets.newTreeSet(table.getVariableEntities());
+    Iterable<Value> values = table.getVariableValueSource("CAT").asVectorSource().getValues(entities);
+    assertThat(Sets.newHashSet(values))
+        .containsOnly(TextType.get().valueOf("A"), TextType.get().valueOf("B"), TextType.get().valueOf("88"));
+  }
+}
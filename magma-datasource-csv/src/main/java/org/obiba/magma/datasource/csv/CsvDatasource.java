@@ -55,6 +55,8 @@ public class CsvDatasource extends AbstractDatasource {
 
   private int firstRow = 1;
 
+  private int writeBufferSize;
+
   public CsvDatasource(String name) {
     super(name, TYPE);
   }
@@ -89,6 +91,8 @@ public class CsvDatasource extends AbstractDatasource {
 
   @Override
   public Set<ValueTable> getValueTables() {
+    // the tables registered by the lazy initialisation are initialised before being returned
+    if(isLazyTableInitialisation()) return super.getValueTables();
     return Collections.unmodifiableSet(new HashSet<ValueTable>(valueTables.values()));
   }
 
@@ -122,7 +126,7 @@ public class CsvDatasource extends AbstractDatasource {
           "Cannot create writer. A table with the name " + tableName + " does not exist.", "CsvCannotCreateWriter",
           tableName);
     }
-    return new CsvValueTableWriter((CsvValueTable) getValueTable(tableName));
+    return new CsvValueTableWriter((CsvValueTable) getValueTable(tableName), writeBufferSize);
   }
 
   public void setVariablesHeader(String tableName, String... header) {
@@ -225,4 +229,17 @@ public class CsvDatasource extends AbstractDatasource {
     return firstRow;
   }
 
+  /**
+   * Set the size in bytes of the buffer used by table writers to append data rows. When positive, written value sets
+   * are batched and only become readable once the buffer is written out or the table writer is closed. Default is 0,
+   * each value set is written to the data file when its writer is closed.
+   */
+  public void setWriteBufferSize(int writeBufferSize) {
+    this.writeBufferSize = writeBufferSize;
+  }
+
+  public int getWriteBufferSize() {
+    return writeBufferSize;
+  }
+
 }
@@ -0,0 +1,435 @@
+/*
+ * Copyright (c) 2013 OBiBa. All rights reserved.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.obiba.magma.datasource.csv;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import javax.annotation.Nullable;
+import javax.validation.constraints.NotNull;
+
+import org.obiba.magma.Datasource;
+import org.obiba.magma.DatasourceCopierProgressListener;
+import org.obiba.magma.MagmaRuntimeException;
+import org.obiba.magma.Value;
+import org.obiba.magma.ValueTableWriter;
+import org.obiba.magma.ValueTableWriter.ValueSetWriter;
+import org.obiba.magma.Variable;
+import org.obiba.magma.datasource.csv.support.CsvRecordSplitter;
+import org.obiba.magma.support.DatasourceCopier;
+import org.obiba.magma.support.VariableEntityBean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Strings;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.google.common.io.CountingInputStream;
+
+import au.com.bytecode.opencsv.CSVParser;
+import au.com.bytecode.opencsv.CSVReader;
+
+/**
+ * Copies the values of a {@link CsvValueTable} to a destination datasource by parsing its data file concurrently.
+ * <p/>
+ * The data file is split into byte ranges that hold complete records (see {@link CsvRecordSplitter}). Ranges are
+ * decoded, parsed and converted to values by a pool of threads, and the resulting batches are written to the
+ * destination in file order by the calling thread. When the character set of the datasource does not allow splitting
+ * the file on byte offsets, the file is streamed and its records are written as they are parsed by the calling thread.
+ * <p/>
+ * The source table must be initialised, as its variables and data header are used to convert the records. Records are
+ * written as they appear in the file: if an identifier is repeated, each of its records is written in turn.
+ */
+public class CsvParallelImporter {
+
+  private static final Logger log = LoggerFactory.getLogger(CsvParallelImporter.class);
+
+  private static final int DEFAULT_CHUNK_SIZE = 8 * 1024 * 1024;
+
+  @SuppressWarnings({ "UnusedDeclaration", "ParameterHidesMemberVariable" })
+  public static class Builder {
+
+    private final CsvParallelImporter importer = new CsvParallelImporter();
+
+    public Builder() {
+    }
+
+    public static Builder newImporter() {
+      return new Builder();
+    }
+
+    public Builder withThreads(int threads) {
+      if(threads <= 0) throw new IllegalArgumentException("threads must be positive");
+      importer.threads = threads;
+      return this;
+    }
+
+    public Builder withThreadFactory(ThreadFactory factory) {
+      importer.threadFactory = factory;
+      return this;
+    }
+
+    public Builder withChunkSize(int chunkSize) {
+      if(chunkSize <= 0) throw new IllegalArgumentException("chunkSize must be positive");
+      importer.chunkSize = chunkSize;
+      return this;
+    }
+
+    public Builder withProgressListener(@Nullable DatasourceCopierProgressListener progressListener) {
+      if(progressListener != null) importer.progressListeners.add(progressListener);
+      return this;
+    }
+
+    public Builder withCopier(@NotNull DatasourceCopier.Builder copier) {
+      importer.copier = copier;
+      return this;
+    }
+
+    public Builder from(@NotNull CsvValueTable source) {
+      importer.sourceTable = source;
+      if(importer.destinationName == null) {
+        importer.destinationName = source.getName();
+      }
+      return this;
+    }
+
+    public Builder to(Datasource destination) {
+      importer.destinationDatasource = destination;
+      return this;
+    }
+
+    public Builder as(String name) {
+      importer.destinationName = name;
+      return this;
+    }
+
+    public CsvParallelImporter build() {
+      if(importer.sourceTable == null) throw new IllegalStateException("source table is required");
+      if(importer.destinationDatasource == null) throw new IllegalStateException("destination datasource is required");
+      return importer;
+    }
+  }
+
+  private int threads = Runtime.getRuntime().availableProcessors();
+
+  @Nullable
+  private ThreadFactory threadFactory;
+
+  private int chunkSize = DEFAULT_CHUNK_SIZE;
+
+  @NotNull
+  private DatasourceCopier.Builder copier = DatasourceCopier.Builder.newCopier();
+
+  private CsvValueTable sourceTable;
+
+  private String destinationName;
+
+  private Datasource destinationDatasource;
+
+  private final List<DatasourceCopierProgressListener> progressListeners = Lists.newArrayList();
+
+  private Variable[] variables;
+
+  private long bytesToCopy = 0;
+
+  private long bytesCopied = 0;
+
+  private long entitiesCopied = 0;
+
+  private int nextPercentIncrement = 0;
+
+  @edu.umd.cs.findbugs.annotations.SuppressWarnings(value = "NP_NONNULL_FIELD_NOT_INITIALIZED_IN_CONSTRUCTOR",
+      justification = "Fields will be populated by Builder")
+  private CsvParallelImporter() {
+  }
+
+  public void copy() throws IOException {
+    copyVariables();
+    DatasourceCopier datasourceCopier = copier.build();
+    File dataFile = sourceTable.getDataFile();
+    if(!datasourceCopier.isCopyValues() || dataFile == null || !dataFile.exists()) return;
+
+    variables = Iterables.toArray(sourceTable.getVariables(), Variable.class);
+    ExecutorService executor = threadFactory == null //
+        ? Executors.newFixedThreadPool(threads) //
+        : Executors.newFixedThreadPool(threads, threadFactory);
+    try(RandomAccessFile raf = new RandomAccessFile(dataFile, "r");
+        ValueTableWriter tableWriter = datasourceCopier
+            .innerValueTableWriter(sourceTable, destinationName, destinationDatasource)) {
+      FileChannel channel = raf.getChannel();
+      CsvDatasource datasource = sourceTable.getCsvDatasource();
+      if(CsvRecordSplitter.isSplittable(Charset.forName(datasource.getCharacterSet()), datasource.getQuote(),
+          datasource.getSeparator())) {
+        CsvRecordSplitter splitter = new CsvRecordSplitter(channel, datasource.getQuote());
+        // header line(s) precede the first data record
+        long offset = splitter.skipRecords(datasource.getFirstRow());
+        bytesToCopy = channel.size() - offset;
+        List<CsvRecordSplitter.Range> ranges = splitter.split(offset, chunkSize, executor);
+        log.debug("Importing {} in {} chunks using {} threads", dataFile.getName(), ranges.size(), threads);
+        copyValues(datasourceCopier, tableWriter, channel, ranges, executor);
+      } else {
+        log.debug("Character set {} cannot be split on byte offsets, {} will be parsed sequentially",
+            datasource.getCharacterSet(), sourceTable.getName());
+        bytesToCopy = channel.size();
+        copyValues(datasourceCopier, tableWriter, channel);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private void copyVariables() throws IOException {
+    DatasourceCopier variableCopier = copier.build();
+    if(variableCopier.isCopyMetadata()) {
+      variableCopier.setCopyValues(false);
+      variableCopier.copy(sourceTable, destinationName, destinationDatasource);
+    }
+  }
+
+  private void copyValues(DatasourceCopier datasourceCopier, ValueTableWriter tableWriter, FileChannel channel,
+      List<CsvRecordSplitter.Range> ranges, ExecutorService executor) throws IOException {
+    // keep a bounded number of parsed chunks in memory, the oldest one being written while the others are parsed
+    Deque<Future<List<ParsedRecord>>> pending = new ArrayDeque<>();
+    Iterator<CsvRecordSplitter.Range> iterator = ranges.iterator();
+    while(pending.size() < threads * 2 && iterator.hasNext()) {
+      pending.add(executor.submit(new ChunkParser(channel, iterator.next())));
+    }
+    while(!pending.isEmpty()) {
+      List<ParsedRecord> records = get(pending.poll());
+      if(iterator.hasNext()) {
+        pending.add(executor.submit(new ChunkParser(channel, iterator.next())));
+      }
+      for(ParsedRecord record : records) {
+        write(datasourceCopier, tableWriter, record);
+      }
+    }
+  }
+
+  /**
+   * Streams the whole data file through a decoding reader, so that the header is skipped on characters rather than on
+   * bytes, and writes each record as it is parsed.
+   */
+  private void copyValues(DatasourceCopier datasourceCopier, ValueTableWriter tableWriter, FileChannel channel)
+      throws IOException {
+    CsvDatasource datasource = sourceTable.getCsvDatasource();
+    Map<String, Integer> headerMap = sourceTable.getDataHeaderMap();
+    CountingInputStream input = new CountingInputStream(
+        new RangeInputStream(channel, new CsvRecordSplitter.Range(0, channel.size())));
+    try(CSVReader reader = datasource
+        .getCsvReader(new InputStreamReader(input, Charset.forName(datasource.getCharacterSet())))) {
+      // header line(s) precede the first data record
+      reader.readNext();
+      // bytes are read ahead by the decoder, record lengths are approximate
+      long bytesRead = input.getCount();
+      int record = 0;
+      String[] line;
+      while((line = reader.readNext()) != null) {
+        long length = input.getCount() - bytesRead;
+        bytesRead += length;
+        write(datasourceCopier, tableWriter, parseRecord("record " + ++record, headerMap, Arrays.asList(line), length));
+      }
+    }
+  }
+
+  private void write(DatasourceCopier datasourceCopier, ValueTableWriter tableWriter, ParsedRecord record) {
+    bytesCopied += record.length;
+    if(datasourceCopier.isCopyNullValues() || !record.hasOnlyNullValues()) {
+      try(ValueSetWriter writer = tableWriter.writeValueSet(record.valueSet.getVariableEntity())) {
+        datasourceCopier.copyValues(sourceTable, destinationName, record.valueSet, variables, record.values, writer);
+      }
+      entitiesCopied++;
+    } else {
+      log.trace("Skip entity {} because of null values", record.valueSet.getVariableEntity().getIdentifier());
+    }
+    printProgress();
+  }
+
+  private static List<ParsedRecord> get(Future<List<ParsedRecord>> future) throws IOException {
+    try {
+      return future.get();
+    } catch(InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new MagmaRuntimeException(e);
+    } catch(ExecutionException e) {
+      Throwable cause = e.getCause();
+      if(cause instanceof IOException) throw (IOException) cause;
+      if(cause instanceof RuntimeException) throw (RuntimeException) cause;
+      throw new MagmaRuntimeException(cause);
+    }
+  }
+
+  @SuppressWarnings("NumericCastThatLosesPrecision")
+  private void printProgress() {
+    try {
+      if(bytesToCopy > 0) {
+        int percentComplete = (int) (bytesCopied / (double) bytesToCopy * 100);
+        if(percentComplete >= nextPercentIncrement) {
+          log.info("Copy {}% complete.", percentComplete);
+          for(DatasourceCopierProgressListener listener : progressListeners) {
+            listener.status(sourceTable.getName(), entitiesCopied, sourceTable.getVariableEntityCount(),
+                percentComplete);
+          }
+          nextPercentIncrement = percentComplete + 1;
+        }
+      }
+    } catch(RuntimeException e) {
+      // Ignore
+    }
+  }
+
+  private static class ParsedRecord {
+
+    private final CsvValueSet valueSet;
+
+    private final Value[] values;
+
+    /**
+     * Approximate number of bytes of the record in the data file, used for progress reporting.
+     */
+    private final long length;
+
+    private ParsedRecord(CsvValueSet valueSet, Value[] values, long length) {
+      this.valueSet = valueSet;
+      this.values = values;
+      this.length = length;
+    }
+
+    private boolean hasOnlyNullValues() {
+      for(Value value : values) {
+        if(!value.isNull()) return false;
+      }
+      return true;
+    }
+  }
+
+  /**
+   * Parses the records of a range of the data file, reading the file by windows of bounded size. Only used for
+   * character sets that can be split on byte offsets.
+   *
+   * @param channel
+   * @param range
+   * @return
+   * @throws IOException
+   */
+  private List<ParsedRecord> parse(FileChannel channel, CsvRecordSplitter.Range range) throws IOException {
+    CsvDatasource datasource = sourceTable.getCsvDatasource();
+    Charset charset = Charset.forName(datasource.getCharacterSet());
+    CSVParser parser = datasource.getCsvParser();
+    Map<String, Integer> headerMap = sourceTable.getDataHeaderMap();
+    List<ParsedRecord> records = Lists.newArrayList();
+    List<String> recordValues = Lists.newArrayList();
+    long recordLength = 0;
+    try(BufferedReader reader = new BufferedReader(
+        new InputStreamReader(new RangeInputStream(channel, range), charset))) {
+      String nextLine;
+      while((nextLine = reader.readLine()) != null) {
+        Collections.addAll(recordValues, parser.parseLineMulti(nextLine));
+        // splittable charsets encode the line feed on a single byte
+        recordLength += nextLine.getBytes(charset).length + 1;
+        if(!parser.isPending()) {
+          records.add(parseRecord("range " + range, headerMap, recordValues, recordLength));
+          recordValues.clear();
+          recordLength = 0;
+        }
+      }
+    }
+    return records;
+  }
+
+  private ParsedRecord parseRecord(String location, Map<String, Integer> headerMap, List<String> recordValues,
+      long length) {
+    String identifier = recordValues.get(0);
+    if(Strings.isNullOrEmpty(identifier)) {
+      throw new MagmaRuntimeException(
+          "Cannot find identifier for " + location + " of file " + sourceTable.getDataFile());
+    }
+    CsvValueSet valueSet = new CsvValueSet(sourceTable,
+        new VariableEntityBean(sourceTable.getEntityType(), identifier), headerMap,
+        recordValues.toArray(new String[recordValues.size()]));
+    Value[] values = new Value[variables.length];
+    for(int i = 0; i < variables.length; i++) {
+      values[i] = valueSet.getValue(variables[i]);
+    }
+    return new ParsedRecord(valueSet, values, length);
+  }
+
+  private class ChunkParser implements Callable<List<ParsedRecord>> {
+
+    private final FileChannel channel;
+
+    private final CsvRecordSplitter.Range range;
+
+    private ChunkParser(FileChannel channel, CsvRecordSplitter.Range range) {
+      this.channel = channel;
+      this.range = range;
+    }
+
+    @Override
+    public List<ParsedRecord> call() throws IOException {
+      return parse(channel, range);
+    }
+  }
+
+  /**
+   * Reads a range of a file channel with positional reads, so that several ranges can be read concurrently.
+   */
+  private static class RangeInputStream extends InputStream {
+
+    private final FileChannel channel;
+
+    private final long end;
+
+    private long position;
+
+    private RangeInputStream(FileChannel channel, CsvRecordSplitter.Range range) {
+      this.channel = channel;
+      position = range.getStart();
+      end = range.getEnd();
+    }
+
+    @Override
+    public int read() throws IOException {
+      byte[] b = new byte[1];
+      return read(b, 0, 1) < 0 ? -1 : b[0] & 0xff;
+    }
+
+    @Override
+    @SuppressWarnings("NumericCastThatLosesPrecision")
+    public int read(byte[] b, int off, int len) throws IOException {
+      if(len == 0) return 0;
+      if(position >= end) return -1;
+      int read = channel.read(ByteBuffer.wrap(b, off, (int) Math.min(len, end - position)), position);
+      if(read < 0) return -1;
+      position += read;
+      return read;
+    }
+  }
+
+}
@@ -260,6 +260,11 @@ public class CsvValueTable extends AbstractValueTable implements Initialisable,
     return getCsvDatasource().getCsvWriter(dataFile);
   }
 
+  @Nullable
+  File getDataFile() {
+    return dataFile;
+  }
+
   @Nullable
   File getParentFile() {
     return dataFile == null ? null : dataFile.getParentFile();
@@ -340,7 +345,10 @@ public class CsvValueTable extends AbstractValueTable implements Initialisable,
           long cursorPosition = reader.getCursorPosition();
 
           int lineNumber = line - innerline;
-          if(lineNumber >= getCsvDatasource().getFirstRow()) {
+          if(lineNumber >= getCsvDatasource().getFirstRow() && isClearedRecord(multiLineValues)) {
+            // value set blanked by a table writer that appended its new version
+            log.trace("[{}:{}] cleared", dataFile.getName(), lineNumber);
+          } else if(lineNumber >= getCsvDatasource().getFirstRow()) {
             log.trace("[{}:{}] {}", dataFile.getName(), lineNumber, nextLine);
             String identifier = multiLineValues.get(0);
             if(Strings.isNullOrEmpty(identifier)) {
@@ -370,6 +378,10 @@ public class CsvValueTable extends AbstractValueTable implements Initialisable,
     return lineNumberMap;
   }
 
+  private boolean isClearedRecord(List<String> values) {
+    return values.size() == 1 && !values.get(0).isEmpty() && values.get(0).trim().isEmpty();
+  }
+
   private <T extends CsvIndexEntry> void traceLineNumberMap(Map<Integer, T> lineNumberMap, File file) {
 
     if(!log.isTraceEnabled()) return;
@@ -533,6 +545,13 @@ public class CsvValueTable extends AbstractValueTable implements Initialisable,
     entityIndex.put(entity, new CsvIndexEntry(lastByte, lastByte + lineLength(line)));
   }
 
+  /**
+   * Adds the index entries of value sets appended to the data file in a batch.
+   */
+  void updateDataIndex(Map<VariableEntity, CsvIndexEntry> entries) {
+    entityIndex.putAll(entries);
+  }
+
   public void updateVariableIndex(Variable variable, long lastByte, String... line) {
     variableNameIndex.put(variable.getName(), new CsvIndexEntry(lastByte, lastByte + lineLength(line)));
     addVariableValueSource(new CsvVariableValueSource(variable));
@@ -612,7 +631,7 @@ public class CsvValueTable extends AbstractValueTable implements Initialisable,
   /**
    * Convenience method equivalent to {@code (CsvDatasource) getDatasource()}.
    */
-  private CsvDatasource getCsvDatasource() {
+  CsvDatasource getCsvDatasource() {
     return (CsvDatasource) getDatasource();
   }
 
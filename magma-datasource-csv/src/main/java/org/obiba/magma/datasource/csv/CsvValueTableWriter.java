@@ -1,12 +1,20 @@
 package org.obiba.magma.datasource.csv;
 
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
+import javax.annotation.Nullable;
 import javax.validation.constraints.NotNull;
 
 import org.obiba.magma.MagmaRuntimeException;
@@ -28,13 +36,36 @@ public class CsvValueTableWriter implements ValueTableWriter {
 
   private final CsvValueTable valueTable;
 
+  private final int bufferSize;
+
+  @Nullable
+  private BufferedDataAppender appender;
+
   public CsvValueTableWriter(CsvValueTable valueTable) {
+    this(valueTable, 0);
+  }
+
+  /**
+   * When {@code bufferSize} is positive, data rows are appended through a single file channel that remains open until
+   * this writer is closed. Rows are batched in a buffer of about {@code bufferSize} bytes and the table index is
+   * updated each time the buffer is written out, instead of once per value set.
+   */
+  public CsvValueTableWriter(CsvValueTable valueTable, int bufferSize) {
     this.valueTable = valueTable;
+    this.bufferSize = bufferSize;
   }
 
   @NotNull
   @Override
   public ValueSetWriter writeValueSet(@NotNull VariableEntity entity) {
+    if(appender != null && appender.isPending(entity)) {
+      // existing values of this entity are read back from the file
+      try {
+        appender.flush();
+      } catch(IOException e) {
+        throw new MagmaRuntimeException(e);
+      }
+    }
     return new CsvValueSetWriter(entity);
   }
 
@@ -45,6 +76,28 @@ public class CsvValueTableWriter implements ValueTableWriter {
 
   @Override
   public void close() {
+    if(appender != null) {
+      try {
+        appender.close();
+      } catch(IOException e) {
+        throw new MagmaRuntimeException(e);
+      } finally {
+        appender = null;
+      }
+    }
+  }
+
+  private BufferedDataAppender getAppender() throws IOException {
+    if(appender == null) {
+      File dataFile = valueTable.getDataFile();
+      if(dataFile == null) {
+        throw new DatasourceParsingException(
+            "Cannot create data writer. Table " + valueTable.getName() + " does not have data file.",
+            "CsvCannotCreateWriter", valueTable.getName());
+      }
+      appender = new BufferedDataAppender(dataFile);
+    }
+    return appender;
   }
 
   private class CsvVariableWriter implements VariableWriter {
@@ -139,11 +192,16 @@ public class CsvValueTableWriter implements ValueTableWriter {
         }
 
         // Writer Value set. Throw exception if doesn't match header
-        long lastByte = valueTable.getDataLastByte();
         String[] line = csvLine.getLine();
-        writeValueToCsv(line);
-        // Update index
-        valueTable.updateDataIndex(entity, lastByte, line);
+        if(bufferSize > 0) {
+          // index is updated when the buffer is written out
+          getAppender().append(entity, line);
+        } else {
+          long lastByte = valueTable.getDataLastByte();
+          writeValueToCsv(line);
+          // Update index
+          valueTable.updateDataIndex(entity, lastByte, line);
+        }
       } catch(IOException e) {
         throw new RuntimeException(e);
       }
@@ -187,6 +245,10 @@ public class CsvValueTableWriter implements ValueTableWriter {
     }
 
     private void writeValueToCsv(String... strings) throws IOException {
+      if(bufferSize > 0) {
+        getAppender().append(null, strings);
+        return;
+      }
       try(CSVWriter writer = valueTable.getValueWriter()) {
         if(writer == null) {
           throw new DatasourceParsingException(
@@ -224,4 +286,77 @@ public class CsvValueTableWriter implements ValueTableWriter {
 
   }
 
+  /**
+   * Appends rows to the end of the data file through a stream that remains open for the lifetime of the table writer.
+   * Rows are encoded into a buffer which is written out once it exceeds the buffer size; the index entries of the
+   * buffered rows are handed over to the table at the same time, so the index never refers to unwritten bytes.
+   */
+  private class BufferedDataAppender implements Closeable {
+
+    private final FileOutputStream output;
+
+    private final ByteArrayOutputStream buffer;
+
+    private final CSVWriter csvWriter;
+
+    /**
+     * Number of bytes of the line terminator appended by {@link CSVWriter}, not part of the indexed row.
+     */
+    private final int lineEndLength;
+
+    private final Map<VariableEntity, CsvIndexEntry> pendingIndex = new LinkedHashMap<>();
+
+    /**
+     * File offset of the first buffered byte.
+     */
+    private long position;
+
+    private BufferedDataAppender(@NotNull File dataFile) throws IOException {
+      Charset charset = Charset.forName(valueTable.getCsvDatasource().getCharacterSet());
+      output = new FileOutputStream(dataFile, true);
+      position = output.getChannel().size();
+      buffer = new ByteArrayOutputStream(bufferSize + bufferSize / 4);
+      csvWriter = valueTable.getCsvDatasource().getCsvWriter(new OutputStreamWriter(buffer, charset));
+      lineEndLength = CSVWriter.DEFAULT_LINE_END.getBytes(charset).length;
+    }
+
+    private void append(@Nullable VariableEntity entity, String... line) throws IOException {
+      long start = position + buffer.size();
+      log.trace("write '{}'", Arrays.toString(line));
+      csvWriter.writeNext(line);
+      // push the encoded row to the buffer to get its exact length
+      csvWriter.flush();
+      if(entity != null) {
+        pendingIndex.put(entity, new CsvIndexEntry(start, position + buffer.size() - lineEndLength));
+      }
+      if(buffer.size() >= bufferSize) flush();
+    }
+
+    private boolean isPending(VariableEntity entity) {
+      return pendingIndex.containsKey(entity);
+    }
+
+    private void flush() throws IOException {
+      if(buffer.size() > 0) {
+        buffer.writeTo(output);
+        output.flush();
+        position += buffer.size();
+        buffer.reset();
+      }
+      if(!pendingIndex.isEmpty()) {
+        valueTable.updateDataIndex(pendingIndex);
+        pendingIndex.clear();
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      try {
+        flush();
+      } finally {
+        output.close();
+      }
+    }
+  }
+
 }
@@ -0,0 +1,228 @@
+/*
+ * Copyright (c) 2013 OBiBa. All rights reserved.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.obiba.magma.datasource.csv.support;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import javax.validation.constraints.NotNull;
+
+import org.obiba.magma.MagmaRuntimeException;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Splits a csv file into byte ranges that start and end on record boundaries, so that each range can be decoded and
+ * parsed independently of the others.
+ * <p/>
+ * A record boundary is a line feed that is not enclosed in a quoted value. Each range is first scanned concurrently for
+ * its quote count and for its first line feed under both possible quoting states; the quoting state at the start of
+ * each range is then resolved from the quote counts of the preceding ranges. This only holds for character sets in
+ * which quote, separator and line feed characters are encoded as single bytes that cannot appear within a multi-byte
+ * sequence, see {@link #isSplittable(Charset, Quote, Separator)}.
+ */
+public class CsvRecordSplitter {
+
+  private static final int SCAN_BUFFER_SIZE = 64 * 1024;
+
+  private static final byte LINE_FEED = '\n';
+
+  @NotNull
+  private final FileChannel channel;
+
+  private final byte quote;
+
+  public CsvRecordSplitter(@NotNull FileChannel channel, @NotNull Quote quote) {
+    this.channel = channel;
+    this.quote = (byte) quote.getCharacter();
+  }
+
+  /**
+   * Returns true if files written in {@code charset} can be split on byte offsets using the given quote and separator.
+   */
+  public static boolean isSplittable(@NotNull Charset charset, @NotNull Quote quote, @NotNull Separator separator) {
+    String name = charset.name();
+    boolean asciiCompatible = "UTF-8".equals(name) || "US-ASCII".equals(name) || name.startsWith("ISO-8859-") ||
+        name.startsWith("windows-125");
+    return asciiCompatible && quote.getCharacter() < 0x80 && separator.getCharacter() < 0x80;
+  }
+
+  /**
+   * Returns the byte offset that follows the first {@code count} records of the file.
+   */
+  public long skipRecords(int count) throws IOException {
+    long length = channel.size();
+    if(count <= 0) return 0;
+    ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+    boolean inQuotes = false;
+    int records = 0;
+    long position = 0;
+    while(position < length) {
+      buffer.clear();
+      int read = channel.read(buffer, position);
+      if(read <= 0) break;
+      for(int i = 0; i < read; i++) {
+        byte b = buffer.get(i);
+        if(b == quote) {
+          inQuotes = !inQuotes;
+        } else if(b == LINE_FEED && !inQuotes && ++records == count) {
+          return position + i + 1;
+        }
+      }
+      position += read;
+    }
+    return length;
+  }
+
+  /**
+   * Splits the file from {@code offset} to its end into ranges of approximately {@code chunkSize} bytes, each one
+   * holding complete records only. Ranges are scanned using {@code executor}.
+   */
+  public List<Range> split(long offset, int chunkSize, @NotNull ExecutorService executor) throws IOException {
+    if(chunkSize <= 0) throw new IllegalArgumentException("chunkSize must be positive");
+    long length = channel.size();
+    List<Range> ranges = Lists.newArrayList();
+    if(offset >= length) return ranges;
+
+    List<Future<ChunkScan>> scans = Lists.newArrayList();
+    for(long start = offset; start < length; start += chunkSize) {
+      scans.add(executor.submit(new ChunkScanner(start, Math.min(start + chunkSize, length))));
+    }
+
+    long rangeStart = offset;
+    boolean inQuotes = false;
+    for(Future<ChunkScan> future : scans) {
+      ChunkScan scan = get(future);
+      if(scan.start > offset) {
+        long boundary = inQuotes ? scan.firstLineFeedInQuotes : scan.firstLineFeed;
+        if(boundary >= 0 && boundary + 1 < length) {
+          ranges.add(new Range(rangeStart, boundary + 1));
+          rangeStart = boundary + 1;
+        }
+      }
+      if(scan.quoteCount % 2 == 1) inQuotes = !inQuotes;
+    }
+    ranges.add(new Range(rangeStart, length));
+    return ranges;
+  }
+
+  private static ChunkScan get(Future<ChunkScan> future) throws IOException {
+    try {
+      return future.get();
+    } catch(InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new MagmaRuntimeException(e);
+    } catch(ExecutionException e) {
+      Throwable cause = e.getCause();
+      if(cause instanceof IOException) throw (IOException) cause;
+      if(cause instanceof RuntimeException) throw (RuntimeException) cause;
+      throw new MagmaRuntimeException(cause);
+    }
+  }
+
+  /**
+   * A portion of a csv file, from {@code start} (inclusive) to {@code end} (exclusive).
+   */
+  public static class Range {
+
+    private final long start;
+
+    private final long end;
+
+    public Range(long start, long end) {
+      this.start = start;
+      this.end = end;
+    }
+
+    public long getStart() {
+      return start;
+    }
+
+    public long getEnd() {
+      return end;
+    }
+
+    public long getLength() {
+      return end - start;
+    }
+
+    @Override
+    public String toString() {
+      return "Range[start=" + start + ", end=" + end + "]";
+    }
+  }
+
+  private static class ChunkScan {
+
+    private final long start;
+
+    private long quoteCount;
+
+    /**
+     * Position of the first record-ending line feed when the chunk starts outside of a quoted value.
+     */
+    private long firstLineFeed = -1;
+
+    /**
+     * Position of the first record-ending line feed when the chunk starts within a quoted value.
+     */
+    private long firstLineFeedInQuotes = -1;
+
+    private ChunkScan(long start) {
+      this.start = start;
+    }
+  }
+
+  private class ChunkScanner implements Callable<ChunkScan> {
+
+    private final long start;
+
+    private final long end;
+
+    private ChunkScanner(long start, long end) {
+      this.start = start;
+      this.end = end;
+    }
+
+    @Override
+    public ChunkScan call() throws IOException {
+      ChunkScan scan = new ChunkScan(start);
+      ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(SCAN_BUFFER_SIZE, end - start));
+      long position = start;
+      while(position < end) {
+        buffer.clear();
+        buffer.limit((int) Math.min(buffer.capacity(), end - position));
+        int read = channel.read(buffer, position);
+        if(read <= 0) break;
+        for(int i = 0; i < read; i++) {
+          byte b = buffer.get(i);
+          if(b == quote) {
+            scan.quoteCount++;
+          } else if(b == LINE_FEED) {
+            if(scan.quoteCount % 2 == 0) {
+              if(scan.firstLineFeed < 0) scan.firstLineFeed = position + i;
+            } else if(scan.firstLineFeedInQuotes < 0) {
+              scan.firstLineFeedInQuotes = position + i;
+            }
+          }
+        }
+        position += read;
+      }
+      return scan;
+    }
+  }
+}
@@ -141,6 +141,20 @@ public class CsvDatasourceTest extends AbstractMagmaTest {
     assertThat(var.getAttribute("ns2", "attr", Locale.ENGLISH).getValue().toString()).isEqualTo("ns2");
   }
 
+  @Test
+  public void test_lazily_initialised_tables_read() {
+    CsvDatasource datasource = new CsvDatasource("csv-datasource").addValueTable("Table1", //
+        getFileFromResource("org/obiba/magma/datasource/csv/Table1/variables.csv"), //
+        getFileFromResource("org/obiba/magma/datasource/csv/Table1/data.csv"));
+    datasource.setLazyTableInitialisation(true);
+    datasource.initialise();
+
+    assertThat(datasource.getValueTables()).hasSize(1);
+    ValueTable table = datasource.getValueTables().iterator().next();
+    assertThat(table.getEntityType()).isEqualTo("Participant");
+    assertThat(table.getVariable("var1").getCategories()).hasSize(4);
+  }
+
   @Test
   public void test_table_data_read() {
     CsvDatasource datasource = new CsvDatasource("csv-datasource").addValueTable("Table1", //
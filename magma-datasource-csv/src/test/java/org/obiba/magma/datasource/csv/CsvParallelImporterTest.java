@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2013 OBiBa. All rights reserved.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.obiba.magma.datasource.csv;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.Charset;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Test;
+import org.obiba.magma.ValueSet;
+import org.obiba.magma.ValueTable;
+import org.obiba.magma.Variable;
+import org.obiba.magma.datasource.csv.support.CsvRecordSplitter;
+import org.obiba.magma.datasource.csv.support.Quote;
+import org.obiba.magma.support.DatasourceCopier;
+import org.obiba.magma.test.AbstractMagmaTest;
+
+import com.google.common.base.Charsets;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+public class CsvParallelImporterTest extends AbstractMagmaTest {
+
+  private static final int ROWS = 300;
+
+  @Test
+  public void test_split_on_record_boundaries() throws Exception {
+    File dataFile = createDataFile();
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try(RandomAccessFile raf = new RandomAccessFile(dataFile, "r")) {
+      CsvRecordSplitter splitter = new CsvRecordSplitter(raf.getChannel(), Quote.DOUBLE);
+      long offset = splitter.skipRecords(1);
+      assertThat(offset).isEqualTo("entity_id,name,notes\n".length());
+
+      List<CsvRecordSplitter.Range> ranges = splitter.split(offset, 50, executor);
+      assertThat(ranges.size()).isGreaterThan(1);
+      long expectedStart = offset;
+      for(CsvRecordSplitter.Range range : ranges) {
+        assertThat(range.getStart()).isEqualTo(expectedStart);
+        // every range starts with a new record
+        raf.seek(range.getStart());
+        assertThat((char) raf.read()).isEqualTo('P');
+        expectedStart = range.getEnd();
+      }
+      assertThat(expectedStart).isEqualTo(dataFile.length());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void test_parallel_import_matches_sequential_read() throws Exception {
+    assertImportMatchesSequentialRead(createDataFile(), Charsets.UTF_8);
+  }
+
+  @Test
+  public void test_streamed_import_of_unsplittable_charset_matches_sequential_read() throws Exception {
+    assertImportMatchesSequentialRead(createDataFile(Charsets.UTF_16BE), Charsets.UTF_16BE);
+  }
+
+  @Test
+  public void test_streamed_import_of_little_endian_charset_matches_sequential_read() throws Exception {
+    // the line feed is encoded as 0A 00, scanning bytes for it would split the header from its last byte
+    assertImportMatchesSequentialRead(createDataFile(Charsets.UTF_16LE), Charsets.UTF_16LE);
+  }
+
+  private void assertImportMatchesSequentialRead(File dataFile, Charset charset) throws Exception {
+    CsvDatasource source = new CsvDatasource("source").addValueTable("Table", null, dataFile);
+    source.setCharacterSet(charset.name());
+    source.initialise();
+    CsvValueTable sourceTable = (CsvValueTable) source.getValueTable("Table");
+
+    File destinationDirectory = new TempTableBuilder("Table").addData().build();
+    File destinationFile = new File(destinationDirectory, "Table/" + CsvDatasource.DATA_FILE);
+    CsvDatasource destination = new CsvDatasource("destination").addValueTable("Table", null, destinationFile);
+    destination.initialise();
+    CsvParallelImporter.Builder.newImporter() //
+        .from(sourceTable) //
+        .to(destination) //
+        .withThreads(4) //
+        .withChunkSize(64) //
+        .withCopier(DatasourceCopier.Builder.newCopier().dontCopyMetadata()) //
+        .build() //
+        .copy();
+
+    CsvDatasource copy = new CsvDatasource("copy").addValueTable("Table", null, destinationFile);
+    copy.initialise();
+    ValueTable destinationTable = copy.getValueTable("Table");
+    assertThat(destinationTable.getVariableEntityCount()).isEqualTo(ROWS);
+    for(ValueSet valueSet : sourceTable.getValueSets()) {
+      ValueSet copied = destinationTable.getValueSet(valueSet.getVariableEntity());
+      for(Variable variable : sourceTable.getVariables()) {
+        assertThat(destinationTable.getValue(variable, copied).toString())
+            .isEqualTo(sourceTable.getValue(variable, valueSet).toString());
+      }
+    }
+  }
+
+  private File createDataFile() throws IOException {
+    return createDataFile(Charsets.UTF_8);
+  }
+
+  private File createDataFile(Charset charset) throws IOException {
+    StringBuilder data = new StringBuilder("entity_id,name,notes\n");
+    for(int i = 0; i < ROWS; i++) {
+      data.append("P").append(i).append(',');
+      if(i % 3 == 0) {
+        data.append("\"Name ").append(i).append(", with a comma\"");
+      } else {
+        data.append("Name").append(i);
+      }
+      data.append(',');
+      if(i % 4 == 0) {
+        data.append("\"first line\nsecond \"\"quoted\"\" line\n\"");
+      } else {
+        data.append("note ").append(i);
+      }
+      data.append('\n');
+    }
+    File dataFile = File.createTempFile("parallel", ".csv");
+    dataFile.deleteOnExit();
+    FileUtils.writeStringToFile(dataFile, data.toString(), charset);
+    return dataFile;
+  }
+
+}
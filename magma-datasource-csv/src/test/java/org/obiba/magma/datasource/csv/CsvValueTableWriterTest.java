@@ -322,6 +322,48 @@ public class CsvValueTableWriterTest extends AbstractMagmaTest {
     datasource.dispose();
   }
 
+  @Test
+  public void test_buffered_writing_data_only_modifying_value_sets_and_reading_back_from_datasource()
+      throws Exception {
+    String tableName = "TableDataOnly";
+    CsvDatasource datasource = new TempTableBuilder(tableName)
+        .addData(getFileFromResource("org/obiba/magma/datasource/csv/TableDataOnly/data.csv"))
+        .buildCsvDatasource("csv-datasource");
+    datasource.setWriteBufferSize(64);
+
+    Variable cityVariable = Variable.Builder.newVariable("City", TextType.get(), "Participant").build();
+    Map<Variable, Value> values = Maps.newHashMap();
+
+    try(ValueTableWriter writer = datasource.createWriter(tableName, DEFAULT_ENTITY_TYPE)) {
+      for(int i = 10; i < 50; i++) {
+        values.put(cityVariable, TextType.get().valueOf("City " + i));
+        writeValueSet(new VariableEntityBean(DEFAULT_ENTITY_TYPE, String.valueOf(i)), writer, values);
+      }
+      // update a buffered value set and an existing one
+      values.put(cityVariable, TextType.get().valueOf("Regina"));
+      writeValueSet(new VariableEntityBean(DEFAULT_ENTITY_TYPE, "49"), writer, values);
+      values.put(cityVariable, TextType.get().valueOf("Suggéré"));
+      writeValueSet(new VariableEntityBean(DEFAULT_ENTITY_TYPE, "2"), writer, values);
+    }
+
+    ValueTable table = datasource.getValueTable(tableName);
+    assertThat(readValue(table, new VariableEntityBean(DEFAULT_ENTITY_TYPE, "10"), cityVariable))
+        .isEqualTo(TextType.get().valueOf("City 10"));
+    assertThat(readValue(table, new VariableEntityBean(DEFAULT_ENTITY_TYPE, "49"), cityVariable))
+        .isEqualTo(TextType.get().valueOf("Regina"));
+    assertThat(readValue(table, new VariableEntityBean(DEFAULT_ENTITY_TYPE, "2"), cityVariable))
+        .isEqualTo(TextType.get().valueOf("Suggéré"));
+    datasource.dispose();
+
+    datasource.initialise();
+    table = datasource.getValueTable(tableName);
+    assertThat(readValue(table, new VariableEntityBean(DEFAULT_ENTITY_TYPE, "48"), cityVariable))
+        .isEqualTo(TextType.get().valueOf("City 48"));
+    assertThat(readValue(table, new VariableEntityBean(DEFAULT_ENTITY_TYPE, "49"), cityVariable))
+        .isEqualTo(TextType.get().valueOf("Regina"));
+    datasource.dispose();
+  }
+
   @Test(expected = MagmaRuntimeException.class)
   public void test_writing_variables_header_in_file_without_required_name_causes_error() throws Exception {
     String tableName = "TableVariablesOnly";
@@ -6,6 +6,7 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.PushbackInputStream;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -17,8 +18,11 @@ import java.util.Set;
 
 import javax.validation.constraints.NotNull;
 
+import org.apache.poi.POIXMLDocument;
 import org.apache.poi.hssf.usermodel.HSSFWorkbook;
 import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.CellStyle;
 import org.apache.poi.ss.usermodel.Font;
@@ -26,6 +30,7 @@ import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.ss.usermodel.WorkbookFactory;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.obiba.magma.MagmaRuntimeException;
 import org.obiba.magma.Timestamps;
@@ -34,6 +39,7 @@ import org.obiba.magma.ValueTableWriter;
 import org.obiba.magma.datasource.excel.support.ExcelDatasourceParsingException;
 import org.obiba.magma.datasource.excel.support.ExcelUtil;
 import org.obiba.magma.datasource.excel.support.NameConverter;
+import org.obiba.magma.datasource.excel.support.StreamingWorkbookReader;
 import org.obiba.magma.datasource.excel.support.VariableConverter;
 import org.obiba.magma.support.AbstractDatasource;
 import org.slf4j.Logger;
@@ -63,8 +69,24 @@ public class ExcelDatasource extends AbstractDatasource {
 
   private static final int BOLD_WEIGHT = 700;
 
+  private static final int OOXML_HEADER_LENGTH = 8;
+
   private Workbook excelWorkbook;
 
+  /**
+   * Workbook in which the value sheets are created: differs from {@link #excelWorkbook} when value rows are streamed.
+   */
+  private Workbook valuesWorkbook;
+
+  private boolean streaming;
+
+  private int rowAccessWindowSize = SXSSFWorkbook.DEFAULT_WINDOW_SIZE;
+
+  /**
+   * True when the workbook was read in streaming mode, in which case it only holds what is needed to read the tables.
+   */
+  private boolean readOnly;
+
   private Sheet variablesSheet;
 
   private Sheet categoriesSheet;
@@ -122,9 +144,39 @@ public class ExcelDatasource extends AbstractDatasource {
     this.excelOutput = excelOutput;
   }
 
+  /**
+   * Enable the streaming mode, for large workbooks. Excel 2007 workbooks are then read with an event-driven parser and
+   * the datasource is read-only; new workbooks keep the Variables and Categories sheets in memory but flush the rows
+   * of the value sheets to temporary files, keeping only the last {@link #setRowAccessWindowSize(int)} rows of each
+   * value sheet in memory. The variables of a table must then be written before its values. Must be set before
+   * initialisation.
+   *
+   * @param streaming
+   */
+  public void setStreaming(boolean streaming) {
+    this.streaming = streaming;
+  }
+
+  public boolean isStreaming() {
+    return streaming;
+  }
+
+  /**
+   * Set the number of value rows per sheet kept in memory in streaming mode.
+   *
+   * @param rowAccessWindowSize
+   */
+  public void setRowAccessWindowSize(int rowAccessWindowSize) {
+    this.rowAccessWindowSize = rowAccessWindowSize;
+  }
+
   @Override
   @NotNull
   public ValueTableWriter createWriter(@NotNull String name, @NotNull String entityType) {
+    if(readOnly) {
+      throw new MagmaRuntimeException(
+          "Excel datasource " + getName() + " was read in streaming mode and is read-only.");
+    }
     ExcelValueTable valueTable = null;
     if(hasValueTable(name)) {
       valueTable = (ExcelValueTable) getValueTable(name);
@@ -142,7 +194,10 @@ public class ExcelDatasource extends AbstractDatasource {
       createWorkbookFromInputStream();
     } else {
       // Create a XSSFWorkbook that will be written in output stream
-      excelWorkbook = new XSSFWorkbook();
+      createXSSFWorkbook();
+    }
+    if(valuesWorkbook == null) {
+      valuesWorkbook = excelWorkbook;
     }
 
     createExcelStyles();
@@ -151,9 +206,13 @@ public class ExcelDatasource extends AbstractDatasource {
   private void createWorbookFromFile() {
     if(excelFile.exists()) {
       try {
-        // WorkbookFactory will close the stream by itself
-        // This will create the proper type of Workbook (HSSF vs. XSSF)
-        excelWorkbook = WorkbookFactory.create(new FileInputStream(excelFile));
+        if(streaming && isOOXML(excelFile)) {
+          readWorkbook(OPCPackage.open(excelFile.getPath(), PackageAccess.READ));
+        } else {
+          // WorkbookFactory will close the stream by itself
+          // This will create the proper type of Workbook (HSSF vs. XSSF)
+          excelWorkbook = WorkbookFactory.create(new FileInputStream(excelFile));
+        }
       } catch(IOException e) {
         throw new MagmaRuntimeException("Exception reading excel spreadsheet " + excelFile.getName(), e);
       } catch(InvalidFormatException e) {
@@ -167,13 +226,30 @@ public class ExcelDatasource extends AbstractDatasource {
         excelWorkbook = new HSSFWorkbook();
       } else {
         // Create a XSSFWorkbook to support more than 256 columns and 64K rows.
-        excelWorkbook = new XSSFWorkbook();
+        createXSSFWorkbook();
       }
     }
   }
 
+  private void createXSSFWorkbook() {
+    XSSFWorkbook workbook = new XSSFWorkbook();
+    excelWorkbook = workbook;
+    if(streaming) {
+      // sheets created from the template workbook (Variables, Categories) are not streamed
+      valuesWorkbook = new SXSSFWorkbook(workbook, rowAccessWindowSize);
+    }
+  }
+
   private void createWorkbookFromInputStream() {
     try {
+      if(streaming) {
+        PushbackInputStream input = new PushbackInputStream(excelInput, OOXML_HEADER_LENGTH);
+        if(POIXMLDocument.hasOOXMLHeader(input)) {
+          readWorkbook(OPCPackage.open(input));
+          return;
+        }
+        excelInput = input;
+      }
       excelWorkbook = WorkbookFactory.create(excelInput);
     } catch(IllegalArgumentException e) {
       throw new MagmaRuntimeException(
@@ -185,6 +261,22 @@ public class ExcelDatasource extends AbstractDatasource {
     }
   }
 
+  private boolean isOOXML(File file) throws IOException {
+    try(PushbackInputStream input = new PushbackInputStream(new FileInputStream(file), OOXML_HEADER_LENGTH)) {
+      return POIXMLDocument.hasOOXMLHeader(input);
+    }
+  }
+
+  private void readWorkbook(OPCPackage pkg) throws IOException {
+    try {
+      excelWorkbook = new StreamingWorkbookReader(SHEET_RESERVED_NAMES).read(pkg);
+      readOnly = true;
+    } finally {
+      // close without saving
+      pkg.revert();
+    }
+  }
+
   /**
    * Write the Excel workbook into provided output stream.
    *
@@ -192,11 +284,15 @@ public class ExcelDatasource extends AbstractDatasource {
    * @throws IOException
    */
   private void writeWorkbook(OutputStream excelOutputStream) throws IOException {
-    excelWorkbook.write(excelOutputStream);
+    valuesWorkbook.write(excelOutputStream);
   }
 
   @Override
   protected void onDispose() {
+    if(readOnly) {
+      disposeTemporaryFiles();
+      return;
+    }
     // Write the workbook (datasource) to file/OutputStream if any of them is defined
     try(OutputStream out = excelFile == null ? excelOutput : new FileOutputStream(excelFile)) {
       if(out != null) {
@@ -204,6 +300,14 @@ public class ExcelDatasource extends AbstractDatasource {
       }
     } catch(Exception e) {
       throw new MagmaRuntimeException("Could not write to excel output stream", e);
+    } finally {
+      disposeTemporaryFiles();
+    }
+  }
+
+  private void disposeTemporaryFiles() {
+    if(valuesWorkbook instanceof SXSSFWorkbook) {
+      ((SXSSFWorkbook) valuesWorkbook).dispose();
     }
   }
 
@@ -340,11 +444,26 @@ public class ExcelDatasource extends AbstractDatasource {
   }
 
   Sheet createSheetIfNotExist(String tableName) {
+    return createSheetIfNotExist(excelWorkbook, tableName);
+  }
+
+  /**
+   * Get the sheet holding the values of a table, create it if necessary. In streaming mode, the rows of this sheet are
+   * flushed to disk once out of the row access window.
+   *
+   * @param tableName
+   * @return
+   */
+  Sheet createValueSheetIfNotExist(String tableName) {
+    return createSheetIfNotExist(valuesWorkbook, tableName);
+  }
+
+  private Sheet createSheetIfNotExist(Workbook workbook, String tableName) {
     Sheet sheet;
     String sheetName = getSheetName(tableName);
-    sheet = excelWorkbook.getSheet(sheetName);
+    sheet = workbook.getSheet(sheetName);
     if(sheet == null) {
-      sheet = excelWorkbook.createSheet(sheetName);
+      sheet = workbook.createSheet(sheetName);
     }
     return sheet;
   }
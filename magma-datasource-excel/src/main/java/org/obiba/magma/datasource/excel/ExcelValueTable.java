@@ -98,6 +98,7 @@ public class ExcelValueTable extends AbstractValueTable implements Initialisable
       return columnIndex;
     }
     Row variableNameRow = getValueTableSheet().getRow(0);
+    if(variableNameRow == null) return -1;
     for(int i = 0; i < variableNameRow.getPhysicalNumberOfCells(); i++) {
       Cell cell = variableNameRow.getCell(i);
       if(ExcelUtil.getCellValueAsString(cell).equals(variable.getName())) {
@@ -113,6 +114,11 @@ public class ExcelValueTable extends AbstractValueTable implements Initialisable
     if(column == -1) {
       // Add it
       Row variableNameRow = getValueTableSheet().getRow(0);
+      if(variableNameRow == null) {
+        // header row was flushed in streaming mode
+        throw new MagmaRuntimeException("Cannot add variable " + variable.getName() + " to table " + getName() +
+            " once values have been streamed: variables must be written before values.");
+      }
       Cell variableColumn = variableNameRow
           .createCell(variableNameRow.getPhysicalNumberOfCells(), Cell.CELL_TYPE_STRING);
       ExcelUtil.setCellValue(variableColumn, TextType.get(), variable.getName());
@@ -130,7 +136,7 @@ public class ExcelValueTable extends AbstractValueTable implements Initialisable
    */
   Sheet getValueTableSheet() {
     if(valueTableSheet == null) {
-      valueTableSheet = getDatasource().createSheetIfNotExist(getName());
+      valueTableSheet = getDatasource().createValueSheetIfNotExist(getName());
 
       if(valueTableSheet.getPhysicalNumberOfRows() <= 0) {
         valueTableSheet.createRow(0);
@@ -359,7 +365,10 @@ public class ExcelValueTable extends AbstractValueTable implements Initialisable
       ImmutableSet.Builder<VariableEntity> entitiesBuilder = ImmutableSet.builder();
       if(valueTableSheet != null) {
         for(int i = 1; i < valueTableSheet.getPhysicalNumberOfRows(); i++) {
-          Cell cell = valueTableSheet.getRow(i).getCell(0);
+          Row row = valueTableSheet.getRow(i);
+          // rows flushed in streaming mode are not accessible anymore
+          if(row == null) continue;
+          Cell cell = row.getCell(0);
           entitiesBuilder.add(new VariableEntityBean(entityType, ExcelUtil.getCellValueAsString(cell)));
         }
       }
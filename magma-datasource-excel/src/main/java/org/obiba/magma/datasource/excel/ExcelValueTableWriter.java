@@ -67,6 +67,11 @@ public class ExcelValueTableWriter implements ValueTableWriter {
       updateCategorySheetHeaderRow(headerRowCategories);
 
       converter.marshall(variable, headerRowVariables, headerRowCategories);
+
+      if(valueTable.getDatasource().isStreaming()) {
+        // value sheet header must be complete before its first rows are flushed
+        valueTable.getVariableColumn(variable);
+      }
     }
 
     @Override
@@ -6,6 +6,7 @@ import java.io.FileNotFoundException;
 
 import javax.validation.constraints.NotNull;
 
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.obiba.magma.AbstractDatasourceFactory;
 import org.obiba.magma.Datasource;
 import org.obiba.magma.MagmaRuntimeException;
@@ -17,6 +18,10 @@ public class ExcelDatasourceFactory extends AbstractDatasourceFactory {
 
   private boolean readOnly = false;
 
+  private boolean streaming = false;
+
+  private int rowAccessWindowSize = SXSSFWorkbook.DEFAULT_WINDOW_SIZE;
+
   public void setFile(File file) {
     this.file = file;
   }
@@ -25,18 +30,30 @@ public class ExcelDatasourceFactory extends AbstractDatasourceFactory {
     this.readOnly = readOnly;
   }
 
+  public void setStreaming(boolean streaming) {
+    this.streaming = streaming;
+  }
+
+  public void setRowAccessWindowSize(int rowAccessWindowSize) {
+    this.rowAccessWindowSize = rowAccessWindowSize;
+  }
+
   @NotNull
   @Override
   protected Datasource internalCreate() {
+    ExcelDatasource datasource;
     if(readOnly) {
       try {
-        return new ExcelDatasource(getName(), new FileInputStream(file));
+        datasource = new ExcelDatasource(getName(), new FileInputStream(file));
       } catch(FileNotFoundException e) {
         throw new MagmaRuntimeException("Exception reading excel spreadsheet " + file.getName(), e);
       }
     } else {
-      return new ExcelDatasource(getName(), file);
+      datasource = new ExcelDatasource(getName(), file);
     }
+    datasource.setStreaming(streaming);
+    datasource.setRowAccessWindowSize(rowAccessWindowSize);
+    return datasource;
   }
 
 }
@@ -0,0 +1,198 @@
+package org.obiba.magma.datasource.excel.support;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Set;
+
+import javax.validation.constraints.NotNull;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.obiba.magma.MagmaRuntimeException;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * Reads an Excel 2007 (OOXML) workbook with a SAX parser instead of loading its XML object model.
+ * <p/>
+ * The returned workbook is a lightweight in-memory copy of the cells: sheets that are named in {@code fullSheetNames}
+ * are copied entirely, other sheets are reduced to their header row and first column (entity identifiers), as the
+ * values they hold are never read. Cells hold the cached result of formulas, not the formulas themselves.
+ */
+public class StreamingWorkbookReader {
+
+  @NotNull
+  private final Set<String> fullSheetNames;
+
+  public StreamingWorkbookReader(@NotNull Set<String> fullSheetNames) {
+    this.fullSheetNames = fullSheetNames;
+  }
+
+  /**
+   * Read the workbook from the package. The caller is responsible for closing the package.
+   */
+  @NotNull
+  public Workbook read(@NotNull OPCPackage pkg) throws IOException {
+    try {
+      XSSFReader reader = new XSSFReader(pkg);
+      ReadOnlySharedStringsTable sharedStrings = new ReadOnlySharedStringsTable(pkg);
+      // no row is ever flushed to disk
+      Workbook workbook = new SXSSFWorkbook(-1);
+      XMLReader parser = newParser();
+      XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+      while(sheets.hasNext()) {
+        try(InputStream sheetData = sheets.next()) {
+          String sheetName = sheets.getSheetName();
+          Sheet sheet = workbook.createSheet(sheetName);
+          parser.setContentHandler(new SheetHandler(sheet, sharedStrings, !fullSheetNames.contains(sheetName)));
+          parser.parse(new InputSource(sheetData));
+        }
+      }
+      return workbook;
+    } catch(OpenXML4JException | SAXException | ParserConfigurationException e) {
+      throw new MagmaRuntimeException("Invalid excel spreadsheet format", e);
+    }
+  }
+
+  private static XMLReader newParser() throws SAXException, ParserConfigurationException {
+    SAXParserFactory factory = SAXParserFactory.newInstance();
+    factory.setNamespaceAware(true);
+    return factory.newSAXParser().getXMLReader();
+  }
+
+  /**
+   * Copies the cells of a worksheet part into a {@link Sheet}.
+   */
+  private static class SheetHandler extends DefaultHandler {
+
+    private final Sheet sheet;
+
+    private final ReadOnlySharedStringsTable sharedStrings;
+
+    private final boolean headerAndIdentifiersOnly;
+
+    private final StringBuilder text = new StringBuilder();
+
+    private Row row;
+
+    private int rowNum;
+
+    private int nextRowNum;
+
+    private int column;
+
+    private int nextColumn;
+
+    private String cellType;
+
+    private boolean hasValue;
+
+    private boolean inValue;
+
+    private boolean inInlineString;
+
+    private SheetHandler(Sheet sheet, ReadOnlySharedStringsTable sharedStrings, boolean headerAndIdentifiersOnly) {
+      this.sheet = sheet;
+      this.sharedStrings = sharedStrings;
+      this.headerAndIdentifiersOnly = headerAndIdentifiersOnly;
+    }
+
+    @Override
+    public void startElement(String uri, String localName, String qName, Attributes attributes) {
+      switch(localName) {
+        case "row":
+          String rowRef = attributes.getValue("r");
+          rowNum = rowRef == null ? nextRowNum : Integer.parseInt(rowRef) - 1;
+          row = sheet.createRow(rowNum);
+          nextRowNum = rowNum + 1;
+          nextColumn = 0;
+          break;
+        case "c":
+          String cellRef = attributes.getValue("r");
+          column = cellRef == null ? nextColumn : new CellReference(cellRef).getCol();
+          nextColumn = column + 1;
+          cellType = attributes.getValue("t");
+          hasValue = false;
+          text.setLength(0);
+          break;
+        case "is":
+          inInlineString = true;
+          break;
+        case "v":
+          inValue = true;
+          break;
+        case "t":
+          inValue = inInlineString;
+          break;
+        default:
+          break;
+      }
+    }
+
+    @Override
+    public void endElement(String uri, String localName, String qName) {
+      switch(localName) {
+        case "c":
+          if(hasValue && isKept()) {
+            setCellValue(row.createCell(column), text.toString());
+          }
+          break;
+        case "is":
+          inInlineString = false;
+          break;
+        case "v":
+        case "t":
+          if(inValue) hasValue = true;
+          inValue = false;
+          break;
+        default:
+          break;
+      }
+    }
+
+    @Override
+    public void characters(char[] ch, int start, int length) {
+      if(inValue) text.append(ch, start, length);
+    }
+
+    private boolean isKept() {
+      return !headerAndIdentifiersOnly || rowNum == 0 || column == 0;
+    }
+
+    private void setCellValue(Cell cell, String value) {
+      if(cellType == null || "n".equals(cellType)) {
+        try {
+          cell.setCellValue(Double.parseDouble(value));
+        } catch(NumberFormatException e) {
+          cell.setCellValue(value);
+        }
+        return;
+      }
+      switch(cellType) {
+        case "s":
+          cell.setCellValue(sharedStrings.getEntryAt(Integer.parseInt(value)));
+          break;
+        case "b":
+          cell.setCellValue("1".equals(value));
+          break;
+        default:
+          // inlineStr, str (formula result) and e (error)
+          cell.setCellValue(value);
+          break;
+      }
+    }
+  }
+}
@@ -125,22 +125,23 @@ public class VariableConverter {
   @SuppressWarnings({ "OverlyLongMethod", "PMD.NcssMethodCount" })
   public Variable unmarshall(Row variableRow) {
     String tableName = valueTable.getName();
-    int rowNum = variableRow.getRowNum();
 
+    // row number is only resolved when reporting errors, it is a linear lookup in streamed workbooks
     String name = getVariableCellValue(variableRow, NAME).trim();
     if(name.isEmpty()) {
       throw new ExcelDatasourceParsingException("Variable name is required in table: " + tableName, //
-          "VariableNameRequired", ExcelDatasource.VARIABLES_SHEET, rowNum + 1, tableName);
+          "VariableNameRequired", ExcelDatasource.VARIABLES_SHEET, variableRow.getRowNum() + 1, tableName);
     }
     if(name.contains(":")) {
       throw new ExcelDatasourceParsingException(
           "Variable name cannot contain ':' in variable: " + tableName + " / " + name, //
-          "VariableNameCannotContainColon", ExcelDatasource.VARIABLES_SHEET, rowNum + 1, tableName, name);
+          "VariableNameCannotContainColon", ExcelDatasource.VARIABLES_SHEET, variableRow.getRowNum() + 1, tableName,
+          name);
     }
 
     String entityType = getVariableCellValue(variableRow, ENTITY_TYPE).trim();
     if(entityType.isEmpty()) entityType = "Participant";
-    ValueType valueType = unmarshallValueType(variableRow, name, tableName, rowNum);
+    ValueType valueType = unmarshallValueType(variableRow, name, tableName);
 
     Variable.Builder builder = Variable.Builder.newVariable(name, valueType, entityType);
     unmarshallMimeType(variableRow, builder);
@@ -201,7 +202,7 @@ public class VariableConverter {
     }
   }
 
-  private ValueType unmarshallValueType(Row variableRow, String name, String tableName, int rowNum) {
+  private ValueType unmarshallValueType(Row variableRow, String name, String tableName) {
     ValueType valueType;
     String valueTypeStr = getVariableCellValue(variableRow, VALUE_TYPE).trim();
     if(valueTypeStr.isEmpty() || "string".equalsIgnoreCase(valueTypeStr)) {
@@ -212,7 +213,8 @@ public class VariableConverter {
       } catch(Exception e) {
         throw new ExcelDatasourceParsingException(
             "Unknown value type '" + valueTypeStr + "' for variable: " + tableName + " / " + name, //
-            "UnknownValueType", ExcelDatasource.VARIABLES_SHEET, rowNum + 1, tableName, name, valueTypeStr);
+            "UnknownValueType", ExcelDatasource.VARIABLES_SHEET, variableRow.getRowNum() + 1, tableName, name,
+            valueTypeStr);
       }
     }
     return valueType;
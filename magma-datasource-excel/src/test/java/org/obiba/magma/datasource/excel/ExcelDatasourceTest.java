@@ -22,6 +22,7 @@ import org.obiba.magma.ValueTableWriter.VariableWriter;
 import org.obiba.magma.Variable;
 import org.obiba.magma.support.DatasourceParsingException;
 import org.obiba.magma.support.Disposables;
+import org.obiba.magma.support.VariableEntityBean;
 import org.obiba.magma.test.AbstractMagmaTest;
 import org.obiba.magma.type.IntegerType;
 import org.obiba.magma.type.TextType;
@@ -30,6 +31,7 @@ import com.google.common.base.Charsets;
 import com.google.common.io.Files;
 
 import static org.fest.assertions.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
 
 @SuppressWarnings({ "OverlyLongMethod", "ReuseOfLocalVariable", "ResultOfMethodCallIgnored", "PMD.NcssMethodCount" })
 @edu.umd.cs.findbugs.annotations.SuppressWarnings("RV_RETURN_VALUE_IGNORED_BAD_PRACTICE")
@@ -310,6 +312,71 @@ public class ExcelDatasourceTest extends AbstractMagmaTest {
     assertLongTableNames(datasource2);
   }
 
+  @Test
+  public void test_streaming_write_and_read() throws IOException {
+    File tmpExcelFile = createTempFile(".xlsx");
+    Variable name = Variable.Builder.newVariable("name", TextType.get(), "Participant") //
+        .addCategory("A", "1").build();
+    Variable age = Variable.Builder.newVariable("age", IntegerType.get(), "Participant").build();
+
+    ExcelDatasource datasource = new ExcelDatasource("streaming", tmpExcelFile);
+    datasource.setStreaming(true);
+    datasource.setRowAccessWindowSize(10);
+    datasource.initialise();
+    try(ValueTableWriter tableWriter = datasource.createWriter("table", "Participant")) {
+      try(VariableWriter variableWriter = tableWriter.writeVariables()) {
+        variableWriter.writeVariable(name);
+        variableWriter.writeVariable(age);
+      }
+      for(int i = 0; i < 200; i++) {
+        try(ValueTableWriter.ValueSetWriter valueSetWriter = tableWriter
+            .writeValueSet(new VariableEntityBean("Participant", "P" + i))) {
+          valueSetWriter.writeValue(name, TextType.get().valueOf("Name " + i));
+          valueSetWriter.writeValue(age, IntegerType.get().valueOf(i));
+        }
+      }
+    }
+    datasource.dispose();
+
+    try(FileInputStream inputStream = new FileInputStream(tmpExcelFile)) {
+      Workbook workbook = new XSSFWorkbook(inputStream);
+      Sheet sheet = workbook.getSheet("table");
+      assertThat(sheet.getPhysicalNumberOfRows()).isEqualTo(201);
+      assertThat(sheet.getRow(0).getCell(2).getStringCellValue()).isEqualTo("age");
+      assertThat(sheet.getRow(200).getCell(0).getStringCellValue()).isEqualTo("P199");
+      assertThat(sheet.getRow(200).getCell(2).getNumericCellValue()).isEqualTo(199);
+      assertThat(workbook.getSheet(ExcelDatasource.VARIABLES_SHEET).getPhysicalNumberOfRows()).isEqualTo(3);
+    }
+
+    datasource = new ExcelDatasource("streaming", tmpExcelFile);
+    datasource.setStreaming(true);
+    datasource.initialise();
+    ValueTable table = datasource.getValueTable("table");
+    assertThat(table.getVariableCount()).isEqualTo(2);
+    assertThat(table.getVariable("age").getValueType()).isEqualTo(IntegerType.get());
+    assertThat(table.getVariable("name").getCategory("A").getCode()).isEqualTo("1");
+    assertThat(table.getVariableEntities()).hasSize(200);
+    try {
+      datasource.createWriter("table", "Participant");
+      fail("Streamed workbook should be read-only");
+    } catch(MagmaRuntimeException e) {
+      // expected
+    }
+    Disposables.silentlyDispose(datasource);
+    assertThat(tmpExcelFile.length()).isGreaterThan(0);
+    tmpExcelFile.delete();
+  }
+
+  @Test
+  public void test_streaming_read() {
+    ExcelDatasource datasource = new ExcelDatasource("long",
+        FileUtil.getFileFromResource("org/obiba/magma/datasource/excel/long-table-names.xlsx"));
+    datasource.setStreaming(true);
+    datasource.initialise();
+
+    assertLongTableNames(datasource);
+  }
+
   @Test
   @SuppressWarnings("ConstantConditions")
   public void test_read_empty_rows() {
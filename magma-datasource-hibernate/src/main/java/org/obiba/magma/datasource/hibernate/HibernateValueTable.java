@@ -7,7 +7,6 @@ import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.NoSuchElementException;
 import java.util.Set;
 import java.util.SortedSet;
 
@@ -44,6 +43,7 @@ import org.obiba.magma.datasource.hibernate.domain.Timestamped;
 import org.obiba.magma.datasource.hibernate.domain.ValueSetState;
 import org.obiba.magma.datasource.hibernate.domain.ValueTableState;
 import org.obiba.magma.datasource.hibernate.domain.VariableState;
+import org.obiba.magma.metrics.Metrics;
 import org.obiba.magma.support.AbstractValueTable;
 import org.obiba.magma.support.AbstractVariableEntityProvider;
 import org.obiba.magma.support.NullTimestamps;
@@ -53,7 +53,6 @@ import org.obiba.magma.type.DateTimeType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.google.common.base.Predicate;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
@@ -244,28 +243,32 @@ class HibernateValueTable extends AbstractValueTable {
     };
   }
 
+  /**
+   * Overridden to include the uncommitted sources when a transaction exists on this table and is visible in the current
+   * session. Committed sources take precedence, as in {@link #getSources()}.
+   */
   @Override
-  public VariableValueSource getVariableValueSource(final String variableName) throws NoSuchVariableException {
-    try {
-      return Iterables.find(getSources(), new Predicate<VariableValueSource>() {
-        @Override
-        public boolean apply(VariableValueSource variableValueSource) {
-          return variableValueSource.getVariable().getName().equals(variableName);
-        }
-      });
-    } catch(NoSuchElementException e) {
+  public VariableValueSource getVariableValueSource(String variableName) throws NoSuchVariableException {
+    if(super.hasVariable(variableName)) {
+      return super.getVariableValueSource(variableName);
+    }
+    VariableValueSource source = getUncommittedSource(variableName);
+    if(source == null) {
       throw new NoSuchVariableException(getName(), variableName);
     }
+    return source;
   }
 
   @Override
   public boolean hasVariable(String variableName) {
-    for(VariableValueSource source : getSources()) {
-      if(source.getVariable().getName().equals(variableName)) {
-        return true;
-      }
-    }
-    return false;
+    return super.hasVariable(variableName) || getUncommittedSource(variableName) != null;
+  }
+
+  @Nullable
+  private VariableValueSource getUncommittedSource(String variableName) {
+    return getDatasource().hasTableTransaction(getName()) //
+        ? getDatasource().getTableTransaction(getName()).getUncommittedSource(variableName) //
+        : null;
   }
 
   /**
@@ -339,8 +342,11 @@ class HibernateValueTable extends AbstractValueTable {
 
     synchronized ValueSetState getValueSetState() {
       if(valueSetState == null) {
+        Metrics.Timer timer = Metrics.start(Metrics.VALUE_SET_LOAD, HibernateDatasource.TYPE);
         valueSetState = (ValueSetState) valueSetCriteria.uniqueResult();
+        timer.stop();
         if(valueSetState != null) {
+          Metrics.increment(Metrics.ROWS_READ, HibernateDatasource.TYPE);
           // this is important when copying from a HibernateDatasource. Otherwise, they accumulate in the session and
           // make flushing longer and longer.
           getDatasource().getSessionFactory().getCurrentSession().evict(valueSetState);
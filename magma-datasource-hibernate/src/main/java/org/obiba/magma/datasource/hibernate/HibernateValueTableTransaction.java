@@ -2,14 +2,18 @@ package org.obiba.magma.datasource.hibernate;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
+import javax.annotation.Nullable;
 import javax.validation.constraints.NotNull;
 
 import org.hibernate.LockMode;
 import org.obiba.magma.VariableEntity;
 import org.obiba.magma.VariableValueSource;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 
 /**
  * Transaction synchronisation for modifications made to a {@code HibernateValueTable}.
@@ -25,9 +29,21 @@ class HibernateValueTableTransaction extends HibernateDatasourceSynchronization
 
   private final boolean createTableTransaction;
 
-  private final List<VariableValueSource> uncommittedSources = Lists.newLinkedList();
+  /**
+   * Added (or updated) sources by variable name, guarded by itself.
+   */
+  private final Map<String, VariableValueSource> uncommittedSources = Maps.newLinkedHashMap();
 
-  private final List<VariableValueSource> uncommittedRemovedSources = Lists.newLinkedList();
+  /**
+   * Removed sources by variable name, guarded by {@code uncommittedSources}.
+   */
+  private final Map<String, VariableValueSource> uncommittedRemovedSources = Maps.newLinkedHashMap();
+
+  /**
+   * Immutable copy of the added sources, rebuilt on first read after a modification.
+   */
+  @Nullable
+  private volatile List<VariableValueSource> uncommittedSourcesSnapshot;
 
   private final List<VariableEntity> uncommittedEntities = Lists.newLinkedList();
 
@@ -62,8 +78,10 @@ class HibernateValueTableTransaction extends HibernateDatasourceSynchronization
   protected void commit() {
     super.commit();
     valueTable.commitEntities(uncommittedEntities);
-    valueTable.commitSources(uncommittedSources);
-    valueTable.commitRemovedSources(uncommittedRemovedSources);
+    synchronized(uncommittedSources) {
+      valueTable.commitSources(uncommittedSources.values());
+      valueTable.commitRemovedSources(uncommittedRemovedSources.values());
+    }
     if(createTableTransaction) {
       valueTable.getDatasource().commitValueTable(valueTable);
     }
@@ -73,8 +91,11 @@ class HibernateValueTableTransaction extends HibernateDatasourceSynchronization
   protected void rollback() {
     super.rollback();
     uncommittedEntities.clear();
-    uncommittedSources.clear();
-    uncommittedRemovedSources.clear();
+    synchronized(uncommittedSources) {
+      uncommittedSources.clear();
+      uncommittedRemovedSources.clear();
+      uncommittedSourcesSnapshot = null;
+    }
   }
 
   /**
@@ -83,11 +104,32 @@ class HibernateValueTableTransaction extends HibernateDatasourceSynchronization
    * @param source the new {@code VariableValueSource}.
    */
   public void addSource(VariableValueSource source) {
-    uncommittedSources.add(source);
+    synchronized(uncommittedSources) {
+      uncommittedRemovedSources.remove(source.getName());
+      uncommittedSources.put(source.getName(), source);
+      uncommittedSourcesSnapshot = null;
+    }
   }
 
   public void removeSource(VariableValueSource source) {
-    uncommittedRemovedSources.add(source);
+    synchronized(uncommittedSources) {
+      uncommittedSources.remove(source.getName());
+      uncommittedRemovedSources.put(source.getName(), source);
+      uncommittedSourcesSnapshot = null;
+    }
+  }
+
+  /**
+   * Returns the uncommitted source of a variable added during this transaction.
+   *
+   * @param variableName
+   * @return null if no such variable was added, or if it was removed afterwards
+   */
+  @Nullable
+  public VariableValueSource getUncommittedSource(String variableName) {
+    synchronized(uncommittedSources) {
+      return uncommittedSources.get(variableName);
+    }
   }
 
   /**
@@ -96,9 +138,16 @@ class HibernateValueTableTransaction extends HibernateDatasourceSynchronization
    * @return
    */
   public List<VariableValueSource> getUncommittedSources() {
-    List<VariableValueSource> copy = Lists.newArrayList(uncommittedSources);
-    copy.removeAll(uncommittedRemovedSources);
-    return Collections.unmodifiableList(copy);
+    List<VariableValueSource> snapshot = uncommittedSourcesSnapshot;
+    if(snapshot == null) {
+      synchronized(uncommittedSources) {
+        snapshot = uncommittedSourcesSnapshot;
+        if(snapshot == null) {
+          uncommittedSourcesSnapshot = snapshot = ImmutableList.copyOf(uncommittedSources.values());
+        }
+      }
+    }
+    return snapshot;
   }
 
   /**
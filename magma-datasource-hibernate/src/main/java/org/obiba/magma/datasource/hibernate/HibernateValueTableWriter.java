@@ -33,6 +33,7 @@ import org.obiba.magma.datasource.hibernate.domain.ValueSetState;
 import org.obiba.magma.datasource.hibernate.domain.ValueSetValue;
 import org.obiba.magma.datasource.hibernate.domain.VariableEntityState;
 import org.obiba.magma.datasource.hibernate.domain.VariableState;
+import org.obiba.magma.metrics.Metrics;
 import org.obiba.magma.type.BinaryType;
 import org.obiba.magma.type.TextType;
 import org.slf4j.Logger;
@@ -398,6 +399,7 @@ class HibernateValueTableWriter implements ValueTableWriter {
         // persists valueSetState and empty the Session so we don't fill it up
         session.flush();
         session.clear();
+        Metrics.increment(Metrics.ROWS_WRITTEN, HibernateDatasource.TYPE);
       }
     }
 
@@ -10,6 +10,7 @@ import java.util.SortedSet;
 
 import javax.validation.constraints.NotNull;
 
+import org.hibernate.Criteria;
 import org.hibernate.FetchMode;
 import org.hibernate.Query;
 import org.hibernate.ScrollMode;
@@ -35,6 +36,7 @@ import org.obiba.magma.datasource.hibernate.converter.HibernateValueLoaderFactor
 import org.obiba.magma.datasource.hibernate.converter.VariableConverter;
 import org.obiba.magma.datasource.hibernate.domain.ValueSetValue;
 import org.obiba.magma.datasource.hibernate.domain.VariableState;
+import org.obiba.magma.metrics.Metrics;
 import org.obiba.magma.type.BinaryType;
 
 import com.google.common.collect.ImmutableList;
@@ -51,6 +53,10 @@ class HibernateVariableValueSourceFactory implements VariableValueSourceFactory
     this.valueTable = valueTable;
   }
 
+  /**
+   * Creates the sources of all the variables of the table, unmarshalled from the states (and their categories) loaded
+   * by a single query.
+   */
   @Override
   public Set<VariableValueSource> createSources() {
     Set<VariableValueSource> sources = new LinkedHashSet<>();
@@ -59,7 +65,9 @@ class HibernateVariableValueSourceFactory implements VariableValueSourceFactory
         .create(VariableState.class, getCurrentSession())
         .add("valueTable", Operation.eq, valueTable.getValueTableState()) //
         .addSortingClauses(SortingClause.create("id")) //
-        .getCriteria().setFetchMode("categories", FetchMode.JOIN).list();
+        .getCriteria().setFetchMode("categories", FetchMode.JOIN) //
+        // the categories join returns a state per category: unmarshall each state once
+        .setResultTransformer(Criteria.DISTINCT_ROOT_ENTITY).list();
     for(VariableState v : variables) {
       sources.add(createSource(v));
     }
@@ -218,14 +226,18 @@ class HibernateVariableValueSourceFactory implements VariableValueSourceFactory
 
       private final Map<String, Value> valueMap = Maps.newHashMap();
 
+      private int rowsRead;
+
       private ValueIterator(Iterator<VariableEntity> entities) {
 
         this.entities = entities;
+        Metrics.Timer timer = Metrics.start(Metrics.VECTOR_READ, HibernateDatasource.TYPE);
         Query query = getCurrentSession().getNamedQuery("allValues") //
             .setParameter("valueTableId", valueTable.getValueTableState().getId()) //
             .setParameter("variableId", ensureVariableId());
         results = query.scroll(ScrollMode.FORWARD_ONLY);
         hasNextResults = results.next();
+        timer.stop();
       }
 
       @Override
@@ -248,6 +260,7 @@ class HibernateVariableValueSourceFactory implements VariableValueSourceFactory
           if(entity.getIdentifier().equals(id)) {
             found = true;
           }
+          rowsRead++;
           hasNextResults = results.next();
         }
 
@@ -295,6 +308,7 @@ class HibernateVariableValueSourceFactory implements VariableValueSourceFactory
           if(!hasNextResults || !hasNext()) {
             closed = true;
             results.close();
+            Metrics.increment(Metrics.ROWS_READ, HibernateDatasource.TYPE, rowsRead);
           }
         }
       }
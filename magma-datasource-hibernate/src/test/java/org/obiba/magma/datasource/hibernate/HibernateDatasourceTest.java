@@ -38,6 +38,7 @@ import org.obiba.magma.datasource.hibernate.domain.ValueTableState;
 import org.obiba.magma.datasource.hibernate.domain.VariableState;
 import org.obiba.magma.support.DatasourceCopier;
 import org.obiba.magma.support.Initialisables;
+import org.obiba.magma.support.StaticDatasource;
 import org.obiba.magma.support.VariableEntityBean;
 import org.obiba.magma.type.BinaryType;
 import org.obiba.magma.type.DateTimeType;
@@ -55,6 +56,7 @@ import org.springframework.transaction.support.TransactionCallback;
 import org.springframework.transaction.support.TransactionCallbackWithoutResult;
 import org.springframework.transaction.support.TransactionTemplate;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
@@ -142,6 +144,24 @@ public class HibernateDatasourceTest {
     });
   }
 
+  @Test
+  public void test_datasources_added_in_transaction() {
+    transactionTemplate.execute(new TransactionCallbackRuntimeExceptions() {
+      @Override
+      protected void doAction(TransactionStatus status) throws Exception {
+        // initialised on the calling thread, that is bound to the current session
+        HibernateDatasource ds = new HibernateDatasource(DATASOURCE, sessionFactory);
+        StaticDatasource otherDs = new StaticDatasource("otherDs");
+        assertThat(MagmaEngine.get().addDatasources(ImmutableList.of(ds, otherDs))).hasSize(2);
+        assertThat(MagmaEngine.get().hasDatasource(DATASOURCE)).isTrue();
+        assertThat(MagmaEngine.get().hasDatasource("otherDs")).isTrue();
+
+        ds.createWriter(TABLE, PARTICIPANT).close();
+        assertThat(ds.hasValueTable(TABLE)).isTrue();
+      }
+    });
+  }
+
   @Test
   public void test_table_and_variables_persisted() {
 
@@ -184,6 +204,52 @@ public class HibernateDatasourceTest {
 
   }
 
+  @Test
+  public void test_variable_lookup_by_name() {
+
+    transactionTemplate.execute(new TransactionCallbackRuntimeExceptions() {
+      @Override
+      protected void doAction(TransactionStatus status) throws Exception {
+        HibernateDatasource ds = createDatasource();
+        MagmaEngine.get().addDatasource(ds);
+
+        try(ValueTableWriter tableWriter = ds.createWriter(TABLE, PARTICIPANT);
+            VariableWriter variableWriter = tableWriter.writeVariables()) {
+          variableWriter.writeVariable(Variable.Builder.newVariable("Var1", TextType.get(), PARTICIPANT) //
+              .addCategories("A", "B", "C").build());
+          variableWriter.writeVariable(Variable.Builder.newVariable("Var2", IntegerType.get(), PARTICIPANT) //
+              .addCategories("1", "2").build());
+
+          // uncommitted variables are visible within the transaction
+          ValueTable table = ds.getValueTable(TABLE);
+          assertThat(table.hasVariable("Var1")).isTrue();
+          assertThat(table.getVariableValueSource("Var2").getVariable().getName()).isEqualTo("Var2");
+          assertThat(table.hasVariable("Var3")).isFalse();
+        }
+      }
+    });
+
+    cleanlyRemoveDatasource(false);
+
+    transactionTemplate.execute(new TransactionCallbackRuntimeExceptions() {
+      @Override
+      protected void doAction(TransactionStatus status) throws Exception {
+        HibernateDatasource ds = createDatasource();
+        MagmaEngine.get().addDatasource(ds);
+        ValueTable table = ds.getValueTable(TABLE);
+        assertThat(table.getVariables()).hasSize(2);
+        assertThat(table.getVariable("Var1").getCategories()).hasSize(3);
+        assertThat(table.getVariable("Var2").getCategories()).hasSize(2);
+        try {
+          table.getVariableValueSource("Var3");
+          fail("NoSuchVariableException expected");
+        } catch(NoSuchVariableException e) {
+          assertThat(e.getName()).isEqualTo("Var3");
+        }
+      }
+    });
+  }
+
   @Test
   public void test_variable_state_change_is_persisted() {
     final Variable initialState = Variable.Builder.newVariable("Var1", TextType.get(), PARTICIPANT)
@@ -58,6 +58,8 @@ public class JdbcDatasource extends AbstractDatasource {
 
   private DatabaseSnapshot snapshot;
 
+  private final JdbcMetadataCache metadataCache = new JdbcMetadataCache(this);
+
   @SuppressWarnings("ConstantConditions")
   public JdbcDatasource(String name, @NotNull DataSource datasource, @NotNull JdbcDatasourceSettings settings) {
     super(name, TYPE);
@@ -175,8 +177,16 @@ public class JdbcDatasource extends AbstractDatasource {
     return snapshot;
   }
 
+  /**
+   * Variables metadata, shared by the tables of this datasource when metadata tables are used.
+   */
+  JdbcMetadataCache getMetadataCache() {
+    return metadataCache;
+  }
+
   void databaseChanged() {
     snapshot = null;
+    metadataCache.invalidate();
   }
 
   String escapeSqlTableName(String sqlTableName) {
@@ -0,0 +1,200 @@
+package org.obiba.magma.datasource.jdbc;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+import javax.validation.constraints.NotNull;
+
+import org.obiba.magma.Attribute;
+import org.obiba.magma.Category;
+import org.obiba.magma.ValueType;
+import org.obiba.magma.Variable;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import static org.obiba.magma.datasource.jdbc.JdbcValueTableWriter.ATTRIBUTE_LOCALE_COLUMN;
+import static org.obiba.magma.datasource.jdbc.JdbcValueTableWriter.ATTRIBUTE_METADATA_TABLE;
+import static org.obiba.magma.datasource.jdbc.JdbcValueTableWriter.ATTRIBUTE_NAMESPACE_COLUMN;
+import static org.obiba.magma.datasource.jdbc.JdbcValueTableWriter.ATTRIBUTE_NAME_COLUMN;
+import static org.obiba.magma.datasource.jdbc.JdbcValueTableWriter.ATTRIBUTE_VALUE_COLUMN;
+import static org.obiba.magma.datasource.jdbc.JdbcValueTableWriter.CATEGORY_CODE_COLUMN;
+import static org.obiba.magma.datasource.jdbc.JdbcValueTableWriter.CATEGORY_METADATA_TABLE;
+import static org.obiba.magma.datasource.jdbc.JdbcValueTableWriter.CATEGORY_NAME_COLUMN;
+import static org.obiba.magma.datasource.jdbc.JdbcValueTableWriter.VALUE_TABLE_COLUMN;
+import static org.obiba.magma.datasource.jdbc.JdbcValueTableWriter.VALUE_TYPE_COLUMN;
+import static org.obiba.magma.datasource.jdbc.JdbcValueTableWriter.VARIABLE_METADATA_TABLE;
+import static org.obiba.magma.datasource.jdbc.JdbcValueTableWriter.VARIABLE_NAME_COLUMN;
+
+/**
+ * Variables metadata of all the tables of a {@link JdbcDatasource}, shared by its tables.
+ * <p/>
+ * The metadata tables are read with one query each on first access, instead of querying attributes and categories
+ * variable by variable. The cache is invalidated whenever the database is changed.
+ */
+class JdbcMetadataCache {
+
+  @NotNull
+  private final JdbcDatasource datasource;
+
+  /**
+   * Variables metadata by SQL table name, in the order of the variables metadata table.
+   */
+  @Nullable
+  private Map<String, List<VariableMetadata>> metadata;
+
+  JdbcMetadataCache(@NotNull JdbcDatasource datasource) {
+    this.datasource = datasource;
+  }
+
+  /**
+   * Returns the variables of a table, built for the given entity type.
+   *
+   * @param sqlTableName
+   * @param entityType
+   * @return
+   */
+  List<Variable> getVariables(String sqlTableName, String entityType) {
+    ImmutableList.Builder<Variable> variables = ImmutableList.builder();
+    for(VariableMetadata variableMetadata : getMetadata(sqlTableName)) {
+      variables.add(variableMetadata.build(entityType));
+    }
+    return variables.build();
+  }
+
+  synchronized void invalidate() {
+    metadata = null;
+  }
+
+  private synchronized List<VariableMetadata> getMetadata(String sqlTableName) {
+    if(metadata == null) {
+      metadata = load();
+    }
+    List<VariableMetadata> variables = metadata.get(sqlTableName);
+    return variables == null ? Collections.<VariableMetadata>emptyList() : variables;
+  }
+
+  private Map<String, List<VariableMetadata>> load() {
+    final ListMultimap<String, Attribute> attributes = ArrayListMultimap.create();
+    datasource.getJdbcTemplate().query("SELECT * FROM " + datasource.escapeSqlTableName(ATTRIBUTE_METADATA_TABLE),
+        new RowCallbackHandler() {
+          @Override
+          public void processRow(ResultSet rs) throws SQLException {
+            attributes.put(key(rs.getString(VALUE_TABLE_COLUMN), rs.getString(VARIABLE_NAME_COLUMN)),
+                mapAttribute(rs));
+          }
+        });
+
+    final ListMultimap<String, Category> categories = ArrayListMultimap.create();
+    datasource.getJdbcTemplate().query("SELECT * FROM " + datasource.escapeSqlTableName(CATEGORY_METADATA_TABLE),
+        new RowCallbackHandler() {
+          @Override
+          public void processRow(ResultSet rs) throws SQLException {
+            categories.put(key(rs.getString(VALUE_TABLE_COLUMN), rs.getString(VARIABLE_NAME_COLUMN)),
+                Category.Builder.newCategory(rs.getString(CATEGORY_NAME_COLUMN))
+                    .withCode(rs.getString(CATEGORY_CODE_COLUMN)).build());
+          }
+        });
+
+    final Map<String, List<VariableMetadata>> tables = Maps.newHashMap();
+    datasource.getJdbcTemplate().query("SELECT * FROM " + datasource.escapeSqlTableName(VARIABLE_METADATA_TABLE),
+        new RowCallbackHandler() {
+          @Override
+          public void processRow(ResultSet rs) throws SQLException {
+            String tableName = rs.getString(VALUE_TABLE_COLUMN);
+            String variableName = rs.getString("name");
+            List<VariableMetadata> variables = tables.get(tableName);
+            if(variables == null) {
+              variables = Lists.newArrayList();
+              tables.put(tableName, variables);
+            }
+            String key = key(tableName, variableName);
+            variables.add(new VariableMetadata(rs, attributes.get(key), categories.get(key)));
+          }
+        });
+    return tables;
+  }
+
+  private static String key(String sqlTableName, String variableName) {
+    return sqlTableName + '\u0000' + variableName;
+  }
+
+  private static Attribute mapAttribute(ResultSet rs) throws SQLException {
+    String attributeName = rs.getString(ATTRIBUTE_NAME_COLUMN);
+    String attributeNamespace = mayNotHaveColumn(rs, ATTRIBUTE_NAMESPACE_COLUMN);
+    String attributeValue = rs.getString(ATTRIBUTE_VALUE_COLUMN);
+    String attributeLocale = rs.getString(ATTRIBUTE_LOCALE_COLUMN);
+
+    Attribute.Builder attr = Attribute.Builder.newAttribute(attributeName).withNamespace(attributeNamespace);
+    if(attributeLocale != null && attributeLocale.length() > 0) {
+      attr.withValue(new Locale(attributeLocale), attributeValue);
+    } else {
+      attr.withValue(attributeValue);
+    }
+    return attr.build();
+  }
+
+  @Nullable
+  private static String mayNotHaveColumn(ResultSet rs, String column) {
+    try {
+      return rs.getString(column);
+    } catch(SQLException e) {
+      return null;
+    }
+  }
+
+  /**
+   * A row of the variables metadata table, with the attributes and categories of the variable.
+   */
+  private static class VariableMetadata {
+
+    private final String name;
+
+    private final ValueType valueType;
+
+    private final String mimeType;
+
+    private final String units;
+
+    private final boolean repeatable;
+
+    private final String occurrenceGroup;
+
+    private final List<Attribute> attributes;
+
+    private final List<Category> categories;
+
+    private VariableMetadata(ResultSet rs, List<Attribute> attributes, List<Category> categories)
+        throws SQLException {
+      name = rs.getString("name");
+      valueType = ValueType.Factory.forName(rs.getString(VALUE_TYPE_COLUMN));
+      mimeType = rs.getString("mime_type");
+      units = rs.getString("units");
+      repeatable = rs.getBoolean("is_repeatable");
+      occurrenceGroup = rs.getString("occurrence_group");
+      this.attributes = ImmutableList.copyOf(attributes);
+      this.categories = ImmutableList.copyOf(categories);
+    }
+
+    private Variable build(String entityType) {
+      Variable.Builder builder = Variable.Builder.newVariable(name, valueType, entityType).mimeType(mimeType)
+          .unit(units);
+      if(repeatable) {
+        builder.repeatable();
+        builder.occurrenceGroup(occurrenceGroup);
+      }
+      builder.addAttributes(attributes);
+      builder.addCategories(categories);
+      return builder.build();
+    }
+  }
+}
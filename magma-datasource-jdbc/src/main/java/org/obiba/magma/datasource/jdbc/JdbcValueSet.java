@@ -13,6 +13,7 @@ import org.obiba.magma.Value;
 import org.obiba.magma.Variable;
 import org.obiba.magma.VariableEntity;
 import org.obiba.magma.datasource.jdbc.support.NameConverter;
+import org.obiba.magma.metrics.Metrics;
 import org.obiba.magma.support.ValueSetBean;
 import org.springframework.jdbc.core.ResultSetExtractor;
 
@@ -77,12 +78,13 @@ public class JdbcValueSet extends ValueSetBean {
 
     // Execute the query.
     String[] entityIdentifierColumnValues = getVariableEntity().getIdentifier().split("-");
+    Metrics.Timer timer = Metrics.start(Metrics.VALUE_SET_LOAD, Metrics.tag(getValueTable()));
     getValueTable().getDatasource().getJdbcTemplate()
         .query(sql.toString(), entityIdentifierColumnValues, new ResultSetExtractor<Void>() {
           @Override
           public Void extractData(ResultSet rs) throws SQLException {
             // Cache the data.
-            rs.next();
+            if(rs.next()) Metrics.increment(Metrics.ROWS_READ, Metrics.tag(getValueTable()));
             for(int i = 1; i <= rs.getMetaData().getColumnCount(); i++) {
               if(!getValueTable().getSettings().getEntityIdentifierColumns()
                   .contains(rs.getMetaData().getColumnName(i))) {
@@ -96,7 +98,7 @@ public class JdbcValueSet extends ValueSetBean {
             return null;
           }
         });
-
+    timer.stop();
   }
 
   public Value getCreated() {
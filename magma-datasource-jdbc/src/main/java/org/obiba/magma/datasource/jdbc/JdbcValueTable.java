@@ -11,17 +11,13 @@ import java.util.Date;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Locale;
 import java.util.NoSuchElementException;
 import java.util.Set;
 import java.util.SortedSet;
 
-import javax.annotation.Nullable;
 import javax.validation.constraints.NotNull;
 
 import org.obiba.magma.AbstractVariableValueSource;
-import org.obiba.magma.Attribute;
-import org.obiba.magma.Category;
 import org.obiba.magma.Datasource;
 import org.obiba.magma.Initialisable;
 import org.obiba.magma.MagmaRuntimeException;
@@ -36,6 +32,7 @@ import org.obiba.magma.VariableValueSource;
 import org.obiba.magma.VectorSource;
 import org.obiba.magma.datasource.jdbc.JdbcDatasource.ChangeDatabaseCallback;
 import org.obiba.magma.datasource.jdbc.support.NameConverter;
+import org.obiba.magma.metrics.Metrics;
 import org.obiba.magma.support.AbstractValueTable;
 import org.obiba.magma.support.AbstractVariableEntityProvider;
 import org.obiba.magma.support.Initialisables;
@@ -61,12 +58,6 @@ class JdbcValueTable extends AbstractValueTable {
 
   private String escapedSqlTableName;
 
-  private String escapedVariablesSqlTableName;
-
-  private String escapedVariableAttributesSqlTableName;
-
-  private String escapedCategoriesSqlTableName;
-
   JdbcValueTable(Datasource datasource, JdbcValueTableSettings settings) {
     super(datasource, settings.getMagmaTableName());
     this.settings = settings;
@@ -207,16 +198,7 @@ class JdbcValueTable extends AbstractValueTable {
         throw new MagmaRuntimeException("metadata tables not found");
       }
 
-      // MAGMA-100
-      if(escapedVariablesSqlTableName == null) {
-        escapedVariablesSqlTableName = getDatasource().escapeSqlTableName(JdbcValueTableWriter.VARIABLE_METADATA_TABLE);
-      }
-
-      List<Variable> results = getDatasource().getJdbcTemplate()
-          .query("SELECT * FROM " + escapedVariablesSqlTableName + " WHERE value_table = ?",
-              new Object[] { getSqlName() }, new VariableRowMapper());
-
-      for(Variable variable : results) {
+      for(Variable variable : getDatasource().getMetadataCache().getVariables(getSqlName(), getEntityType())) {
         addVariableValueSource(new JdbcVariableValueSource(variable));
       }
     } else {
@@ -228,94 +210,6 @@ class JdbcValueTable extends AbstractValueTable {
     }
   }
 
-  private class VariableRowMapper implements RowMapper<Variable> {
-
-    @Override
-    public Variable mapRow(ResultSet rs, int rowNum) throws SQLException {
-      return buildVariableFromResultSet(rs);
-    }
-
-    private Variable buildVariableFromResultSet(ResultSet rs) throws SQLException {
-      String variableName = rs.getString("name");
-      ValueType valueType = ValueType.Factory.forName(rs.getString("value_type"));
-      String mimeType = rs.getString("mime_type");
-      String units = rs.getString("units");
-      boolean isRepeatable = rs.getBoolean("is_repeatable");
-      String occurrenceGroup = rs.getString("occurrence_group");
-
-      Variable.Builder builder = Variable.Builder.newVariable(variableName, valueType, getEntityType())
-          .mimeType(mimeType).unit(units);
-      if(isRepeatable) {
-        builder.repeatable();
-        builder.occurrenceGroup(occurrenceGroup);
-      }
-
-      addVariableAttributes(variableName, builder);
-      addVariableCategories(variableName, builder);
-
-      return builder.build();
-    }
-
-    private void addVariableAttributes(String variableName, Variable.Builder builder) {
-      // MAGMA-100
-      if(escapedVariableAttributesSqlTableName == null) {
-        escapedVariableAttributesSqlTableName = getDatasource()
-            .escapeSqlTableName(JdbcValueTableWriter.ATTRIBUTE_METADATA_TABLE);
-      }
-
-      builder.addAttributes(
-          getDatasource().getJdbcTemplate().query("SELECT * FROM " + escapedVariableAttributesSqlTableName +
-              " WHERE value_table = ? AND variable_name = ?", new Object[] { getSqlName(), variableName },
-              new AttributeRowMapper()));
-    }
-
-    private void addVariableCategories(String variableName, Variable.Builder builder) {
-      // MAGMA-100
-      if(escapedCategoriesSqlTableName == null) {
-        escapedCategoriesSqlTableName = getDatasource()
-            .escapeSqlTableName(JdbcValueTableWriter.CATEGORY_METADATA_TABLE);
-      }
-
-      builder.addCategories(getDatasource().getJdbcTemplate()
-          .query("SELECT * FROM " + escapedCategoriesSqlTableName + " WHERE value_table = ? AND variable_name = ?",
-              new Object[] { getSqlName(), variableName }, new RowMapper<Category>() {
-            @Override
-            public Category mapRow(ResultSet rs, int rowNum) throws SQLException {
-              String categoryName = rs.getString("name");
-              String categoryCode = rs.getString("code");
-              return Category.Builder.newCategory(categoryName).withCode(categoryCode).build();
-            }
-          }));
-    }
-  }
-
-  private static class AttributeRowMapper implements RowMapper<Attribute> {
-    @Override
-    public Attribute mapRow(ResultSet rs, int rowNum) throws SQLException {
-      String attributeName = rs.getString(JdbcValueTableWriter.ATTRIBUTE_NAME_COLUMN);
-      String attributeNamespace = mayNotHaveColumn(rs, JdbcValueTableWriter.ATTRIBUTE_NAMESPACE_COLUMN);
-      String attributeValue = rs.getString(JdbcValueTableWriter.ATTRIBUTE_VALUE_COLUMN);
-      String attributeLocale = rs.getString(JdbcValueTableWriter.ATTRIBUTE_LOCALE_COLUMN);
-
-      Attribute.Builder attr = Attribute.Builder.newAttribute(attributeName).withNamespace(attributeNamespace);
-      if(attributeLocale != null && attributeLocale.length() > 0) {
-        attr.withValue(new Locale(attributeLocale), attributeValue);
-      } else {
-        attr.withValue(attributeValue);
-      }
-      return attr.build();
-    }
-
-    @Nullable
-    private String mayNotHaveColumn(ResultSet rs, String column) {
-      try {
-        return rs.getString(column);
-      } catch(SQLException e) {
-        return null;
-      }
-    }
-  }
-
   private boolean metadataTablesExist() {
     DatabaseSnapshot snapshot = getDatasource().getDatabaseSnapshot();
     return snapshot.getTable(JdbcValueTableWriter.VARIABLE_METADATA_TABLE) != null &&
@@ -566,14 +460,18 @@ class JdbcValueTable extends AbstractValueTable {
 
       private boolean closed = false;
 
+      private int rowsRead;
+
       @edu.umd.cs.findbugs.annotations.SuppressWarnings("SQL_PREPARED_STATEMENT_GENERATED_FROM_NONCONSTANT_STRING")
       private ValueIterator(Connection connection, Iterable<VariableEntity> entities) throws SQLException {
         this.connection = connection;
         String column = getEntityIdentifierColumnsSql();
         statement = connection.prepareStatement("SELECT " + column + "," + columnName +
             " FROM " + escapedSqlTableName + " ORDER BY " + column);
+        Metrics.Timer timer = Metrics.start(Metrics.VECTOR_READ, Metrics.tag(JdbcValueTable.this));
         rs = statement.executeQuery();
-        hasNextResults = rs.next();
+        nextResult();
+        timer.stop();
         resultEntities = entities.iterator();
         closeCursorIfNecessary();
       }
@@ -593,7 +491,7 @@ class JdbcValueTable extends AbstractValueTable {
         try {
           // Scroll until we find the required entity or reach the end of the results
           while(hasNextResults && !buildEntityIdentifier(rs).equals(nextEntity)) {
-            hasNextResults = rs.next();
+            nextResult();
           }
 
           Value value = null;
@@ -614,12 +512,18 @@ class JdbcValueTable extends AbstractValueTable {
         throw new UnsupportedOperationException();
       }
 
+      private void nextResult() throws SQLException {
+        hasNextResults = rs.next();
+        if(hasNextResults) rowsRead++;
+      }
+
       private void closeCursorIfNecessary() {
         if(!closed) {
           // Close the cursor if we don't have any more results or no more entities to return
           if(!hasNextResults || !hasNext()) {
             closed = true;
             closeQuietly(rs, statement, connection);
+            Metrics.increment(Metrics.ROWS_READ, Metrics.tag(JdbcValueTable.this), rowsRead);
           }
         }
       }
@@ -26,6 +26,7 @@ import org.obiba.magma.datasource.jdbc.JdbcDatasource.ChangeDatabaseCallback;
 import org.obiba.magma.datasource.jdbc.support.BlobTypeVisitor;
 import org.obiba.magma.datasource.jdbc.support.InsertDataChangeBuilder;
 import org.obiba.magma.datasource.jdbc.support.NameConverter;
+import org.obiba.magma.metrics.Metrics;
 import org.obiba.magma.type.LocaleType;
 import org.obiba.magma.type.TextType;
 import org.slf4j.Logger;
@@ -127,6 +128,7 @@ class JdbcValueTableWriter implements ValueTableWriter {
     public void close() {
       Iterable<BlobTypeVisitor> visitors = ImmutableList.of(new BlobTypeVisitor());
       valueTable.getDatasource().doWithDatabase(new ChangeDatabaseCallback(changes, visitors));
+      valueTable.getDatasource().getMetadataCache().invalidate();
     }
 
     protected void doWriteVariable(Variable variable) {
@@ -311,6 +313,7 @@ class JdbcValueTableWriter implements ValueTableWriter {
                 }
               }
             });
+        Metrics.increment(Metrics.ROWS_WRITTEN, Metrics.tag(valueTable));
       }
     }
 
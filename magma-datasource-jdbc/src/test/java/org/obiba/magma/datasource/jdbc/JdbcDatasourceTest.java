@@ -9,6 +9,7 @@ import org.junit.runner.RunWith;
 import org.obiba.core.test.spring.Dataset;
 import org.obiba.core.test.spring.DbUnitAwareTestExecutionListener;
 import org.obiba.magma.Category;
+import org.obiba.magma.MagmaEngine;
 import org.obiba.magma.Timestamps;
 import org.obiba.magma.Value;
 import org.obiba.magma.ValueSet;
@@ -19,6 +20,9 @@ import org.obiba.magma.ValueTableWriter.VariableWriter;
 import org.obiba.magma.Variable;
 import org.obiba.magma.VariableEntity;
 import org.obiba.magma.VectorSource;
+import org.obiba.magma.metrics.InMemoryMetricsRecorder;
+import org.obiba.magma.metrics.MagmaMetricsExtension;
+import org.obiba.magma.metrics.Metrics;
 import org.obiba.magma.support.VariableEntityBean;
 import org.obiba.magma.test.AbstractMagmaTest;
 import org.obiba.magma.test.SchemaTestExecutionListener;
@@ -34,6 +38,9 @@ import org.springframework.test.context.support.DirtiesContextTestExecutionListe
 import org.springframework.test.context.transaction.TransactionConfiguration;
 import org.springframework.test.context.transaction.TransactionalTestExecutionListener;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSortedSet;
+
 import static org.fest.assertions.api.Assertions.assertThat;
 
 @SuppressWarnings({ "ReuseOfLocalVariable", "OverlyLongMethod", "PMD.NcssMethodCount" })
@@ -84,6 +91,31 @@ public class JdbcDatasourceTest extends AbstractMagmaTest {
     // Verify categories.
     assertThat(hasCategory(bdVar, "PNA", "88")).isTrue();
     assertThat(hasCategory(bdVar, "DNK", "99")).isTrue();
+    assertThat(bdVar2.getCategories()).isEmpty();
+    assertThat(bdVar2.getAttributes()).hasSize(2);
+
+    jdbcDatasource.dispose();
+  }
+
+  @TestSchema(schemaLocation = "org/obiba/magma/datasource/jdbc", beforeSchema = "schema-meta.sql",
+      afterSchema = "schema-notables.sql")
+  @Dataset(filenames = "JdbcDatasourceTest.xml")
+  @Test
+  public void test_metadata_reloaded_after_writing_variables() {
+    JdbcDatasource jdbcDatasource = new JdbcDatasource("my-datasource", dataSource, "Participant", true);
+    jdbcDatasource.initialise();
+    assertThat(jdbcDatasource.getValueTable("BONE_DENSITY").getVariables()).hasSize(2);
+
+    try(ValueTableWriter tableWriter = jdbcDatasource.createWriter("BONE_DENSITY", "Participant");
+        VariableWriter variableWriter = tableWriter.writeVariables()) {
+      variableWriter.writeVariable(Variable.Builder.newVariable("BD_3", IntegerType.get(), "Participant") //
+          .addCategory("PNA", "88").build());
+    }
+
+    ValueTable valueTable = jdbcDatasource.getValueTable("BONE_DENSITY");
+    assertThat(valueTable.getVariables()).hasSize(3);
+    Variable bdVar3 = valueTable.getVariable("BD_3");
+    assertThat(hasCategory(bdVar3, "PNA", "88")).isTrue();
 
     jdbcDatasource.dispose();
   }
@@ -116,6 +148,38 @@ public class JdbcDatasourceTest extends AbstractMagmaTest {
     jdbcDatasource.dispose();
   }
 
+  @TestSchema(schemaLocation = "org/obiba/magma/datasource/jdbc", beforeSchema = "schema-nometa.sql",
+      afterSchema = "schema-notables.sql")
+  @Dataset(filenames = "JdbcDatasourceTest-nometa.xml")
+  @Test
+  public void test_rows_read_counted() {
+    InMemoryMetricsRecorder recorder = new InMemoryMetricsRecorder();
+    MagmaEngine.get().extend(new MagmaMetricsExtension(recorder));
+    JdbcDatasource jdbcDatasource = new JdbcDatasource("my-datasource", dataSource, "Participant", false);
+    jdbcDatasource.initialise();
+
+    ValueTable valueTable = jdbcDatasource.getValueTable("BONE_DENSITY");
+    VectorSource bdVar = valueTable.getVariableValueSource("BD").asVectorSource();
+    TreeSet<VariableEntity> entities = new TreeSet<>(valueTable.getVariableEntities());
+
+    // the row of the first entity is matched as soon as it is read
+    assertThat(ImmutableList.copyOf(bdVar.getValues(ImmutableSortedSet.of(entities.first())))).hasSize(1);
+    assertThat(recorder.getCount(Metrics.ROWS_READ, "jdbc")).isEqualTo(1);
+
+    // the row of the first entity is skipped, the matched row of the last entity is read too
+    assertThat(ImmutableList.copyOf(bdVar.getValues(ImmutableSortedSet.of(entities.last())))).hasSize(1);
+    assertThat(recorder.getCount(Metrics.ROWS_READ, "jdbc")).isEqualTo(3);
+
+    assertThat(ImmutableList.copyOf(bdVar.getValues(entities))).hasSize(2);
+    assertThat(recorder.getCount(Metrics.ROWS_READ, "jdbc")).isEqualTo(5);
+
+    ValueSet valueSet = valueTable.getValueSet(entities.first());
+    assertThat(valueTable.getValue(valueTable.getVariable("BD"), valueSet).toString()).isEqualTo("64");
+    assertThat(recorder.getCount(Metrics.ROWS_READ, "jdbc")).isEqualTo(6);
+
+    jdbcDatasource.dispose();
+  }
+
   @TestSchema(schemaLocation = "org/obiba/magma/datasource/jdbc", beforeSchema = "schema-notables.sql",
       afterSchema = "schema-notables.sql")
   @Test
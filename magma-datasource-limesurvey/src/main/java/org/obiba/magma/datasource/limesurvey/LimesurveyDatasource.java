@@ -113,4 +113,8 @@ public class LimesurveyDatasource extends AbstractDatasource {
     return iqs + tablePrefix + identifier + iqs;
   }
 
+  String quote(String identifier) {
+    return iqs + identifier + iqs;
+  }
+
 }
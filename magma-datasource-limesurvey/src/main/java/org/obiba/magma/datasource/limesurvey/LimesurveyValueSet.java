@@ -4,6 +4,7 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.Map;
 
+import javax.annotation.Nullable;
 import javax.validation.constraints.NotNull;
 
 import org.obiba.magma.Value;
@@ -14,6 +15,7 @@ import org.obiba.magma.support.ValueSetBean;
 import org.springframework.dao.DataAccessException;
 import org.springframework.jdbc.core.ResultSetExtractor;
 
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Maps;
 
 class LimesurveyValueSet extends ValueSetBean {
@@ -24,9 +26,22 @@ class LimesurveyValueSet extends ValueSetBean {
     super(table, entity);
   }
 
+  /**
+   * @param table
+   * @param entity
+   * @param row the columns of the entity response, already loaded (null if there is no response)
+   */
+  LimesurveyValueSet(ValueTable table, VariableEntity entity, @Nullable Map<String, Object> row) {
+    super(table, entity);
+    cache = row == null ? ImmutableMap.<String, Object>of() : row;
+  }
+
   Value getValue(ValueType type, String field) {
     loadValues();
-    Object object = cache.get(field);
+    return getValue(type, cache.get(field));
+  }
+
+  static Value getValue(ValueType type, @Nullable Object object) {
     return type.valueOf("".equals(object) ? null : object);
   }
 
@@ -37,7 +52,7 @@ class LimesurveyValueSet extends ValueSetBean {
       String id = getVariableEntity().getIdentifier();
       getValueTable().getDatasource().getJdbcTemplate()
           .query("SELECT * FROM " + limeValueTable.quoteAndPrefix("survey_" + limeValueTable.getSid()) +
-              " WHERE token = ?", new Object[] { id }, new ResultSetExtractor<Void>() {
+              " WHERE token = ?" + LimesurveyValueSetIterator.ORDER_BY, new Object[] { id }, new ResultSetExtractor<Void>() {
             @Override
             public Void extractData(ResultSet rs) throws SQLException, DataAccessException {
               if(rs.next()) {
@@ -0,0 +1,114 @@
+package org.obiba.magma.datasource.limesurvey;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import javax.annotation.Nullable;
+
+import org.obiba.magma.VariableEntity;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcOperations;
+
+import com.google.common.base.Joiner;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+/**
+ * Iterates over the rows of the survey responses of the requested entities, in the order of the entities. Rows are
+ * fetched by batches of entities using a {@code token IN (...)} query and are projected on the requested columns, so
+ * that the statements stay within the database parameter limits and only one batch of rows is held in memory.
+ * <p/>
+ * A row maps the column names to their value. A null row is returned for an entity that has no response. When an
+ * entity has several responses, the first one is returned, like {@link LimesurveyValueSet} does.
+ */
+class LimesurveyValueSetIterator implements Iterator<Map<String, Object>> {
+
+  static final int DEFAULT_BATCH_SIZE = 1000;
+
+  private static final String TOKEN = "token";
+
+  /**
+   * Orders the responses of an entity, the first one being read.
+   */
+  static final String ORDER_BY = " ORDER BY id";
+
+  private final NamedParameterJdbcOperations jdbcTemplate;
+
+  private final String sql;
+
+  private final Iterator<VariableEntity> entities;
+
+  private final int batchSize;
+
+  private final List<String> batch = Lists.newArrayList();
+
+  private final Map<String, Map<String, Object>> rows = Maps.newHashMap();
+
+  private int position;
+
+  /**
+   * @param jdbcTemplate
+   * @param table the quoted name of the survey table
+   * @param columns the quoted names of the columns to read, null for all of them
+   * @param entities
+   */
+  LimesurveyValueSetIterator(NamedParameterJdbcOperations jdbcTemplate, String table, @Nullable List<String> columns,
+      Iterator<VariableEntity> entities) {
+    this(jdbcTemplate, table, columns, entities, DEFAULT_BATCH_SIZE);
+  }
+
+  LimesurveyValueSetIterator(NamedParameterJdbcOperations jdbcTemplate, String table, @Nullable List<String> columns,
+      Iterator<VariableEntity> entities, int batchSize) {
+    if(batchSize <= 0) throw new IllegalArgumentException("batchSize must be positive");
+    this.jdbcTemplate = jdbcTemplate;
+    this.entities = entities;
+    this.batchSize = batchSize;
+    String projection = columns == null ? "*" : TOKEN + (columns.isEmpty() ? "" : ", " + Joiner.on(", ").join(columns));
+    sql = "SELECT " + projection + " FROM " + table + " WHERE " + TOKEN + " IN (:ids)" + ORDER_BY;
+  }
+
+  @Override
+  public boolean hasNext() {
+    return position < batch.size() || entities.hasNext();
+  }
+
+  @Nullable
+  @Override
+  public Map<String, Object> next() {
+    if(!hasNext()) throw new NoSuchElementException();
+    if(position == batch.size()) fetchBatch();
+    return rows.get(batch.get(position++));
+  }
+
+  private void fetchBatch() {
+    batch.clear();
+    rows.clear();
+    position = 0;
+    while(entities.hasNext() && batch.size() < batchSize) {
+      batch.add(entities.next().getIdentifier());
+    }
+    jdbcTemplate.query(sql, new MapSqlParameterSource("ids", batch), new RowCallbackHandler() {
+      @Override
+      public void processRow(ResultSet rs) throws SQLException {
+        ResultSetMetaData metaData = rs.getMetaData();
+        Map<String, Object> row = Maps.newHashMapWithExpectedSize(metaData.getColumnCount());
+        for(int i = 1; i <= metaData.getColumnCount(); i++) {
+          row.put(metaData.getColumnLabel(i), rs.getObject(i));
+        }
+        String token = rs.getString(TOKEN);
+        if(!rows.containsKey(token)) rows.put(token, row);
+      }
+    });
+  }
+
+  @Override
+  public void remove() {
+    throw new UnsupportedOperationException();
+  }
+}
@@ -3,7 +3,6 @@ package org.obiba.magma.datasource.limesurvey;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.NoSuchElementException;
 import java.util.Set;
 import java.util.SortedSet;
 
@@ -28,13 +27,11 @@ import org.obiba.magma.support.AbstractValueTable;
 import org.obiba.magma.type.DateTimeType;
 import org.obiba.magma.type.IntegerType;
 import org.obiba.magma.type.TextType;
-import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
-import org.springframework.jdbc.core.namedparam.NamedParameterJdbcOperations;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
-import org.springframework.jdbc.support.rowset.SqlRowSet;
 
-import com.google.common.base.Function;
 import com.google.common.base.Predicate;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
@@ -390,6 +387,35 @@ class LimesurveyValueTable extends AbstractValueTable {
     return new LimesurveyValueSet(this, entity);
   }
 
+  /**
+   * The value sets are loaded by batches of entities rather than one query per entity.
+   */
+  @Override
+  public Iterable<ValueSet> getValueSets() {
+    final Set<VariableEntity> entities = getVariableEntities();
+    return new Iterable<ValueSet>() {
+      @Override
+      public Iterator<ValueSet> iterator() {
+        final Iterator<VariableEntity> entityIterator = entities.iterator();
+        final Iterator<Map<String, Object>> rows = newValueSetIterator(null, entities);
+        return new AbstractIterator<ValueSet>() {
+          @Override
+          protected ValueSet computeNext() {
+            if(!rows.hasNext()) return endOfData();
+            Map<String, Object> row = rows.next();
+            return new LimesurveyValueSet(LimesurveyValueTable.this, entityIterator.next(), row);
+          }
+        };
+      }
+    };
+  }
+
+  private Iterator<Map<String, Object>> newValueSetIterator(@Nullable List<String> columns,
+      Iterable<VariableEntity> entities) {
+    return new LimesurveyValueSetIterator(new NamedParameterJdbcTemplate(getDatasource().getJdbcTemplate()),
+        quoteAndPrefix("survey_" + sid), columns, entities.iterator());
+  }
+
   @Override
   public Timestamps getValueSetTimestamps(VariableEntity entity) throws NoSuchValueSetException {
     return new LimesurveyValueSet(this, entity).getTimestamps();
@@ -448,67 +474,26 @@ class LimesurveyValueTable extends AbstractValueTable {
     }
 
     @Override
-    //TODO move into provider implementation
     public Iterable<Value> getValues(final SortedSet<VariableEntity> entities) {
       return new Iterable<Value>() {
 
         @Override
         public Iterator<Value> iterator() {
-          NamedParameterJdbcOperations jdbcTemplate = new NamedParameterJdbcTemplate(getDatasource().getDataSource());
-          MapSqlParameterSource parameters = new MapSqlParameterSource();
-          parameters.addValue("ids", Lists.newArrayList(extractIdentifiers(entities)));
-          String sql = "SELECT " + quoteAndPrefix(getLimesurveyVariableField()) + " FROM " +
-              quoteAndPrefix("survey_" + getSid()) + " WHERE token IN (:ids) ORDER BY token";
-          return new ValueIterator(entities, jdbcTemplate.queryForRowSet(sql, parameters));
-        }
-
-        private Iterable<String> extractIdentifiers(Iterable<VariableEntity> entities) {
-          return Iterables.transform(entities, new Function<VariableEntity, String>() {
-
+          final Iterator<Map<String, Object>> rows = newValueSetIterator(
+              ImmutableList.of(getDatasource().quote(getLimesurveyVariableField())), entities);
+          return new AbstractIterator<Value>() {
             @Override
-            public String apply(VariableEntity input) {
-              return input.getIdentifier();
+            protected Value computeNext() {
+              if(!rows.hasNext()) return endOfData();
+              Map<String, Object> row = rows.next();
+              return LimesurveyValueSet
+                  .getValue(getValueType(), row == null ? null : row.get(getLimesurveyVariableField()));
             }
-          });
+          };
         }
       };
     }
 
-    private class ValueIterator implements Iterator<Value> {
-
-      private final Iterator<VariableEntity> idsIterator;
-
-      private SqlRowSet rows;
-
-      private ValueIterator(Iterable<VariableEntity> entities, SqlRowSet rows) {
-        idsIterator = entities.iterator();
-        if(!Iterables.isEmpty(entities)) {
-          this.rows = rows;
-        }
-      }
-
-      @Override
-      public boolean hasNext() {
-        return idsIterator.hasNext();
-      }
-
-      @Override
-      public Value next() {
-        if(!hasNext()) {
-          throw new NoSuchElementException();
-        }
-        idsIterator.next();
-        rows.next();
-        Object object = rows.getObject(getLimesurveyVariableField());
-        return variable.getValueType().valueOf("".equals(object) ? null : object);
-      }
-
-      @Override
-      public void remove() {
-        throw new UnsupportedOperationException();
-      }
-    }
-
   }
 
   class LimesurveyQuestionVariableValueSource extends LimesurveyVariableValueSource {
@@ -0,0 +1,103 @@
+package org.obiba.magma.datasource.limesurvey;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.obiba.magma.VariableEntity;
+import org.obiba.magma.support.VariableEntityBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+public class LimesurveyValueSetIteratorTest {
+
+  private SingleConnectionDataSource dataSource;
+
+  private JdbcTemplate jdbcTemplate;
+
+  @Before
+  public void setUp() {
+    dataSource = new SingleConnectionDataSource("jdbc:hsqldb:mem:limesurvey", "sa", "", true);
+    jdbcTemplate = new JdbcTemplate(dataSource);
+    jdbcTemplate.execute(
+        "CREATE TABLE survey_1 (id INTEGER PRIMARY KEY, token VARCHAR(36), \"1X2X3\" VARCHAR(10), \"1X2X4\" INTEGER)");
+    jdbcTemplate.update("INSERT INTO survey_1 VALUES (1, 'a', 'A3', 1)");
+    jdbcTemplate.update("INSERT INTO survey_1 VALUES (2, 'c', 'C3', 3)");
+    jdbcTemplate.update("INSERT INTO survey_1 VALUES (3, 'b', 'B3', 2)");
+    jdbcTemplate.update("INSERT INTO survey_1 VALUES (4, 'e', 'E3', 5)");
+  }
+
+  @After
+  public void tearDown() {
+    jdbcTemplate.execute("DROP TABLE survey_1");
+    dataSource.destroy();
+  }
+
+  @Test
+  public void test_rows_are_returned_in_entities_order_by_batches() {
+    List<Map<String, Object>> rows = read(ImmutableList.of("\"1X2X3\"", "\"1X2X4\""), 2, "a", "b", "c", "d", "e");
+
+    assertThat(rows).hasSize(5);
+    assertThat(rows.get(0).get("1X2X3")).isEqualTo("A3");
+    assertThat(rows.get(1).get("1X2X3")).isEqualTo("B3");
+    assertThat(rows.get(2).get("1X2X4")).isEqualTo(3);
+    assertThat(rows.get(3)).isNull();
+    assertThat(rows.get(4).get("1X2X3")).isEqualTo("E3");
+    assertThat(rows.get(4).get("1X2X4")).isEqualTo(5);
+  }
+
+  @Test
+  public void test_rows_are_projected_on_requested_columns() {
+    List<Map<String, Object>> rows = read(ImmutableList.of("\"1X2X4\""), 1000, "c");
+
+    assertThat(rows).hasSize(1);
+    assertThat(rows.get(0)).hasSize(2);
+    assertThat(rows.get(0).get("1X2X4")).isEqualTo(3);
+    assertThat(rows.get(0).containsKey("1X2X3")).isFalse();
+  }
+
+  @Test
+  public void test_all_columns_are_read_without_projection() {
+    List<Map<String, Object>> rows = read(null, 1000, "b");
+
+    assertThat(rows).hasSize(1);
+    assertThat(rows.get(0)).hasSize(4);
+    assertThat(rows.get(0).get("1X2X3")).isEqualTo("B3");
+  }
+
+  @Test
+  public void test_first_response_of_duplicate_token_is_read() {
+    // inserted before the first response of 'c' but with a greater id
+    jdbcTemplate.update("INSERT INTO survey_1 VALUES (0, 'c', 'C0', 0)");
+    jdbcTemplate.update("INSERT INTO survey_1 VALUES (5, 'c', 'C5', 5)");
+
+    List<Map<String, Object>> rows = read(ImmutableList.of("\"1X2X3\""), 1000, "b", "c");
+
+    assertThat(rows).hasSize(2);
+    assertThat(rows.get(1).get("1X2X3")).isEqualTo("C0");
+  }
+
+  @Test
+  public void test_no_entities() {
+    assertThat(read(ImmutableList.of("\"1X2X3\""), 1000)).isEmpty();
+  }
+
+  private List<Map<String, Object>> read(List<String> columns, int batchSize, String... identifiers) {
+    List<VariableEntity> entities = Lists.newArrayList();
+    for(String identifier : identifiers) {
+      entities.add(new VariableEntityBean("Participant", identifier));
+    }
+    Iterator<Map<String, Object>> iterator = new LimesurveyValueSetIterator(
+        new NamedParameterJdbcTemplate(jdbcTemplate), "survey_1", columns, entities.iterator(), batchSize);
+    return Lists.newArrayList(iterator);
+  }
+}
@@ -55,6 +55,8 @@ public class MongoDBDatasource extends AbstractDatasource {
 
   private DBObject dbObject;
 
+  private int bulkWriteBatchSize;
+
   /**
    * See <a href="http://docs.mongodb.org/manual/reference/connection-string">MongoDB connection string specifications</a>.
    *
@@ -66,6 +68,20 @@ public class MongoDBDatasource extends AbstractDatasource {
     this.mongoDBFactory = mongoDBFactory;
   }
 
+  /**
+   * Write value sets with unordered bulk upserts of the given number of value sets, instead of one read and one
+   * write per value set. Zero or less disables bulk writes.
+   *
+   * @param bulkWriteBatchSize
+   */
+  public void setBulkWriteBatchSize(int bulkWriteBatchSize) {
+    this.bulkWriteBatchSize = bulkWriteBatchSize;
+  }
+
+  public int getBulkWriteBatchSize() {
+    return bulkWriteBatchSize;
+  }
+
   @NotNull
   MongoDBFactory getMongoDBFactory() {
     return mongoDBFactory;
@@ -192,7 +208,7 @@ public class MongoDBDatasource extends AbstractDatasource {
       addValueTable(valueTable = new MongoDBValueTable(this, tableName, entityType));
       setLastUpdate(new Date());
     }
-    return new MongoDBValueTableWriter(valueTable);
+    return new MongoDBValueTableWriter(valueTable, bulkWriteBatchSize);
   }
 
   @Override
@@ -45,6 +45,8 @@ public class MongoDBDatasourceFactory extends AbstractDatasourceFactory {
 
   private String options;
 
+  private int bulkWriteBatchSize;
+
   public MongoDBDatasourceFactory(@NotNull String name, @NotNull String url) {
     this(name, url, null, null, null);
   }
@@ -61,7 +63,9 @@ public class MongoDBDatasourceFactory extends AbstractDatasourceFactory {
   @NotNull
   @Override
   protected Datasource internalCreate() {
-    return new MongoDBDatasource(getName(), getMongoDBFactory());
+    MongoDBDatasource datasource = new MongoDBDatasource(getName(), getMongoDBFactory());
+    datasource.setBulkWriteBatchSize(bulkWriteBatchSize);
+    return datasource;
   }
 
   public MongoDBFactory getMongoDBFactory() {
@@ -105,6 +109,14 @@ public class MongoDBDatasourceFactory extends AbstractDatasourceFactory {
     this.options = options;
   }
 
+  public int getBulkWriteBatchSize() {
+    return bulkWriteBatchSize;
+  }
+
+  public void setBulkWriteBatchSize(int bulkWriteBatchSize) {
+    this.bulkWriteBatchSize = bulkWriteBatchSize;
+  }
+
   public String getPassword() {
     return password;
   }
@@ -2,6 +2,7 @@ package org.obiba.magma.datasource.mongodb;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 
 import javax.annotation.Nullable;
 import javax.validation.constraints.NotNull;
@@ -11,6 +12,7 @@ import org.json.JSONException;
 import org.json.JSONObject;
 import org.obiba.magma.MagmaRuntimeException;
 import org.obiba.magma.Value;
+import org.obiba.magma.StreamingValueLoader;
 import org.obiba.magma.ValueLoader;
 import org.obiba.magma.ValueLoaderFactory;
 
@@ -32,7 +34,10 @@ public class MongoDBValueLoaderFactory implements ValueLoaderFactory {
     return new MongoDBBinaryValueLoader(mongoDBFactory, valueRef);
   }
 
-  private static final class MongoDBBinaryValueLoader implements ValueLoader {
+  /**
+   * Loads the content of a GridFS file on demand, its length being read from the file metadata held by the value set.
+   */
+  private static final class MongoDBBinaryValueLoader implements StreamingValueLoader {
 
     private static final long serialVersionUID = -5992432763907068814L;
 
@@ -56,22 +61,38 @@ public class MongoDBValueLoaderFactory implements ValueLoaderFactory {
     @Override
     public Object getValue() {
       if(value == null) {
-        String json = (String) valueRef.getValue();
-        try {
-          JSONObject jsonObject = new JSONObject(json);
-          if(jsonObject.has(GRID_FILE_ID)) {
-            value = getByteArray(jsonObject.getString(GRID_FILE_ID));
-          }
-        } catch(JSONException e) {
-          throw new MagmaRuntimeException("Cannot retrieve grid file Id for " + json, e);
+        String fileId = getFileId();
+        if(fileId != null) {
+          value = getByteArray(fileId);
         }
       }
       return value;
     }
 
+    @NotNull
+    @Override
+    public InputStream getInputStream() {
+      String fileId = getFileId();
+      if(fileId == null) {
+        throw new MagmaRuntimeException("No grid file for " + valueRef.getValue());
+      }
+      return getFile(fileId).getInputStream();
+    }
+
+    @Nullable
+    private String getFileId() {
+      String json = (String) valueRef.getValue();
+      try {
+        JSONObject jsonObject = new JSONObject(json);
+        return jsonObject.has(GRID_FILE_ID) ? jsonObject.getString(GRID_FILE_ID) : null;
+      } catch(JSONException e) {
+        throw new MagmaRuntimeException("Cannot retrieve grid file Id for " + json, e);
+      }
+    }
+
     private byte[] getByteArray(String fileId) {
-      try(ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
-        GridFSDBFile file = mongoDBFactory.getGridFS().findOne(new ObjectId(fileId));
+      GridFSDBFile file = getFile(fileId);
+      try(ByteArrayOutputStream outputStream = new ByteArrayOutputStream((int) file.getLength())) {
         file.writeTo(outputStream);
         return outputStream.toByteArray();
       } catch(IOException e) {
@@ -79,6 +100,15 @@ public class MongoDBValueLoaderFactory implements ValueLoaderFactory {
       }
     }
 
+    @NotNull
+    private GridFSDBFile getFile(String fileId) {
+      GridFSDBFile file = mongoDBFactory.getGridFS().findOne(new ObjectId(fileId));
+      if(file == null) {
+        throw new MagmaRuntimeException("Cannot find gridFsFile [" + fileId + "]");
+      }
+      return file;
+    }
+
     @Override
     public long getLength() {
       if(valueRef.isNull()) return 0;
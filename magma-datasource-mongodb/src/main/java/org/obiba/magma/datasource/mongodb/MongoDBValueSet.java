@@ -12,6 +12,7 @@ package org.obiba.magma.datasource.mongodb;
 
 import java.util.List;
 
+import javax.annotation.Nullable;
 import javax.validation.constraints.NotNull;
 
 import org.bson.BSONObject;
@@ -70,6 +71,15 @@ class MongoDBValueSet implements ValueSet {
         : ValueConverter.unmarshall(variable, valueObject);
   }
 
+  /**
+   * Get the value of the variable from a value set document, which may be null if the entity has no value set.
+   */
+  static Value getValue(MongoDBFactory mongoDBFactory, MongoDBVariable variable, @Nullable BSONObject valueObject) {
+    return valueObject != null && variable.getValueType().equals(BinaryType.get())
+        ? getBinaryValue(mongoDBFactory, variable, valueObject)
+        : ValueConverter.unmarshall(variable, valueObject);
+  }
+
   @SuppressWarnings("unchecked")
   private Value getBinaryValue(MongoDBVariable variable, BSONObject valueObject) {
     return getBinaryValue(valueTable.getMongoDBFactory(), variable, valueObject);
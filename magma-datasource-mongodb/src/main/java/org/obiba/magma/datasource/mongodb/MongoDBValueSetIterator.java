@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2013 OBiBa. All rights reserved.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.obiba.magma.datasource.mongodb;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import javax.annotation.Nullable;
+
+import org.obiba.magma.VariableEntity;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.mongodb.BasicDBObjectBuilder;
+import com.mongodb.DBCollection;
+import com.mongodb.DBCursor;
+import com.mongodb.DBObject;
+
+/**
+ * Iterates over the value set documents of the requested entities, in the order of the entities. Documents are fetched
+ * by batches of entities using an {@code $in} query on their identifier and are projected on the requested fields, so
+ * that only the documents (and fields) being read are transferred and held in memory.
+ * <p/>
+ * A null document is returned for an entity that has no value set.
+ */
+class MongoDBValueSetIterator implements Iterator<DBObject> {
+
+  static final int DEFAULT_BATCH_SIZE = 1000;
+
+  private final DBCollection collection;
+
+  private final DBObject fields;
+
+  private final Iterator<VariableEntity> entities;
+
+  private final int batchSize;
+
+  private final List<String> batch = Lists.newArrayList();
+
+  private final Map<String, DBObject> documents = Maps.newHashMap();
+
+  private int position;
+
+  MongoDBValueSetIterator(DBCollection collection, DBObject fields, Iterator<VariableEntity> entities) {
+    this(collection, fields, entities, DEFAULT_BATCH_SIZE);
+  }
+
+  MongoDBValueSetIterator(DBCollection collection, DBObject fields, Iterator<VariableEntity> entities,
+      int batchSize) {
+    if(batchSize <= 0) throw new IllegalArgumentException("batchSize must be positive");
+    this.collection = collection;
+    this.fields = fields;
+    this.entities = entities;
+    this.batchSize = batchSize;
+  }
+
+  @Override
+  public boolean hasNext() {
+    return position < batch.size() || entities.hasNext();
+  }
+
+  @Nullable
+  @Override
+  public DBObject next() {
+    if(!hasNext()) throw new NoSuchElementException();
+    if(position == batch.size()) fetchBatch();
+    return documents.get(batch.get(position++));
+  }
+
+  private void fetchBatch() {
+    batch.clear();
+    documents.clear();
+    position = 0;
+    while(entities.hasNext() && batch.size() < batchSize) {
+      batch.add(entities.next().getIdentifier());
+    }
+    DBObject query = BasicDBObjectBuilder.start("_id", BasicDBObjectBuilder.start("$in", batch).get()).get();
+    try(DBCursor cursor = collection.find(query, fields).batchSize(batch.size())) {
+      while(cursor.hasNext()) {
+        DBObject document = cursor.next();
+        documents.put(document.get("_id").toString(), document);
+      }
+    }
+  }
+
+  @Override
+  public void remove() {
+    throw new UnsupportedOperationException();
+  }
+}
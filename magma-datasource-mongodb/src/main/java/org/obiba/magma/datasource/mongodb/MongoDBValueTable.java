@@ -12,7 +12,7 @@ package org.obiba.magma.datasource.mongodb;
 
 import java.util.Date;
 import java.util.Iterator;
-import java.util.Map;
+import java.util.List;
 import java.util.SortedSet;
 
 import javax.annotation.Nullable;
@@ -26,6 +26,7 @@ import org.obiba.magma.Timestamps;
 import org.obiba.magma.TimestampsBean;
 import org.obiba.magma.Value;
 import org.obiba.magma.ValueSet;
+import org.obiba.magma.Variable;
 import org.obiba.magma.VariableEntity;
 import org.obiba.magma.VariableValueSource;
 import org.obiba.magma.datasource.mongodb.converter.ValueConverter;
@@ -34,12 +35,10 @@ import org.obiba.magma.support.NullTimestamps;
 import org.obiba.magma.type.DateTimeType;
 
 import com.google.common.collect.ImmutableList;
-import com.google.common.collect.Maps;
-import com.mongodb.BasicDBObject;
+import com.google.common.collect.Lists;
 import com.mongodb.BasicDBObjectBuilder;
 import com.mongodb.DB;
 import com.mongodb.DBCollection;
-import com.mongodb.DBCursor;
 import com.mongodb.DBObject;
 import com.mongodb.WriteConcern;
 import com.mongodb.gridfs.GridFS;
@@ -162,6 +161,30 @@ public class MongoDBValueTable extends AbstractValueTable {
     };
   }
 
+  /**
+   * Get the values of several variables for each of the entities (in the order of the entities), the value set
+   * documents being read with a single cursor projected on these variables.
+   *
+   * @param variables
+   * @param entities
+   * @return for each entity, the values of the variables in the order of the variables
+   */
+  public Iterable<List<Value>> getValues(final List<Variable> variables, final SortedSet<VariableEntity> entities) {
+    if(entities.isEmpty()) {
+      return ImmutableList.of();
+    }
+    final List<MongoDBVariable> mongoDBVariables = Lists.newArrayListWithCapacity(variables.size());
+    for(Variable variable : variables) {
+      mongoDBVariables.add(((MongoDBVariableValueSource) getVariableValueSource(variable.getName())).getVariable());
+    }
+    return new Iterable<List<Value>>() {
+      @Override
+      public Iterator<List<Value>> iterator() {
+        return new ValuesIterator(mongoDBVariables, entities.iterator());
+      }
+    };
+  }
+
   @Override
   public ValueSet getValueSet(VariableEntity entity) throws NoSuchValueSetException {
     if(!hasValueSet(entity)) {
@@ -249,55 +272,61 @@ public class MongoDBValueTable extends AbstractValueTable {
 
   private class TimestampsIterator implements Iterator<Timestamps> {
 
-    private final Iterator<VariableEntity> entities;
-
-    private final DBCursor cursor;
-
-    private final Map<String, Timestamps> timestampsMap = Maps.newHashMap();
+    private final Iterator<DBObject> documents;
 
     private TimestampsIterator(Iterator<VariableEntity> entities) {
-      this.entities = entities;
       DBObject fields = BasicDBObjectBuilder.start(MongoDBDatasource.TIMESTAMPS_FIELD, 1).get();
-      cursor = getValueSetCollection().find(new BasicDBObject(), fields);
+      documents = new MongoDBValueSetIterator(getValueSetCollection(), fields, entities);
     }
 
     @Override
     public boolean hasNext() {
-      return entities.hasNext();
+      return documents.hasNext();
     }
 
     @Override
     public Timestamps next() {
-      VariableEntity entity = entities.next();
-
-      if(timestampsMap.containsKey(entity.getIdentifier())) return getTimestampsFromMap(entity);
-
-      boolean found = false;
-      while(cursor.hasNext() && !found) {
-        DBObject obj = cursor.next();
-        String id = obj.get("_id").toString();
-        BSONObject timestamps = (BSONObject) obj.get(MongoDBDatasource.TIMESTAMPS_FIELD);
-        timestampsMap.put(id,
-            new TimestampsBean(ValueConverter.unmarshall(DateTimeType.get(), timestamps.get("created")),
-                ValueConverter.unmarshall(DateTimeType.get(), timestamps.get("updated")))
-        );
-        found = id.equals(entity.getIdentifier());
+      DBObject obj = documents.next();
+      if(obj == null) return NullTimestamps.get();
+      BSONObject timestamps = (BSONObject) obj.get(MongoDBDatasource.TIMESTAMPS_FIELD);
+      return new TimestampsBean(ValueConverter.unmarshall(DateTimeType.get(), timestamps.get("created")),
+          ValueConverter.unmarshall(DateTimeType.get(), timestamps.get("updated")));
+    }
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+  private class ValuesIterator implements Iterator<List<Value>> {
+
+    private final List<MongoDBVariable> variables;
+
+    private final Iterator<DBObject> documents;
+
+    private ValuesIterator(List<MongoDBVariable> variables, Iterator<VariableEntity> entities) {
+      this.variables = variables;
+      BasicDBObjectBuilder fields = BasicDBObjectBuilder.start();
+      for(MongoDBVariable variable : variables) {
+        fields.add(variable.getId(), 1);
       }
+      documents = new MongoDBValueSetIterator(getValueSetCollection(), fields.get(), entities);
+    }
 
-      if(timestampsMap.containsKey(entity.getIdentifier())) return getTimestampsFromMap(entity);
-      return NullTimestamps.get();
+    @Override
+    public boolean hasNext() {
+      return documents.hasNext();
     }
 
-    /**
-     * No duplicate of entities, so remove timestamps from map once get.
-     *
-     * @param entity
-     * @return
-     */
-    private Timestamps getTimestampsFromMap(VariableEntity entity) {
-      Timestamps value = timestampsMap.get(entity.getIdentifier());
-      timestampsMap.remove(entity.getIdentifier());
-      return value;
+    @Override
+    public List<Value> next() {
+      DBObject obj = documents.next();
+      List<Value> values = Lists.newArrayListWithCapacity(variables.size());
+      for(MongoDBVariable variable : variables) {
+        values.add(MongoDBValueSet.getValue(getMongoDBFactory(), variable, obj));
+      }
+      return values;
     }
 
     @Override
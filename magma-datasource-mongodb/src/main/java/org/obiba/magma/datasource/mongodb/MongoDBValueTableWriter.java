@@ -11,6 +11,7 @@
 package org.obiba.magma.datasource.mongodb;
 
 import java.util.Date;
+import java.util.Set;
 
 import javax.annotation.Nullable;
 import javax.validation.constraints.NotNull;
@@ -25,8 +26,11 @@ import org.obiba.magma.datasource.mongodb.converter.ValueConverter;
 import org.obiba.magma.datasource.mongodb.converter.VariableConverter;
 import org.obiba.magma.type.BinaryType;
 
+import com.google.common.collect.Sets;
 import com.mongodb.BasicDBList;
+import com.mongodb.BasicDBObject;
 import com.mongodb.BasicDBObjectBuilder;
+import com.mongodb.BulkWriteOperation;
 import com.mongodb.DBCollection;
 import com.mongodb.DBCursor;
 import com.mongodb.DBObject;
@@ -43,8 +47,28 @@ class MongoDBValueTableWriter implements ValueTableWriter {
 
   private final MongoDBValueTable table;
 
+  private final int bulkWriteBatchSize;
+
+  /**
+   * Pending value set upserts, when writing in bulk.
+   */
+  @Nullable
+  private BulkWriteOperation bulkWrite;
+
+  private final Set<String> bulkWriteIdentifiers = Sets.newHashSet();
+
   MongoDBValueTableWriter(@NotNull MongoDBValueTable table) {
+    this(table, 0);
+  }
+
+  /**
+   * @param table
+   * @param bulkWriteBatchSize if positive, value sets are upserted without being read first, by unordered bulk
+   * operations of this number of value sets, and the table timestamps are updated once when the writer is closed
+   */
+  MongoDBValueTableWriter(@NotNull MongoDBValueTable table, int bulkWriteBatchSize) {
     this.table = table;
+    this.bulkWriteBatchSize = bulkWriteBatchSize;
   }
 
   @Override
@@ -60,6 +84,7 @@ class MongoDBValueTableWriter implements ValueTableWriter {
 
   @Override
   public void close() {
+    flushBulkWrite();
     updateLastUpdate();
   }
 
@@ -67,12 +92,50 @@ class MongoDBValueTableWriter implements ValueTableWriter {
     table.setLastUpdate(new Date());
   }
 
+  private boolean isBulkWrite() {
+    return bulkWriteBatchSize > 0;
+  }
+
+  private void addBulkWrite(String identifier, DBObject update) {
+    // an unordered bulk operation cannot hold two upserts of the same document
+    flushBulkWrite(identifier);
+    if(bulkWrite == null) bulkWrite = table.getValueSetCollection().initializeUnorderedBulkOperation();
+    bulkWrite.find(BasicDBObjectBuilder.start("_id", identifier).get()).upsert().updateOne(update);
+    bulkWriteIdentifiers.add(identifier);
+    if(bulkWriteIdentifiers.size() >= bulkWriteBatchSize) flushBulkWrite();
+  }
+
+  /**
+   * Execute the pending value set upserts if one of them is for the given value set.
+   */
+  private void flushBulkWrite(String identifier) {
+    if(bulkWriteIdentifiers.contains(identifier)) flushBulkWrite();
+  }
+
+  /**
+   * Execute the pending value set upserts, if any.
+   */
+  private void flushBulkWrite() {
+    if(bulkWrite == null) return;
+    try {
+      bulkWrite.execute();
+    } finally {
+      bulkWrite = null;
+      bulkWriteIdentifiers.clear();
+    }
+  }
+
   private class MongoDBValueSetWriter implements ValueTableWriter.ValueSetWriter {
 
     private final VariableEntity entity;
 
     private DBObject valueSetObject;
 
+    /**
+     * Fields to be set, when writing in bulk.
+     */
+    private final BasicDBObject fieldsToSet = new BasicDBObject();
+
     private boolean removed = false;
 
     private MongoDBValueSetWriter(VariableEntity entity) {
@@ -81,6 +144,8 @@ class MongoDBValueTableWriter implements ValueTableWriter {
 
     private DBObject getValueSetObject() {
       if(valueSetObject == null) {
+        // make sure a pending upsert of this value set is not missed
+        flushBulkWrite(entity.getIdentifier());
         DBObject template = BasicDBObjectBuilder.start("_id", entity.getIdentifier()).get();
         valueSetObject = table.getValueSetCollection().findOne(template);
         if(valueSetObject == null) {
@@ -97,10 +162,14 @@ class MongoDBValueTableWriter implements ValueTableWriter {
       MongoDBVariable varObj = (MongoDBVariable) table.getVariable(variable.getName());
       String field = varObj.getId();
       if(BinaryType.get().equals(value.getValueType())) {
+        // files of the previous value have to be removed, so the value set is read even when writing in bulk
         DBObject fileMetadata = getValueSetObject().containsField(field)
             ? updateBinary(variable, value, field)
             : createBinary(variable, value);
         getValueSetObject().put(field, fileMetadata);
+        if(isBulkWrite()) fieldsToSet.put(field, fileMetadata);
+      } else if(isBulkWrite()) {
+        fieldsToSet.put(field, ValueConverter.marshall(variable, value));
       } else {
         getValueSetObject().put(field, ValueConverter.marshall(variable, value));
       }
@@ -109,6 +178,9 @@ class MongoDBValueTableWriter implements ValueTableWriter {
     @Override
     public void remove() {
       removed = true;
+      fieldsToSet.clear();
+      // make sure a pending upsert does not recreate this value set
+      flushBulkWrite(entity.getIdentifier());
       // remove files if any
       for (Variable variable : table.getVariables()) {
         if (BinaryType.get().equals(variable.getValueType())) {
@@ -168,7 +240,8 @@ class MongoDBValueTableWriter implements ValueTableWriter {
           .add("entity", entity.getIdentifier());
       if(occurrence != null) metaDataBuilder.add("occurrence", occurrence);
 
-      GridFSInputFile gridFSFile = table.getMongoDBFactory().getGridFS().createFile((byte[]) value.getValue());
+      // stream the content, it is read chunk by chunk when the file is saved
+      GridFSInputFile gridFSFile = table.getMongoDBFactory().getGridFS().createFile(value.getInputStream(), true);
       gridFSFile.setMetaData(metaDataBuilder.get());
       gridFSFile.save();
       return getBinaryValueMetadata(gridFSFile, occurrence);
@@ -176,6 +249,10 @@ class MongoDBValueTableWriter implements ValueTableWriter {
 
     @Override
     public void close() {
+      if(isBulkWrite()) {
+        if(!removed) addBulkWrite(entity.getIdentifier(), getUpsert());
+        return;
+      }
       if(!removed) {
         BSONObject timestamps = (BSONObject) getValueSetObject().get(MongoDBDatasource.TIMESTAMPS_FIELD);
         timestamps.put(MongoDBDatasource.TIMESTAMPS_UPDATED_FIELD, new Date());
@@ -184,6 +261,20 @@ class MongoDBValueTableWriter implements ValueTableWriter {
       updateLastUpdate();
     }
 
+    /**
+     * Sets the written fields only, so that the value set does not need to be read first.
+     */
+    private DBObject getUpsert() {
+      Date now = new Date();
+      fieldsToSet.put(MongoDBDatasource.TIMESTAMPS_FIELD + "." + MongoDBDatasource.TIMESTAMPS_UPDATED_FIELD, now);
+      return BasicDBObjectBuilder.start() //
+          .add("$set", fieldsToSet) //
+          .add("$setOnInsert", BasicDBObjectBuilder
+              .start(MongoDBDatasource.TIMESTAMPS_FIELD + "." + MongoDBDatasource.TIMESTAMPS_CREATED_FIELD, now)
+              .get()) //
+          .get();
+    }
+
     private DBObject getBinaryValueMetadata(@Nullable GridFSInputFile gridFSFile, Integer occurrence) {
       BasicDBObjectBuilder builder = BasicDBObjectBuilder.start();
       if(gridFSFile != null) {
@@ -1,6 +1,7 @@
 package org.obiba.magma.datasource.mongodb;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
@@ -51,6 +52,7 @@ import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
+import com.google.common.io.ByteStreams;
 import com.mongodb.MongoClient;
 
 import static org.fest.assertions.api.Assertions.assertThat;
@@ -201,6 +203,25 @@ public class MongoDBDatasourceTest {
     testWriteReadValue(ds, id++, BinaryType.get().nullValue());
   }
 
+  @Test
+  public void test_binary_streaming() throws Exception {
+    Datasource ds = createDatasource();
+    byte[] content = new byte[1024 * 1024];
+    for(int i = 0; i < content.length; i++) {
+      content[i] = (byte) i;
+    }
+    VariableEntity entity = new VariableEntityBean(PARTICIPANT, "1");
+    Variable variable = Variable.Builder.newVariable("BIN", BinaryType.get(), PARTICIPANT).build();
+    writeValue(ds, entity, variable, BinaryType.get().valueOf(content));
+
+    ValueTable table = ds.getValueTable(TABLE_TEST);
+    Value value = table.getValue(variable, table.getValueSet(entity));
+    assertThat(value.getLength()).isEqualTo(content.length);
+    try(InputStream input = value.getInputStream()) {
+      assertThat(ByteStreams.toByteArray(input)).isEqualTo(content);
+    }
+  }
+
   @Test
   public void test_binary_sequence_writer() throws Exception {
     Datasource ds = createDatasource();
@@ -466,6 +487,80 @@ public class MongoDBDatasourceTest {
     }
   }
 
+  @Test
+  public void test_bulk_writer() throws IOException {
+    Variable variable1 = Variable.Builder.newVariable("V1", IntegerType.get(), PARTICIPANT).build();
+    Variable variable2 = Variable.Builder.newVariable("V2", TextType.get(), PARTICIPANT).build();
+    Datasource generated = new MongoDBDatasourceFactory("ds-" + DB_TEST, DB_URL).create();
+    ValueTable generatedValueTable = new GeneratedValueTable(generated, ImmutableSet.of(variable1, variable2), 20);
+
+    MongoDBDatasourceFactory factory = new MongoDBDatasourceFactory("ds-" + DB_TEST, DB_URL);
+    factory.setBulkWriteBatchSize(7);
+    Datasource ds = factory.create();
+    Initialisables.initialise(ds);
+    DatasourceCopier.Builder.newCopier().build().copy(generatedValueTable, TABLE_TEST, ds);
+    // overwrite a value of an existing value set, leaving the other one untouched
+    VariableEntity entity = generatedValueTable.getVariableEntities().iterator().next();
+    try(ValueTableWriter tableWriter = ds.createWriter(TABLE_TEST, PARTICIPANT);
+        ValueTableWriter.ValueSetWriter valueSetWriter = tableWriter.writeValueSet(entity)) {
+      valueSetWriter.writeValue(variable2, TextType.get().valueOf("updated"));
+    }
+
+    ValueTable table = createDatasource().getValueTable(TABLE_TEST);
+    assertThat(table.getVariableEntities()).hasSize(20);
+    for(ValueSet valueSet : generatedValueTable.getValueSets()) {
+      ValueSet written = table.getValueSet(valueSet.getVariableEntity());
+      assertThat(table.getValue(variable1, written)).isEqualTo(generatedValueTable.getValue(variable1, valueSet));
+      if(!valueSet.getVariableEntity().equals(entity)) {
+        assertThat(table.getValue(variable2, written)).isEqualTo(generatedValueTable.getValue(variable2, valueSet));
+      }
+      assertThat(written.getTimestamps().getCreated().isNull()).isFalse();
+    }
+    assertThat(table.getValue(variable2, table.getValueSet(entity)).toString()).isEqualTo("updated");
+  }
+
+  @Test
+  public void test_get_values_of_entity_subset_as_vector() throws IOException {
+    Variable variable1 = Variable.Builder.newVariable("V1", IntegerType.get(), PARTICIPANT).build();
+    Variable variable2 = Variable.Builder.newVariable("V2", TextType.get(), PARTICIPANT).build();
+    ImmutableSet<Variable> variables = ImmutableSet.of(variable1, variable2);
+
+    Datasource datasource1 = createDatasource();
+    ValueTable generatedValueTable = new GeneratedValueTable(datasource1, variables, 50);
+    MagmaEngine.get().addDatasource(datasource1);
+    DatasourceCopier.Builder.newCopier().build().copy(generatedValueTable, TABLE_TEST, datasource1);
+
+    MongoDBValueTable valueTable = (MongoDBValueTable) datasource1.getValueTable(TABLE_TEST);
+    TreeSet<VariableEntity> entities = Sets.newTreeSet();
+    int i = 0;
+    for(VariableEntity entity : valueTable.getVariableEntities()) {
+      if(i++ % 5 == 0) entities.add(entity);
+    }
+    VariableEntity unknown = new VariableEntityBean(PARTICIPANT, "unknown");
+    entities.add(unknown);
+
+    List<Value> values = Lists.newArrayList(
+        valueTable.getVariableValueSource("V1").asVectorSource().getValues(entities));
+    List<List<Value>> rows = Lists.newArrayList(
+        valueTable.getValues(Lists.newArrayList(variable1, variable2), entities));
+    assertThat(values).hasSize(entities.size());
+    assertThat(rows).hasSize(entities.size());
+
+    int index = 0;
+    for(VariableEntity entity : entities) {
+      if(entity.equals(unknown)) {
+        assertThat(values.get(index).isNull()).isTrue();
+        assertThat(rows.get(index).get(1).isNull()).isTrue();
+      } else {
+        ValueSet valueSet = valueTable.getValueSet(entity);
+        assertThat(values.get(index)).isEqualTo(valueTable.getValue(variable1, valueSet));
+        assertThat(rows.get(index).get(0)).isEqualTo(valueTable.getValue(variable1, valueSet));
+        assertThat(rows.get(index).get(1)).isEqualTo(valueTable.getValue(variable2, valueSet));
+      }
+      index++;
+    }
+  }
+
   private Datasource createDatasource() {
     DatasourceFactory factory = new MongoDBDatasourceFactory("ds-" + DB_TEST, DB_URL);
     Datasource ds = factory.create();
@@ -0,0 +1,105 @@
+package org.obiba.magma.datasource.mongodb;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.TreeSet;
+
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.obiba.magma.VariableEntity;
+import org.obiba.magma.support.VariableEntityBean;
+
+import com.google.common.collect.Lists;
+import com.mongodb.BasicDBObjectBuilder;
+import com.mongodb.DBCollection;
+import com.mongodb.DBCursor;
+import com.mongodb.DBObject;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class MongoDBValueSetIteratorTest {
+
+  private final DBObject fields = BasicDBObjectBuilder.start("V1", 1).get();
+
+  @Test
+  public void test_documents_are_returned_in_entity_order_by_batches() {
+    // stored documents, in reverse order of the identifiers
+    List<DBObject> documents = Lists.newArrayList();
+    for(String id : new String[] { "5", "4", "2", "1" }) {
+      documents.add(BasicDBObjectBuilder.start("_id", id).add("V1", "value" + id).get());
+    }
+    DBCollection collection = mockCollection(documents);
+
+    TreeSet<VariableEntity> entities = new TreeSet<>();
+    for(String id : new String[] { "1", "2", "3", "4", "5" }) {
+      entities.add(new VariableEntityBean("Participant", id));
+    }
+
+    Iterator<DBObject> iterator = new MongoDBValueSetIterator(collection, fields, entities.iterator(), 2);
+    List<Object> values = Lists.newArrayList();
+    while(iterator.hasNext()) {
+      DBObject document = iterator.next();
+      values.add(document == null ? null : document.get("V1"));
+    }
+
+    assertThat(values).containsExactly("value1", "value2", null, "value4", "value5");
+    verify(collection, times(3)).find(any(DBObject.class), eq(fields));
+  }
+
+  @Test
+  public void test_no_query_without_entities() {
+    DBCollection collection = mockCollection(Lists.<DBObject>newArrayList());
+    Iterator<DBObject> iterator = new MongoDBValueSetIterator(collection, fields,
+        new TreeSet<VariableEntity>().iterator());
+
+    assertThat(iterator.hasNext()).isFalse();
+    verify(collection, times(0)).find(any(DBObject.class), any(DBObject.class));
+  }
+
+  /**
+   * A collection that answers {@code $in} queries on {@code _id}.
+   */
+  private static DBCollection mockCollection(final List<DBObject> documents) {
+    DBCollection collection = mock(DBCollection.class);
+    when(collection.find(any(DBObject.class), any(DBObject.class))).thenAnswer(new Answer<DBCursor>() {
+      @Override
+      public DBCursor answer(InvocationOnMock invocation) throws Throwable {
+        DBObject query = (DBObject) invocation.getArguments()[0];
+        Collection<?> ids = (Collection<?>) ((DBObject) query.get("_id")).get("$in");
+        List<DBObject> found = Lists.newArrayList();
+        for(DBObject document : documents) {
+          if(ids.contains(document.get("_id"))) found.add(document);
+        }
+        return mockCursor(found.iterator());
+      }
+    });
+    return collection;
+  }
+
+  private static DBCursor mockCursor(final Iterator<DBObject> found) {
+    DBCursor cursor = mock(DBCursor.class);
+    when(cursor.batchSize(anyInt())).thenReturn(cursor);
+    when(cursor.hasNext()).thenAnswer(new Answer<Boolean>() {
+      @Override
+      public Boolean answer(InvocationOnMock invocation) throws Throwable {
+        return found.hasNext();
+      }
+    });
+    when(cursor.next()).thenAnswer(new Answer<DBObject>() {
+      @Override
+      public DBObject answer(InvocationOnMock invocation) throws Throwable {
+        return found.next();
+      }
+    });
+    return cursor;
+  }
+}
@@ -9,35 +9,21 @@
  */
 package org.obiba.magma.datasource.spss;
 
-import java.util.HashMap;
-import java.util.Map;
-
 import javax.validation.constraints.NotNull;
 
 import org.obiba.magma.Value;
 import org.obiba.magma.ValueTable;
 import org.obiba.magma.Variable;
 import org.obiba.magma.VariableEntity;
-import org.obiba.magma.datasource.spss.support.SpssVariableTypeMapper;
-import org.obiba.magma.datasource.spss.support.SpssVariableValueFactory;
 import org.obiba.magma.support.ValueSetBean;
-import org.opendatafoundation.data.spss.SPSSFile;
-import org.opendatafoundation.data.spss.SPSSVariable;
 
 public class SpssValueSet extends ValueSetBean {
 
-  private final Map<String, Value> row = new HashMap<>();
-
-  private final SPSSFile spssFile;
+  private final int observation;
 
-  private final Map<String, Integer> identifierToVariableIndex;
-
-  public SpssValueSet(ValueTable table, VariableEntity entity, SPSSFile spssFile,
-      Map<String, Integer> map) {
+  public SpssValueSet(ValueTable table, VariableEntity entity, int observation) {
     super(table, entity);
-    this.spssFile = spssFile;
-    identifierToVariableIndex = map;
-    loadVariables();
+    this.observation = observation;
   }
 
   @NotNull
@@ -46,23 +32,15 @@ public class SpssValueSet extends ValueSetBean {
     return (SpssValueTable) super.getValueTable();
   }
 
-  public Value getValue(Variable variable) {
-    return row.get(variable.getName());
+  /**
+   * The position of the entity in the case data of the SPSS file (1-based).
+   */
+  public int getObservation() {
+    return observation;
   }
 
-  //
-  // Private methods
-  //
-
-  private void loadVariables() {
-    VariableEntity variableEntity = getVariableEntity();
-    int variableIndex = identifierToVariableIndex.get(variableEntity.getIdentifier());
-
-    for(int i = 1; i < spssFile.getVariableCount(); i++) {
-      SPSSVariable spssVariable = spssFile.getVariable(i);
-      row.put(spssVariable.getName(),
-          new SpssVariableValueFactory(variableIndex, spssVariable, SpssVariableTypeMapper.map(spssVariable)).create());
-    }
+  public Value getValue(Variable variable) {
+    return getValueTable().getVariableValueSource(variable.getName()).getValue(this);
   }
 
 }
@@ -69,7 +69,10 @@ public class SpssValueTable extends AbstractValueTable implements Disposable {
 
   @Override
   public ValueSet getValueSet(VariableEntity entity) throws NoSuchValueSetException {
-    return new SpssValueSet(this, entity, spssFile, entityToVariableIndex);
+    if(!hasValueSet(entity)) {
+      throw new NoSuchValueSetException(this, entity);
+    }
+    return new SpssValueSet(this, entity, entityToVariableIndex.get(entity.getIdentifier()));
   }
 
   @NotNull
@@ -170,9 +173,10 @@ public class SpssValueTable extends AbstractValueTable implements Disposable {
       SPSSVariable entityVariable = spssFile.getVariable(0);
       int numberOfObservations = entityVariable.getNumberOfObservations();
       ValueType valueType = SpssVariableTypeMapper.map(entityVariable);
+      SpssVariableValueFactory factory = new SpssVariableValueFactory(entityVariable, valueType, true);
 
       for(int i = 1; i <= numberOfObservations; i++) {
-        Value identifierValue = new SpssVariableValueFactory(i, entityVariable, valueType, true).create();
+        Value identifierValue = factory.create(i);
 
         if(identifierValue.isNull()) {
           throw new SpssDatasourceParsingException("Empty entity identifier found.", "SpssEmptyIdentifier",
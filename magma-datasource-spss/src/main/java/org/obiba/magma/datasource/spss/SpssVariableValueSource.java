@@ -9,6 +9,7 @@
  */
 package org.obiba.magma.datasource.spss;
 
+import java.lang.ref.SoftReference;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.Map;
@@ -25,7 +26,7 @@ import org.obiba.magma.Variable;
 import org.obiba.magma.VariableEntity;
 import org.obiba.magma.VariableValueSource;
 import org.obiba.magma.VectorSource;
-import org.obiba.magma.datasource.spss.support.SpssVariableValueFactory;
+import org.obiba.magma.datasource.spss.support.SpssValueColumn;
 import org.opendatafoundation.data.spss.SPSSVariable;
 
 public class SpssVariableValueSource extends AbstractVariableValueSource implements VariableValueSource, VectorSource {
@@ -36,6 +37,11 @@ public class SpssVariableValueSource extends AbstractVariableValueSource impleme
 
   private final Map<String, Integer> identifierToVariableIndex;
 
+  /**
+   * Decoded values of the variable, released under memory pressure and decoded again on demand.
+   */
+  private volatile SoftReference<SpssValueColumn> columnReference;
+
   public SpssVariableValueSource(Variable variable, SPSSVariable spssVariable,
       Map<String, Integer> map) {
     this.variable = variable;
@@ -59,7 +65,7 @@ public class SpssVariableValueSource extends AbstractVariableValueSource impleme
   @Override
   public Value getValue(ValueSet valueSet) {
     SpssValueSet spssValueSet = (SpssValueSet) valueSet;
-    return spssValueSet.getValue(variable);
+    return getColumn().getValue(spssValueSet.getObservation());
   }
 
   @Override
@@ -83,6 +89,27 @@ public class SpssVariableValueSource extends AbstractVariableValueSource impleme
     };
   }
 
+  //
+  // Private methods
+  //
+
+  @NotNull
+  private SpssValueColumn getColumn() {
+    SoftReference<SpssValueColumn> reference = columnReference;
+    SpssValueColumn column = reference == null ? null : reference.get();
+    if(column == null) {
+      synchronized(this) {
+        reference = columnReference;
+        column = reference == null ? null : reference.get();
+        if(column == null) {
+          column = SpssValueColumn.decode(spssVariable, variable.getValueType());
+          columnReference = new SoftReference<>(column);
+        }
+      }
+    }
+    return column;
+  }
+
   //
   // Inner classes
   //
@@ -91,6 +118,8 @@ public class SpssVariableValueSource extends AbstractVariableValueSource impleme
 
     private final Iterator<VariableEntity> entitiesIterator;
 
+    private SpssValueColumn column;
+
     private ValuesIterator(Collection<VariableEntity> entities) {
       entitiesIterator = entities.iterator();
     }
@@ -108,8 +137,9 @@ public class SpssVariableValueSource extends AbstractVariableValueSource impleme
 
       VariableEntity variableEntity = entitiesIterator.next();
       int variableIndex = identifierToVariableIndex.get(variableEntity.getIdentifier());
-      return new SpssVariableValueFactory(variableIndex, spssVariable, variable.getValueType())
-          .create();
+      // hold a strong reference to the column while iterating
+      if(column == null) column = getColumn();
+      return column.getValue(variableIndex);
     }
 
     @Override
@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2013 OBiBa. All rights reserved.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the GNU Public License v3.0.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.obiba.magma.datasource.spss.support;
+
+import java.util.BitSet;
+
+import javax.validation.constraints.NotNull;
+
+import org.obiba.magma.Value;
+import org.obiba.magma.ValueType;
+import org.obiba.magma.type.DecimalType;
+import org.obiba.magma.type.IntegerType;
+import org.opendatafoundation.data.spss.SPSSVariable;
+
+/**
+ * The decoded values of all the observations of a SPSS variable. Columns are decoded in a single pass over the case
+ * data; integer and decimal values are kept in primitive arrays and {@link Value}s are only created when requested.
+ */
+public abstract class SpssValueColumn {
+
+  @NotNull
+  protected final ValueType valueType;
+
+  protected SpssValueColumn(@NotNull ValueType valueType) {
+    this.valueType = valueType;
+  }
+
+  /**
+   * Decodes the values of all the observations of the variable. The case data of the SPSS file must be loaded.
+   */
+  @NotNull
+  public static SpssValueColumn decode(@NotNull SPSSVariable spssVariable, @NotNull ValueType valueType) {
+    int size = spssVariable.getNumberOfObservations();
+    SpssValueColumn column;
+    if(valueType == IntegerType.get()) {
+      column = new IntegerColumn(size);
+    } else if(valueType == DecimalType.get()) {
+      column = new DecimalColumn(size);
+    } else {
+      column = new ObjectColumn(valueType, size);
+    }
+    SpssVariableValueFactory factory = new SpssVariableValueFactory(spssVariable, valueType, false);
+    for(int observation = 1; observation <= size; observation++) {
+      Value value = factory.create(observation);
+      if(!value.isNull()) column.set(observation - 1, value.getValue());
+    }
+    return column;
+  }
+
+  /**
+   * Returns the value of the given observation (1-based).
+   */
+  @NotNull
+  public Value getValue(int observation) {
+    int index = observation - 1;
+    return isNull(index) ? valueType.nullValue() : valueType.valueOf(get(index));
+  }
+
+  protected abstract void set(int index, Object value);
+
+  protected abstract Object get(int index);
+
+  protected abstract boolean isNull(int index);
+
+  //
+  // Inner classes
+  //
+
+  private static class IntegerColumn extends SpssValueColumn {
+
+    private final long[] values;
+
+    private final BitSet present;
+
+    private IntegerColumn(int size) {
+      super(IntegerType.get());
+      values = new long[size];
+      present = new BitSet(size);
+    }
+
+    @Override
+    protected void set(int index, Object value) {
+      values[index] = ((Number) value).longValue();
+      present.set(index);
+    }
+
+    @Override
+    protected Object get(int index) {
+      return values[index];
+    }
+
+    @Override
+    protected boolean isNull(int index) {
+      return !present.get(index);
+    }
+  }
+
+  private static class DecimalColumn extends SpssValueColumn {
+
+    private final double[] values;
+
+    private final BitSet present;
+
+    private DecimalColumn(int size) {
+      super(DecimalType.get());
+      values = new double[size];
+      present = new BitSet(size);
+    }
+
+    @Override
+    protected void set(int index, Object value) {
+      values[index] = ((Number) value).doubleValue();
+      present.set(index);
+    }
+
+    @Override
+    protected Object get(int index) {
+      return values[index];
+    }
+
+    @Override
+    protected boolean isNull(int index) {
+      return !present.get(index);
+    }
+  }
+
+  private static class ObjectColumn extends SpssValueColumn {
+
+    private final Object[] values;
+
+    private ObjectColumn(ValueType valueType, int size) {
+      super(valueType);
+      values = new Object[size];
+    }
+
+    @Override
+    protected void set(int index, Object value) {
+      values[index] = value;
+    }
+
+    @Override
+    protected Object get(int index) {
+      return values[index];
+    }
+
+    @Override
+    protected boolean isNull(int index) {
+      return values[index] == null;
+    }
+  }
+}
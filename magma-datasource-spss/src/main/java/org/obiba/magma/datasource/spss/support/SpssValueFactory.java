@@ -39,7 +39,10 @@ public abstract class SpssValueFactory {
   public abstract Value create();
 
   protected Value createValue() throws SpssInvalidCharacterException {
-    String value = getValue();
+    return createValue(getValue());
+  }
+
+  protected Value createValue(String value) throws SpssInvalidCharacterException {
     if (withValidation) {
       validate(value);
     }
@@ -18,6 +18,8 @@ import org.opendatafoundation.data.spss.SPSSVariable;
 
 public class SpssVariableValueFactory extends SpssValueFactory {
 
+  private final FileFormatInfo fileFormatInfo = new FileFormatInfo(FileFormatInfo.Format.ASCII);
+
   public SpssVariableValueFactory(int variableIndex, SPSSVariable spssVariable, ValueType valueType) {
     this(variableIndex, spssVariable, valueType, false);
   }
@@ -26,30 +28,48 @@ public class SpssVariableValueFactory extends SpssValueFactory {
     super(variableIndex, spssVariable, valueType, withValidation);
   }
 
+  /**
+   * Factory meant to be reused for all observations of the variable, see {@link #create(int)}.
+   */
+  public SpssVariableValueFactory(SPSSVariable spssVariable, ValueType valueType, boolean withValidation) {
+    this(0, spssVariable, valueType, withValidation);
+  }
+
   @Override
   public Value create() {
+    return create(variableIndex);
+  }
+
+  /**
+   * Creates the value of the given observation (1-based).
+   */
+  public Value create(int observation) {
     try {
-      return createValue();
+      return createValue(getValue(observation));
     } catch(SpssInvalidCharacterException e) {
       String variableName = spssVariable.getName();
       throw new SpssDatasourceParsingException("Invalid characters in variable value.", "InvalidCharsetCharacter",
-          variableIndex, e.getSource()).dataInfo(variableName, variableIndex).extraInfo(e);
+          observation, e.getSource()).dataInfo(variableName, observation).extraInfo(e);
     } catch(MagmaRuntimeException e) {
       String variableName = spssVariable.getName();
       throw new SpssDatasourceParsingException("Failed to create variable value", "SpssFailedToCreateVariable",
-          variableName, variableIndex).dataInfo(variableName, variableIndex).extraInfo(e.getMessage());
+          variableName, observation).dataInfo(variableName, observation).extraInfo(e.getMessage());
     }
   }
 
   @Override
   protected String getValue() {
+    return getValue(variableIndex);
+  }
+
+  private String getValue(int observation) {
     try {
-      String value = spssVariable.getValueAsString(variableIndex, new FileFormatInfo(FileFormatInfo.Format.ASCII));
+      String value = spssVariable.getValueAsString(observation, fileFormatInfo);
       return SpssVariableValueConverter.convert(spssVariable, value);
     } catch(SPSSFileException | SpssValueConversionException e) {
       String variableName = spssVariable.getName();
       throw new SpssDatasourceParsingException("Failed to retieve variable value.", "SpssFailedToCreateVariable",
-          variableName, variableIndex).dataInfo(variableName, variableIndex).extraInfo(e.getMessage());
+          variableName, observation).dataInfo(variableName, observation).extraInfo(e.getMessage());
     }
   }
 }
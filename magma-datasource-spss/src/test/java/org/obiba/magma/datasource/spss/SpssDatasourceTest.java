@@ -17,6 +17,8 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
 
 import org.junit.After;
 import org.junit.Before;
@@ -29,6 +31,7 @@ import org.obiba.magma.Value;
 import org.obiba.magma.ValueTable;
 import org.obiba.magma.Variable;
 import org.obiba.magma.VariableEntity;
+import org.obiba.magma.VariableValueSource;
 import org.obiba.magma.datasource.spss.support.SpssDatasourceFactory;
 import org.obiba.magma.datasource.spss.support.SpssDatasourceParsingException;
 import org.obiba.magma.support.DatasourceParsingException;
@@ -203,6 +206,27 @@ public class SpssDatasourceTest {
     }
   }
 
+  @Test
+  public void testVectorValuesMatchValueSetValues() throws Exception {
+    dsFactory.setFile(getResourceFile("org/obiba/magma/datasource/spss/DatabaseTest.sav"));
+    Datasource ds = dsFactory.create();
+    ds.initialise();
+
+    ValueTable valueTable = ds.getValueTable("DatabaseTest");
+    SortedSet<VariableEntity> entities = new TreeSet<>(valueTable.getVariableEntities());
+    for(Variable variable : valueTable.getVariables()) {
+      VariableValueSource source = valueTable.getVariableValueSource(variable.getName());
+      assertThat(source.supportVectorSource()).isTrue();
+      Iterator<Value> values = source.asVectorSource().getValues(entities).iterator();
+      for(VariableEntity entity : entities) {
+        Value value = values.next();
+        assertThat(value.getValueType()).isEqualTo(variable.getValueType());
+        assertThat(value).isEqualTo(valueTable.getValue(variable, valueTable.getValueSet(entity)));
+      }
+      assertThat(values.hasNext()).isFalse();
+    }
+  }
+
 //  TODO comment out until we find a large file.
 //  @Test
 //  public void testGetValueSetForGivenEntityLargeDatasource() throws Exception {
@@ -1,5 +1,7 @@
 package org.obiba.magma.filter;
 
+import javax.annotation.Nullable;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -27,32 +29,46 @@ public abstract class AbstractFilter<T> implements Filter<T> {
 
   @Override
   public StateEnvelope<T> doIt(StateEnvelope<T> stateEnvelope) {
-    if(type == null) type = Type.EXCLUDE;
-    if(isExclude() && stateEnvelope.isState(FilterState.OUT)) {
+    if(!isToBeRun(stateEnvelope.getState())) {
       return stateEnvelope;
     }
-    if(isInclude() && stateEnvelope.isState(FilterState.IN)) {
-      return stateEnvelope;
-    }
-    return updateStateEnvelope(stateEnvelope);
+    stateEnvelope.setState(getResultingState(stateEnvelope.getState(), runFilter(stateEnvelope.getItem())));
+    return stateEnvelope;
   }
 
-  private StateEnvelope<T> updateStateEnvelope(StateEnvelope<T> stateEnvelope) {
-    Boolean result = runFilter(stateEnvelope.getItem());
+  /**
+   * Returns true if running this filter can change the given state.
+   *
+   * @param state
+   * @return
+   */
+  protected boolean isToBeRun(FilterState state) {
+    if(type == null) type = Type.EXCLUDE;
+    return !(isExclude() && state == FilterState.OUT) && !(isInclude() && state == FilterState.IN);
+  }
 
+  /**
+   * Returns the state of an item once this filter has run on it.
+   *
+   * @param state the state of the item before running this filter
+   * @param result the result of this filter on the item
+   * @return
+   */
+  protected FilterState getResultingState(FilterState state, @Nullable Boolean result) {
     if(result == null) {
       log.error("The filter [{}] returned a null value. This filter is being ignored.", this);
-      return stateEnvelope;
+      return state;
     }
 
     if(result) {
       if(isExclude()) {
-        stateEnvelope.setState(FilterState.OUT);
-      } else if(isInclude()) {
-        stateEnvelope.setState(FilterState.IN);
+        return FilterState.OUT;
+      }
+      if(isInclude()) {
+        return FilterState.IN;
       }
     }
-    return stateEnvelope;
+    return state;
   }
 
   protected void setType(Type type) {
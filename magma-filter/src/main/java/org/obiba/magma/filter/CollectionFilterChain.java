@@ -39,7 +39,7 @@ public class CollectionFilterChain<T> implements FilterChain<T> {
     return null;
   }
 
-  private List<Filter<T>> getFilters() {
+  List<Filter<T>> getFilters() {
     return filters;
   }
 
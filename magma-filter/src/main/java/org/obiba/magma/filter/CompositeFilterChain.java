@@ -52,6 +52,10 @@ public class CompositeFilterChain<T> implements FilterChain<T> {
   // Methods
   //
 
+  List<FilterChain<T>> getFilterChains() {
+    return filterChains;
+  }
+
   public void addFilterChain(FilterChain<T> filterChain) {
     if(!filterChain.getEntityType().equals(getEntityType())) {
       throw new IllegalArgumentException("filter chain does not have the expected entity type");
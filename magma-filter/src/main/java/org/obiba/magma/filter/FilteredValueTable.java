@@ -1,6 +1,18 @@
 package org.obiba.magma.filter;
 
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nullable;
+
 import org.obiba.magma.NoSuchValueSetException;
+import org.obiba.magma.Value;
 import org.obiba.magma.ValueSet;
 import org.obiba.magma.ValueTable;
 import org.obiba.magma.Variable;
@@ -8,21 +20,61 @@ import org.obiba.magma.VariableEntity;
 import org.obiba.magma.support.AbstractValueTableWrapper;
 
 import com.google.common.base.Predicate;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.ImmutableSortedSet;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Sets;
 
+/**
+ * A table that only exposes the variables and the value sets that pass the filter chains.
+ * <p/>
+ * The entity filter chain is applied to blocks of entities (see {@link VectorFilter}). The resulting entities are kept
+ * until the last update of the wrapped table changes, which is read at most once per {@code timestampsCheckInterval}
+ * milliseconds. When the wrapped table has no last update, the value sets are filtered one at a time, as they are
+ * read.
+ */
 public class FilteredValueTable extends AbstractValueTableWrapper {
 
+  /**
+   * Number of entities filtered at once.
+   */
+  private static final int BLOCK_SIZE = 1000;
+
+  public static final long DEFAULT_TIMESTAMPS_CHECK_INTERVAL = TimeUnit.SECONDS.toMillis(1);
+
   private final FilterChain<ValueSet> entityFilterChain;
 
   private final FilterChain<Variable> variableFilterChain;
 
   private final ValueTable valueTable;
 
+  private final long timestampsCheckInterval;
+
+  @Nullable
+  private volatile LastUpdate lastUpdate;
+
+  @Nullable
+  private volatile FilteredEntities filteredEntities;
+
   public FilteredValueTable(ValueTable valueTable, FilterChain<Variable> variableFilterChain,
       FilterChain<ValueSet> entityFilterChain) {
+    this(valueTable, variableFilterChain, entityFilterChain, DEFAULT_TIMESTAMPS_CHECK_INTERVAL);
+  }
+
+  /**
+   * @param valueTable
+   * @param variableFilterChain
+   * @param entityFilterChain
+   * @param timestampsCheckInterval time in milliseconds during which the last update of the wrapped table is not read
+   * again
+   */
+  public FilteredValueTable(ValueTable valueTable, FilterChain<Variable> variableFilterChain,
+      FilterChain<ValueSet> entityFilterChain, long timestampsCheckInterval) {
+    if(timestampsCheckInterval < 0) throw new IllegalArgumentException("timestampsCheckInterval cannot be negative");
     this.valueTable = valueTable;
     this.entityFilterChain = entityFilterChain;
     this.variableFilterChain = variableFilterChain;
+    this.timestampsCheckInterval = timestampsCheckInterval;
   }
 
   @Override
@@ -32,13 +84,21 @@ public class FilteredValueTable extends AbstractValueTableWrapper {
 
   @Override
   public boolean hasValueSet(VariableEntity entity) {
-    return entityFilterChain.filter(getWrappedValueTable().getValueSet(entity)) != null;
+    FilteredEntities entities = getCachedFilteredEntities();
+    return entities == null
+        ? getWrappedValueTable().hasValueSet(entity) &&
+            entityFilterChain.filter(getWrappedValueTable().getValueSet(entity)) != null
+        : entities.contains(entity);
   }
 
   @Override
   public ValueSet getValueSet(VariableEntity entity) throws NoSuchValueSetException {
+    FilteredEntities entities = getCachedFilteredEntities();
+    if(entities != null && !entities.contains(entity)) {
+      throw new NoSuchValueSetException(this, entity);
+    }
     ValueSet valueSet = super.getValueSet(entity);
-    if(entityFilterChain.filter(valueSet) == null) {
+    if(entities == null && entityFilterChain.filter(valueSet) == null) {
       throw new NoSuchValueSetException(this, entity);
     }
     return valueSet;
@@ -46,14 +106,39 @@ public class FilteredValueTable extends AbstractValueTableWrapper {
 
   @Override
   public Iterable<ValueSet> getValueSets() {
+    final FilteredEntities entities = getCachedFilteredEntities();
     return Iterables.filter(getWrappedValueTable().getValueSets(), new Predicate<ValueSet>() {
       @Override
       public boolean apply(ValueSet input) {
-        return entityFilterChain.filter(input) != null;
+        return entities == null
+            ? entityFilterChain.filter(input) != null
+            : entities.contains(input.getVariableEntity());
       }
     });
   }
 
+  @Override
+  public Set<VariableEntity> getVariableEntities() {
+    FilteredEntities entities = getCachedFilteredEntities();
+    if(entities != null) return entities;
+    return Sets.filter(getWrappedValueTable().getVariableEntities(), new Predicate<VariableEntity>() {
+      @Override
+      public boolean apply(VariableEntity input) {
+        return entityFilterChain.filter(getWrappedValueTable().getValueSet(input)) != null;
+      }
+    });
+  }
+
+  @Override
+  public int getVariableEntityCount() {
+    return getVariableEntities().size();
+  }
+
+  @Override
+  public int getValueSetCount() {
+    return getVariableEntities().size();
+  }
+
   @Override
   public Iterable<Variable> getVariables() {
     return Iterables.filter(getWrappedValueTable().getVariables(), new Predicate<Variable>() {
@@ -64,4 +149,102 @@ public class FilteredValueTable extends AbstractValueTableWrapper {
     });
   }
 
+  /**
+   * Returns the filtered entities for the current last update of the wrapped table, null if the wrapped table has no
+   * last update.
+   *
+   * @return
+   */
+  @Nullable
+  private FilteredEntities getCachedFilteredEntities() {
+    Value updated = getLastUpdate();
+    if(updated.isNull()) return null;
+    FilteredEntities entities = filteredEntities;
+    if(entities == null || !updated.equals(entities.lastUpdate)) {
+      entities = new FilteredEntities(updated);
+      filteredEntities = entities;
+    }
+    return entities;
+  }
+
+  private Value getLastUpdate() {
+    long now = System.currentTimeMillis();
+    LastUpdate current = lastUpdate;
+    if(current == null || now - current.checkedAt >= timestampsCheckInterval) {
+      current = new LastUpdate(getWrappedValueTable().getTimestamps().getLastUpdate(), now);
+      lastUpdate = current;
+    }
+    return current.value;
+  }
+
+  private static class LastUpdate {
+
+    private final Value value;
+
+    private final long checkedAt;
+
+    private LastUpdate(Value value, long checkedAt) {
+      this.value = value;
+      this.checkedAt = checkedAt;
+    }
+  }
+
+  /**
+   * The entities of the wrapped table (sorted) and a bitmap of the ones that pass the entity filter chain.
+   */
+  private class FilteredEntities extends AbstractSet<VariableEntity> {
+
+    private final Value lastUpdate;
+
+    private final VariableEntity[] entities;
+
+    private final BitSet in = new BitSet();
+
+    private final int size;
+
+    private FilteredEntities(Value lastUpdate) {
+      this.lastUpdate = lastUpdate;
+      SortedSet<VariableEntity> sorted = ImmutableSortedSet.copyOf(getWrappedValueTable().getVariableEntities());
+      entities = sorted.toArray(new VariableEntity[sorted.size()]);
+      int offset = 0;
+      for(List<VariableEntity> block : Iterables.partition(sorted, BLOCK_SIZE)) {
+        BitSet blockIn = ValueSetFilterChains
+            .filter(entityFilterChain, getWrappedValueTable(), ImmutableSortedSet.copyOf(block));
+        for(int i = blockIn.nextSetBit(0); i >= 0; i = blockIn.nextSetBit(i + 1)) {
+          in.set(offset + i);
+        }
+        offset += block.size();
+      }
+      size = in.cardinality();
+    }
+
+    @Override
+    public boolean contains(Object o) {
+      if(!(o instanceof VariableEntity)) return false;
+      int index = Arrays.binarySearch(entities, o);
+      return index >= 0 && in.get(index);
+    }
+
+    @Override
+    public Iterator<VariableEntity> iterator() {
+      return new AbstractIterator<VariableEntity>() {
+
+        private int index = in.nextSetBit(0);
+
+        @Override
+        protected VariableEntity computeNext() {
+          if(index < 0) return endOfData();
+          VariableEntity entity = entities[index];
+          index = in.nextSetBit(index + 1);
+          return entity;
+        }
+      };
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+  }
+
 }
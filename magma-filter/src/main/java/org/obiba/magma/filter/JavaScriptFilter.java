@@ -1,18 +1,46 @@
 package org.obiba.magma.filter;
 
+import java.util.Iterator;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+import javax.annotation.Nullable;
 import javax.validation.constraints.NotNull;
 
 import org.obiba.magma.Initialisable;
+import org.obiba.magma.MagmaRuntimeException;
 import org.obiba.magma.Value;
 import org.obiba.magma.ValueSet;
+import org.obiba.magma.ValueTable;
+import org.obiba.magma.Variable;
+import org.obiba.magma.VariableEntity;
+import org.obiba.magma.VectorSourceNotSupportedException;
 import org.obiba.magma.js.JavascriptValueSource;
+import org.obiba.magma.js.JavascriptVariableBuilder;
+import org.obiba.magma.js.JavascriptVariableValueSource;
 import org.obiba.magma.type.BooleanType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Predicates;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
 
 import com.thoughtworks.xstream.annotations.XStreamAlias;
 import com.thoughtworks.xstream.annotations.XStreamOmitField;
 
 @XStreamAlias("script")
-public class JavaScriptFilter extends AbstractFilter<ValueSet> implements Initialisable {
+public class JavaScriptFilter extends AbstractFilter<ValueSet> implements VectorFilter, Initialisable {
+
+  private static final Logger log = LoggerFactory.getLogger(JavaScriptFilter.class);
 
   private static final String SCRIPT_NAME = "JAVASCRIPT_FILTER_SCRIPT";
 
@@ -24,6 +52,13 @@ public class JavaScriptFilter extends AbstractFilter<ValueSet> implements Initia
   @XStreamOmitField
   private boolean initialised;
 
+  /**
+   * The script as a variable of each filtered table, for vector evaluations. Absent when the script cannot be evaluated
+   * on vectors of the table.
+   */
+  @XStreamOmitField
+  private Cache<ValueTable, Optional<JavascriptVariableValueSource>> vectorSources;
+
   JavaScriptFilter(@NotNull String javascript) {
     //noinspection ConstantConditions
     if(javascript == null) throw new IllegalArgumentException("The argument [javascript] cannot be null.");
@@ -37,6 +72,7 @@ public class JavaScriptFilter extends AbstractFilter<ValueSet> implements Initia
     javascriptSource = new JavascriptValueSource(BooleanType.get(), javascript);
     javascriptSource.setScriptName(SCRIPT_NAME);
     javascriptSource.initialise();
+    vectorSources = CacheBuilder.newBuilder().weakKeys().build();
     initialised = true;
   }
 
@@ -45,7 +81,75 @@ public class JavaScriptFilter extends AbstractFilter<ValueSet> implements Initia
   @Override
   protected Boolean runFilter(ValueSet item) {
     initialise();
-    Value value = javascriptSource.getValue(item);
+    return asBoolean(javascriptSource.getValue(item));
+  }
+
+  /**
+   * Evaluates the script on the vectors of the variables it refers to, when these variables support it, rather than on
+   * each value set.
+   */
+  @Override
+  public void doIt(ValueTable table, SortedSet<VariableEntity> entities, FilterState... states) {
+    SortedSet<VariableEntity> toBeRun = Sets.newTreeSet();
+    int i = 0;
+    for(VariableEntity entity : entities) {
+      if(isToBeRun(states[i++])) toBeRun.add(entity);
+    }
+    if(toBeRun.isEmpty()) return;
+
+    Iterator<Value> values = getValues(table, toBeRun).iterator();
+    i = 0;
+    for(VariableEntity entity : entities) {
+      if(isToBeRun(states[i])) {
+        states[i] = getResultingState(states[i], asBoolean(values.next()));
+      }
+      i++;
+    }
+  }
+
+  private List<Value> getValues(ValueTable table, SortedSet<VariableEntity> entities) {
+    JavascriptVariableValueSource source = getVectorSource(table);
+    if(source != null) {
+      try {
+        return ImmutableList.copyOf(source.getValues(entities));
+      } catch(RuntimeException e) {
+        // the script engine wraps the exceptions raised while evaluating the script
+        if(!Iterables
+            .any(Throwables.getCausalChain(e), Predicates.instanceOf(VectorSourceNotSupportedException.class))) {
+          throw e;
+        }
+        log.debug("Cannot evaluate {} on vectors of table {}: {}", this, table.getName(), e.getMessage());
+        vectorSources.put(table, Optional.<JavascriptVariableValueSource>absent());
+      }
+    }
+    List<Value> values = Lists.newArrayListWithCapacity(entities.size());
+    for(VariableEntity entity : entities) {
+      values.add(javascriptSource.getValue(table.getValueSet(entity)));
+    }
+    return values;
+  }
+
+  @Nullable
+  private JavascriptVariableValueSource getVectorSource(final ValueTable table) {
+    initialise();
+    try {
+      return vectorSources.get(table, new Callable<Optional<JavascriptVariableValueSource>>() {
+        @Override
+        public Optional<JavascriptVariableValueSource> call() throws Exception {
+          Variable variable = Variable.Builder.newVariable(SCRIPT_NAME, BooleanType.get(), table.getEntityType())
+              .addAttribute(JavascriptVariableBuilder.SCRIPT_ATTRIBUTE_NAME, javascript).build();
+          JavascriptVariableValueSource source = new JavascriptVariableValueSource(variable, table);
+          source.initialise();
+          return Optional.of(source);
+        }
+      }).orNull();
+    } catch(ExecutionException e) {
+      throw new MagmaRuntimeException(e.getCause());
+    }
+  }
+
+  @Nullable
+  private Boolean asBoolean(Value value) {
     // JavaScript can return null.
     return value.isNull() || value.equals(BooleanType.get().nullValue()) //
         ? null  //
@@ -0,0 +1,94 @@
+package org.obiba.magma.filter;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.SortedSet;
+
+import org.obiba.magma.ValueSet;
+import org.obiba.magma.ValueTable;
+import org.obiba.magma.VariableEntity;
+
+import com.google.common.collect.Sets;
+
+/**
+ * Applies {@code ValueSet} filter chains to blocks of entities. The filters that are {@link VectorFilter}s are applied
+ * to the whole block at once, the other ones to the value set of each entity still to be filtered.
+ */
+final class ValueSetFilterChains {
+
+  private ValueSetFilterChains() {}
+
+  /**
+   * Applies the filter chain to the value sets of the entities of a table.
+   *
+   * @param chain
+   * @param table
+   * @param entities
+   * @return the positions, in the order of the entities, of the entities that are in the result set
+   */
+  static BitSet filter(FilterChain<ValueSet> chain, ValueTable table, SortedSet<VariableEntity> entities) {
+    if(chain instanceof CollectionFilterChain) {
+      return filter((CollectionFilterChain<ValueSet>) chain, table, entities);
+    }
+    if(chain instanceof CompositeFilterChain) {
+      return filter((CompositeFilterChain<ValueSet>) chain, table, entities);
+    }
+    BitSet in = new BitSet(entities.size());
+    int i = 0;
+    for(VariableEntity entity : entities) {
+      if(chain.filter(table.getValueSet(entity)) != null) in.set(i);
+      i++;
+    }
+    return in;
+  }
+
+  private static BitSet filter(CollectionFilterChain<ValueSet> chain, ValueTable table,
+      SortedSet<VariableEntity> entities) {
+    FilterState[] states = new FilterState[entities.size()];
+    Arrays.fill(states, FilterState.IN);
+    List<Filter<ValueSet>> filters = chain.getFilters();
+    if(filters != null) {
+      ValueSet[] valueSets = new ValueSet[states.length];
+      for(Filter<ValueSet> filter : filters) {
+        if(filter instanceof VectorFilter) {
+          ((VectorFilter) filter).doIt(table, entities, states);
+        } else {
+          int i = 0;
+          for(VariableEntity entity : entities) {
+            if(valueSets[i] == null) valueSets[i] = table.getValueSet(entity);
+            StateEnvelope<ValueSet> envelope = new StateEnvelope<>(valueSets[i]);
+            envelope.setState(states[i]);
+            states[i++] = filter.doIt(envelope).getState();
+          }
+        }
+      }
+    }
+    BitSet in = new BitSet(states.length);
+    for(int i = 0; i < states.length; i++) {
+      if(states[i] == FilterState.IN) in.set(i);
+    }
+    return in;
+  }
+
+  private static BitSet filter(CompositeFilterChain<ValueSet> chain, ValueTable table,
+      SortedSet<VariableEntity> entities) {
+    BitSet in = new BitSet(entities.size());
+    in.set(0, entities.size());
+    for(FilterChain<ValueSet> filterChain : chain.getFilterChains()) {
+      if(in.isEmpty()) break;
+      // apply the next chain to the entities that are still in only
+      SortedSet<VariableEntity> remaining = Sets.newTreeSet();
+      int i = 0;
+      for(VariableEntity entity : entities) {
+        if(in.get(i++)) remaining.add(entity);
+      }
+      BitSet remainingIn = filter(filterChain, table, remaining);
+      int j = 0;
+      for(i = in.nextSetBit(0); i >= 0; i = in.nextSetBit(i + 1)) {
+        if(!remainingIn.get(j++)) in.clear(i);
+      }
+    }
+    return in;
+  }
+}
@@ -0,0 +1,23 @@
+package org.obiba.magma.filter;
+
+import java.util.SortedSet;
+
+import org.obiba.magma.ValueTable;
+import org.obiba.magma.VariableEntity;
+
+/**
+ * A {@code ValueSet} {@link Filter} that can be applied to the value sets of many entities at once, typically by reading
+ * vectors of values rather than value sets.
+ */
+public interface VectorFilter {
+
+  /**
+   * Applies this filter to the value sets of the entities of a table and updates their state.
+   *
+   * @param table the table of the value sets
+   * @param entities the entities to filter
+   * @param states the state of each entity, in the order of the entities
+   */
+  void doIt(ValueTable table, SortedSet<VariableEntity> entities, FilterState... states);
+
+}
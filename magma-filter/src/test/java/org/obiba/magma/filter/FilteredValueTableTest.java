@@ -0,0 +1,243 @@
+package org.obiba.magma.filter;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+
+import javax.validation.constraints.NotNull;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.obiba.magma.Datasource;
+import org.obiba.magma.MagmaEngine;
+import org.obiba.magma.NoSuchValueSetException;
+import org.obiba.magma.NoSuchVariableException;
+import org.obiba.magma.Timestamps;
+import org.obiba.magma.Value;
+import org.obiba.magma.ValueSet;
+import org.obiba.magma.Variable;
+import org.obiba.magma.VariableEntity;
+import org.obiba.magma.VariableValueSource;
+import org.obiba.magma.VectorSource;
+import org.obiba.magma.js.MagmaJsExtension;
+import org.obiba.magma.support.AbstractVariableValueSourceWrapper;
+import org.obiba.magma.support.StaticValueTable;
+import org.obiba.magma.support.VariableEntityBean;
+import org.obiba.magma.type.DateTimeType;
+import org.obiba.magma.type.IntegerType;
+
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+
+public class FilteredValueTableTest {
+
+  @Before
+  public void setUp() throws Exception {
+    new MagmaEngine().extend(new MagmaJsExtension());
+  }
+
+  @After
+  public void cleanUp() throws Exception {
+    MagmaEngine.get().shutdown();
+  }
+
+  @Test
+  public void test_entities_filtered_on_value_sets() {
+    StaticValueTable table = newTable(new StaticValueTable(mock(Datasource.class), "table", entities(3)), 3);
+    FilteredValueTable filtered = new FilteredValueTable(table, new CollectionFilterChain<Variable>("Participant"),
+        newEntityFilterChain("$('AGE').gt(0)"));
+
+    assertThat(filtered.getVariableEntities()).containsOnly(entity(0));
+    assertThat(filtered.getVariableEntityCount()).isEqualTo(1);
+    assertThat(filtered.hasValueSet(entity(0))).isTrue();
+    assertThat(filtered.hasValueSet(entity(1))).isFalse();
+    assertThat(Iterables.getOnlyElement(filtered.getValueSets()).getVariableEntity()).isEqualTo(entity(0));
+    try {
+      filtered.getValueSet(entity(2));
+      fail("NoSuchValueSetException expected");
+    } catch(NoSuchValueSetException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void test_entities_filtered_on_vectors() {
+    VectorTable table = newTable(new VectorTable(entities(2500)), 2500);
+    FilteredValueTable filtered = new FilteredValueTable(table, new CollectionFilterChain<Variable>("Participant"),
+        newEntityFilterChain("$('AGE').ge(50)"), 0);
+
+    assertThat(filtered.getVariableEntities()).hasSize(1250);
+    assertThat(filtered.hasValueSet(entity(49))).isTrue();
+    assertThat(filtered.hasValueSet(entity(50))).isFalse();
+    assertThat(filtered.hasValueSet(entity(2449))).isTrue();
+    assertThat(Iterables.size(filtered.getValueSets())).isEqualTo(1250);
+    assertThat(table.vectorReads).isEqualTo(3);
+    assertThat(table.valueSetReads).isEqualTo(0);
+
+    // entities are filtered again once the table is updated
+    table.addValues("0049", "AGE", 99);
+    table.lastUpdate = DateTimeType.get().valueOf(new Date(1));
+    assertThat(filtered.hasValueSet(entity(49))).isFalse();
+    assertThat(filtered.getVariableEntities()).hasSize(1249);
+    assertThat(table.vectorReads).isEqualTo(6);
+  }
+
+  @Test
+  public void test_last_update_read_once_per_interval() {
+    VectorTable table = newTable(new VectorTable(entities(200)), 200);
+    FilteredValueTable filtered = new FilteredValueTable(table, new CollectionFilterChain<Variable>("Participant"),
+        newEntityFilterChain("$('AGE').ge(50)"), 60000);
+
+    assertThat(filtered.hasValueSet(entity(0))).isTrue();
+    // the entities are filtered once, the last update is not read again
+    int timestampsReads = table.timestampsReads;
+    for(int i = 0; i < 200; i++) {
+      assertThat(filtered.hasValueSet(entity(i))).isEqualTo(i % 100 < 50);
+    }
+    assertThat(filtered.getVariableEntityCount()).isEqualTo(100);
+    assertThat(table.timestampsReads).isEqualTo(timestampsReads);
+  }
+
+  @Test
+  public void test_value_sets_filtered_once_without_last_update() {
+    VectorTable table = newTable(new VectorTable(entities(200)), 200);
+    table.lastUpdate = DateTimeType.get().nullValue();
+    FilteredValueTable filtered = new FilteredValueTable(table, new CollectionFilterChain<Variable>("Participant"),
+        newEntityFilterChain("$('AGE').ge(50)"));
+
+    assertThat(Iterables.size(filtered.getValueSets())).isEqualTo(100);
+    assertThat(table.valueSetReads).isEqualTo(200);
+    assertThat(table.vectorReads).isEqualTo(0);
+
+    assertThat(filtered.getVariableEntities()).hasSize(100);
+    assertThat(filtered.getVariableEntities().contains(entity(10))).isTrue();
+    assertThat(filtered.getVariableEntities().contains(entity(60))).isFalse();
+  }
+
+  @Test
+  public void test_composite_filter_chain() {
+    VectorTable table = newTable(new VectorTable(entities(200)), 200);
+    CompositeFilterChain<ValueSet> chain = new CompositeFilterChain<>("Participant");
+    chain.addFilterChain(newEntityFilterChain("$('AGE').ge(50)"));
+    chain.addFilterChain(newEntityFilterChain("$('AGE').lt(10)"));
+    FilteredValueTable filtered = new FilteredValueTable(table, new CollectionFilterChain<Variable>("Participant"),
+        chain);
+
+    assertThat(filtered.getVariableEntities()).hasSize(80);
+    assertThat(filtered.hasValueSet(entity(9))).isFalse();
+    assertThat(filtered.hasValueSet(entity(10))).isTrue();
+    assertThat(filtered.hasValueSet(entity(150))).isFalse();
+  }
+
+  private static FilterChain<ValueSet> newEntityFilterChain(String script) {
+    CollectionFilterChain<ValueSet> chain = new CollectionFilterChain<>("Participant");
+    chain.addFilter(JavaScriptFilter.Builder.newFilter().javascript(script).exclude().build());
+    return chain;
+  }
+
+  private static <T extends StaticValueTable> T newTable(T table, int size) {
+    table.addVariables(IntegerType.get(), "AGE");
+    for(int i = 0; i < size; i++) {
+      table.addValues(entity(i).getIdentifier(), "AGE", i % 100);
+    }
+    return table;
+  }
+
+  private static List<String> entities(int size) {
+    List<String> entities = Lists.newArrayList();
+    for(int i = 0; i < size; i++) {
+      entities.add(entity(i).getIdentifier());
+    }
+    return entities;
+  }
+
+  private static VariableEntity entity(int i) {
+    return new VariableEntityBean("Participant", String.format("%04d", i));
+  }
+
+  private static class VectorTable extends StaticValueTable {
+
+    private Value lastUpdate = DateTimeType.get().valueOf(new Date(0));
+
+    private int vectorReads;
+
+    private int valueSetReads;
+
+    private int timestampsReads;
+
+    private VectorTable(List<String> entities) {
+      super(mock(Datasource.class), "table", entities);
+    }
+
+    @NotNull
+    @Override
+    public Timestamps getTimestamps() {
+      timestampsReads++;
+      return new Timestamps() {
+        @NotNull
+        @Override
+        public Value getLastUpdate() {
+          return lastUpdate;
+        }
+
+        @NotNull
+        @Override
+        public Value getCreated() {
+          return lastUpdate;
+        }
+      };
+    }
+
+    private final Map<String, VariableValueSource> sources = Maps.newHashMap();
+
+    @Override
+    public VariableValueSource getVariableValueSource(String name) throws NoSuchVariableException {
+      if(!sources.containsKey(name)) {
+        sources.put(name, new VectorVariableValueSource(super.getVariableValueSource(name)));
+      }
+      return sources.get(name);
+    }
+
+    private class VectorVariableValueSource extends AbstractVariableValueSourceWrapper implements VectorSource {
+
+      private VectorVariableValueSource(VariableValueSource wrapped) {
+        super(wrapped);
+      }
+
+      @NotNull
+      @Override
+      public Value getValue(ValueSet valueSet) {
+        valueSetReads++;
+        return super.getValue(valueSet);
+      }
+
+      @Override
+      public boolean supportVectorSource() {
+        return true;
+      }
+
+      @NotNull
+      @Override
+      public VectorSource asVectorSource() {
+        return this;
+      }
+
+      @Override
+      public Iterable<Value> getValues(SortedSet<VariableEntity> entities) {
+        vectorReads++;
+        List<Value> values = Lists.newArrayList();
+        for(VariableEntity entity : entities) {
+          values.add(getWrapped().getValue(getValueSet(entity)));
+        }
+        return values;
+      }
+    }
+  }
+}
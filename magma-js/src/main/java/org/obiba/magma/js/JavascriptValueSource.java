@@ -27,6 +27,7 @@ import org.obiba.magma.ValueTable;
 import org.obiba.magma.ValueType;
 import org.obiba.magma.VariableEntity;
 import org.obiba.magma.VectorSource;
+import org.obiba.magma.metrics.Metrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -88,7 +89,9 @@ public class JavascriptValueSource implements ValueSource, VectorSource, Initial
   public Value getValue(ValueSet valueSet) {
     initialiseIfNot();
     Stopwatch stopwatch = Stopwatch.createStarted();
+    Metrics.Timer timer = Metrics.start(Metrics.SCRIPT_EVALUATION, Metrics.VALUE_SET);
     Value value = (Value) ContextFactory.getGlobal().call(new ValueSetEvaluationContextAction(valueSet));
+    timer.stop();
     log.trace("ValueSet evaluation of {} in {}", getScriptName(), stopwatch);
     return value;
   }
@@ -308,11 +311,13 @@ public class JavascriptValueSource implements ValueSource, VectorSource, Initial
       @Override
       public Value apply(VariableEntity variableEntity) {
         Stopwatch stopwatch = Stopwatch.createStarted();
+        Metrics.Timer timer = Metrics.start(Metrics.SCRIPT_EVALUATION, Metrics.VECTOR);
         try {
           initContext(variableEntity);
           return asValue(compiledScript.exec(context, scope));
         } finally {
           cleanContext();
+          timer.stop();
           log.trace("Finish {} eval in {}", variableEntity, stopwatch);
         }
       }
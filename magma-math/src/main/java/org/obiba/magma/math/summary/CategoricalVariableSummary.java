@@ -23,6 +23,7 @@ import org.obiba.magma.Value;
 import org.obiba.magma.ValueSource;
 import org.obiba.magma.ValueTable;
 import org.obiba.magma.Variable;
+import org.obiba.magma.metrics.Metrics;
 import org.obiba.magma.type.BooleanType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -179,15 +180,21 @@ public class CategoricalVariableSummary extends AbstractVariableSummary implemen
       return this;
     }
 
-    private void add(@NotNull ValueTable table, @NotNull ValueSource variableValueSource) {
+    private void add(@NotNull final ValueTable table, @NotNull final ValueSource variableValueSource) {
       //noinspection ConstantConditions
       Preconditions.checkArgument(table != null, "table cannot be null");
       //noinspection ConstantConditions
       Preconditions.checkArgument(variableValueSource != null, "variableValueSource cannot be null");
       if(!variableValueSource.supportVectorSource()) return;
-      for(Value value : variableValueSource.asVectorSource().getValues(summary.getFilteredVariableEntities(table))) {
-        add(value, categoryNames());
-      }
+      Metrics.time(Metrics.SUMMARY, "categorical", new Runnable() {
+        @Override
+        public void run() {
+          for(Value value : variableValueSource.asVectorSource()
+              .getValues(summary.getFilteredVariableEntities(table))) {
+            add(value, categoryNames());
+          }
+        }
+      });
     }
 
     private void add(@NotNull Value value, List<String> categoryNames) {
@@ -20,6 +20,7 @@ import org.obiba.magma.Value;
 import org.obiba.magma.ValueSource;
 import org.obiba.magma.ValueTable;
 import org.obiba.magma.Variable;
+import org.obiba.magma.metrics.Metrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -147,16 +148,22 @@ public class DefaultVariableSummary extends AbstractVariableSummary implements S
       return this;
     }
 
-    private void add(@NotNull ValueTable table, @NotNull ValueSource variableValueSource) {
+    private void add(@NotNull final ValueTable table, @NotNull final ValueSource variableValueSource) {
       //noinspection ConstantConditions
       Preconditions.checkArgument(table != null, "table cannot be null");
       //noinspection ConstantConditions
       Preconditions.checkArgument(variableValueSource != null, "variableValueSource cannot be null");
 
       if(!variableValueSource.supportVectorSource()) return;
-      for(Value value : variableValueSource.asVectorSource().getValues(summary.getFilteredVariableEntities(table))) {
-        add(value);
-      }
+      Metrics.time(Metrics.SUMMARY, "default", new Runnable() {
+        @Override
+        public void run() {
+          for(Value value : variableValueSource.asVectorSource()
+              .getValues(summary.getFilteredVariableEntities(table))) {
+            add(value);
+          }
+        }
+      });
     }
 
     private void add(@NotNull Value value) {
@@ -22,6 +22,7 @@ import org.obiba.magma.Value;
 import org.obiba.magma.ValueSource;
 import org.obiba.magma.ValueTable;
 import org.obiba.magma.Variable;
+import org.obiba.magma.metrics.Metrics;
 import org.obiba.magma.type.LineStringType;
 import org.obiba.magma.type.PointType;
 import org.obiba.magma.type.PolygonType;
@@ -164,16 +165,22 @@ public class GeoVariableSummary extends AbstractVariableSummary implements Seria
       return this;
     }
 
-    private void add(@NotNull ValueTable table, @NotNull ValueSource variableValueSource) {
+    private void add(@NotNull final ValueTable table, @NotNull final ValueSource variableValueSource) {
       //noinspection ConstantConditions
       Preconditions.checkArgument(table != null, "table cannot be null");
       //noinspection ConstantConditions
       Preconditions.checkArgument(variableValueSource != null, "variableValueSource cannot be null");
 
       if(!variableValueSource.supportVectorSource()) return;
-      for(Value value : variableValueSource.asVectorSource().getValues(summary.getFilteredVariableEntities(table))) {
-        add(value);
-      }
+      Metrics.time(Metrics.SUMMARY, "geo", new Runnable() {
+        @Override
+        public void run() {
+          for(Value value : variableValueSource.asVectorSource()
+              .getValues(summary.getFilteredVariableEntities(table))) {
+            add(value);
+          }
+        }
+      });
     }
 
     private void add(@NotNull Value value) {
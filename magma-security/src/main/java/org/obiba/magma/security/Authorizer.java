@@ -7,6 +7,14 @@ public interface Authorizer extends Serializable {
 
   boolean isPermitted(String permission);
 
+  /**
+   * Checks several permissions at once.
+   *
+   * @param permissions
+   * @return the decisions, in the order of the permissions
+   */
+  boolean[] isPermitted(String... permissions);
+
   <V> V silentSudo(Callable<V> sudo);
 
   <V> V sudo(Callable<V> sudo) throws Exception;
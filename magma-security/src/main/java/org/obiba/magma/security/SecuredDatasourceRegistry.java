@@ -1,5 +1,6 @@
 package org.obiba.magma.security;
 
+import java.util.Collection;
 import java.util.Set;
 
 import javax.annotation.Nullable;
@@ -48,6 +49,11 @@ public class SecuredDatasourceRegistry implements DatasourceRegistry {
     return delegate.addDatasource(factory);
   }
 
+  @Override
+  public Set<Datasource> addDatasources(Collection<? extends Datasource> datasources) {
+    return delegate.addDatasources(datasources);
+  }
+
   @Override
   public void addDecorator(Decorator<Datasource> decorator) {
     delegate.addDecorator(decorator);
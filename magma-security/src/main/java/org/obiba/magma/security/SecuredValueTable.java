@@ -1,5 +1,7 @@
 package org.obiba.magma.security;
 
+import java.util.List;
+
 import javax.validation.constraints.NotNull;
 
 import org.obiba.magma.Datasource;
@@ -10,8 +12,7 @@ import org.obiba.magma.security.permissions.Permissions;
 import org.obiba.magma.security.permissions.Permissions.ValueTablePermissionBuilder;
 import org.obiba.magma.support.AbstractValueTableWrapper;
 
-import com.google.common.base.Predicate;
-import com.google.common.collect.Iterables;
+import com.google.common.collect.ImmutableList;
 
 public class SecuredValueTable extends AbstractValueTableWrapper {
 
@@ -53,14 +54,18 @@ public class SecuredValueTable extends AbstractValueTableWrapper {
 
   @Override
   public Iterable<Variable> getVariables() {
-    return Iterables.filter(super.getVariables(), new Predicate<Variable>() {
-
-      @Override
-      public boolean apply(Variable input) {
-        return isReadable(input);
-      }
-
-    });
+    List<Variable> variables = ImmutableList.copyOf(super.getVariables());
+    ValueTablePermissionBuilder builder = builder();
+    String[] permissions = new String[variables.size()];
+    for(int i = 0; i < permissions.length; i++) {
+      permissions[i] = builder.variable(variables.get(i)).read().build();
+    }
+    boolean[] readable = authz.isPermitted(permissions);
+    ImmutableList.Builder<Variable> readableVariables = ImmutableList.builder();
+    for(int i = 0; i < readable.length; i++) {
+      if(readable[i]) readableVariables.add(variables.get(i));
+    }
+    return readableVariables.build();
   }
 
   @Override
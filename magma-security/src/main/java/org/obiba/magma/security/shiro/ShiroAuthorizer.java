@@ -1,31 +1,211 @@
 package org.obiba.magma.security.shiro;
 
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nullable;
 
 import org.apache.shiro.SecurityUtils;
 import org.apache.shiro.authc.AuthenticationException;
 import org.apache.shiro.session.Session;
+import org.apache.shiro.subject.PrincipalCollection;
 import org.apache.shiro.subject.Subject;
+import org.obiba.magma.metrics.Metrics;
 import org.obiba.magma.security.Authorizer;
 import org.obiba.shiro.authc.SudoAuthToken;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Lists;
+
+/**
+ * Checks the permissions of the current Shiro subject.
+ * <p/>
+ * Permission decisions can be cached per subject (see {@link #setDecisionTimeout(long, TimeUnit)}), so that listing the
+ * variables of a table does not evaluate the subject's permissions again on every request. A modified permission then
+ * applies once the cached decisions expire, or immediately when the application calls one of the {@code invalidate}
+ * methods. Decisions are not cached by default.
+ */
 public class ShiroAuthorizer implements Authorizer {
 
   private static final long serialVersionUID = -3683635184800703377L;
 
   private static final Logger log = LoggerFactory.getLogger(ShiroAuthorizer.class);
 
+  /**
+   * Name of the cache of permission decisions, in the metrics.
+   */
+  private static final String DECISIONS_CACHE = "magma-permissions";
+
+  private long decisionTimeoutMillis;
+
+  @VisibleForTesting
+  @Nullable
+  transient Ticker ticker = Ticker.systemTicker();
+
+  /**
+   * Permission decisions by subject principals, then by permission.
+   */
+  @Nullable
+  private transient volatile Cache<PrincipalCollection, ConcurrentMap<String, Boolean>> decisions;
+
   @Override
   public boolean isPermitted(String permission) {
-    boolean p = SecurityUtils.getSubject().isPermitted(permission);
-    log.debug(String.format("isPermitted(%s, %s)==%s", SecurityUtils.getSubject().getPrincipal(), permission, p));
-    Session session = SecurityUtils.getSubject().getSession(false);
-    if(session != null) session.touch();
+    Subject subject = SecurityUtils.getSubject();
+    Map<String, Boolean> subjectDecisions = getDecisions(subject);
+    Boolean p = subjectDecisions == null ? null : subjectDecisions.get(permission);
+    if(p == null) {
+      p = subject.isPermitted(permission);
+      if(subjectDecisions != null) {
+        subjectDecisions.put(permission, p);
+        Metrics.increment(Metrics.CACHE_MISS, DECISIONS_CACHE);
+      }
+    } else {
+      Metrics.increment(Metrics.CACHE_HIT, DECISIONS_CACHE);
+    }
+    if(log.isDebugEnabled()) log.debug(String.format("isPermitted(%s, %s)==%s", subject.getPrincipal(), permission, p));
+    touch(subject);
     return p;
   }
 
+  @Override
+  public boolean[] isPermitted(String... permissions) {
+    Subject subject = SecurityUtils.getSubject();
+    Map<String, Boolean> subjectDecisions = getDecisions(subject);
+    boolean[] permitted = new boolean[permissions.length];
+    List<Integer> undecided = Lists.newArrayList();
+    for(int i = 0; i < permissions.length; i++) {
+      Boolean p = subjectDecisions == null ? null : subjectDecisions.get(permissions[i]);
+      if(p == null) {
+        undecided.add(i);
+      } else {
+        permitted[i] = p;
+      }
+    }
+    if(subjectDecisions != null) {
+      Metrics.increment(Metrics.CACHE_HIT, DECISIONS_CACHE, permissions.length - undecided.size());
+      Metrics.increment(Metrics.CACHE_MISS, DECISIONS_CACHE, undecided.size());
+    }
+    if(!undecided.isEmpty()) {
+      String[] undecidedPermissions = new String[undecided.size()];
+      for(int i = 0; i < undecidedPermissions.length; i++) {
+        undecidedPermissions[i] = permissions[undecided.get(i)];
+      }
+      boolean[] decided = subject.isPermitted(undecidedPermissions);
+      for(int i = 0; i < decided.length; i++) {
+        permitted[undecided.get(i)] = decided[i];
+        if(subjectDecisions != null) subjectDecisions.put(undecidedPermissions[i], decided[i]);
+      }
+    }
+    if(log.isDebugEnabled()) {
+      log.debug(String.format("isPermitted(%s, %d permissions, %d evaluated)", subject.getPrincipal(),
+          permissions.length, undecided.size()));
+    }
+    touch(subject);
+    return permitted;
+  }
+
+  /**
+   * Sets the time after which a cached permission decision is evaluated again. Zero (the default) disables the cache
+   * of decisions.
+   *
+   * @param duration
+   * @param unit
+   */
+  public void setDecisionTimeout(long duration, TimeUnit unit) {
+    if(duration < 0) throw new IllegalArgumentException("decision timeout cannot be negative");
+    long timeoutMillis = unit.toMillis(duration);
+    if(duration > 0 && timeoutMillis == 0) {
+      throw new IllegalArgumentException("decision timeout must be zero or at least one millisecond");
+    }
+    decisionTimeoutMillis = timeoutMillis;
+    decisions = null;
+  }
+
+  /**
+   * Forgets all the cached permission decisions, to be called when permissions are modified.
+   */
+  public void invalidate() {
+    Cache<PrincipalCollection, ConcurrentMap<String, Boolean>> cache = decisions;
+    if(cache != null) cache.invalidateAll();
+  }
+
+  /**
+   * Forgets the cached permission decisions of a subject, to be called when its permissions are modified.
+   *
+   * @param principals
+   */
+  public void invalidate(PrincipalCollection principals) {
+    Cache<PrincipalCollection, ConcurrentMap<String, Boolean>> cache = decisions;
+    if(cache != null) cache.invalidate(principals);
+  }
+
+  /**
+   * Forgets the cached decisions of all subjects on the permissions that start with the specified prefix, for instance
+   * those of a table (and its variables) when the table is renamed or its permissions are modified.
+   *
+   * @param permissionPrefix
+   */
+  public void invalidate(String permissionPrefix) {
+    Cache<PrincipalCollection, ConcurrentMap<String, Boolean>> cache = decisions;
+    if(cache == null) return;
+    for(ConcurrentMap<String, Boolean> subjectDecisions : cache.asMap().values()) {
+      for(Iterator<String> it = subjectDecisions.keySet().iterator(); it.hasNext(); ) {
+        if(it.next().startsWith(permissionPrefix)) it.remove();
+      }
+    }
+  }
+
+  /**
+   * Returns the cached decisions of a subject, or null when they are not cached.
+   */
+  @Nullable
+  private Map<String, Boolean> getDecisions(Subject subject) {
+    PrincipalCollection principals = subject.getPrincipals();
+    if(decisionTimeoutMillis <= 0 || principals == null || principals.isEmpty()) return null;
+    try {
+      return getDecisionsCache().get(principals, new Callable<ConcurrentMap<String, Boolean>>() {
+        @Override
+        public ConcurrentMap<String, Boolean> call() throws Exception {
+          return new ConcurrentHashMap<>();
+        }
+      });
+    } catch(ExecutionException e) {
+      throw new RuntimeException(e.getCause());
+    }
+  }
+
+  private Cache<PrincipalCollection, ConcurrentMap<String, Boolean>> getDecisionsCache() {
+    Cache<PrincipalCollection, ConcurrentMap<String, Boolean>> cache = decisions;
+    if(cache == null) {
+      synchronized(this) {
+        cache = decisions;
+        if(cache == null) {
+          decisions = cache = CacheBuilder.newBuilder() //
+              .expireAfterWrite(decisionTimeoutMillis, TimeUnit.MILLISECONDS) //
+              .ticker(ticker == null ? Ticker.systemTicker() : ticker) //
+              .<PrincipalCollection, ConcurrentMap<String, Boolean>>build();
+        }
+      }
+    }
+    return cache;
+  }
+
+  private void touch(Subject subject) {
+    Session session = subject.getSession(false);
+    if(session != null) session.touch();
+  }
+
   @Override
   public <V> V silentSudo(Callable<V> call) {
     try {
@@ -0,0 +1,211 @@
+package org.obiba.magma.security.shiro;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.shiro.subject.PrincipalCollection;
+import org.apache.shiro.subject.SimplePrincipalCollection;
+import org.apache.shiro.subject.Subject;
+import org.apache.shiro.subject.support.SubjectThreadState;
+import org.apache.shiro.util.ThreadState;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import com.google.common.base.Ticker;
+import com.google.common.collect.Sets;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.anyVararg;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ShiroAuthorizerTest {
+
+  private static final String TABLE = "rest:/datasource/ds/table/t1:GET";
+
+  private static final String VARIABLE = "rest:/datasource/ds/table/t1/variable/v1:GET";
+
+  private static final String OTHER_TABLE = "rest:/datasource/ds/table/t2:GET";
+
+  private final Set<String> granted = Sets.newConcurrentHashSet();
+
+  private final ManualTicker ticker = new ManualTicker();
+
+  private final PrincipalCollection principals = new SimplePrincipalCollection("user", "realm");
+
+  private Subject subject;
+
+  private ThreadState threadState;
+
+  private ShiroAuthorizer authorizer;
+
+  @Before
+  public void before() {
+    subject = mock(Subject.class);
+    when(subject.getPrincipals()).thenReturn(principals);
+    when(subject.getPrincipal()).thenReturn("user");
+    when(subject.isPermitted(anyString())).thenAnswer(new Answer<Boolean>() {
+      @Override
+      public Boolean answer(InvocationOnMock invocation) throws Throwable {
+        return granted.contains(invocation.getArguments()[0]);
+      }
+    });
+    when(subject.isPermitted((String[]) anyVararg())).thenAnswer(new Answer<boolean[]>() {
+      @Override
+      public boolean[] answer(InvocationOnMock invocation) throws Throwable {
+        Object[] permissions = invocation.getArguments();
+        boolean[] permitted = new boolean[permissions.length];
+        for(int i = 0; i < permissions.length; i++) {
+          permitted[i] = granted.contains(permissions[i]);
+        }
+        return permitted;
+      }
+    });
+    threadState = new SubjectThreadState(subject);
+    threadState.bind();
+
+    authorizer = new ShiroAuthorizer();
+    authorizer.ticker = ticker;
+    authorizer.setDecisionTimeout(1, TimeUnit.MINUTES);
+  }
+
+  @After
+  public void after() {
+    threadState.clear();
+  }
+
+  @Test
+  public void test_decisions_not_cached_by_default() {
+    ShiroAuthorizer defaultAuthorizer = new ShiroAuthorizer();
+    granted.add(TABLE);
+    assertThat(defaultAuthorizer.isPermitted(TABLE)).isTrue();
+
+    granted.remove(TABLE);
+    assertThat(defaultAuthorizer.isPermitted(TABLE)).isFalse();
+    verify(subject, times(2)).isPermitted(TABLE);
+  }
+
+  @Test
+  public void test_grant_cached() {
+    granted.add(TABLE);
+    assertThat(authorizer.isPermitted(TABLE)).isTrue();
+
+    granted.remove(TABLE);
+    assertThat(authorizer.isPermitted(TABLE)).isTrue();
+    verify(subject, times(1)).isPermitted(TABLE);
+  }
+
+  @Test
+  public void test_deny_cached() {
+    assertThat(authorizer.isPermitted(TABLE)).isFalse();
+
+    granted.add(TABLE);
+    assertThat(authorizer.isPermitted(TABLE)).isFalse();
+    verify(subject, times(1)).isPermitted(TABLE);
+  }
+
+  @Test
+  public void test_decisions_expire() {
+    granted.add(TABLE);
+    assertThat(authorizer.isPermitted(TABLE)).isTrue();
+    granted.remove(TABLE);
+
+    ticker.advance(59, TimeUnit.SECONDS);
+    assertThat(authorizer.isPermitted(TABLE)).isTrue();
+    ticker.advance(1, TimeUnit.SECONDS);
+    assertThat(authorizer.isPermitted(TABLE)).isFalse();
+  }
+
+  @Test
+  public void test_invalidate_all() {
+    granted.add(TABLE);
+    authorizer.isPermitted(TABLE);
+    granted.remove(TABLE);
+
+    authorizer.invalidate();
+    assertThat(authorizer.isPermitted(TABLE)).isFalse();
+  }
+
+  @Test
+  public void test_invalidate_subject() {
+    granted.add(TABLE);
+    authorizer.isPermitted(TABLE);
+    granted.remove(TABLE);
+
+    authorizer.invalidate(new SimplePrincipalCollection("other", "realm"));
+    assertThat(authorizer.isPermitted(TABLE)).isTrue();
+    authorizer.invalidate(principals);
+    assertThat(authorizer.isPermitted(TABLE)).isFalse();
+  }
+
+  @Test
+  public void test_invalidate_permission_prefix() {
+    granted.add(TABLE);
+    granted.add(VARIABLE);
+    granted.add(OTHER_TABLE);
+    authorizer.isPermitted(TABLE, VARIABLE, OTHER_TABLE);
+    granted.clear();
+
+    authorizer.invalidate("rest:/datasource/ds/table/t1");
+    assertThat(authorizer.isPermitted(TABLE)).isFalse();
+    assertThat(authorizer.isPermitted(VARIABLE)).isFalse();
+    assertThat(authorizer.isPermitted(OTHER_TABLE)).isTrue();
+  }
+
+  @Test
+  public void test_bulk_decisions_match_single_decisions() {
+    granted.add(TABLE);
+    granted.add(OTHER_TABLE);
+    String[] permissions = { TABLE, VARIABLE, OTHER_TABLE, VARIABLE };
+    // one decision is cached before the bulk check
+    assertThat(authorizer.isPermitted(OTHER_TABLE)).isTrue();
+
+    boolean[] permitted = authorizer.isPermitted(permissions);
+
+    ShiroAuthorizer uncached = new ShiroAuthorizer();
+    assertThat(permitted).hasSize(permissions.length);
+    for(int i = 0; i < permissions.length; i++) {
+      assertThat(permitted[i]).isEqualTo(uncached.isPermitted(permissions[i]));
+      assertThat(permitted[i]).isEqualTo(authorizer.isPermitted(permissions[i]));
+    }
+    // only the undecided permissions were evaluated, at once
+    verify(subject).isPermitted(TABLE, VARIABLE, VARIABLE);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void test_sub_millisecond_timeout_rejected() {
+    authorizer.setDecisionTimeout(500, TimeUnit.MICROSECONDS);
+  }
+
+  @Test
+  public void test_millisecond_timeout() {
+    authorizer.setDecisionTimeout(500, TimeUnit.MILLISECONDS);
+    granted.add(TABLE);
+    authorizer.isPermitted(TABLE);
+    granted.remove(TABLE);
+
+    assertThat(authorizer.isPermitted(TABLE)).isTrue();
+    ticker.advance(500, TimeUnit.MILLISECONDS);
+    assertThat(authorizer.isPermitted(TABLE)).isFalse();
+  }
+
+  private static class ManualTicker extends Ticker {
+
+    private long nanos;
+
+    @Override
+    public long read() {
+      return nanos;
+    }
+
+    private void advance(long duration, TimeUnit unit) {
+      nanos += unit.toNanos(duration);
+    }
+  }
+}
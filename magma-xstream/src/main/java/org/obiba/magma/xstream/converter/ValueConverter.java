@@ -1,5 +1,8 @@
 package org.obiba.magma.xstream.converter;
 
+import org.obiba.magma.BooleanValue;
+import org.obiba.magma.DecimalValue;
+import org.obiba.magma.IntegerValue;
 import org.obiba.magma.Value;
 import org.obiba.magma.ValueType;
 
@@ -18,7 +21,8 @@ public class ValueConverter implements Converter {
   @Override
   @SuppressWarnings("rawtypes")
   public boolean canConvert(Class type) {
-    return Value.class.equals(type);
+    return Value.class.equals(type) || BooleanValue.class.equals(type) || DecimalValue.class.equals(type) ||
+        IntegerValue.class.equals(type);
   }
 
   @Override